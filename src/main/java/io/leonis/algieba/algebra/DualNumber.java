@@ -0,0 +1,35 @@
+package io.leonis.algieba.algebra;
+
+import lombok.Value;
+
+/**
+ * The Class DualNumber.
+ *
+ * This class represents a (multidimensional) <a href="https://en.wikipedia.org/wiki/Dual_number">dual
+ * number</a>, ie. a real value along with its partial derivatives with respect to a set of
+ * variables. Evaluating a function over dual numbers with {@link DualRing} yields its value along
+ * with its exact derivatives, which is known as forward-mode automatic differentiation.
+ *
+ * A dual number without derivatives is a constant, ie. all of its derivatives are zero.
+ *
+ * @author agent
+ */
+@Value
+public class DualNumber {
+  /**
+   * The real part of the dual number.
+   */
+  private final double value;
+  /**
+   * The partial derivatives of the dual number, with respect to every variable.
+   */
+  private final double[] derivatives;
+
+  /**
+   * @param index The index of the variable.
+   * @return The partial derivative with respect to the variable at the supplied index.
+   */
+  public double getDerivative(final int index) {
+    return index < this.derivatives.length ? this.derivatives[index] : 0d;
+  }
+}
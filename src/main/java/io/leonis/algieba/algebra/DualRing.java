@@ -0,0 +1,183 @@
+package io.leonis.algieba.algebra;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * The Class DualRing.
+ *
+ * This class represents the {@link Ring} over {@link DualNumber}. Besides the ring operators, it
+ * contains the elementary functions which are commonly found in motion models, such that these
+ * models can be differentiated exactly by evaluating them once over dual numbers.
+ *
+ * @author agent
+ */
+public class DualRing implements Ring<DualNumber> {
+
+  /**
+   * @param value The value of the constant.
+   * @return A {@link DualNumber} representing a constant.
+   */
+  public static DualNumber constant(final double value) {
+    return new DualNumber(value, new double[0]);
+  }
+
+  /**
+   * @param value     The value of the variable.
+   * @param index     The index of the variable.
+   * @param variables The amount of variables.
+   * @return A {@link DualNumber} representing the variable at the supplied index, ie. with a
+   *     derivative of one with respect to itself and zero with respect to all other variables.
+   */
+  public static DualNumber variable(final double value, final int index, final int variables) {
+    final double[] derivatives = new double[variables];
+    derivatives[index] = 1d;
+    return new DualNumber(value, derivatives);
+  }
+
+  /**
+   * @param values The values of the variables.
+   * @return An array of {@link DualNumber} representing a vector of variables.
+   */
+  public static DualNumber[] variables(final double... values) {
+    final DualNumber[] variables = new DualNumber[values.length];
+    for (int index = 0; index < values.length; index++) {
+      variables[index] = DualRing.variable(values[index], index, values.length);
+    }
+    return variables;
+  }
+
+  @Override
+  public DualNumber add(final DualNumber firstElement, final DualNumber secondElement) {
+    final double[] derivatives = new double[Math.max(
+        firstElement.getDerivatives().length, secondElement.getDerivatives().length)];
+    for (int index = 0; index < derivatives.length; index++) {
+      derivatives[index] = firstElement.getDerivative(index) + secondElement.getDerivative(index);
+    }
+    return new DualNumber(firstElement.getValue() + secondElement.getValue(), derivatives);
+  }
+
+  @Override
+  public DualNumber getAdditiveInverse(final DualNumber fieldElement) {
+    return this.scale(fieldElement, -1d);
+  }
+
+  @Override
+  public DualNumber multiply(final DualNumber firstElement, final DualNumber secondElement) {
+    final double[] derivatives = new double[Math.max(
+        firstElement.getDerivatives().length, secondElement.getDerivatives().length)];
+    for (int index = 0; index < derivatives.length; index++) {
+      derivatives[index] = firstElement.getDerivative(index) * secondElement.getValue()
+          + firstElement.getValue() * secondElement.getDerivative(index);
+    }
+    return new DualNumber(firstElement.getValue() * secondElement.getValue(), derivatives);
+  }
+
+  @Override
+  public DualNumber getMultiplicativeInverse(final DualNumber fieldElement)
+      throws ArithmeticException {
+    if (fieldElement.getValue() == 0) {
+      throw new ArithmeticException("Division by zero!");
+    }
+    final double inverse = 1d / fieldElement.getValue();
+    return this.chain(fieldElement, inverse, -inverse * inverse);
+  }
+
+  /**
+   * @param fieldElement The element to scale.
+   * @param factor       The real factor to scale by.
+   * @return The product of the supplied element and factor.
+   */
+  public DualNumber scale(final DualNumber fieldElement, final double factor) {
+    return this.chain(fieldElement, fieldElement.getValue() * factor, factor);
+  }
+
+  /**
+   * @param fieldElement The element to compute the sine of.
+   * @return The sine of the supplied element.
+   */
+  public DualNumber sin(final DualNumber fieldElement) {
+    return this.apply(fieldElement, Math::sin, Math::cos);
+  }
+
+  /**
+   * @param fieldElement The element to compute the cosine of.
+   * @return The cosine of the supplied element.
+   */
+  public DualNumber cos(final DualNumber fieldElement) {
+    return this.apply(fieldElement, Math::cos, value -> -Math.sin(value));
+  }
+
+  /**
+   * @param fieldElement The element to compute the exponential of.
+   * @return The exponential of the supplied element.
+   */
+  public DualNumber exp(final DualNumber fieldElement) {
+    final double exponential = Math.exp(fieldElement.getValue());
+    return this.chain(fieldElement, exponential, exponential);
+  }
+
+  /**
+   * @param fieldElement The element to compute the natural logarithm of.
+   * @return The natural logarithm of the supplied element.
+   */
+  public DualNumber log(final DualNumber fieldElement) {
+    return this.apply(fieldElement, Math::log, value -> 1d / value);
+  }
+
+  /**
+   * @param fieldElement The element to compute the square root of.
+   * @return The square root of the supplied element.
+   */
+  public DualNumber sqrt(final DualNumber fieldElement) {
+    final double root = Math.sqrt(fieldElement.getValue());
+    return this.chain(fieldElement, root, 0.5d / root);
+  }
+
+  /**
+   * @param fieldElement The base.
+   * @param exponent     The real exponent.
+   * @return The supplied element raised to the supplied exponent.
+   */
+  public DualNumber pow(final DualNumber fieldElement, final double exponent) {
+    return this.apply(fieldElement,
+        value -> Math.pow(value, exponent),
+        value -> exponent * Math.pow(value, exponent - 1d));
+  }
+
+  /**
+   * Applies a real function to a dual number by the chain rule.
+   *
+   * @param fieldElement The element to apply the function to.
+   * @param function     The function.
+   * @param derivative   The derivative of the function.
+   * @return The function applied to the supplied element.
+   */
+  public DualNumber apply(
+      final DualNumber fieldElement,
+      final DoubleUnaryOperator function,
+      final DoubleUnaryOperator derivative
+  ) {
+    return this.chain(fieldElement,
+        function.applyAsDouble(fieldElement.getValue()),
+        derivative.applyAsDouble(fieldElement.getValue()));
+  }
+
+  /**
+   * @param fieldElement The element to apply the function to.
+   * @param value        The value of the function at the value of the element.
+   * @param derivative   The derivative of the function at the value of the element.
+   * @return A {@link DualNumber} with the supplied value, and the derivatives of the supplied
+   *     element scaled by the supplied derivative.
+   */
+  private DualNumber chain(
+      final DualNumber fieldElement,
+      final double value,
+      final double derivative
+  ) {
+    final double[] derivatives = new double[fieldElement.getDerivatives().length];
+    for (int index = 0; index < derivatives.length; index++) {
+      derivatives[index] = fieldElement.getDerivative(index) * derivative;
+    }
+    return new DualNumber(value, derivatives);
+  }
+}
@@ -0,0 +1,293 @@
+package io.leonis.algieba.algebra;
+
+import lombok.experimental.UtilityClass;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * The Class Matrices.
+ *
+ * This class contains utility functions for operating on small dense matrices which are stored as
+ * row-major primitive arrays. None of the functions allocate, the result is always written into a
+ * supplied array, which makes them suitable for filters which run at a high frequency.
+ *
+ * @author agent
+ */
+@UtilityClass
+public class Matrices {
+
+  /**
+   * Computes the product of two matrices.
+   *
+   * @param left    The left matrix (rows by inner).
+   * @param right   The right matrix (inner by columns).
+   * @param result  The matrix to write the product to (rows by columns), must not be one of the
+   *                operands.
+   * @param rows    The amount of rows in the left matrix.
+   * @param inner   The amount of columns in the left matrix.
+   * @param columns The amount of columns in the right matrix.
+   */
+  public static void multiply(
+      final double[] left,
+      final double[] right,
+      final double[] result,
+      final int rows,
+      final int inner,
+      final int columns
+  ) {
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        double sum = 0d;
+        for (int index = 0; index < inner; index++) {
+          sum += left[row * inner + index] * right[index * columns + column];
+        }
+        result[row * columns + column] = sum;
+      }
+    }
+  }
+
+  /**
+   * Computes the product of a matrix and the transpose of another matrix.
+   *
+   * @param left    The left matrix (rows by inner).
+   * @param right   The right matrix which is transposed before multiplication (columns by inner).
+   * @param result  The matrix to write the product to (rows by columns), must not be one of the
+   *                operands.
+   * @param rows    The amount of rows in the left matrix.
+   * @param inner   The amount of columns in both matrices.
+   * @param columns The amount of rows in the right matrix.
+   */
+  public static void multiplyTransposed(
+      final double[] left,
+      final double[] right,
+      final double[] result,
+      final int rows,
+      final int inner,
+      final int columns
+  ) {
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        double sum = 0d;
+        for (int index = 0; index < inner; index++) {
+          sum += left[row * inner + index] * right[column * inner + index];
+        }
+        result[row * columns + column] = sum;
+      }
+    }
+  }
+
+  /**
+   * Computes the product of a matrix and a vector.
+   *
+   * @param matrix  The matrix (rows by columns).
+   * @param vector  The vector (columns).
+   * @param result  The vector to write the product to (rows), must not be the supplied vector.
+   * @param rows    The amount of rows in the matrix.
+   * @param columns The amount of columns in the matrix.
+   */
+  public static void multiplyVector(
+      final double[] matrix,
+      final double[] vector,
+      final double[] result,
+      final int rows,
+      final int columns
+  ) {
+    for (int row = 0; row < rows; row++) {
+      double sum = 0d;
+      for (int column = 0; column < columns; column++) {
+        sum += matrix[row * columns + column] * vector[column];
+      }
+      result[row] = sum;
+    }
+  }
+
+  /**
+   * Overwrites the supplied square matrix with the mean of itself and its transpose. This is used
+   * to remove the asymmetry which rounding errors introduce in covariance matrices.
+   *
+   * @param matrix    The square matrix to symmetrize.
+   * @param dimension The amount of rows (and columns) of the matrix.
+   */
+  public static void symmetrize(final double[] matrix, final int dimension) {
+    for (int row = 0; row < dimension; row++) {
+      for (int column = row + 1; column < dimension; column++) {
+        final double mean =
+            (matrix[row * dimension + column] + matrix[column * dimension + row]) / 2d;
+        matrix[row * dimension + column] = mean;
+        matrix[column * dimension + row] = mean;
+      }
+    }
+  }
+
+  /**
+   * Computes the <a href="https://en.wikipedia.org/wiki/Cholesky_decomposition">Cholesky
+   * decomposition</a> of a symmetric positive-definite matrix in place. After decomposition the
+   * lower triangle of the supplied matrix contains the factor L, such that L * L^T equals the
+   * original matrix. The strictly upper triangle is zeroed.
+   *
+   * @param matrix    The symmetric positive-definite matrix to decompose.
+   * @param dimension The amount of rows (and columns) of the matrix.
+   * @return True if the decomposition succeeded, false if the matrix is not positive-definite.
+   */
+  public static boolean decomposeCholesky(final double[] matrix, final int dimension) {
+    for (int column = 0; column < dimension; column++) {
+      double diagonal = matrix[column * dimension + column];
+      for (int index = 0; index < column; index++) {
+        diagonal -= matrix[column * dimension + index] * matrix[column * dimension + index];
+      }
+      if (!(diagonal > 0d)) {
+        return false;
+      }
+      diagonal = Math.sqrt(diagonal);
+      matrix[column * dimension + column] = diagonal;
+      for (int row = column + 1; row < dimension; row++) {
+        double value = matrix[row * dimension + column];
+        for (int index = 0; index < column; index++) {
+          value -= matrix[row * dimension + index] * matrix[column * dimension + index];
+        }
+        matrix[row * dimension + column] = value / diagonal;
+        matrix[column * dimension + row] = 0d;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Solves A * X = B in place, where A is supplied by its Cholesky factor as computed by {@link
+   * #decomposeCholesky(double[], int)}. No inverse is formed.
+   *
+   * @param factor    The lower triangular Cholesky factor of A.
+   * @param target    The right-hand side B (dimension by columns), which is overwritten with X.
+   * @param dimension The amount of rows (and columns) of A.
+   * @param columns   The amount of columns of B.
+   */
+  public static void solveCholesky(
+      final double[] factor,
+      final double[] target,
+      final int dimension,
+      final int columns
+  ) {
+    for (int column = 0; column < columns; column++) {
+      // forward substitution: L * Y = B
+      for (int row = 0; row < dimension; row++) {
+        double value = target[row * columns + column];
+        for (int index = 0; index < row; index++) {
+          value -= factor[row * dimension + index] * target[index * columns + column];
+        }
+        target[row * columns + column] = value / factor[row * dimension + row];
+      }
+      // backward substitution: L^T * X = Y
+      for (int row = dimension - 1; row >= 0; row--) {
+        double value = target[row * columns + column];
+        for (int index = row + 1; index < dimension; index++) {
+          value -= factor[index * dimension + row] * target[index * columns + column];
+        }
+        target[row * columns + column] = value / factor[row * dimension + row];
+      }
+    }
+  }
+
+  /**
+   * Computes the <a href="https://en.wikipedia.org/wiki/Matrix_exponential">matrix
+   * exponential</a> of a square matrix by scaling and squaring, ie. the matrix is scaled by a
+   * power of two until its norm is below one half, after which the exponential of the scaled
+   * matrix is computed from its Taylor series and squared back. Contrary to the other functions,
+   * this function allocates its intermediate results.
+   *
+   * @param matrix    The square matrix to exponentiate.
+   * @param result    The matrix to write the exponential to, must not be the supplied matrix.
+   * @param dimension The amount of rows (and columns) of the matrix.
+   */
+  public static void exponentiate(
+      final double[] matrix,
+      final double[] result,
+      final int dimension
+  ) {
+    final int size = dimension * dimension;
+    double norm = 0d;
+    for (int row = 0; row < dimension; row++) {
+      double sum = 0d;
+      for (int column = 0; column < dimension; column++) {
+        sum += Math.abs(matrix[row * dimension + column]);
+      }
+      norm = Math.max(norm, sum);
+    }
+    final int squarings = norm > 0.5d ? (int) Math.ceil(Math.log(norm / 0.5d) / Math.log(2d)) : 0;
+    final double scale = Math.pow(2d, -squarings);
+
+    // exp(A) = I + A + A^2 / 2! + ...
+    final double[] term = new double[size];
+    final double[] buffer = new double[size];
+    for (int index = 0; index < size; index++) {
+      result[index] = 0d;
+      term[index] = 0d;
+    }
+    for (int row = 0; row < dimension; row++) {
+      result[row * dimension + row] = 1d;
+      term[row * dimension + row] = 1d;
+    }
+    for (int order = 1; order <= 18; order++) {
+      Matrices.multiply(term, matrix, buffer, dimension, dimension, dimension);
+      double termNorm = 0d;
+      for (int index = 0; index < size; index++) {
+        term[index] = buffer[index] * scale / order;
+        result[index] += term[index];
+        termNorm = Math.max(termNorm, Math.abs(term[index]));
+      }
+      if (termNorm < 1e-17) {
+        break;
+      }
+    }
+
+    // exp(A) = exp(A / 2^s)^(2^s)
+    for (int squaring = 0; squaring < squarings; squaring++) {
+      Matrices.multiply(result, result, buffer, dimension, dimension, dimension);
+      System.arraycopy(buffer, 0, result, 0, size);
+    }
+  }
+
+  /**
+   * Copies the values of a two-dimensional {@link INDArray} into a row-major array.
+   *
+   * @param matrix The matrix to copy.
+   * @param result The array to write the values to, of length rows times columns.
+   * @return The supplied result array.
+   */
+  public static double[] copy(final INDArray matrix, final double[] result) {
+    final int columns = matrix.columns();
+    for (int row = 0; row < matrix.rows(); row++) {
+      for (int column = 0; column < columns; column++) {
+        result[row * columns + column] = matrix.getDouble(row, column);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @param matrix The matrix to copy.
+   * @return A row-major array containing the values of the supplied {@link INDArray}.
+   */
+  public static double[] toArray(final INDArray matrix) {
+    return Matrices.copy(matrix, new double[matrix.rows() * matrix.columns()]);
+  }
+
+  /**
+   * @param stacked The {@link INDArray} of any rank to flatten.
+   * @return The elements of the supplied {@link INDArray} in row-major order.
+   */
+  public static double[] flatten(final INDArray stacked) {
+    return stacked.dup('c').data().asDouble();
+  }
+
+  /**
+   * @param values  The values of the matrix in row-major order. The array is copied.
+   * @param rows    The amount of rows of the matrix.
+   * @param columns The amount of columns of the matrix.
+   * @return An {@link INDArray} containing the supplied values.
+   */
+  public static INDArray toMatrix(final double[] values, final int rows, final int columns) {
+    final double[] copy = new double[rows * columns];
+    System.arraycopy(values, 0, copy, 0, copy.length);
+    return Nd4j.create(copy, new int[]{rows, columns});
+  }
+}
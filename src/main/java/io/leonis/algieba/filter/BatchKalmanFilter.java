@@ -0,0 +1,144 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * The Class BatchKalmanFilter.
+ *
+ * This class contains the functionality of a linear Kalman filter which filters many tracks, which
+ * share a single model, in one pass. The means and covariances of the tracks are stacked along the
+ * first dimension of rank-3 {@link INDArray}, ie. a mean of shape (tracks, state, 1) and a
+ * covariance of shape (tracks, state, state). The stacked arrays are copied out of (and into)
+ * nd4j once per call, after which all tracks are filtered by a {@link FixedKalmanFilter} in a
+ * single loop over primitive arrays.
+ *
+ * @author agent
+ */
+public class BatchKalmanFilter {
+
+  /**
+   * Computes the filtered {@link Distribution} of every track, where every track is projected
+   * using the supplied state-, and control-transition matrices, and is corrected using its
+   * measurement.
+   *
+   * @param stateTransitionMatrix       The state-transition matrix (state by state) shared by all
+   *                                    tracks.
+   * @param measurementTransitionMatrix The measurement-transition matrix (measurement by state)
+   *                                    shared by all tracks.
+   * @param controlTransitionMatrix     The control-transition matrix (state by control) shared by
+   *                                    all tracks.
+   * @param controlInputVectors         The control input of every track (tracks by control by 1),
+   *                                    or a single control input (control by 1) shared by all
+   *                                    tracks.
+   * @param processCovariance           The process covariance (state by state) shared by all
+   *                                    tracks.
+   * @param measurements                The stacked {@link Distribution} of the measurements, where
+   *                                    the mean is of shape (tracks, measurement, 1) and the
+   *                                    covariance is either of shape (tracks, measurement,
+   *                                    measurement) or (measurement, measurement) when it is
+   *                                    shared by all tracks.
+   * @param measured                    A mask indicating which tracks received a measurement.
+   *                                    Tracks without a measurement are only projected. If null,
+   *                                    every track is considered to be measured.
+   * @param previousStates              The stacked {@link Distribution} of the latest state of
+   *                                    every track.
+   * @return The stacked filtered states.
+   */
+  public Distribution apply(
+      final INDArray stateTransitionMatrix,
+      final INDArray measurementTransitionMatrix,
+      final INDArray controlTransitionMatrix,
+      final INDArray controlInputVectors,
+      final INDArray processCovariance,
+      final Distribution measurements,
+      final boolean[] measured,
+      final Distribution previousStates
+  ) {
+    final int tracks = previousStates.getMean().size(0);
+    final int stateDimension = stateTransitionMatrix.rows();
+    final int measurementDimension = measurementTransitionMatrix.rows();
+    final int controlDimension = controlTransitionMatrix.columns();
+
+    final double[] means = Matrices.flatten(previousStates.getMean());
+    final double[] covariances = Matrices.flatten(previousStates.getCovariance());
+    final double[] measurementMeans = Matrices.flatten(measurements.getMean());
+    final double[] measurementCovariances = Matrices.flatten(measurements.getCovariance());
+    final boolean sharedMeasurementCovariance = measurements.getCovariance().rank() < 3;
+    final double[] controlInputs = Matrices.flatten(controlInputVectors);
+    final boolean sharedControlInput = controlInputVectors.rank() < 3;
+    final double[] controlTransition = Matrices.toArray(controlTransitionMatrix);
+
+    final double[] measurement = new double[measurementDimension];
+    final double[] measurementCovariance =
+        new double[measurementDimension * measurementDimension];
+    final double[] controlInput = new double[controlDimension];
+    final double[] controlEffect = new double[stateDimension];
+    final FixedKalmanFilter filter = new FixedKalmanFilter(
+        Matrices.toArray(stateTransitionMatrix),
+        Matrices.toArray(measurementTransitionMatrix),
+        Matrices.toArray(processCovariance),
+        new double[stateDimension],
+        new double[stateDimension * stateDimension]);
+
+    for (int track = 0; track < tracks; track++) {
+      final int meanOffset = track * stateDimension;
+      final int covarianceOffset = meanOffset * stateDimension;
+      filter.reset(means, meanOffset, covariances, covarianceOffset);
+
+      System.arraycopy(controlInputs, sharedControlInput ? 0 : track * controlDimension,
+          controlInput, 0, controlDimension);
+      Matrices.multiplyVector(
+          controlTransition, controlInput, controlEffect, stateDimension, controlDimension);
+      filter.predict(controlEffect);
+
+      if (measured == null || measured[track]) {
+        System.arraycopy(measurementMeans, track * measurementDimension,
+            measurement, 0, measurementDimension);
+        System.arraycopy(measurementCovariances,
+            sharedMeasurementCovariance ? 0 : track * measurementCovariance.length,
+            measurementCovariance, 0, measurementCovariance.length);
+        filter.update(measurement, measurementCovariance);
+      }
+
+      filter.copyTo(means, meanOffset, covariances, covarianceOffset);
+    }
+
+    return new SimpleDistribution(
+        Nd4j.create(means, new int[]{tracks, stateDimension, 1}),
+        Nd4j.create(covariances, new int[]{tracks, stateDimension, stateDimension}));
+  }
+
+  /**
+   * Computes the filtered {@link Distribution} of every track, where every track received a
+   * measurement.
+   *
+   * @param stateTransitionMatrix       The state-transition matrix shared by all tracks.
+   * @param measurementTransitionMatrix The measurement-transition matrix shared by all tracks.
+   * @param controlTransitionMatrix     The control-transition matrix shared by all tracks.
+   * @param controlInputVectors         The control input of every track, or a single control
+   *                                    input shared by all tracks.
+   * @param processCovariance           The process covariance shared by all tracks.
+   * @param measurements                The stacked {@link Distribution} of the measurements.
+   * @param previousStates              The stacked {@link Distribution} of the latest state of
+   *                                    every track.
+   * @return The stacked filtered states.
+   * @see #apply(INDArray, INDArray, INDArray, INDArray, INDArray, Distribution, boolean[],
+   *     Distribution)
+   */
+  public Distribution apply(
+      final INDArray stateTransitionMatrix,
+      final INDArray measurementTransitionMatrix,
+      final INDArray controlTransitionMatrix,
+      final INDArray controlInputVectors,
+      final INDArray processCovariance,
+      final Distribution measurements,
+      final Distribution previousStates
+  ) {
+    return this.apply(stateTransitionMatrix, measurementTransitionMatrix,
+        controlTransitionMatrix, controlInputVectors, processCovariance, measurements, null,
+        previousStates);
+  }
+}
@@ -0,0 +1,101 @@
+package io.leonis.algieba.filter;
+
+/**
+ * The Class ConstantAccelerationModel.
+ *
+ * This class represents a {@link ContinuousModel} of an object which moves with a constant
+ * acceleration along every axis, perturbed by white-noise jerk. The state consists of the
+ * positions along every axis, followed by the velocities and the accelerations along every axis,
+ * so for two axes the positions are observed by a {@link FixedKalmanFilter} with the
+ * measurement-transition matrix [I2 0]. The model is discretized in closed form: per axis the
+ * state-transition matrix is [1 dt dt^2/2; 0 1 dt; 0 0 1] and the process covariance is q *
+ * [dt^5/20 dt^4/8 dt^3/6; dt^4/8 dt^3/3 dt^2/2; dt^3/6 dt^2/2 dt].
+ *
+ * @author agent
+ */
+public class ConstantAccelerationModel extends ContinuousModel {
+  /**
+   * The amount of axes.
+   */
+  private final int axes;
+  /**
+   * The spectral density q of the jerk noise.
+   */
+  private final double spectralDensity;
+
+  /**
+   * @param axes            The amount of axes.
+   * @param spectralDensity The spectral density q of the jerk noise.
+   * @param quantum         The time step to which time steps are quantized.
+   * @param cacheSize       The maximum amount of cached discretizations.
+   */
+  public ConstantAccelerationModel(
+      final int axes,
+      final double spectralDensity,
+      final double quantum,
+      final int cacheSize
+  ) {
+    super(ConstantAccelerationModel.createDrift(axes),
+        ConstantAccelerationModel.createDiffusion(axes, spectralDensity),
+        3 * axes, quantum, cacheSize);
+    this.axes = axes;
+    this.spectralDensity = spectralDensity;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Discretization discretize(final double timeStep) {
+    final int n = this.dimension;
+    final double[] stateTransition = new double[n * n];
+    final double[] processCovariance = new double[n * n];
+    final double dt = timeStep;
+    final double[] transition = {1d, dt, dt * dt / 2d};
+    final double[][] covariance = {
+        {Math.pow(dt, 5) / 20d, Math.pow(dt, 4) / 8d, Math.pow(dt, 3) / 6d},
+        {Math.pow(dt, 4) / 8d, Math.pow(dt, 3) / 3d, dt * dt / 2d},
+        {Math.pow(dt, 3) / 6d, dt * dt / 2d, dt}
+    };
+    for (int axis = 0; axis < this.axes; axis++) {
+      for (int row = 0; row < 3; row++) {
+        for (int column = 0; column < 3; column++) {
+          final int index = (row * this.axes + axis) * n + column * this.axes + axis;
+          if (column >= row) {
+            stateTransition[index] = transition[column - row];
+          }
+          processCovariance[index] = this.spectralDensity * covariance[row][column];
+        }
+      }
+    }
+    return Discretization.from(stateTransition, processCovariance, n);
+  }
+
+  /**
+   * @param axes The amount of axes.
+   * @return The drift matrix in row-major order, which maps every velocity onto its position and
+   *     every acceleration onto its velocity.
+   */
+  private static double[] createDrift(final int axes) {
+    final int n = 3 * axes;
+    final double[] drift = new double[n * n];
+    for (int index = 0; index < 2 * axes; index++) {
+      drift[index * n + axes + index] = 1d;
+    }
+    return drift;
+  }
+
+  /**
+   * @param axes            The amount of axes.
+   * @param spectralDensity The spectral density of the jerk noise.
+   * @return The spectral density of the process noise in row-major order.
+   */
+  private static double[] createDiffusion(final int axes, final double spectralDensity) {
+    final int n = 3 * axes;
+    final double[] diffusion = new double[n * n];
+    for (int axis = 2 * axes; axis < n; axis++) {
+      diffusion[axis * n + axis] = spectralDensity;
+    }
+    return diffusion;
+  }
+}
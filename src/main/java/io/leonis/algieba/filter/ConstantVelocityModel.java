@@ -0,0 +1,95 @@
+package io.leonis.algieba.filter;
+
+/**
+ * The Class ConstantVelocityModel.
+ *
+ * This class represents a {@link ContinuousModel} of an object which moves with a constant
+ * velocity along every axis, perturbed by white-noise acceleration. The state consists of the
+ * positions along every axis followed by the velocities along every axis, which matches the
+ * layout of {@link FourStateKalmanFilter} for two axes. The model is discretized in closed form:
+ * per axis the state-transition matrix is [1 dt; 0 1] and the process covariance is q * [dt^3/3
+ * dt^2/2; dt^2/2 dt].
+ *
+ * @author agent
+ */
+public class ConstantVelocityModel extends ContinuousModel {
+  /**
+   * The amount of axes.
+   */
+  private final int axes;
+  /**
+   * The spectral density q of the acceleration noise.
+   */
+  private final double spectralDensity;
+
+  /**
+   * @param axes            The amount of axes.
+   * @param spectralDensity The spectral density q of the acceleration noise.
+   * @param quantum         The time step to which time steps are quantized.
+   * @param cacheSize       The maximum amount of cached discretizations.
+   */
+  public ConstantVelocityModel(
+      final int axes,
+      final double spectralDensity,
+      final double quantum,
+      final int cacheSize
+  ) {
+    super(ConstantVelocityModel.createDrift(axes),
+        ConstantVelocityModel.createDiffusion(axes, spectralDensity),
+        2 * axes, quantum, cacheSize);
+    this.axes = axes;
+    this.spectralDensity = spectralDensity;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Discretization discretize(final double timeStep) {
+    final int n = this.dimension;
+    final double[] stateTransition = new double[n * n];
+    final double[] processCovariance = new double[n * n];
+    final double q = this.spectralDensity;
+    final double dt = timeStep;
+    for (int axis = 0; axis < this.axes; axis++) {
+      final int position = axis;
+      final int velocity = this.axes + axis;
+      stateTransition[position * n + position] = 1d;
+      stateTransition[position * n + velocity] = dt;
+      stateTransition[velocity * n + velocity] = 1d;
+
+      processCovariance[position * n + position] = q * dt * dt * dt / 3d;
+      processCovariance[position * n + velocity] = q * dt * dt / 2d;
+      processCovariance[velocity * n + position] = q * dt * dt / 2d;
+      processCovariance[velocity * n + velocity] = q * dt;
+    }
+    return Discretization.from(stateTransition, processCovariance, n);
+  }
+
+  /**
+   * @param axes The amount of axes.
+   * @return The drift matrix in row-major order, which maps every velocity onto its position.
+   */
+  private static double[] createDrift(final int axes) {
+    final int n = 2 * axes;
+    final double[] drift = new double[n * n];
+    for (int axis = 0; axis < axes; axis++) {
+      drift[axis * n + axes + axis] = 1d;
+    }
+    return drift;
+  }
+
+  /**
+   * @param axes            The amount of axes.
+   * @param spectralDensity The spectral density of the acceleration noise.
+   * @return The spectral density of the process noise in row-major order.
+   */
+  private static double[] createDiffusion(final int axes, final double spectralDensity) {
+    final int n = 2 * axes;
+    final double[] diffusion = new double[n * n];
+    for (int axis = axes; axis < n; axis++) {
+      diffusion[axis * n + axis] = spectralDensity;
+    }
+    return diffusion;
+  }
+}
@@ -0,0 +1,201 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import java.util.*;
+import lombok.Value;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class ContinuousModel.
+ *
+ * This class represents a linear time-invariant continuous-time model dx/dt = A * x + w, where w
+ * is white noise with spectral density D, and produces the state-transition matrix and process
+ * covariance which a {@link KalmanFilter} requires for a given time step. In general these are
+ * computed from a single matrix exponential using <a href="https://doi.org/10.1109/TAC.1978.1101743">Van
+ * Loan's method</a>; subclasses which describe models with a closed-form discretization, such as
+ * {@link ConstantVelocityModel} and {@link ConstantAccelerationModel}, override {@link
+ * #discretize(double)}.
+ *
+ * Time steps are quantized to a multiple of a quantum, and the discretizations of the most
+ * recently used quantized time steps are cached, such that jittery time steps around a common
+ * frame rate rarely require a new discretization. Cached matrices are shared between callers and
+ * must not be modified in place.
+ *
+ * @author agent
+ */
+public class ContinuousModel {
+  /**
+   * The dimension of the state.
+   */
+  protected final int dimension;
+  /**
+   * The drift matrix A in row-major order.
+   */
+  protected final double[] drift;
+  /**
+   * The spectral density D of the process noise in row-major order.
+   */
+  protected final double[] diffusion;
+  /**
+   * The time step to which time steps are quantized.
+   */
+  private final double quantum;
+  /**
+   * The discretizations by quantized time step, in order of access.
+   */
+  private final Map<Long, Discretization> cache;
+
+  /**
+   * @param driftMatrix         The drift matrix A (state by state).
+   * @param diffusionCovariance The spectral density D (state by state) of the process noise.
+   * @param quantum             The time step to which time steps are quantized.
+   * @param cacheSize           The maximum amount of cached discretizations.
+   */
+  public ContinuousModel(
+      final INDArray driftMatrix,
+      final INDArray diffusionCovariance,
+      final double quantum,
+      final int cacheSize
+  ) {
+    this(Matrices.toArray(driftMatrix), Matrices.toArray(diffusionCovariance),
+        driftMatrix.rows(), quantum, cacheSize);
+  }
+
+  /**
+   * @param drift     The drift matrix A (state by state) in row-major order.
+   * @param diffusion The spectral density D (state by state) of the process noise in row-major
+   *                  order.
+   * @param dimension The dimension of the state.
+   * @param quantum   The time step to which time steps are quantized.
+   * @param cacheSize The maximum amount of cached discretizations.
+   */
+  protected ContinuousModel(
+      final double[] drift,
+      final double[] diffusion,
+      final int dimension,
+      final double quantum,
+      final int cacheSize
+  ) {
+    this.dimension = dimension;
+    this.drift = drift;
+    this.diffusion = diffusion;
+    this.quantum = quantum;
+    this.cache = new LinkedHashMap<Long, Discretization>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Long, Discretization> eldest) {
+        return this.size() > cacheSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the discretization of the model for the supplied time step, quantized to a multiple
+   * of the quantum.
+   *
+   * @param timeStep The time step.
+   * @return The {@link Discretization} of the model for the quantized time step.
+   */
+  public Discretization apply(final double timeStep) {
+    final long key = Math.round(timeStep / this.quantum);
+    synchronized (this.cache) {
+      final Discretization discretization = this.cache.get(key);
+      if (discretization != null) {
+        return discretization;
+      }
+    }
+    final Discretization discretization = this.discretize(key * this.quantum);
+    synchronized (this.cache) {
+      this.cache.put(key, discretization);
+    }
+    return discretization;
+  }
+
+  /**
+   * Computes the discretization of the model for the supplied time step using Van Loan's method,
+   * ie. the exponential of the matrix [-A D; 0 A^T] * dt contains F^T in its lower right block and
+   * F^-1 * Q in its upper right block.
+   *
+   * @param timeStep The time step.
+   * @return The {@link Discretization} of the model for the supplied time step.
+   */
+  protected Discretization discretize(final double timeStep) {
+    final int n = this.dimension;
+    final int size = 2 * n;
+    final double[] block = new double[size * size];
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < n; column++) {
+        block[row * size + column] = -this.drift[row * n + column] * timeStep;
+        block[row * size + n + column] = this.diffusion[row * n + column] * timeStep;
+        block[(n + row) * size + n + column] = this.drift[column * n + row] * timeStep;
+      }
+    }
+    final double[] exponential = new double[size * size];
+    Matrices.exponentiate(block, exponential, size);
+
+    final double[] stateTransition = new double[n * n];
+    final double[] inverseProduct = new double[n * n];
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < n; column++) {
+        stateTransition[row * n + column] = exponential[(n + column) * size + n + row];
+        inverseProduct[row * n + column] = exponential[row * size + n + column];
+      }
+    }
+    final double[] processCovariance = new double[n * n];
+    Matrices.multiply(stateTransition, inverseProduct, processCovariance, n, n, n);
+    Matrices.symmetrize(processCovariance, n);
+
+    return Discretization.from(stateTransition, processCovariance, n);
+  }
+
+  /**
+   * @return The dimension of the state.
+   */
+  public int getDimension() {
+    return this.dimension;
+  }
+
+  /**
+   * The Class Discretization.
+   *
+   * This class contains the state-transition matrix and process covariance of a {@link
+   * ContinuousModel} for a single time step, both as {@link INDArray} and as row-major primitive
+   * arrays for the fixed-size filters.
+   */
+  @Value
+  public static class Discretization {
+    /**
+     * The state-transition matrix F.
+     */
+    private final INDArray stateTransitionMatrix;
+    /**
+     * The process covariance Q.
+     */
+    private final INDArray processCovariance;
+    /**
+     * The state-transition matrix F in row-major order.
+     */
+    private final double[] stateTransitionValues;
+    /**
+     * The process covariance Q in row-major order.
+     */
+    private final double[] processCovarianceValues;
+
+    /**
+     * @param stateTransition   The state-transition matrix in row-major order.
+     * @param processCovariance The process covariance in row-major order.
+     * @param dimension         The dimension of the state.
+     * @return The {@link Discretization} containing the supplied matrices.
+     */
+    public static Discretization from(
+        final double[] stateTransition,
+        final double[] processCovariance,
+        final int dimension
+    ) {
+      return new Discretization(
+          Matrices.toMatrix(stateTransition, dimension, dimension),
+          Matrices.toMatrix(processCovariance, dimension, dimension),
+          stateTransition,
+          processCovariance);
+    }
+  }
+}
@@ -1,10 +1,10 @@
 package io.leonis.algieba.filter;
 
+import io.leonis.algieba.algebra.*;
 import io.leonis.algieba.statistic.*;
 import java.util.function.*;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.inverse.InvertMatrix;
 
 /**
  * The Class ExtendedKalmanFilter.
@@ -12,11 +12,30 @@ import org.nd4j.linalg.inverse.InvertMatrix;
  * This class represents an extended Kalman filter (EKF) for nonlinear applications. The
  * implementation is based off of notes and equations which can be found <a
  * href="https://en.wikipedia.org/wiki/Extended_Kalman_filter#Discrete-time_predict_and_update_equations">
- * here</a>.
+ * here</a>. The correction step is delegated to a {@link MeasurementUpdate}, which never forms
+ * the inverse of the innovation covariance.
  *
  * @author Rimon Oz
  */
 public class ExtendedKalmanFilter {
+  /**
+   * The correction step of the filter.
+   */
+  private final MeasurementUpdate measurementUpdate;
+
+  /**
+   * Constructs an extended Kalman filter which corrects the covariance in the standard form.
+   */
+  public ExtendedKalmanFilter() {
+    this(new MeasurementUpdate());
+  }
+
+  /**
+   * @param measurementUpdate The correction step of the filter.
+   */
+  public ExtendedKalmanFilter(final MeasurementUpdate measurementUpdate) {
+    this.measurementUpdate = measurementUpdate;
+  }
 
   /**
    * Computes the filtered {@link Distribution} (mean and covariance) using the supplied state-,
@@ -90,27 +109,94 @@ public class ExtendedKalmanFilter {
     final INDArray projectedState = stateTransition.apply(state.getMean(), controlInput);
 
     final INDArray projectedErrorCovariance = stateTransitionJacobian
-        .mmul(state.getMean()
+        .mmul(state.getCovariance()
             .mmul(stateTransitionJacobian.transpose()))
         .add(processCovariance);
 
-    final INDArray kalmanGain = projectedErrorCovariance
-        .mmul(measurementTransitionJacobian.transpose()
-            .mmul(InvertMatrix.invert(measurementTransitionJacobian
-                .mmul(projectedErrorCovariance
-                    .mmul(measurementTransitionJacobian.transpose()))
-                .add(observationNoise.getCovariance()), false)));
+    return this.measurementUpdate.apply(
+        projectedState,
+        projectedErrorCovariance,
+        measurementTransitionJacobian,
+        measurementTransition.apply(state.getMean())
+            .sub(measurementTransition.apply(projectedState)),
+        observationNoise.getCovariance());
+  }
 
-    final INDArray estimatedState = projectedState
-        .add(kalmanGain
-            .mmul(measurementTransition.apply(state.getMean())
-                .sub(measurementTransition.apply(projectedState))));
+  /**
+   * Computes the filtered {@link Distribution} (mean and covariance) using the supplied state- and
+   * measurement-transition functions, and the supplied control input, process noise, measurement,
+   * and current state. The transitions are evaluated over {@link DualNumber}, such that their
+   * exact Jacobians are obtained from a single evaluation of each transition (see {@link
+   * DualRing}).
+   *
+   * @param stateTransition       A {@link BiFunction} which takes as its first argument the
+   *                              previous state, and the control input as its second argument. The
+   *                              result is the next state.
+   * @param measurementTransition A {@link Function} which takes as its first argument the current
+   *                              state and returns the measurement.
+   * @param controlInput          The control input.
+   * @param processCovariance     The process covariance.
+   * @param measurement           The {@link Distribution} of the measurement, where the mean is
+   *                              equal to the measurement vector and the covariance is equal to
+   *                              the measurement variance matrix.
+   * @param state                 The {@link Distribution} of the latest state.
+   * @return The filtered state.
+   */
+  public Distribution apply(
+      final BiFunction<DualNumber[], INDArray, DualNumber[]> stateTransition,
+      final Function<DualNumber[], DualNumber[]> measurementTransition,
+      final INDArray controlInput,
+      final INDArray processCovariance,
+      final Distribution measurement,
+      final Distribution state
+  ) {
+    final int n = state.getMean().rows();
+    final DualNumber[] projectedState = stateTransition.apply(
+        DualRing.variables(Matrices.toArray(state.getMean())), controlInput);
+    final INDArray stateTransitionJacobian = ExtendedKalmanFilter.toJacobian(projectedState, n);
+
+    final INDArray projectedErrorCovariance = stateTransitionJacobian
+        .mmul(state.getCovariance()
+            .mmul(stateTransitionJacobian.transpose()))
+        .add(processCovariance);
 
-    final INDArray estimatedErrorCovariance = Nd4j.eye(estimatedState.rows())
-        .sub(kalmanGain.
-            mul(measurementTransitionJacobian))
-        .mmul(projectedErrorCovariance);
+    final INDArray projectedMean = ExtendedKalmanFilter.toValues(projectedState);
+    final DualNumber[] projectedMeasurement =
+        measurementTransition.apply(DualRing.variables(Matrices.toArray(projectedMean)));
 
-    return new SimpleDistribution(estimatedState, estimatedErrorCovariance);
+    return this.measurementUpdate.apply(
+        projectedMean,
+        projectedErrorCovariance,
+        ExtendedKalmanFilter.toJacobian(projectedMeasurement, n),
+        measurement.getMean().sub(ExtendedKalmanFilter.toValues(projectedMeasurement)),
+        measurement.getCovariance());
+  }
+
+  /**
+   * @param dualNumbers The vector of {@link DualNumber}.
+   * @return A column vector containing the values of the supplied dual numbers.
+   */
+  private static INDArray toValues(final DualNumber[] dualNumbers) {
+    final double[] values = new double[dualNumbers.length];
+    for (int row = 0; row < dualNumbers.length; row++) {
+      values[row] = dualNumbers[row].getValue();
+    }
+    return Matrices.toMatrix(values, values.length, 1);
+  }
+
+  /**
+   * @param dualNumbers The vector of {@link DualNumber}.
+   * @param variables   The amount of variables.
+   * @return The Jacobian of the supplied dual numbers, ie. a matrix in which every row contains
+   *     the derivatives of the corresponding dual number.
+   */
+  private static INDArray toJacobian(final DualNumber[] dualNumbers, final int variables) {
+    final double[] jacobian = new double[dualNumbers.length * variables];
+    for (int row = 0; row < dualNumbers.length; row++) {
+      for (int column = 0; column < variables; column++) {
+        jacobian[row * variables + column] = dualNumbers[row].getDerivative(column);
+      }
+    }
+    return Matrices.toMatrix(jacobian, dualNumbers.length, variables);
   }
 }
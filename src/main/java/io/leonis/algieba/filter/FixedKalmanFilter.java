@@ -0,0 +1,384 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.Distribution;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class FixedKalmanFilter.
+ *
+ * This class contains the functionality of a linear Kalman filter of which the state- and
+ * measurement-dimension are fixed at construction. Contrary to {@link KalmanFilter}, the state and
+ * covariance are stored in primitive arrays and are updated in place, such that no memory is
+ * allocated after construction. The equations are identical to those of {@link KalmanFilter},
+ * except that the Kalman gain is computed through a Cholesky solve instead of an explicit inverse.
+ *
+ * The filter is itself the {@link Distribution} of the latest state. The {@link INDArray}
+ * accessors allocate a copy, use {@link #getMean(int)} and {@link #getCovariance(int, int)} in
+ * hot loops.
+ *
+ * @author agent
+ */
+public class FixedKalmanFilter implements Distribution {
+  /**
+   * The dimension of the state vector.
+   */
+  protected final int stateDimension;
+  /**
+   * The dimension of the measurement vector.
+   */
+  protected final int measurementDimension;
+  /**
+   * The mean of the state.
+   */
+  protected final double[] mean;
+  /**
+   * The covariance of the state in row-major order.
+   */
+  protected final double[] covariance;
+  /**
+   * The state-transition matrix in row-major order.
+   */
+  protected final double[] stateTransition;
+  /**
+   * The measurement-transition matrix in row-major order.
+   */
+  protected final double[] measurementTransition;
+  /**
+   * The process covariance in row-major order.
+   */
+  protected final double[] processCovariance;
+  /**
+   * The log-likelihood of the latest measurement given the projected state.
+   */
+  protected double logLikelihood;
+
+  // buffers
+  private final double[] stateBuffer;
+  private final double[] covarianceBuffer;
+  private final double[] crossCovariance;
+  private final double[] innovationCovariance;
+  private final double[] transposedGain;
+  private final double[] innovation;
+  private final double[] whitenedInnovation;
+
+  /**
+   * Constructs a Kalman filter of fixed dimension. The supplied arrays are copied.
+   *
+   * @param stateTransition       The state-transition matrix (state by state) in row-major order.
+   * @param measurementTransition The measurement-transition matrix (measurement by state) in
+   *                              row-major order.
+   * @param processCovariance     The process covariance (state by state) in row-major order.
+   * @param mean                  The mean of the initial state.
+   * @param covariance            The covariance of the initial state in row-major order.
+   * @throws IllegalArgumentException If the sizes of the supplied arrays do not match the
+   *                                  dimension of the mean.
+   */
+  public FixedKalmanFilter(
+      final double[] stateTransition,
+      final double[] measurementTransition,
+      final double[] processCovariance,
+      final double[] mean,
+      final double[] covariance
+  ) {
+    final int squared = mean.length * mean.length;
+    if (mean.length == 0 || stateTransition.length != squared
+        || processCovariance.length != squared || covariance.length != squared
+        || measurementTransition.length == 0 || measurementTransition.length % mean.length != 0) {
+      throw new IllegalArgumentException("The matrices do not match the dimension of the state.");
+    }
+    this.stateDimension = mean.length;
+    this.measurementDimension = measurementTransition.length / mean.length;
+    this.mean = mean.clone();
+    this.covariance = covariance.clone();
+    this.stateTransition = stateTransition.clone();
+    this.measurementTransition = measurementTransition.clone();
+    this.processCovariance = processCovariance.clone();
+    this.stateBuffer = new double[this.stateDimension];
+    this.covarianceBuffer = new double[this.stateDimension * this.stateDimension];
+    this.crossCovariance = new double[this.stateDimension * this.measurementDimension];
+    this.innovationCovariance = new double[this.measurementDimension * this.measurementDimension];
+    this.transposedGain = new double[this.measurementDimension * this.stateDimension];
+    this.innovation = new double[this.measurementDimension];
+    this.whitenedInnovation = new double[this.measurementDimension];
+  }
+
+  /**
+   * @param stateDimension       The required dimension of the state vector.
+   * @param measurementDimension The required dimension of the measurement vector.
+   * @throws IllegalArgumentException If the dimensions of this filter differ from the supplied
+   *                                  dimensions.
+   */
+  protected void requireDimensions(final int stateDimension, final int measurementDimension) {
+    if (this.stateDimension != stateDimension
+        || this.measurementDimension != measurementDimension) {
+      throw new IllegalArgumentException("The filter requires a state of dimension "
+          + stateDimension + " and a measurement of dimension " + measurementDimension + ".");
+    }
+  }
+
+  /**
+   * Projects the state one step ahead using the state-transition matrix and process covariance.
+   *
+   * @param controlEffect The effect of the control input on the state (ie. the product of the
+   *                      control-transition matrix and the control input), or null if there is no
+   *                      control input.
+   */
+  public void predict(final double[] controlEffect) {
+    final int n = this.stateDimension;
+    Matrices.multiplyVector(this.stateTransition, this.mean, this.stateBuffer, n, n);
+    for (int row = 0; row < n; row++) {
+      this.mean[row] = this.stateBuffer[row]
+          + (controlEffect == null ? 0d : controlEffect[row]);
+    }
+
+    Matrices.multiply(this.stateTransition, this.covariance, this.covarianceBuffer, n, n, n);
+    Matrices.multiplyTransposed(
+        this.covarianceBuffer, this.stateTransition, this.covariance, n, n, n);
+    for (int index = 0; index < n * n; index++) {
+      this.covariance[index] += this.processCovariance[index];
+    }
+  }
+
+  /**
+   * Corrects the state using the supplied measurement.
+   *
+   * @param measurement           The measurement vector.
+   * @param measurementCovariance The covariance of the measurement (measurement by measurement) in
+   *                              row-major order.
+   * @throws ArithmeticException If the innovation covariance is not positive-definite.
+   */
+  public void update(final double[] measurement, final double[] measurementCovariance) {
+    final int n = this.stateDimension;
+    final int m = this.measurementDimension;
+
+    // P * H^T
+    Matrices.multiplyTransposed(
+        this.covariance, this.measurementTransition, this.crossCovariance, n, n, m);
+    // H * P * H^T + R
+    Matrices.multiply(
+        this.measurementTransition, this.crossCovariance, this.innovationCovariance, m, n, m);
+    for (int index = 0; index < m * m; index++) {
+      this.innovationCovariance[index] += measurementCovariance[index];
+    }
+    // z - H * x
+    Matrices.multiplyVector(this.measurementTransition, this.mean, this.innovation, m, n);
+    for (int row = 0; row < m; row++) {
+      this.innovation[row] = measurement[row] - this.innovation[row];
+    }
+
+    this.correct(n, m);
+  }
+
+  /**
+   * Corrects the state using a measurement of the leading states, ie. a measurement for which the
+   * measurement-transition matrix is of the form [I 0]. This skips the multiplications by the
+   * measurement-transition matrix.
+   *
+   * @param measurement           The measurement vector.
+   * @param measurementCovariance The covariance of the measurement in row-major order.
+   * @throws ArithmeticException If the innovation covariance is not positive-definite.
+   */
+  protected void updateLeadingStates(
+      final double[] measurement,
+      final double[] measurementCovariance
+  ) {
+    final int n = this.stateDimension;
+    final int m = this.measurementDimension;
+
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < m; column++) {
+        this.crossCovariance[row * m + column] = this.covariance[row * n + column];
+      }
+    }
+    for (int row = 0; row < m; row++) {
+      for (int column = 0; column < m; column++) {
+        this.innovationCovariance[row * m + column] =
+            this.covariance[row * n + column] + measurementCovariance[row * m + column];
+      }
+      this.innovation[row] = measurement[row] - this.mean[row];
+    }
+
+    this.correct(n, m);
+  }
+
+  /**
+   * Applies the correction step using the cross-covariance, innovation covariance and innovation
+   * which have been written to the buffers.
+   *
+   * @param n The dimension of the state.
+   * @param m The dimension of the measurement.
+   */
+  private void correct(final int n, final int m) {
+    if (!Matrices.decomposeCholesky(this.innovationCovariance, m)) {
+      throw new ArithmeticException("The innovation covariance is not positive-definite.");
+    }
+    // log N(y; 0, S), where y^T * S^-1 * y = |L^-1 * y|^2 and log |S| = 2 * sum log L_ii
+    double distance = 0d;
+    double logDeterminant = 0d;
+    for (int row = 0; row < m; row++) {
+      double value = this.innovation[row];
+      for (int index = 0; index < row; index++) {
+        value -= this.innovationCovariance[row * m + index] * this.whitenedInnovation[index];
+      }
+      this.whitenedInnovation[row] = value / this.innovationCovariance[row * m + row];
+      distance += this.whitenedInnovation[row] * this.whitenedInnovation[row];
+      logDeterminant += 2d * Math.log(this.innovationCovariance[row * m + row]);
+    }
+    this.logLikelihood = -0.5d * (distance + logDeterminant + m * Math.log(2d * Math.PI));
+
+    // solve S * K^T = (P * H^T)^T
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < m; column++) {
+        this.transposedGain[column * n + row] = this.crossCovariance[row * m + column];
+      }
+    }
+    Matrices.solveCholesky(this.innovationCovariance, this.transposedGain, m, n);
+
+    // x + K * y
+    for (int row = 0; row < n; row++) {
+      double correction = 0d;
+      for (int column = 0; column < m; column++) {
+        correction += this.transposedGain[column * n + row] * this.innovation[column];
+      }
+      this.mean[row] += correction;
+    }
+
+    // P - K * (P * H^T)^T
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < n; column++) {
+        double correction = 0d;
+        for (int index = 0; index < m; index++) {
+          correction += this.transposedGain[index * n + row]
+              * this.crossCovariance[column * m + index];
+        }
+        this.covariance[row * n + column] -= correction;
+      }
+    }
+    Matrices.symmetrize(this.covariance, n);
+  }
+
+  /**
+   * Projects the state one step ahead and corrects it using the supplied measurement.
+   *
+   * @param controlEffect         The effect of the control input on the state, or null if there
+   *                              is no control input.
+   * @param measurement           The measurement vector.
+   * @param measurementCovariance The covariance of the measurement in row-major order.
+   * @return This filter, which represents the filtered state.
+   * @throws ArithmeticException If the innovation covariance is not positive-definite.
+   */
+  public Distribution apply(
+      final double[] controlEffect,
+      final double[] measurement,
+      final double[] measurementCovariance
+  ) {
+    this.predict(controlEffect);
+    this.update(measurement, measurementCovariance);
+    return this;
+  }
+
+  /**
+   * Overwrites the state of the filter.
+   *
+   * @param mean       The mean of the state.
+   * @param covariance The covariance of the state in row-major order.
+   */
+  public void reset(final double[] mean, final double[] covariance) {
+    System.arraycopy(mean, 0, this.mean, 0, this.stateDimension);
+    System.arraycopy(covariance, 0, this.covariance, 0, this.stateDimension * this.stateDimension);
+  }
+
+  /**
+   * Overwrites the state of the filter with a state which is stored in a larger (stacked) array.
+   *
+   * @param means            The array containing the mean of the state.
+   * @param meanOffset       The index of the first element of the mean.
+   * @param covariances      The array containing the covariance of the state in row-major order.
+   * @param covarianceOffset The index of the first element of the covariance.
+   */
+  public void reset(
+      final double[] means,
+      final int meanOffset,
+      final double[] covariances,
+      final int covarianceOffset
+  ) {
+    System.arraycopy(means, meanOffset, this.mean, 0, this.stateDimension);
+    System.arraycopy(covariances, covarianceOffset,
+        this.covariance, 0, this.stateDimension * this.stateDimension);
+  }
+
+  /**
+   * Copies the state of the filter into a larger (stacked) array.
+   *
+   * @param means            The array to write the mean of the state to.
+   * @param meanOffset       The index to write the first element of the mean to.
+   * @param covariances      The array to write the covariance of the state to in row-major order.
+   * @param covarianceOffset The index to write the first element of the covariance to.
+   */
+  public void copyTo(
+      final double[] means,
+      final int meanOffset,
+      final double[] covariances,
+      final int covarianceOffset
+  ) {
+    System.arraycopy(this.mean, 0, means, meanOffset, this.stateDimension);
+    System.arraycopy(this.covariance, 0,
+        covariances, covarianceOffset, this.stateDimension * this.stateDimension);
+  }
+
+  /**
+   * @return The dimension of the state vector.
+   */
+  public int getStateDimension() {
+    return this.stateDimension;
+  }
+
+  /**
+   * @return The dimension of the measurement vector.
+   */
+  public int getMeasurementDimension() {
+    return this.measurementDimension;
+  }
+
+  /**
+   * @return The log-likelihood of the latest measurement given the projected state, ie. the
+   *     logarithm of the Gaussian density of the innovation under the innovation covariance.
+   */
+  public double getLogLikelihood() {
+    return this.logLikelihood;
+  }
+
+  /**
+   * @param index The index of the element of the mean.
+   * @return The element of the mean of the state at the supplied index.
+   */
+  public double getMean(final int index) {
+    return this.mean[index];
+  }
+
+  /**
+   * @param row    The row of the element of the covariance.
+   * @param column The column of the element of the covariance.
+   * @return The element of the covariance of the state at the supplied row and column.
+   */
+  public double getCovariance(final int row, final int column) {
+    return this.covariance[row * this.stateDimension + column];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getMean() {
+    return Matrices.toMatrix(this.mean, this.stateDimension, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getCovariance() {
+    return Matrices.toMatrix(this.covariance, this.stateDimension, this.stateDimension);
+  }
+}
@@ -0,0 +1,46 @@
+package io.leonis.algieba.filter;
+
+/**
+ * The Class FourStateKalmanFilter.
+ *
+ * This class represents a {@link FixedKalmanFilter} with a four-dimensional state of which the
+ * first two elements are measured directly, such as a planar position and velocity where only the
+ * position is observed. The measurement-transition matrix is therefore fixed to [I 0].
+ *
+ * @author agent
+ */
+public class FourStateKalmanFilter extends FixedKalmanFilter {
+
+  /**
+   * Constructs a four-state Kalman filter. The supplied arrays are copied.
+   *
+   * @param stateTransition   The state-transition matrix (4 by 4) in row-major order.
+   * @param processCovariance The process covariance (4 by 4) in row-major order.
+   * @param mean              The mean of the initial state.
+   * @param covariance        The covariance of the initial state (4 by 4) in row-major order.
+   * @throws IllegalArgumentException If the sizes of the supplied arrays do not match the
+   *                                  dimensions of the filter.
+   */
+  public FourStateKalmanFilter(
+      final double[] stateTransition,
+      final double[] processCovariance,
+      final double[] mean,
+      final double[] covariance
+  ) {
+    super(stateTransition,
+        new double[]{
+            1, 0, 0, 0,
+            0, 1, 0, 0
+        },
+        processCovariance, mean, covariance);
+    this.requireDimensions(4, 2);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(final double[] measurement, final double[] measurementCovariance) {
+    this.updateLeadingStates(measurement, measurementCovariance);
+  }
+}
@@ -0,0 +1,338 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.Distribution;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class InteractingMultipleModelFilter.
+ *
+ * This class represents an <a href="https://en.wikipedia.org/wiki/Interacting_multiple_model">interacting
+ * multiple model</a> (IMM) estimator, which tracks an object that switches between several
+ * motion models, such as a robot which is cruising, braking or colliding. Every model is filtered
+ * by its own {@link FixedKalmanFilter}, and the switching between models is described by a Markov
+ * chain. Every step consists of mixing the states of the models according to the switching
+ * probabilities, filtering every model, updating the model probabilities with the likelihood of
+ * the measurement under every model, and combining the states of the models.
+ *
+ * The models are filtered concurrently on a {@link ForkJoinPool}. Every model reuses the buffers
+ * of its filter, and the mixing and combination steps use buffers which are allocated at
+ * construction. Extended models are supported by subclasses of {@link FixedKalmanFilter} which
+ * override the prediction and update, as long as they report their {@link
+ * FixedKalmanFilter#getLogLikelihood()}. All models must share the dimension of the state and of
+ * the measurement.
+ *
+ * The filter is itself the {@link Distribution} of the combined state.
+ *
+ * @author agent
+ */
+public class InteractingMultipleModelFilter implements Distribution {
+  /**
+   * The dimension of the state vector.
+   */
+  private final int stateDimension;
+  /**
+   * The filters of the models.
+   */
+  private final FixedKalmanFilter[] models;
+  /**
+   * The probability of switching from the model in the row to the model in the column, in
+   * row-major order.
+   */
+  private final double[] switchingProbabilities;
+  /**
+   * The probability of every model.
+   */
+  private final double[] modeProbabilities;
+  /**
+   * The pool which filters the models.
+   */
+  private final ForkJoinPool pool;
+  /**
+   * The mean of the combined state.
+   */
+  private final double[] mean;
+  /**
+   * The covariance of the combined state in row-major order.
+   */
+  private final double[] covariance;
+
+  // buffers
+  private final double[] modelMeans;
+  private final double[] modelCovariances;
+  private final double[] mixedMean;
+  private final double[] mixedCovariance;
+  private final double[] mixingProbabilities;
+  private final double[] predictedModeProbabilities;
+
+  /**
+   * Constructs an IMM estimator which filters its models on the common {@link ForkJoinPool}.
+   *
+   * @param models                 The filters of the models, which contain the initial state of
+   *                               every model.
+   * @param switchingProbabilities The probability (models by models) of switching from the model
+   *                               in the row to the model in the column in a single step, in
+   *                               row-major order.
+   * @param modeProbabilities      The initial probability of every model.
+   */
+  public InteractingMultipleModelFilter(
+      final FixedKalmanFilter[] models,
+      final double[] switchingProbabilities,
+      final double[] modeProbabilities
+  ) {
+    this(models, switchingProbabilities, modeProbabilities, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param models                 The filters of the models, which contain the initial state of
+   *                               every model.
+   * @param switchingProbabilities The probability (models by models) of switching from the model
+   *                               in the row to the model in the column in a single step, in
+   *                               row-major order.
+   * @param modeProbabilities      The initial probability of every model.
+   * @param pool                   The pool which filters the models.
+   */
+  public InteractingMultipleModelFilter(
+      final FixedKalmanFilter[] models,
+      final double[] switchingProbabilities,
+      final double[] modeProbabilities,
+      final ForkJoinPool pool
+  ) {
+    final int r = models.length;
+    final int n = models[0].getStateDimension();
+    this.stateDimension = n;
+    this.models = models.clone();
+    this.switchingProbabilities = switchingProbabilities.clone();
+    this.modeProbabilities = modeProbabilities.clone();
+    this.pool = pool;
+    this.mean = new double[n];
+    this.covariance = new double[n * n];
+    this.modelMeans = new double[r * n];
+    this.modelCovariances = new double[r * n * n];
+    this.mixedMean = new double[n];
+    this.mixedCovariance = new double[n * n];
+    this.mixingProbabilities = new double[r * r];
+    this.predictedModeProbabilities = new double[r];
+    for (int model = 0; model < r; model++) {
+      this.models[model].copyTo(this.modelMeans, model * n, this.modelCovariances, model * n * n);
+    }
+    this.combine();
+  }
+
+  /**
+   * Projects the state one step ahead and, if a measurement is supplied, corrects it using the
+   * measurement.
+   *
+   * @param controlEffect         The effect of the control input on the state, or null if there
+   *                              is no control input.
+   * @param measurement           The measurement vector, or null if there is no measurement.
+   * @param measurementCovariance The covariance of the measurement in row-major order, or null if
+   *                              there is no measurement.
+   * @return This filter, which represents the combined state.
+   * @throws ArithmeticException If the innovation covariance of a model is not positive-definite.
+   */
+  public Distribution apply(
+      final double[] controlEffect,
+      final double[] measurement,
+      final double[] measurementCovariance
+  ) {
+    final int r = this.models.length;
+    this.mix();
+
+    this.pool.submit(() -> IntStream.range(0, r).parallel().forEach(model -> {
+      this.models[model].predict(controlEffect);
+      if (measurement != null) {
+        this.models[model].update(measurement, measurementCovariance);
+      }
+    })).join();
+
+    if (measurement == null) {
+      System.arraycopy(this.predictedModeProbabilities, 0, this.modeProbabilities, 0, r);
+    } else {
+      // mu_j = c_j * L_j / sum, computed relative to the largest log-likelihood
+      double maximum = Double.NEGATIVE_INFINITY;
+      for (final FixedKalmanFilter model : this.models) {
+        maximum = Math.max(maximum, model.getLogLikelihood());
+      }
+      double total = 0d;
+      for (int model = 0; model < r; model++) {
+        this.modeProbabilities[model] = this.predictedModeProbabilities[model]
+            * Math.exp(this.models[model].getLogLikelihood() - maximum);
+        total += this.modeProbabilities[model];
+      }
+      for (int model = 0; model < r; model++) {
+        this.modeProbabilities[model] /= total;
+      }
+    }
+
+    final int n = this.stateDimension;
+    for (int model = 0; model < r; model++) {
+      this.models[model].copyTo(this.modelMeans, model * n, this.modelCovariances, model * n * n);
+    }
+    this.combine();
+    return this;
+  }
+
+  /**
+   * Projects the state one step ahead and corrects it using the supplied measurement.
+   *
+   * @param controlEffect The effect of the control input on the state (state by 1), or null if
+   *                      there is no control input.
+   * @param measurement   The {@link Distribution} of the measurement, or null if there is no
+   *                      measurement.
+   * @return This filter, which represents the combined state.
+   * @throws ArithmeticException If the innovation covariance of a model is not positive-definite.
+   */
+  public Distribution apply(final INDArray controlEffect, final Distribution measurement) {
+    return this.apply(
+        controlEffect == null ? null : Matrices.toArray(controlEffect),
+        measurement == null ? null : Matrices.toArray(measurement.getMean()),
+        measurement == null ? null : Matrices.toArray(measurement.getCovariance()));
+  }
+
+  /**
+   * Mixes the states of the models according to the switching probabilities, and resets every
+   * model to its mixed state.
+   */
+  private void mix() {
+    final int r = this.models.length;
+    final int n = this.stateDimension;
+
+    // c_j = sum_i p_ij * mu_i, mu_i|j = p_ij * mu_i / c_j
+    for (int target = 0; target < r; target++) {
+      double total = 0d;
+      for (int source = 0; source < r; source++) {
+        total += this.switchingProbabilities[source * r + target] * this.modeProbabilities[source];
+      }
+      this.predictedModeProbabilities[target] = total;
+      for (int source = 0; source < r; source++) {
+        this.mixingProbabilities[source * r + target] = total > 0d
+            ? this.switchingProbabilities[source * r + target]
+            * this.modeProbabilities[source] / total
+            : (source == target ? 1d : 0d);
+      }
+    }
+
+    for (int target = 0; target < r; target++) {
+      for (int row = 0; row < n; row++) {
+        double sum = 0d;
+        for (int source = 0; source < r; source++) {
+          sum += this.mixingProbabilities[source * r + target]
+              * this.modelMeans[source * n + row];
+        }
+        this.mixedMean[row] = sum;
+      }
+      InteractingMultipleModelFilter.spread(this.modelMeans, this.modelCovariances,
+          this.mixingProbabilities, target, r, this.mixedMean, this.mixedCovariance, n);
+      this.models[target].reset(this.mixedMean, this.mixedCovariance);
+    }
+  }
+
+  /**
+   * Combines the states of the models into a single state, weighted by the model probabilities.
+   */
+  private void combine() {
+    final int r = this.models.length;
+    final int n = this.stateDimension;
+    for (int row = 0; row < n; row++) {
+      double sum = 0d;
+      for (int model = 0; model < r; model++) {
+        sum += this.modeProbabilities[model] * this.modelMeans[model * n + row];
+      }
+      this.mean[row] = sum;
+    }
+    InteractingMultipleModelFilter.spread(this.modelMeans, this.modelCovariances,
+        this.modeProbabilities, 0, 1, this.mean, this.covariance, n);
+  }
+
+  /**
+   * Computes the covariance of a weighted mixture of Gaussian states around the supplied mean, ie.
+   * sum w_i * (P_i + (x_i - x) * (x_i - x)^T).
+   *
+   * @param means       The stacked means of the states.
+   * @param covariances The stacked covariances of the states in row-major order.
+   * @param weights     The weights of the states, of which every stride-th element is used.
+   * @param offset      The index of the weight of the first state.
+   * @param stride      The distance between the weights of subsequent states.
+   * @param mean        The mean of the mixture.
+   * @param result      The array to write the covariance of the mixture to.
+   * @param n           The dimension of the states.
+   */
+  private static void spread(
+      final double[] means,
+      final double[] covariances,
+      final double[] weights,
+      final int offset,
+      final int stride,
+      final double[] mean,
+      final double[] result,
+      final int n
+  ) {
+    final int states = means.length / n;
+    for (int index = 0; index < n * n; index++) {
+      result[index] = 0d;
+    }
+    for (int state = 0; state < states; state++) {
+      final double weight = weights[state * stride + offset];
+      for (int row = 0; row < n; row++) {
+        final double rowDeviation = means[state * n + row] - mean[row];
+        for (int column = 0; column < n; column++) {
+          result[row * n + column] += weight * (covariances[state * n * n + row * n + column]
+              + rowDeviation * (means[state * n + column] - mean[column]));
+        }
+      }
+    }
+    Matrices.symmetrize(result, n);
+  }
+
+  /**
+   * @param model The index of the model.
+   * @return The probability that the object currently moves according to the model.
+   */
+  public double getModeProbability(final int model) {
+    return this.modeProbabilities[model];
+  }
+
+  /**
+   * @param model The index of the model.
+   * @return The filter of the model, which contains the latest state of the model.
+   */
+  public FixedKalmanFilter getModel(final int model) {
+    return this.models[model];
+  }
+
+  /**
+   * @param index The index of the element of the mean.
+   * @return The element of the mean of the combined state at the supplied index.
+   */
+  public double getMean(final int index) {
+    return this.mean[index];
+  }
+
+  /**
+   * @param row    The row of the element of the covariance.
+   * @param column The column of the element of the covariance.
+   * @return The element of the covariance of the combined state at the supplied row and column.
+   */
+  public double getCovariance(final int row, final int column) {
+    return this.covariance[row * this.stateDimension + column];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getMean() {
+    return Matrices.toMatrix(this.mean, this.stateDimension, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getCovariance() {
+    return Matrices.toMatrix(this.covariance, this.stateDimension, this.stateDimension);
+  }
+}
@@ -2,20 +2,39 @@ package io.leonis.algieba.filter;
 
 import io.leonis.algieba.statistic.*;
 import io.leonis.algieba.statistic.distribution.GaussianDistribution;
+import java.util.List;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.inverse.InvertMatrix;
 
 /**
  * The Class KalmanFilter.
  *
  * This class contains the functionality of a Kalman filter for linear applications. The
  * implementation is based off of notes and equations which can be found <a
- * href="https://en.wikipedia.org/wiki/Kalman_filter#Details">here</a>.
+ * href="https://en.wikipedia.org/wiki/Kalman_filter#Details">here</a>. The correction step is
+ * delegated to a {@link MeasurementUpdate}, which never forms the inverse of the innovation
+ * covariance.
  *
  * @author Rimon Oz
  */
 public class KalmanFilter {
+  /**
+   * The correction step of the filter.
+   */
+  private final MeasurementUpdate measurementUpdate;
+
+  /**
+   * Constructs a Kalman filter which corrects the covariance in the standard form.
+   */
+  public KalmanFilter() {
+    this(new MeasurementUpdate());
+  }
+
+  /**
+   * @param measurementUpdate The correction step of the filter.
+   */
+  public KalmanFilter(final MeasurementUpdate measurementUpdate) {
+    this.measurementUpdate = measurementUpdate;
+  }
 
   /**
    * Computes the filtered {@link GaussianDistribution} (mean and covariance) using the supplied
@@ -53,29 +72,121 @@ public class KalmanFilter {
       final Distribution measurement,
       final Distribution previousState
   ) {
-    final INDArray projectedState = stateTransitionMatrix.mmul(previousState.getMean())
-        .add(controlTransitionMatrix.mmul(controlInputVector));
+    final INDArray projectedState = this.projectState(
+        stateTransitionMatrix, controlTransitionMatrix, controlInputVector, previousState.getMean());
 
-    final INDArray projectedErrorCovariance =
-        stateTransitionMatrix
-            .mmul(previousState.getCovariance().mmul(stateTransitionMatrix.transpose()))
-            .add(processCovariance);
+    final INDArray projectedErrorCovariance = this.projectCovariance(
+        stateTransitionMatrix, processCovariance, previousState.getCovariance());
 
-    final INDArray kalmanGain = projectedErrorCovariance
-        .mmul(measurementTransitionMatrix.transpose()
-            .mmul(InvertMatrix.invert(measurementTransitionMatrix
-                .mmul(projectedErrorCovariance
-                    .mmul(measurementTransitionMatrix.transpose()))
-                .add(measurement.getCovariance()), false)));
+    return this.measurementUpdate.apply(
+        projectedState,
+        projectedErrorCovariance,
+        measurementTransitionMatrix,
+        measurement.getMean().sub(measurementTransitionMatrix.mmul(projectedState)),
+        measurement.getCovariance());
+  }
 
-    final INDArray estimatedState = projectedState
-        .add(kalmanGain
-            .mmul(measurement.getMean().sub(measurementTransitionMatrix.mmul(projectedState))));
+  /**
+   * Computes the filtered {@link GaussianDistribution} using the measurements of several sensors
+   * which observe the state at the same time. The state is projected once, after which the
+   * measurements are fused in information form by {@link MeasurementUpdate#fuse(INDArray,
+   * INDArray, List, List)}.
+   *
+   * @param stateTransitionMatrix         The state-transition matrix.
+   * @param measurementTransitionMatrices The measurement-transition matrix of every sensor.
+   * @param controlTransitionMatrix       The control-transition matrix.
+   * @param controlInputVector            The control input.
+   * @param processCovariance             The process covariance.
+   * @param measurements                  The {@link Distribution} of the measurement of every
+   *                                      sensor, in the order of the measurement-transition
+   *                                      matrices.
+   * @param previousState                 The {@link Distribution} of the latest state.
+   * @return The filtered state.
+   * @throws IllegalArgumentException If the amount of measurement-transition matrices differs
+   *                                  from the amount of measurements.
+   * @throws ArithmeticException      If the fused information matrix or an innovation covariance
+   *                                  is not positive-definite.
+   */
+  public Distribution apply(
+      final INDArray stateTransitionMatrix,
+      final List<INDArray> measurementTransitionMatrices,
+      final INDArray controlTransitionMatrix,
+      final INDArray controlInputVector,
+      final INDArray processCovariance,
+      final List<Distribution> measurements,
+      final Distribution previousState
+  ) {
+    return this.measurementUpdate.fuse(
+        this.projectState(stateTransitionMatrix, controlTransitionMatrix, controlInputVector,
+            previousState.getMean()),
+        this.projectCovariance(
+            stateTransitionMatrix, processCovariance, previousState.getCovariance()),
+        measurementTransitionMatrices,
+        measurements);
+  }
 
-    final INDArray estimatedErrorCovariance =
-        (Nd4j.eye(estimatedState.rows()).sub(kalmanGain.mmul(measurementTransitionMatrix)))
-            .mmul(projectedErrorCovariance);
+  /**
+   * @param stateTransitionMatrix   The state-transition matrix.
+   * @param controlTransitionMatrix The control-transition matrix.
+   * @param controlInputVector      The control input.
+   * @param stateMean               The mean of the latest state.
+   * @return The mean of the state projected one step ahead.
+   */
+  protected INDArray projectState(
+      final INDArray stateTransitionMatrix,
+      final INDArray controlTransitionMatrix,
+      final INDArray controlInputVector,
+      final INDArray stateMean
+  ) {
+    return stateTransitionMatrix.mmul(stateMean)
+        .add(controlTransitionMatrix.mmul(controlInputVector));
+  }
+
+  /**
+   * @param stateTransitionMatrix The state-transition matrix.
+   * @param processCovariance     The process covariance.
+   * @param stateCovariance       The covariance of the latest state.
+   * @return The covariance of the state projected one step ahead.
+   */
+  protected INDArray projectCovariance(
+      final INDArray stateTransitionMatrix,
+      final INDArray processCovariance,
+      final INDArray stateCovariance
+  ) {
+    return stateTransitionMatrix
+        .mmul(stateCovariance.mmul(stateTransitionMatrix.transpose()))
+        .add(processCovariance);
+  }
+
+  /**
+   * @param measurementTransitionMatrix The measurement-transition matrix.
+   * @param projectedErrorCovariance    The covariance of the projected state.
+   * @param measurementCovariance       The covariance of the measurement.
+   * @return The Kalman gain.
+   */
+  protected INDArray computeGain(
+      final INDArray measurementTransitionMatrix,
+      final INDArray projectedErrorCovariance,
+      final INDArray measurementCovariance
+  ) {
+    return this.measurementUpdate.computeGain(
+        measurementTransitionMatrix, projectedErrorCovariance, measurementCovariance);
+  }
 
-    return new SimpleDistribution(estimatedState, estimatedErrorCovariance);
+  /**
+   * @param kalmanGain                  The Kalman gain.
+   * @param measurementTransitionMatrix The measurement-transition matrix.
+   * @param projectedErrorCovariance    The covariance of the projected state.
+   * @param measurementCovariance       The covariance of the measurement.
+   * @return The covariance of the corrected state.
+   */
+  protected INDArray correctCovariance(
+      final INDArray kalmanGain,
+      final INDArray measurementTransitionMatrix,
+      final INDArray projectedErrorCovariance,
+      final INDArray measurementCovariance
+  ) {
+    return this.measurementUpdate.correctCovariance(
+        kalmanGain, measurementTransitionMatrix, projectedErrorCovariance, measurementCovariance);
   }
 }
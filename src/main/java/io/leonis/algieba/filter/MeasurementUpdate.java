@@ -0,0 +1,493 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.List;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class MeasurementUpdate.
+ *
+ * This class contains the correction step which is shared by {@link KalmanFilter} and {@link
+ * ExtendedKalmanFilter}. The Kalman gain is never computed through an explicit inverse of the
+ * innovation covariance. When the measurement covariance is diagonal the measurements are
+ * processed one scalar at a time, which only requires scalar divisions. Otherwise the gain is
+ * computed by solving the innovation covariance through its Cholesky decomposition.
+ *
+ * The covariance is either corrected in the standard form, (I - K * H) * P, or in the <a
+ * href="https://en.wikipedia.org/wiki/Kalman_filter#Deriving_the_a_posteriori_estimate_covariance_matrix">
+ * Joseph form</a>, (I - K * H) * P * (I - K * H)^T + K * R * K^T, which costs more but keeps the
+ * covariance symmetric and positive-definite in the presence of rounding errors.
+ *
+ * Measurements of several sensors which observe the same state at the same time are fused in <a
+ * href="https://en.wikipedia.org/wiki/Kalman_filter#Information_filter">information form</a>, in
+ * which the contribution of every sensor is a sum, such that the state is only solved once.
+ *
+ * @author agent
+ */
+public class MeasurementUpdate {
+  /**
+   * Whether the covariance is corrected in the Joseph form.
+   */
+  private final boolean josephForm;
+
+  /**
+   * Constructs a measurement update which corrects the covariance in the standard form.
+   */
+  public MeasurementUpdate() {
+    this(false);
+  }
+
+  /**
+   * @param josephForm Whether the covariance is corrected in the Joseph form.
+   */
+  public MeasurementUpdate(final boolean josephForm) {
+    this.josephForm = josephForm;
+  }
+
+  /**
+   * Corrects the projected state using the supplied innovation.
+   *
+   * @param projectedState              The mean of the projected state.
+   * @param projectedErrorCovariance    The covariance of the projected state.
+   * @param measurementTransitionMatrix The measurement-transition matrix, or its Jacobian.
+   * @param innovation                  The difference between the measurement and the projected
+   *                                    measurement.
+   * @param measurementCovariance       The covariance of the measurement.
+   * @return The corrected state.
+   * @throws ArithmeticException If the innovation covariance is not positive-definite.
+   */
+  public Distribution apply(
+      final INDArray projectedState,
+      final INDArray projectedErrorCovariance,
+      final INDArray measurementTransitionMatrix,
+      final INDArray innovation,
+      final INDArray measurementCovariance
+  ) {
+    final int n = projectedState.rows();
+    final int m = measurementTransitionMatrix.rows();
+    final double[] mean = Matrices.toArray(projectedState);
+    final double[] covariance = Matrices.toArray(projectedErrorCovariance);
+    final double[] measurementTransition = Matrices.toArray(measurementTransitionMatrix);
+    final double[] residual = Matrices.toArray(innovation);
+    final double[] noise = Matrices.toArray(measurementCovariance);
+
+    if (MeasurementUpdate.isDiagonal(noise, m)) {
+      this.updateSequentially(mean, covariance, measurementTransition, residual, noise, n, m);
+    } else {
+      final double[] crossCovariance = new double[n * m];
+      final double[] transposedGain = this.computeTransposedGain(
+          covariance, measurementTransition, noise, crossCovariance, n, m);
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < m; column++) {
+          mean[row] += transposedGain[column * n + row] * residual[column];
+        }
+      }
+      this.correctCovariance(
+          covariance, transposedGain, crossCovariance, measurementTransition, noise, n, m);
+    }
+
+    return new SimpleDistribution(
+        Matrices.toMatrix(mean, n, 1),
+        Matrices.toMatrix(covariance, n, n));
+  }
+
+  /**
+   * Corrects the projected state using the measurements of several sensors at once, by summing
+   * the information H^T * R^-1 * H and H^T * R^-1 * z of every sensor onto the information of the
+   * projected state. The information form requires the projected covariance and every
+   * measurement covariance to be positive-definite; if one of them is not, eg. because a sensor
+   * reports an exact measurement, the measurements are instead applied one sensor after another
+   * using {@link #apply(INDArray, INDArray, INDArray, INDArray, INDArray)}, which only requires
+   * the innovation covariances to be positive-definite.
+   *
+   * @param projectedState                The mean of the projected state.
+   * @param projectedErrorCovariance      The covariance of the projected state.
+   * @param measurementTransitionMatrices The measurement-transition matrix of every sensor.
+   * @param measurements                  The {@link Distribution} of the measurement of every
+   *                                      sensor, in the order of the measurement-transition
+   *                                      matrices.
+   * @return The corrected state.
+   * @throws IllegalArgumentException If the amount of measurement-transition matrices differs
+   *                                  from the amount of measurements.
+   * @throws ArithmeticException      If the fused information matrix or an innovation covariance
+   *                                  is not positive-definite.
+   */
+  public Distribution fuse(
+      final INDArray projectedState,
+      final INDArray projectedErrorCovariance,
+      final List<INDArray> measurementTransitionMatrices,
+      final List<Distribution> measurements
+  ) {
+    if (measurementTransitionMatrices.size() != measurements.size()) {
+      throw new IllegalArgumentException(
+          "Every measurement requires exactly one measurement-transition matrix.");
+    }
+    final Distribution fused = this.fuseInformation(
+        projectedState, projectedErrorCovariance, measurementTransitionMatrices, measurements);
+    return fused != null
+        ? fused
+        : this.fuseSequentially(
+            projectedState, projectedErrorCovariance, measurementTransitionMatrices, measurements);
+  }
+
+  /**
+   * Fuses the measurements in information form.
+   *
+   * @param projectedState                The mean of the projected state.
+   * @param projectedErrorCovariance      The covariance of the projected state.
+   * @param measurementTransitionMatrices The measurement-transition matrix of every sensor.
+   * @param measurements                  The {@link Distribution} of the measurement of every
+   *                                      sensor.
+   * @return The corrected state, or null if the projected covariance or a measurement covariance
+   *     is not positive-definite.
+   * @throws ArithmeticException If the fused information matrix is not positive-definite.
+   */
+  private Distribution fuseInformation(
+      final INDArray projectedState,
+      final INDArray projectedErrorCovariance,
+      final List<INDArray> measurementTransitionMatrices,
+      final List<Distribution> measurements
+  ) {
+    final int n = projectedState.rows();
+
+    // Y = P^-1, y = P^-1 * x
+    final double[] factor = Matrices.toArray(projectedErrorCovariance);
+    if (!Matrices.decomposeCholesky(factor, n)) {
+      return null;
+    }
+    final double[] information = MeasurementUpdate.identity(n);
+    Matrices.solveCholesky(factor, information, n, n);
+    final double[] informationVector = Matrices.toArray(projectedState);
+    Matrices.solveCholesky(factor, informationVector, n, 1);
+
+    // Y += H^T * R^-1 * H, y += H^T * R^-1 * z
+    for (int sensor = 0; sensor < measurements.size(); sensor++) {
+      final INDArray measurementTransitionMatrix = measurementTransitionMatrices.get(sensor);
+      final int m = measurementTransitionMatrix.rows();
+      final double[] measurementTransition = Matrices.toArray(measurementTransitionMatrix);
+      final double[] noise = Matrices.toArray(measurements.get(sensor).getCovariance());
+      if (!Matrices.decomposeCholesky(noise, m)) {
+        return null;
+      }
+      final double[] weightedTransition = measurementTransition.clone();
+      Matrices.solveCholesky(noise, weightedTransition, m, n);
+      final double[] weightedMeasurement = Matrices.toArray(measurements.get(sensor).getMean());
+      Matrices.solveCholesky(noise, weightedMeasurement, m, 1);
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < n; column++) {
+          double sum = 0d;
+          for (int index = 0; index < m; index++) {
+            sum += measurementTransition[index * n + row] * weightedTransition[index * n + column];
+          }
+          information[row * n + column] += sum;
+        }
+        double sum = 0d;
+        for (int index = 0; index < m; index++) {
+          sum += measurementTransition[index * n + row] * weightedMeasurement[index];
+        }
+        informationVector[row] += sum;
+      }
+    }
+
+    // P = Y^-1, x = Y^-1 * y
+    Matrices.symmetrize(information, n);
+    if (!Matrices.decomposeCholesky(information, n)) {
+      throw new ArithmeticException("The information matrix is not positive-definite.");
+    }
+    final double[] covariance = MeasurementUpdate.identity(n);
+    Matrices.solveCholesky(information, covariance, n, n);
+    Matrices.symmetrize(covariance, n);
+    Matrices.solveCholesky(information, informationVector, n, 1);
+
+    return new SimpleDistribution(
+        Matrices.toMatrix(informationVector, n, 1),
+        Matrices.toMatrix(covariance, n, n));
+  }
+
+  /**
+   * Fuses the measurements by correcting the state with the measurement of one sensor after
+   * another.
+   *
+   * @param projectedState                The mean of the projected state.
+   * @param projectedErrorCovariance      The covariance of the projected state.
+   * @param measurementTransitionMatrices The measurement-transition matrix of every sensor.
+   * @param measurements                  The {@link Distribution} of the measurement of every
+   *                                      sensor.
+   * @return The corrected state.
+   * @throws ArithmeticException If an innovation covariance is not positive-definite.
+   */
+  private Distribution fuseSequentially(
+      final INDArray projectedState,
+      final INDArray projectedErrorCovariance,
+      final List<INDArray> measurementTransitionMatrices,
+      final List<Distribution> measurements
+  ) {
+    Distribution state = new SimpleDistribution(projectedState, projectedErrorCovariance);
+    for (int sensor = 0; sensor < measurements.size(); sensor++) {
+      final INDArray measurementTransitionMatrix = measurementTransitionMatrices.get(sensor);
+      state = this.apply(
+          state.getMean(),
+          state.getCovariance(),
+          measurementTransitionMatrix,
+          measurements.get(sensor).getMean()
+              .sub(measurementTransitionMatrix.mmul(state.getMean())),
+          measurements.get(sensor).getCovariance());
+    }
+    return state;
+  }
+
+  /**
+   * @param measurementTransitionMatrix The measurement-transition matrix.
+   * @param projectedErrorCovariance    The covariance of the projected state.
+   * @param measurementCovariance       The covariance of the measurement.
+   * @return The Kalman gain, computed through a Cholesky solve.
+   * @throws ArithmeticException If the innovation covariance is not positive-definite.
+   */
+  public INDArray computeGain(
+      final INDArray measurementTransitionMatrix,
+      final INDArray projectedErrorCovariance,
+      final INDArray measurementCovariance
+  ) {
+    final int n = projectedErrorCovariance.rows();
+    final int m = measurementTransitionMatrix.rows();
+    final double[] transposedGain = this.computeTransposedGain(
+        Matrices.toArray(projectedErrorCovariance),
+        Matrices.toArray(measurementTransitionMatrix),
+        Matrices.toArray(measurementCovariance),
+        new double[n * m], n, m);
+    return Matrices.toMatrix(transposedGain, m, n).transpose();
+  }
+
+  /**
+   * @param kalmanGain                  The Kalman gain.
+   * @param measurementTransitionMatrix The measurement-transition matrix.
+   * @param projectedErrorCovariance    The covariance of the projected state.
+   * @param measurementCovariance       The covariance of the measurement.
+   * @return The covariance of the corrected state.
+   */
+  public INDArray correctCovariance(
+      final INDArray kalmanGain,
+      final INDArray measurementTransitionMatrix,
+      final INDArray projectedErrorCovariance,
+      final INDArray measurementCovariance
+  ) {
+    final int n = projectedErrorCovariance.rows();
+    final int m = measurementTransitionMatrix.rows();
+    final double[] covariance = Matrices.toArray(projectedErrorCovariance);
+    final double[] measurementTransition = Matrices.toArray(measurementTransitionMatrix);
+    final double[] crossCovariance = new double[n * m];
+    Matrices.multiplyTransposed(covariance, measurementTransition, crossCovariance, n, n, m);
+    this.correctCovariance(covariance, Matrices.toArray(kalmanGain.transpose()), crossCovariance,
+        measurementTransition, Matrices.toArray(measurementCovariance), n, m);
+    return Matrices.toMatrix(covariance, n, n);
+  }
+
+  /**
+   * Solves S * K^T = H * P for the transposed Kalman gain, where S is the innovation covariance.
+   *
+   * @param covariance            The covariance of the projected state (n by n).
+   * @param measurementTransition The measurement-transition matrix (m by n).
+   * @param noise                 The measurement covariance (m by m).
+   * @param crossCovariance       The array to write P * H^T (n by m) to.
+   * @param n                     The dimension of the state.
+   * @param m                     The dimension of the measurement.
+   * @return The transposed Kalman gain (m by n).
+   */
+  private double[] computeTransposedGain(
+      final double[] covariance,
+      final double[] measurementTransition,
+      final double[] noise,
+      final double[] crossCovariance,
+      final int n,
+      final int m
+  ) {
+    Matrices.multiplyTransposed(covariance, measurementTransition, crossCovariance, n, n, m);
+    final double[] innovationCovariance = new double[m * m];
+    Matrices.multiply(measurementTransition, crossCovariance, innovationCovariance, m, n, m);
+    for (int index = 0; index < m * m; index++) {
+      innovationCovariance[index] += noise[index];
+    }
+    if (!Matrices.decomposeCholesky(innovationCovariance, m)) {
+      throw new ArithmeticException("The innovation covariance is not positive-definite.");
+    }
+    final double[] transposedGain = new double[m * n];
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < m; column++) {
+        transposedGain[column * n + row] = crossCovariance[row * m + column];
+      }
+    }
+    Matrices.solveCholesky(innovationCovariance, transposedGain, m, n);
+    return transposedGain;
+  }
+
+  /**
+   * Corrects the covariance in place.
+   *
+   * @param covariance            The covariance of the projected state (n by n).
+   * @param transposedGain        The transposed Kalman gain (m by n).
+   * @param crossCovariance       The product P * H^T (n by m).
+   * @param measurementTransition The measurement-transition matrix (m by n).
+   * @param noise                 The measurement covariance (m by m).
+   * @param n                     The dimension of the state.
+   * @param m                     The dimension of the measurement.
+   */
+  private void correctCovariance(
+      final double[] covariance,
+      final double[] transposedGain,
+      final double[] crossCovariance,
+      final double[] measurementTransition,
+      final double[] noise,
+      final int n,
+      final int m
+  ) {
+    if (!this.josephForm) {
+      // P - K * (P * H^T)^T
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < n; column++) {
+          double correction = 0d;
+          for (int index = 0; index < m; index++) {
+            correction += transposedGain[index * n + row] * crossCovariance[column * m + index];
+          }
+          covariance[row * n + column] -= correction;
+        }
+      }
+    } else {
+      // A = I - K * H
+      final double[] complement = new double[n * n];
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < n; column++) {
+          double product = 0d;
+          for (int index = 0; index < m; index++) {
+            product += transposedGain[index * n + row] * measurementTransition[index * n + column];
+          }
+          complement[row * n + column] = (row == column ? 1d : 0d) - product;
+        }
+      }
+      // A * P * A^T
+      final double[] buffer = new double[n * n];
+      Matrices.multiply(complement, covariance, buffer, n, n, n);
+      Matrices.multiplyTransposed(buffer, complement, covariance, n, n, n);
+      // + K * R * K^T
+      final double[] noisyGain = new double[m * n];
+      Matrices.multiply(noise, transposedGain, noisyGain, m, m, n);
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < n; column++) {
+          double product = 0d;
+          for (int index = 0; index < m; index++) {
+            product += transposedGain[index * n + row] * noisyGain[index * n + column];
+          }
+          covariance[row * n + column] += product;
+        }
+      }
+    }
+    Matrices.symmetrize(covariance, n);
+  }
+
+  /**
+   * Corrects the state in place by processing every element of the measurement as a separate
+   * scalar measurement. This is equivalent to a single update when the measurement covariance is
+   * diagonal.
+   *
+   * @param mean                  The mean of the projected state (n).
+   * @param covariance            The covariance of the projected state (n by n).
+   * @param measurementTransition The measurement-transition matrix (m by n).
+   * @param innovation            The innovation with respect to the projected state (m).
+   * @param noise                 The diagonal measurement covariance (m by m).
+   * @param n                     The dimension of the state.
+   * @param m                     The dimension of the measurement.
+   * @throws ArithmeticException If the variance of an innovation is not positive.
+   */
+  private void updateSequentially(
+      final double[] mean,
+      final double[] covariance,
+      final double[] measurementTransition,
+      final double[] innovation,
+      final double[] noise,
+      final int n,
+      final int m
+  ) {
+    final double[] crossCovariance = new double[n];
+    final double[] gain = new double[n];
+    final double[] correction = new double[n];
+    final double[] buffer = new double[n];
+    for (int measurement = 0; measurement < m; measurement++) {
+      final int offset = measurement * n;
+      final double variance = noise[measurement * m + measurement];
+
+      // P * h^T, h * P * h^T + r and the residual w.r.t. the corrections so far
+      double innovationVariance = variance;
+      double residual = innovation[measurement];
+      for (int row = 0; row < n; row++) {
+        double product = 0d;
+        for (int column = 0; column < n; column++) {
+          product += covariance[row * n + column] * measurementTransition[offset + column];
+        }
+        crossCovariance[row] = product;
+        innovationVariance += measurementTransition[offset + row] * product;
+        residual -= measurementTransition[offset + row] * correction[row];
+      }
+      if (!(innovationVariance > 0d)) {
+        throw new ArithmeticException("The innovation variance is not positive.");
+      }
+
+      for (int row = 0; row < n; row++) {
+        gain[row] = crossCovariance[row] / innovationVariance;
+        mean[row] += gain[row] * residual;
+        correction[row] += gain[row] * residual;
+      }
+
+      // P - k * (P * h^T)^T
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < n; column++) {
+          covariance[row * n + column] -= gain[row] * crossCovariance[column];
+        }
+      }
+      if (this.josephForm) {
+        // (P - k * h * P) * (I - k * h)^T + r * k * k^T
+        for (int row = 0; row < n; row++) {
+          double product = 0d;
+          for (int column = 0; column < n; column++) {
+            product += covariance[row * n + column] * measurementTransition[offset + column];
+          }
+          buffer[row] = product;
+        }
+        for (int row = 0; row < n; row++) {
+          for (int column = 0; column < n; column++) {
+            covariance[row * n + column] +=
+                variance * gain[row] * gain[column] - buffer[row] * gain[column];
+          }
+        }
+      }
+      Matrices.symmetrize(covariance, n);
+    }
+  }
+
+  /**
+   * @param dimension The amount of rows (and columns) of the matrix.
+   * @return The identity matrix in row-major order.
+   */
+  private static double[] identity(final int dimension) {
+    final double[] identity = new double[dimension * dimension];
+    for (int index = 0; index < dimension; index++) {
+      identity[index * dimension + index] = 1d;
+    }
+    return identity;
+  }
+
+  /**
+   * @param matrix    The square matrix.
+   * @param dimension The amount of rows (and columns) of the matrix.
+   * @return True if all elements outside of the diagonal are zero.
+   */
+  private static boolean isDiagonal(final double[] matrix, final int dimension) {
+    for (int row = 0; row < dimension; row++) {
+      for (int column = 0; column < dimension; column++) {
+        if (row != column && matrix[row * dimension + column] != 0d) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
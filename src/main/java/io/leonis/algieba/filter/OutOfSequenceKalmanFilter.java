@@ -0,0 +1,299 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.Temporal;
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.filter.ContinuousModel.Discretization;
+import io.leonis.algieba.statistic.Distribution;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class OutOfSequenceKalmanFilter.
+ *
+ * This class represents a linear Kalman filter for timestamped measurements which may arrive out
+ * of order, such as measurements from several cameras with different latencies. The latest
+ * measurements are kept in order of their timestamps in a ring buffer of fixed capacity, along
+ * with the filtered state after every measurement. A measurement which arrives late is inserted
+ * at its position in the buffer, after which only the measurements from that position onwards
+ * are replayed, starting from the state which was stored before it. A measurement which is older
+ * than the oldest buffered measurement is rejected.
+ *
+ * The time step between subsequent measurements is discretized by a {@link ContinuousModel}, of
+ * which the cached discretizations are reused. All buffers are allocated at construction, so the
+ * cost of a measurement is bounded by the replay of the full buffer.
+ *
+ * The filter is itself the {@link Distribution} of the state at the latest timestamp.
+ *
+ * @author agent
+ */
+public class OutOfSequenceKalmanFilter implements Distribution {
+  /**
+   * The continuous-time model which is discretized for every time step.
+   */
+  private final ContinuousModel model;
+  /**
+   * The duration of a single unit of the timestamps, in the time unit of the model.
+   */
+  private final double timeUnit;
+  /**
+   * The dimension of the state vector.
+   */
+  private final int stateDimension;
+  /**
+   * The dimension of the measurement vector.
+   */
+  private final int measurementDimension;
+  /**
+   * The maximum amount of buffered measurements.
+   */
+  private final int capacity;
+  /**
+   * The filter which replays the measurements.
+   */
+  private final FixedKalmanFilter filter;
+
+  // buffers
+  private final double[] measurement;
+  private final double[] measurementCovariance;
+
+  // ring buffer, of which the entry at index (head + i) % capacity is the i-th oldest
+  private final long[] timestamps;
+  private final double[] measurements;
+  private final double[] measurementCovariances;
+  private final double[] means;
+  private final double[] covariances;
+  private int head;
+  private int size;
+
+  // the state before the oldest buffered measurement
+  private final double[] baseMean;
+  private final double[] baseCovariance;
+  private long baseTimestamp;
+
+  /**
+   * @param model                 The continuous-time model which is discretized for every time
+   *                              step.
+   * @param measurementTransition The measurement-transition matrix (measurement by state) in
+   *                              row-major order.
+   * @param timeUnit              The duration of a single unit of the timestamps, in the time
+   *                              unit of the model, eg. 1e-3 for timestamps in milliseconds and a
+   *                              model in seconds.
+   * @param capacity              The maximum amount of buffered measurements.
+   * @param timestamp             The timestamp of the initial state.
+   * @param mean                  The mean of the initial state.
+   * @param covariance            The covariance of the initial state in row-major order.
+   */
+  public OutOfSequenceKalmanFilter(
+      final ContinuousModel model,
+      final double[] measurementTransition,
+      final double timeUnit,
+      final int capacity,
+      final long timestamp,
+      final double[] mean,
+      final double[] covariance
+  ) {
+    final int n = model.getDimension();
+    final int m = measurementTransition.length / n;
+    this.model = model;
+    this.timeUnit = timeUnit;
+    this.stateDimension = n;
+    this.measurementDimension = m;
+    this.capacity = capacity;
+    this.filter = new FixedKalmanFilter(
+        new double[n * n], measurementTransition, new double[n * n], mean, covariance);
+    this.measurement = new double[m];
+    this.measurementCovariance = new double[m * m];
+    this.timestamps = new long[capacity];
+    this.measurements = new double[capacity * m];
+    this.measurementCovariances = new double[capacity * m * m];
+    this.means = new double[capacity * n];
+    this.covariances = new double[capacity * n * n];
+    this.baseMean = mean.clone();
+    this.baseCovariance = covariance.clone();
+    this.baseTimestamp = timestamp;
+  }
+
+  /**
+   * Folds the supplied measurement into the state, replaying every buffered measurement with a
+   * later timestamp.
+   *
+   * @param timestamp             The timestamp of the measurement.
+   * @param measurement           The measurement vector.
+   * @param measurementCovariance The covariance of the measurement in row-major order.
+   * @return True if the measurement was applied, false if it is older than the oldest buffered
+   *     measurement.
+   * @throws ArithmeticException If an innovation covariance is not positive-definite.
+   */
+  public boolean apply(
+      final long timestamp,
+      final double[] measurement,
+      final double[] measurementCovariance
+  ) {
+    if (timestamp < this.baseTimestamp) {
+      return false;
+    }
+    if (this.size == this.capacity) {
+      if (timestamp < this.timestamps[this.head]) {
+        return false;
+      }
+      this.evict();
+    }
+
+    // find the insertion point from the end, as most measurements arrive (nearly) in order
+    int position = this.size;
+    while (position > 0 && this.timestamps[this.locate(position - 1)] > timestamp) {
+      position--;
+    }
+    final int m = this.measurementDimension;
+    for (int index = this.size; index > position; index--) {
+      final int target = this.locate(index);
+      final int source = this.locate(index - 1);
+      this.timestamps[target] = this.timestamps[source];
+      System.arraycopy(this.measurements, source * m, this.measurements, target * m, m);
+      System.arraycopy(this.measurementCovariances, source * m * m,
+          this.measurementCovariances, target * m * m, m * m);
+    }
+    final int inserted = this.locate(position);
+    this.timestamps[inserted] = timestamp;
+    System.arraycopy(measurement, 0, this.measurements, inserted * m, m);
+    System.arraycopy(measurementCovariance, 0,
+        this.measurementCovariances, inserted * m * m, m * m);
+    this.size++;
+
+    this.replay(position);
+    return true;
+  }
+
+  /**
+   * Folds the supplied timestamped measurement into the state.
+   *
+   * @param measurement The timestamped {@link Distribution} of the measurement.
+   * @param <M>         The type of the measurement.
+   * @return True if the measurement was applied, false if it is older than the oldest buffered
+   *     measurement.
+   * @throws ArithmeticException If an innovation covariance is not positive-definite.
+   * @see #apply(long, double[], double[])
+   */
+  public <M extends Distribution & Temporal> boolean apply(final M measurement) {
+    return this.apply(measurement.getTimestamp(),
+        Matrices.toArray(measurement.getMean()), Matrices.toArray(measurement.getCovariance()));
+  }
+
+  /**
+   * Refilters the buffered measurements from the supplied position onwards.
+   *
+   * @param position The position (from the oldest) of the first measurement to refilter.
+   */
+  private void replay(final int position) {
+    final int n = this.stateDimension;
+    final int m = this.measurementDimension;
+    long previousTimestamp;
+    if (position == 0) {
+      this.filter.reset(this.baseMean, this.baseCovariance);
+      previousTimestamp = this.baseTimestamp;
+    } else {
+      final int previous = this.locate(position - 1);
+      this.filter.reset(this.means, previous * n, this.covariances, previous * n * n);
+      previousTimestamp = this.timestamps[previous];
+    }
+
+    for (int index = position; index < this.size; index++) {
+      final int entry = this.locate(index);
+      final Discretization discretization =
+          this.model.apply((this.timestamps[entry] - previousTimestamp) * this.timeUnit);
+      System.arraycopy(discretization.getStateTransitionValues(), 0,
+          this.filter.stateTransition, 0, n * n);
+      System.arraycopy(discretization.getProcessCovarianceValues(), 0,
+          this.filter.processCovariance, 0, n * n);
+      System.arraycopy(this.measurements, entry * m, this.measurement, 0, m);
+      System.arraycopy(this.measurementCovariances, entry * m * m,
+          this.measurementCovariance, 0, m * m);
+      this.filter.predict(null);
+      this.filter.update(this.measurement, this.measurementCovariance);
+      this.filter.copyTo(this.means, entry * n, this.covariances, entry * n * n);
+      previousTimestamp = this.timestamps[entry];
+    }
+  }
+
+  /**
+   * Removes the oldest buffered measurement, of which the filtered state becomes the base state.
+   */
+  private void evict() {
+    final int n = this.stateDimension;
+    System.arraycopy(this.means, this.head * n, this.baseMean, 0, n);
+    System.arraycopy(this.covariances, this.head * n * n, this.baseCovariance, 0, n * n);
+    this.baseTimestamp = this.timestamps[this.head];
+    this.head = (this.head + 1) % this.capacity;
+    this.size--;
+  }
+
+  /**
+   * @param index The position of an entry from the oldest.
+   * @return The index of the entry in the ring buffer.
+   */
+  private int locate(final int index) {
+    return (this.head + index) % this.capacity;
+  }
+
+  /**
+   * @return The timestamp of the latest state.
+   */
+  public long getTimestamp() {
+    return this.size == 0 ? this.baseTimestamp : this.timestamps[this.locate(this.size - 1)];
+  }
+
+  /**
+   * @return The amount of buffered measurements.
+   */
+  public int getSize() {
+    return this.size;
+  }
+
+  /**
+   * @param index The index of the element of the mean.
+   * @return The element of the mean of the latest state at the supplied index.
+   */
+  public double getMean(final int index) {
+    return this.size == 0
+        ? this.baseMean[index]
+        : this.means[this.locate(this.size - 1) * this.stateDimension + index];
+  }
+
+  /**
+   * @param row    The row of the element of the covariance.
+   * @param column The column of the element of the covariance.
+   * @return The element of the covariance of the latest state at the supplied row and column.
+   */
+  public double getCovariance(final int row, final int column) {
+    final int n = this.stateDimension;
+    return this.size == 0
+        ? this.baseCovariance[row * n + column]
+        : this.covariances[this.locate(this.size - 1) * n * n + row * n + column];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getMean() {
+    final double[] mean = new double[this.stateDimension];
+    for (int index = 0; index < this.stateDimension; index++) {
+      mean[index] = this.getMean(index);
+    }
+    return Matrices.toMatrix(mean, this.stateDimension, 1);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getCovariance() {
+    final int n = this.stateDimension;
+    final double[] covariance = new double[n * n];
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < n; column++) {
+        covariance[row * n + column] = this.getCovariance(row, column);
+      }
+    }
+    return Matrices.toMatrix(covariance, n, n);
+  }
+}
@@ -0,0 +1,352 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.Distribution;
+import io.leonis.algieba.statistic.distribution.GaussianDistribution;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The Class ParticleFilter.
+ *
+ * This class represents a sequential importance resampling (SIR) particle filter, which
+ * approximates the distribution of the state by a set of weighted samples. Contrary to the
+ * {@link KalmanFilter}, the distribution need not be Gaussian, which makes the particle filter
+ * suitable for multi-modal situations such as an occluded ball which may reappear on either side
+ * of the occluding robot.
+ *
+ * The particles are stored in a structure-of-arrays layout, ie. one primitive array per state
+ * dimension, such that every step walks contiguous memory. The propagation and weighting steps
+ * are spread over a {@link ForkJoinPool} in chunks of particles. Resampling is systematic and
+ * runs in O(N) into a second set of arrays which is swapped with the first, such that no memory
+ * is allocated after construction.
+ *
+ * @author agent
+ */
+public class ParticleFilter {
+  /**
+   * The amount of particles which is processed by a single task.
+   */
+  private static final int CHUNK_SIZE = 1024;
+  /**
+   * The amount of particles.
+   */
+  private final int particleCount;
+  /**
+   * The dimension of the state of a particle.
+   */
+  private final int dimension;
+  /**
+   * The fraction of the amount of particles below which the effective sample size triggers a
+   * resampling step.
+   */
+  private final double resamplingThreshold;
+  /**
+   * The pool which propagates and weighs the particles.
+   */
+  private final ForkJoinPool pool;
+  /**
+   * The source of the offset of the systematic resampler.
+   */
+  private final Random random;
+  /**
+   * The normalized weights of the particles.
+   */
+  private final double[] weights;
+  /**
+   * The sum of the unnormalized weights per chunk.
+   */
+  private final double[] chunkWeights;
+  /**
+   * The states of the particles, indexed by dimension and then by particle.
+   */
+  private double[][] particles;
+  /**
+   * The arrays which the particles are resampled into.
+   */
+  private double[][] resampledParticles;
+
+  /**
+   * Constructs a particle filter which resamples when the effective sample size drops below half
+   * the amount of particles, and which runs on the common {@link ForkJoinPool}.
+   *
+   * @param particleCount The amount of particles.
+   * @param dimension     The dimension of the state of a particle.
+   */
+  public ParticleFilter(final int particleCount, final int dimension) {
+    this(particleCount, dimension, 0.5d, ForkJoinPool.commonPool(), new Random());
+  }
+
+  /**
+   * @param particleCount       The amount of particles.
+   * @param dimension           The dimension of the state of a particle.
+   * @param resamplingThreshold The fraction (between 0 and 1) of the amount of particles below
+   *                            which the effective sample size triggers a resampling step. A
+   *                            threshold of 1 resamples after every update.
+   * @param pool                The pool which propagates and weighs the particles.
+   * @param random              The source of the offset of the systematic resampler.
+   */
+  public ParticleFilter(
+      final int particleCount,
+      final int dimension,
+      final double resamplingThreshold,
+      final ForkJoinPool pool,
+      final Random random
+  ) {
+    this.particleCount = particleCount;
+    this.dimension = dimension;
+    this.resamplingThreshold = resamplingThreshold;
+    this.pool = pool;
+    this.random = random;
+    this.weights = new double[particleCount];
+    this.chunkWeights = new double[(particleCount + CHUNK_SIZE - 1) / CHUNK_SIZE];
+    this.particles = new double[dimension][particleCount];
+    this.resampledParticles = new double[dimension][particleCount];
+    Arrays.fill(this.weights, 1d / particleCount);
+  }
+
+  /**
+   * Draws the particles from the supplied Gaussian {@link Distribution} and resets their weights.
+   *
+   * @param state The {@link Distribution} to draw the particles from.
+   * @throws ArithmeticException If the covariance is not positive-definite.
+   */
+  public void reset(final Distribution state) {
+    final double[] mean = Matrices.toArray(state.getMean());
+    final double[] root = Matrices.toArray(state.getCovariance());
+    if (!Matrices.decomposeCholesky(root, this.dimension)) {
+      throw new ArithmeticException("The state covariance is not positive-definite.");
+    }
+    final double[] deviation = new double[this.dimension];
+    for (int particle = 0; particle < this.particleCount; particle++) {
+      for (int row = 0; row < this.dimension; row++) {
+        deviation[row] = this.random.nextGaussian();
+      }
+      for (int row = 0; row < this.dimension; row++) {
+        double sum = mean[row];
+        for (int column = 0; column <= row; column++) {
+          sum += root[row * this.dimension + column] * deviation[column];
+        }
+        this.particles[row][particle] = sum;
+      }
+      this.weights[particle] = 1d / this.particleCount;
+    }
+  }
+
+  /**
+   * Propagates every particle through the supplied transition.
+   *
+   * @param transition The {@link Transition} which moves a particle one step ahead, including the
+   *                   process noise.
+   */
+  public void predict(final Transition transition) {
+    final double[][] states = this.particles;
+    this.forEachChunk(chunk -> {
+      for (int particle = chunk * CHUNK_SIZE; particle < this.chunkEnd(chunk); particle++) {
+        transition.apply(states, particle);
+      }
+    });
+  }
+
+  /**
+   * Weighs every particle by the likelihood of a measurement, and resamples the particles when the
+   * effective sample size drops below the threshold.
+   *
+   * @param likelihood The {@link Likelihood} of the measurement given the state of a particle.
+   * @throws ArithmeticException If the weights of the particles do not sum to a positive finite
+   *                             value, eg. when the likelihood of every particle is zero.
+   */
+  public void update(final Likelihood likelihood) {
+    final double[][] states = this.particles;
+    this.forEachChunk(chunk -> {
+      double sum = 0d;
+      for (int particle = chunk * CHUNK_SIZE; particle < this.chunkEnd(chunk); particle++) {
+        this.weights[particle] *= likelihood.apply(states, particle);
+        sum += this.weights[particle];
+      }
+      this.chunkWeights[chunk] = sum;
+    });
+
+    double total = 0d;
+    for (final double chunkWeight : this.chunkWeights) {
+      total += chunkWeight;
+    }
+    if (!(total > 0d) || Double.isInfinite(total)) {
+      throw new ArithmeticException("The weights do not sum to a positive finite value.");
+    }
+    for (int particle = 0; particle < this.particleCount; particle++) {
+      this.weights[particle] /= total;
+    }
+
+    if (this.getEffectiveSampleSize() < this.resamplingThreshold * this.particleCount) {
+      this.resample();
+    }
+  }
+
+  /**
+   * Draws a new set of equally weighted particles from the current set using systematic
+   * resampling, ie. a single uniform offset and N evenly spaced pointers into the cumulative
+   * weights.
+   */
+  public void resample() {
+    final double step = 1d / this.particleCount;
+    double pointer = this.random.nextDouble() * step;
+    double cumulativeWeight = this.weights[0];
+    int source = 0;
+    for (int particle = 0; particle < this.particleCount; particle++) {
+      while (pointer > cumulativeWeight && source < this.particleCount - 1) {
+        cumulativeWeight += this.weights[++source];
+      }
+      for (int row = 0; row < this.dimension; row++) {
+        this.resampledParticles[row][particle] = this.particles[row][source];
+      }
+      pointer += step;
+    }
+    Arrays.fill(this.weights, step);
+
+    final double[][] previousParticles = this.particles;
+    this.particles = this.resampledParticles;
+    this.resampledParticles = previousParticles;
+  }
+
+  /**
+   * @return The effective sample size, ie. the reciprocal of the sum of the squared weights.
+   */
+  public double getEffectiveSampleSize() {
+    double sum = 0d;
+    for (final double weight : this.weights) {
+      sum += weight * weight;
+    }
+    return 1d / sum;
+  }
+
+  /**
+   * Summarizes the particles by their weighted mean and covariance. Note that this discards any
+   * multi-modality of the particles.
+   *
+   * @return The {@link GaussianDistribution} of the particles.
+   */
+  public GaussianDistribution summarize() {
+    final int n = this.dimension;
+    final double[] mean = new double[n];
+    for (int row = 0; row < n; row++) {
+      final double[] states = this.particles[row];
+      double sum = 0d;
+      for (int particle = 0; particle < this.particleCount; particle++) {
+        sum += this.weights[particle] * states[particle];
+      }
+      mean[row] = sum;
+    }
+
+    final double[] covariance = new double[n * n];
+    for (int row = 0; row < n; row++) {
+      for (int column = row; column < n; column++) {
+        final double[] rowStates = this.particles[row];
+        final double[] columnStates = this.particles[column];
+        double sum = 0d;
+        for (int particle = 0; particle < this.particleCount; particle++) {
+          sum += this.weights[particle]
+              * (rowStates[particle] - mean[row])
+              * (columnStates[particle] - mean[column]);
+        }
+        covariance[row * n + column] = sum;
+        covariance[column * n + row] = sum;
+      }
+    }
+
+    return new GaussianDistribution(
+        Matrices.toMatrix(mean, n, 1),
+        Matrices.toMatrix(covariance, n, n));
+  }
+
+  /**
+   * @return The amount of particles.
+   */
+  public int getParticleCount() {
+    return this.particleCount;
+  }
+
+  /**
+   * @return The dimension of the state of a particle.
+   */
+  public int getDimension() {
+    return this.dimension;
+  }
+
+  /**
+   * @param row      The index of the state element.
+   * @param particle The index of the particle.
+   * @return The element of the state of the particle.
+   */
+  public double getState(final int row, final int particle) {
+    return this.particles[row][particle];
+  }
+
+  /**
+   * @param particle The index of the particle.
+   * @return The normalized weight of the particle.
+   */
+  public double getWeight(final int particle) {
+    return this.weights[particle];
+  }
+
+  /**
+   * Runs the supplied consumer for every chunk of particles on the pool.
+   *
+   * @param chunkConsumer The consumer which processes the chunk with the supplied index.
+   */
+  private void forEachChunk(final IntConsumer chunkConsumer) {
+    if (this.chunkWeights.length == 1) {
+      chunkConsumer.accept(0);
+      return;
+    }
+    this.pool.submit(() ->
+        IntStream.range(0, this.chunkWeights.length).parallel().forEach(chunkConsumer)).join();
+  }
+
+  /**
+   * @param chunk The index of the chunk.
+   * @return The index of the particle after the last particle in the chunk.
+   */
+  private int chunkEnd(final int chunk) {
+    return Math.min((chunk + 1) * CHUNK_SIZE, this.particleCount);
+  }
+
+  /**
+   * The Interface Transition.
+   *
+   * This interface describes the propagation of a single particle. It is called concurrently for
+   * different particles, so it must only modify the state of the supplied particle and must draw
+   * its noise from a thread-safe source such as {@link java.util.concurrent.ThreadLocalRandom}.
+   */
+  @FunctionalInterface
+  public interface Transition {
+
+    /**
+     * Moves the supplied particle one step ahead in place.
+     *
+     * @param particles The states of the particles, indexed by dimension and then by particle.
+     * @param particle  The index of the particle to move.
+     */
+    void apply(double[][] particles, int particle);
+  }
+
+  /**
+   * The Interface Likelihood.
+   *
+   * This interface describes the likelihood of a measurement given the state of a single
+   * particle. It is called concurrently for different particles.
+   */
+  @FunctionalInterface
+  public interface Likelihood {
+
+    /**
+     * @param particles The states of the particles, indexed by dimension and then by particle.
+     * @param particle  The index of the particle.
+     * @return The (unnormalized) likelihood of the measurement given the state of the particle.
+     */
+    double apply(double[][] particles, int particle);
+  }
+}
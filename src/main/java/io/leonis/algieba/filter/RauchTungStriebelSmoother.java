@@ -0,0 +1,218 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * The Class RauchTungStriebelSmoother.
+ *
+ * This class represents a fixed-interval <a href="https://en.wikipedia.org/wiki/Kalman_filter#Rauch%E2%80%93Tung%E2%80%93Striebel">Rauch-Tung-Striebel
+ * smoother</a>, which computes the distribution of every state given all measurements of a
+ * recorded sequence, rather than only the measurements up to that state. A forward pass filters
+ * the sequence with a {@link FixedKalmanFilter} and stores the filtered means and covariances in
+ * a single primitive array each, after which a backward pass corrects the stored states in place.
+ * The projected states which the backward pass requires are recomputed from the filtered states
+ * instead of stored.
+ *
+ * The sequences are stacked like those of {@link BatchKalmanFilter}, ie. a mean of shape
+ * (samples, state, 1) and a covariance of shape (samples, state, state). Independent sequences,
+ * such as separate segments of a recorded match, are smoothed in parallel.
+ *
+ * @author agent
+ */
+public class RauchTungStriebelSmoother {
+  /**
+   * The pool which smooths independent sequences in parallel.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a smoother which smooths independent sequences on the common {@link
+   * ForkJoinPool}.
+   */
+  public RauchTungStriebelSmoother() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param pool The pool which smooths independent sequences in parallel.
+   */
+  public RauchTungStriebelSmoother(final ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Computes the smoothed {@link Distribution} of every state of a recorded sequence.
+   *
+   * @param stateTransitionMatrix       The state-transition matrix (state by state).
+   * @param measurementTransitionMatrix The measurement-transition matrix (measurement by state).
+   * @param controlTransitionMatrix     The control-transition matrix (state by control).
+   * @param controlInputVectors         The control input of every sample (samples by control by
+   *                                    1), or a single control input (control by 1) shared by all
+   *                                    samples.
+   * @param processCovariance           The process covariance (state by state).
+   * @param measurements                The stacked {@link Distribution} of the measurements, where
+   *                                    the mean is of shape (samples, measurement, 1) and the
+   *                                    covariance is either of shape (samples, measurement,
+   *                                    measurement) or (measurement, measurement) when it is
+   *                                    shared by all samples.
+   * @param initialState                The {@link Distribution} of the state before the first
+   *                                    measurement.
+   * @return The stacked smoothed states.
+   * @throws ArithmeticException If an innovation covariance or projected covariance is not
+   *                             positive-definite.
+   */
+  public Distribution apply(
+      final INDArray stateTransitionMatrix,
+      final INDArray measurementTransitionMatrix,
+      final INDArray controlTransitionMatrix,
+      final INDArray controlInputVectors,
+      final INDArray processCovariance,
+      final Distribution measurements,
+      final Distribution initialState
+  ) {
+    final int samples = measurements.getMean().size(0);
+    final int n = stateTransitionMatrix.rows();
+    final int m = measurementTransitionMatrix.rows();
+    final int controlDimension = controlTransitionMatrix.columns();
+
+    final double[] stateTransition = Matrices.toArray(stateTransitionMatrix);
+    final double[] controlTransition = Matrices.toArray(controlTransitionMatrix);
+    final double[] covarianceProcess = Matrices.toArray(processCovariance);
+    final double[] measurementMeans = Matrices.flatten(measurements.getMean());
+    final double[] measurementCovariances = Matrices.flatten(measurements.getCovariance());
+    final boolean sharedMeasurementCovariance = measurements.getCovariance().rank() < 3;
+    final double[] controlInputs = Matrices.flatten(controlInputVectors);
+    final boolean sharedControlInput = controlInputVectors.rank() < 3;
+
+    final double[] means = new double[samples * n];
+    final double[] covariances = new double[samples * n * n];
+    final double[] measurement = new double[m];
+    final double[] measurementCovariance = new double[m * m];
+    final double[] controlInput = new double[controlDimension];
+    final double[] controlEffect = new double[n];
+
+    // forward pass
+    final FixedKalmanFilter filter = new FixedKalmanFilter(
+        stateTransition,
+        Matrices.toArray(measurementTransitionMatrix),
+        covarianceProcess,
+        Matrices.toArray(initialState.getMean()),
+        Matrices.toArray(initialState.getCovariance()));
+    for (int sample = 0; sample < samples; sample++) {
+      System.arraycopy(controlInputs, sharedControlInput ? 0 : sample * controlDimension,
+          controlInput, 0, controlDimension);
+      Matrices.multiplyVector(controlTransition, controlInput, controlEffect, n, controlDimension);
+      System.arraycopy(measurementMeans, sample * m, measurement, 0, m);
+      System.arraycopy(measurementCovariances,
+          sharedMeasurementCovariance ? 0 : sample * m * m, measurementCovariance, 0, m * m);
+      filter.apply(controlEffect, measurement, measurementCovariance);
+      filter.copyTo(means, sample * n, covariances, sample * n * n);
+    }
+
+    // backward pass
+    final double[] mean = new double[n];
+    final double[] covariance = new double[n * n];
+    final double[] projectedState = new double[n];
+    final double[] projectedCovariance = new double[n * n];
+    final double[] factor = new double[n * n];
+    final double[] transposedGain = new double[n * n];
+    final double[] buffer = new double[n * n];
+    for (int sample = samples - 2; sample >= 0; sample--) {
+      final int meanOffset = sample * n;
+      final int covarianceOffset = sample * n * n;
+      System.arraycopy(means, meanOffset, mean, 0, n);
+      System.arraycopy(covariances, covarianceOffset, covariance, 0, n * n);
+
+      // x' = F * x + B * u, P' = F * P * F^T + Q
+      System.arraycopy(controlInputs, sharedControlInput ? 0 : (sample + 1) * controlDimension,
+          controlInput, 0, controlDimension);
+      Matrices.multiplyVector(controlTransition, controlInput, controlEffect, n, controlDimension);
+      Matrices.multiplyVector(stateTransition, mean, projectedState, n, n);
+      for (int row = 0; row < n; row++) {
+        projectedState[row] += controlEffect[row];
+      }
+      Matrices.multiply(stateTransition, covariance, transposedGain, n, n, n);
+      Matrices.multiplyTransposed(transposedGain, stateTransition, projectedCovariance, n, n, n);
+      for (int index = 0; index < n * n; index++) {
+        projectedCovariance[index] += covarianceProcess[index];
+      }
+
+      // solve P' * G^T = F * P, ie. G = P * F^T * P'^-1
+      System.arraycopy(projectedCovariance, 0, factor, 0, n * n);
+      if (!Matrices.decomposeCholesky(factor, n)) {
+        throw new ArithmeticException("The projected covariance is not positive-definite.");
+      }
+      Matrices.solveCholesky(factor, transposedGain, n, n);
+
+      // x = x + G * (x_s - x')
+      for (int row = 0; row < n; row++) {
+        double correction = 0d;
+        for (int index = 0; index < n; index++) {
+          correction += transposedGain[index * n + row]
+              * (means[meanOffset + n + index] - projectedState[index]);
+        }
+        means[meanOffset + row] += correction;
+      }
+
+      // P = P + G * (P_s - P') * G^T
+      for (int index = 0; index < n * n; index++) {
+        projectedCovariance[index] =
+            covariances[covarianceOffset + n * n + index] - projectedCovariance[index];
+      }
+      Matrices.multiply(projectedCovariance, transposedGain, buffer, n, n, n);
+      for (int row = 0; row < n; row++) {
+        for (int column = 0; column < n; column++) {
+          double correction = 0d;
+          for (int index = 0; index < n; index++) {
+            correction += transposedGain[index * n + row] * buffer[index * n + column];
+          }
+          covariance[row * n + column] += correction;
+        }
+      }
+      Matrices.symmetrize(covariance, n);
+      System.arraycopy(covariance, 0, covariances, covarianceOffset, n * n);
+    }
+
+    return new SimpleDistribution(
+        Nd4j.create(means, new int[]{samples, n, 1}),
+        Nd4j.create(covariances, new int[]{samples, n, n}));
+  }
+
+  /**
+   * Computes the smoothed {@link Distribution} of every state of multiple independent recorded
+   * sequences, which share a single model, in parallel.
+   *
+   * @param stateTransitionMatrix       The state-transition matrix (state by state).
+   * @param measurementTransitionMatrix The measurement-transition matrix (measurement by state).
+   * @param controlTransitionMatrix     The control-transition matrix (state by control).
+   * @param controlInputVectors         The control inputs of every sequence.
+   * @param processCovariance           The process covariance (state by state).
+   * @param measurements                The stacked measurements of every sequence.
+   * @param initialStates               The {@link Distribution} of the state before the first
+   *                                    measurement of every sequence.
+   * @return The stacked smoothed states of every sequence, in the order of the supplied
+   *     sequences.
+   * @see #apply(INDArray, INDArray, INDArray, INDArray, INDArray, Distribution, Distribution)
+   */
+  public List<Distribution> apply(
+      final INDArray stateTransitionMatrix,
+      final INDArray measurementTransitionMatrix,
+      final INDArray controlTransitionMatrix,
+      final List<INDArray> controlInputVectors,
+      final INDArray processCovariance,
+      final List<Distribution> measurements,
+      final List<Distribution> initialStates
+  ) {
+    return this.pool.submit(() -> IntStream.range(0, measurements.size()).parallel()
+        .mapToObj(sequence -> this.apply(stateTransitionMatrix, measurementTransitionMatrix,
+            controlTransitionMatrix, controlInputVectors.get(sequence), processCovariance,
+            measurements.get(sequence), initialStates.get(sequence)))
+        .collect(Collectors.toList())).join();
+  }
+}
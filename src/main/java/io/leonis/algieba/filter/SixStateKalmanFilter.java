@@ -0,0 +1,48 @@
+package io.leonis.algieba.filter;
+
+/**
+ * The Class SixStateKalmanFilter.
+ *
+ * This class represents a {@link FixedKalmanFilter} with a six-dimensional state of which the
+ * first three elements are measured directly, such as a planar position and orientation along
+ * with their velocities where only the pose is observed. The measurement-transition matrix is
+ * therefore fixed to [I 0].
+ *
+ * @author agent
+ */
+public class SixStateKalmanFilter extends FixedKalmanFilter {
+
+  /**
+   * Constructs a six-state Kalman filter. The supplied arrays are copied.
+   *
+   * @param stateTransition   The state-transition matrix (6 by 6) in row-major order.
+   * @param processCovariance The process covariance (6 by 6) in row-major order.
+   * @param mean              The mean of the initial state.
+   * @param covariance        The covariance of the initial state (6 by 6) in row-major order.
+   * @throws IllegalArgumentException If the sizes of the supplied arrays do not match the
+   *                                  dimensions of the filter.
+   */
+  public SixStateKalmanFilter(
+      final double[] stateTransition,
+      final double[] processCovariance,
+      final double[] mean,
+      final double[] covariance
+  ) {
+    super(stateTransition,
+        new double[]{
+            1, 0, 0, 0, 0, 0,
+            0, 1, 0, 0, 0, 0,
+            0, 0, 1, 0, 0, 0
+        },
+        processCovariance, mean, covariance);
+    this.requireDimensions(6, 3);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(final double[] measurement, final double[] measurementCovariance) {
+    this.updateLeadingStates(measurement, measurementCovariance);
+  }
+}
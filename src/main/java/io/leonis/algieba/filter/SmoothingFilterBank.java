@@ -0,0 +1,174 @@
+package io.leonis.algieba.filter;
+
+import java.util.Arrays;
+
+/**
+ * The Class SmoothingFilterBank.
+ *
+ * This class contains the functionality of a bank of <a
+ * href="https://en.wikipedia.org/wiki/Alpha_beta_filter">alpha-beta filters</a> over many scalar
+ * channels, such as wheel speeds, kicker voltages or the components of positions. Every channel
+ * has its own coefficients; a channel of which beta is zero reduces to an exponentially weighted
+ * moving average with smoothing factor alpha. Vector signals occupy consecutive channels.
+ *
+ * The estimated value and rate of every channel are interleaved in a single contiguous array, such
+ * that a frame of measurements is folded in by a single loop over all channels. A channel receives
+ * its first measurement as its value; a measurement which is NaN leaves the channel to be
+ * predicted only. Instances are not thread-safe.
+ *
+ * @author agent
+ */
+public class SmoothingFilterBank {
+  /**
+   * The amount of channels.
+   */
+  private final int channels;
+  /**
+   * The weight of the residual in the value of every channel.
+   */
+  private final double[] alpha;
+  /**
+   * The weight of the residual in the rate of every channel.
+   */
+  private final double[] beta;
+  /**
+   * The value and rate of every channel, interleaved, of which the value is NaN until the first
+   * measurement.
+   */
+  private final double[] state;
+
+  /**
+   * @param channels The amount of channels.
+   * @param alpha    The weight of the residual in the value of every channel.
+   * @param beta     The weight of the residual in the rate of every channel, zero for an
+   *                 exponentially weighted moving average.
+   */
+  public SmoothingFilterBank(final int channels, final double alpha, final double beta) {
+    this(SmoothingFilterBank.fill(channels, alpha), SmoothingFilterBank.fill(channels, beta));
+  }
+
+  /**
+   * @param alpha The weight of the residual in the value, per channel.
+   * @param beta  The weight of the residual in the rate, per channel, zero for an exponentially
+   *              weighted moving average.
+   */
+  public SmoothingFilterBank(final double[] alpha, final double[] beta) {
+    if (alpha.length != beta.length) {
+      throw new IllegalArgumentException("The amounts of alpha and beta coefficients differ.");
+    }
+    this.channels = alpha.length;
+    this.alpha = alpha.clone();
+    this.beta = beta.clone();
+    this.state = new double[2 * this.channels];
+    this.reset();
+  }
+
+  /**
+   * Folds a frame of measurements into every channel, after predicting every channel by the
+   * supplied time step.
+   *
+   * @param frame    The measurement of every channel, or NaN for a channel without measurement.
+   * @param timeStep The time since the previous frame.
+   */
+  public void apply(final double[] frame, final double timeStep) {
+    this.apply(frame, 0, timeStep);
+  }
+
+  /**
+   * Folds a frame of measurements into every channel, after predicting every channel by the
+   * supplied time step.
+   *
+   * @param frame    The array containing the measurement of every channel, or NaN for a channel
+   *                 without measurement.
+   * @param offset   The index of the measurement of the first channel in the array.
+   * @param timeStep The time since the previous frame.
+   */
+  public void apply(final double[] frame, final int offset, final double timeStep) {
+    final double rateGain = timeStep > 0d ? 1d / timeStep : 0d;
+    for (int channel = 0; channel < this.channels; channel++) {
+      final int index = 2 * channel;
+      final double measurement = frame[offset + channel];
+      final double value = this.state[index];
+      final double rate = this.state[index + 1];
+      if (Double.isNaN(value)) {
+        this.state[index] = measurement;
+      } else {
+        final double predicted = value + timeStep * rate;
+        final double residual = measurement - predicted;
+        if (Double.isNaN(residual)) {
+          this.state[index] = predicted;
+        } else {
+          this.state[index] = predicted + this.alpha[channel] * residual;
+          this.state[index + 1] = rate + this.beta[channel] * rateGain * residual;
+        }
+      }
+    }
+  }
+
+  /**
+   * Predicts every channel by the supplied time step without folding in measurements.
+   *
+   * @param timeStep The time step.
+   */
+  public void predict(final double timeStep) {
+    for (int index = 0; index < this.state.length; index += 2) {
+      this.state[index] += timeStep * this.state[index + 1];
+    }
+  }
+
+  /**
+   * Discards the state of every channel, such that the next measurement of every channel becomes
+   * its value.
+   */
+  public void reset() {
+    for (int index = 0; index < this.state.length; index += 2) {
+      this.state[index] = Double.NaN;
+      this.state[index + 1] = 0d;
+    }
+  }
+
+  /**
+   * Writes the value of every channel into the supplied array.
+   *
+   * @param target The array to write the values into.
+   */
+  public void copyTo(final double[] target) {
+    for (int channel = 0; channel < this.channels; channel++) {
+      target[channel] = this.state[2 * channel];
+    }
+  }
+
+  /**
+   * @param channel The channel.
+   * @return The value of the channel, or NaN if the channel has not been measured yet.
+   */
+  public double getValue(final int channel) {
+    return this.state[2 * channel];
+  }
+
+  /**
+   * @param channel The channel.
+   * @return The rate of the channel.
+   */
+  public double getRate(final int channel) {
+    return this.state[2 * channel + 1];
+  }
+
+  /**
+   * @return The amount of channels.
+   */
+  public int getChannels() {
+    return this.channels;
+  }
+
+  /**
+   * @param length The length of the array.
+   * @param value  The value of every element.
+   * @return An array of the supplied length filled with the supplied value.
+   */
+  private static double[] fill(final int length, final double value) {
+    final double[] values = new double[length];
+    Arrays.fill(values, value);
+    return values;
+  }
+}
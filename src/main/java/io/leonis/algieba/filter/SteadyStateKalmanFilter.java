@@ -0,0 +1,230 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.Arrays;
+import lombok.Value;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * The Class SteadyStateKalmanFilter.
+ *
+ * This class represents a {@link KalmanFilter} for time-invariant models, ie. models of which the
+ * state-transition matrix, measurement-transition matrix, process covariance and measurement
+ * covariance do not change between measurements. The covariance of such a filter converges to the
+ * solution of the <a href="https://en.wikipedia.org/wiki/Algebraic_Riccati_equation">discrete
+ * algebraic Riccati equation</a>, after which the Kalman gain is constant.
+ *
+ * The steady-state gain is computed by iterating the Riccati recursion until the gain converges,
+ * and is cached along with a copy of the model for which it was computed. As long as the supplied
+ * model is exactly equal to the copy, a measurement is processed with a projection and a single
+ * correction using the cached gain, and the steady-state covariance is returned. When any element
+ * of the model changes, including changes made in place to the supplied matrices, the gain is
+ * recomputed, and if the recursion does not converge the full update of {@link KalmanFilter} is
+ * used instead. Convergence is judged relative to the size of the gain, so the default tolerance
+ * is expressed in units of the precision in which the matrices are stored.
+ *
+ * @author agent
+ */
+public class SteadyStateKalmanFilter extends KalmanFilter {
+  /**
+   * The amount of units of the storage precision within which the gain is considered converged.
+   */
+  private final static double PRECISION_UNITS = 16d;
+  /**
+   * The Frobenius distance between subsequent gains, relative to the Frobenius norm of the gain,
+   * below which the gain is considered converged.
+   */
+  private final double tolerance;
+  /**
+   * The maximum amount of iterations of the Riccati recursion.
+   */
+  private final int maximumIterations;
+  /**
+   * The steady state of the latest model, or null if none has been computed yet.
+   */
+  private volatile SteadyState steadyState;
+
+  /**
+   * Constructs a steady-state Kalman filter which iterates the Riccati recursion at most 1000
+   * times, until subsequent gains differ by less than 16 units of the precision in which nd4j
+   * stores its matrices.
+   */
+  public SteadyStateKalmanFilter() {
+    this(PRECISION_UNITS * (Nd4j.dataType() == DataBuffer.Type.DOUBLE
+        ? Math.ulp(1d)
+        : Math.ulp(1f)), 1000);
+  }
+
+  /**
+   * @param tolerance         The Frobenius distance between subsequent gains, relative to the
+   *                          Frobenius norm of the gain, below which the gain is considered
+   *                          converged.
+   * @param maximumIterations The maximum amount of iterations of the Riccati recursion.
+   */
+  public SteadyStateKalmanFilter(final double tolerance, final int maximumIterations) {
+    this(new MeasurementUpdate(), tolerance, maximumIterations);
+  }
+
+  /**
+   * @param measurementUpdate The correction step which is used while the gain has not converged.
+   * @param tolerance         The Frobenius distance between subsequent gains, relative to the
+   *                          Frobenius norm of the gain, below which the gain is considered
+   *                          converged.
+   * @param maximumIterations The maximum amount of iterations of the Riccati recursion.
+   */
+  public SteadyStateKalmanFilter(
+      final MeasurementUpdate measurementUpdate,
+      final double tolerance,
+      final int maximumIterations
+  ) {
+    super(measurementUpdate);
+    this.tolerance = tolerance;
+    this.maximumIterations = maximumIterations;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Distribution apply(
+      final INDArray stateTransitionMatrix,
+      final INDArray measurementTransitionMatrix,
+      final INDArray controlTransitionMatrix,
+      final INDArray controlInputVector,
+      final INDArray processCovariance,
+      final Distribution measurement,
+      final Distribution previousState
+  ) {
+    SteadyState currentState = this.steadyState;
+    if (currentState == null
+        || !currentState.describes(stateTransitionMatrix, measurementTransitionMatrix,
+        processCovariance, measurement.getCovariance())) {
+      currentState = this.solve(stateTransitionMatrix, measurementTransitionMatrix,
+          processCovariance, measurement.getCovariance(), previousState.getCovariance());
+      this.steadyState = currentState;
+    }
+
+    if (!currentState.isConverged()) {
+      return super.apply(stateTransitionMatrix, measurementTransitionMatrix,
+          controlTransitionMatrix, controlInputVector, processCovariance, measurement,
+          previousState);
+    }
+
+    final INDArray projectedState = this.projectState(stateTransitionMatrix,
+        controlTransitionMatrix, controlInputVector, previousState.getMean());
+
+    return new SimpleDistribution(
+        projectedState.add(currentState.getGain()
+            .mmul(measurement.getMean().sub(measurementTransitionMatrix.mmul(projectedState)))),
+        currentState.getCovariance());
+  }
+
+  /**
+   * Iterates the Riccati recursion until the Kalman gain converges.
+   *
+   * @param stateTransitionMatrix       The state-transition matrix.
+   * @param measurementTransitionMatrix The measurement-transition matrix.
+   * @param processCovariance           The process covariance.
+   * @param measurementCovariance       The measurement covariance.
+   * @param initialCovariance           The covariance to start the recursion from.
+   * @return The steady state of the supplied model.
+   */
+  private SteadyState solve(
+      final INDArray stateTransitionMatrix,
+      final INDArray measurementTransitionMatrix,
+      final INDArray processCovariance,
+      final INDArray measurementCovariance,
+      final INDArray initialCovariance
+  ) {
+    INDArray covariance = initialCovariance;
+    INDArray previousGain = null;
+    for (int iteration = 0; iteration < this.maximumIterations; iteration++) {
+      final INDArray projectedErrorCovariance =
+          this.projectCovariance(stateTransitionMatrix, processCovariance, covariance);
+      final INDArray gain = this.computeGain(
+          measurementTransitionMatrix, projectedErrorCovariance, measurementCovariance);
+      covariance = this.correctCovariance(
+          gain, measurementTransitionMatrix, projectedErrorCovariance, measurementCovariance);
+      if (previousGain != null && gain.distance2(previousGain)
+          <= this.tolerance * gain.norm2Number().doubleValue()) {
+        return new SteadyState(new Model(stateTransitionMatrix),
+            new Model(measurementTransitionMatrix), new Model(processCovariance),
+            new Model(measurementCovariance), gain, covariance, true);
+      }
+      previousGain = gain;
+    }
+    return new SteadyState(new Model(stateTransitionMatrix), new Model(measurementTransitionMatrix),
+        new Model(processCovariance), new Model(measurementCovariance), previousGain, covariance,
+        false);
+  }
+
+  /**
+   * The Class SteadyState.
+   *
+   * This class contains the steady-state gain and covariance of a model, along with copies of the
+   * matrices of the model.
+   */
+  @Value
+  private static class SteadyState {
+    private final Model stateTransitionMatrix;
+    private final Model measurementTransitionMatrix;
+    private final Model processCovariance;
+    private final Model measurementCovariance;
+    private final INDArray gain;
+    private final INDArray covariance;
+    private final boolean converged;
+
+    /**
+     * @param stateTransitionMatrix       The state-transition matrix.
+     * @param measurementTransitionMatrix The measurement-transition matrix.
+     * @param processCovariance           The process covariance.
+     * @param measurementCovariance       The measurement covariance.
+     * @return True if this steady state belongs to the supplied model.
+     */
+    boolean describes(
+        final INDArray stateTransitionMatrix,
+        final INDArray measurementTransitionMatrix,
+        final INDArray processCovariance,
+        final INDArray measurementCovariance
+    ) {
+      return this.stateTransitionMatrix.matches(stateTransitionMatrix)
+          && this.measurementTransitionMatrix.matches(measurementTransitionMatrix)
+          && this.processCovariance.matches(processCovariance)
+          && this.measurementCovariance.matches(measurementCovariance);
+    }
+  }
+
+  /**
+   * The Class Model.
+   *
+   * This class contains a copy of the shape and elements of a matrix of the model, such that the
+   * supplied matrices are compared with a single bulk read instead of a read per element.
+   */
+  private static class Model {
+    private final int rows;
+    private final int columns;
+    private final double[] elements;
+
+    /**
+     * @param matrix The matrix to copy.
+     */
+    Model(final INDArray matrix) {
+      this.rows = matrix.rows();
+      this.columns = matrix.columns();
+      this.elements = Matrices.flatten(matrix);
+    }
+
+    /**
+     * @param supplied The supplied matrix.
+     * @return True if the supplied matrix has the same shape and exactly equal elements.
+     */
+    boolean matches(final INDArray supplied) {
+      return this.rows == supplied.rows()
+          && this.columns == supplied.columns()
+          && Arrays.equals(this.elements, Matrices.flatten(supplied));
+    }
+  }
+}
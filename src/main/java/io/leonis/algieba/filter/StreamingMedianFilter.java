@@ -0,0 +1,320 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import java.util.function.Function;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class StreamingMedianFilter.
+ *
+ * This class contains the functionality of a sliding-window median filter which is fed one sample
+ * at a time. In contrast to a moving average, an impulsive outlier does not affect the output
+ * unless it makes up half of the window. The median is computed per axis of the samples.
+ *
+ * Per axis, the window is partitioned over a max-heap containing the lower half of the values and
+ * a min-heap containing the upper half, such that the median is found at the tops of the heaps.
+ * Both heaps index into a ring buffer of the latest values. Once the window is full, the oldest
+ * value is overwritten in place by the newest value and restored to its position in its heap, so
+ * a sample costs O(dimension * log(window)) and allocates nothing. Instances are not thread-safe.
+ *
+ * @author agent
+ */
+public class StreamingMedianFilter implements Function<INDArray, INDArray> {
+  /**
+   * The dimension of a sample.
+   */
+  private final int dimension;
+  /**
+   * The amount of samples of which the median is taken.
+   */
+  private final int window;
+  /**
+   * The window of every axis.
+   */
+  private final Window[] axes;
+  /**
+   * The slot in the ring buffer which the next sample is written into.
+   */
+  private int head;
+  /**
+   * The amount of samples in the window.
+   */
+  private int count;
+
+  /**
+   * @param dimension The dimension of a sample.
+   * @param window    The amount of samples of which the median is taken.
+   */
+  public StreamingMedianFilter(final int dimension, final int window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("The window must contain at least one sample.");
+    }
+    this.dimension = dimension;
+    this.window = window;
+    this.axes = new Window[dimension];
+    for (int axis = 0; axis < dimension; axis++) {
+      this.axes[axis] = new Window(window);
+    }
+  }
+
+  /**
+   * Adds the supplied sample to the window, evicting the oldest sample if the window is full.
+   *
+   * @param sample The sample, of which no element may be NaN.
+   */
+  public void apply(final double[] sample) {
+    final boolean full = this.count == this.window;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      if (full) {
+        this.axes[axis].replace(this.head, sample[axis]);
+      } else {
+        this.axes[axis].insert(this.head, sample[axis]);
+      }
+    }
+    this.head = (this.head + 1) % this.window;
+    if (!full) {
+      this.count++;
+    }
+  }
+
+  /**
+   * Adds the supplied sample to the window and returns the resulting median.
+   *
+   * @param sample The sample as a column vector.
+   * @return The median of the samples in the window.
+   */
+  @Override
+  public INDArray apply(final INDArray sample) {
+    this.apply(Matrices.toArray(sample));
+    return this.getMedian();
+  }
+
+  /**
+   * Removes all samples from the window.
+   */
+  public void reset() {
+    for (final Window axis : this.axes) {
+      axis.lowerSize = 0;
+      axis.upperSize = 0;
+    }
+    this.head = 0;
+    this.count = 0;
+  }
+
+  /**
+   * @param axis The axis.
+   * @return The median of the samples in the window along the supplied axis, or NaN if no samples
+   *     have been supplied.
+   */
+  public double getMedian(final int axis) {
+    return this.count == 0 ? Double.NaN : this.axes[axis].getMedian();
+  }
+
+  /**
+   * Writes the median of the samples in the window into the supplied array.
+   *
+   * @param target The array to write the median into.
+   */
+  public void copyTo(final double[] target) {
+    for (int axis = 0; axis < this.dimension; axis++) {
+      target[axis] = this.getMedian(axis);
+    }
+  }
+
+  /**
+   * @return The median of the samples in the window as a column vector.
+   */
+  public INDArray getMedian() {
+    final double[] median = new double[this.dimension];
+    this.copyTo(median);
+    return Matrices.toMatrix(median, this.dimension, 1);
+  }
+
+  /**
+   * @return The amount of samples in the window.
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * @return The amount of samples of which the median is taken.
+   */
+  public int getWindow() {
+    return this.window;
+  }
+
+  /**
+   * The Class Window.
+   *
+   * This class contains the values of a single axis in a ring buffer, partitioned over a max-heap
+   * of the lower half and a min-heap of the upper half. The lower heap contains as many values as
+   * the upper heap, or one more.
+   */
+  private static final class Window {
+    /**
+     * The value in every slot of the ring buffer.
+     */
+    private final double[] values;
+    /**
+     * The max-heap of the slots of the lower half.
+     */
+    private final int[] lower;
+    /**
+     * The min-heap of the slots of the upper half.
+     */
+    private final int[] upper;
+    /**
+     * The index of every slot in its heap.
+     */
+    private final int[] positions;
+    /**
+     * Whether every slot is contained in the lower heap.
+     */
+    private final boolean[] lowered;
+    private int lowerSize;
+    private int upperSize;
+
+    /**
+     * @param capacity The amount of slots.
+     */
+    private Window(final int capacity) {
+      this.values = new double[capacity];
+      this.lower = new int[capacity];
+      this.upper = new int[capacity];
+      this.positions = new int[capacity];
+      this.lowered = new boolean[capacity];
+    }
+
+    /**
+     * @return The median of the values in the heaps.
+     */
+    private double getMedian() {
+      return this.lowerSize > this.upperSize
+          ? this.values[this.lower[0]]
+          : (this.values[this.lower[0]] + this.values[this.upper[0]]) / 2d;
+    }
+
+    /**
+     * Adds the supplied slot to the heaps.
+     *
+     * @param slot  The slot.
+     * @param value The value of the slot.
+     */
+    private void insert(final int slot, final double value) {
+      this.values[slot] = value;
+      if (this.lowerSize == 0 || value <= this.values[this.lower[0]]) {
+        this.lowered[slot] = true;
+        this.lower[this.lowerSize] = slot;
+        this.siftUp(this.lower, this.lowerSize++, 1d);
+      } else {
+        this.lowered[slot] = false;
+        this.upper[this.upperSize] = slot;
+        this.siftUp(this.upper, this.upperSize++, -1d);
+      }
+
+      // move the top of the larger heap over to restore the balance
+      if (this.lowerSize > this.upperSize + 1) {
+        final int moved = this.lower[0];
+        this.lower[0] = this.lower[--this.lowerSize];
+        this.siftDown(this.lower, this.lowerSize, 0, 1d);
+        this.lowered[moved] = false;
+        this.upper[this.upperSize] = moved;
+        this.siftUp(this.upper, this.upperSize++, -1d);
+      } else if (this.upperSize > this.lowerSize) {
+        final int moved = this.upper[0];
+        this.upper[0] = this.upper[--this.upperSize];
+        this.siftDown(this.upper, this.upperSize, 0, -1d);
+        this.lowered[moved] = true;
+        this.lower[this.lowerSize] = moved;
+        this.siftUp(this.lower, this.lowerSize++, 1d);
+      }
+    }
+
+    /**
+     * Overwrites the value of the supplied slot, which is contained in either heap.
+     *
+     * @param slot  The slot.
+     * @param value The new value of the slot.
+     */
+    private void replace(final int slot, final double value) {
+      this.values[slot] = value;
+      if (this.lowered[slot]) {
+        final int position = this.siftUp(this.lower, this.positions[slot], 1d);
+        this.siftDown(this.lower, this.lowerSize, position, 1d);
+      } else {
+        final int position = this.siftUp(this.upper, this.positions[slot], -1d);
+        this.siftDown(this.upper, this.upperSize, position, -1d);
+      }
+
+      // a single value crossed over if the tops are out of order, so swapping the tops suffices
+      if (this.upperSize > 0 && this.values[this.lower[0]] > this.values[this.upper[0]]) {
+        final int lowest = this.upper[0];
+        final int highest = this.lower[0];
+        this.lower[0] = lowest;
+        this.lowered[lowest] = true;
+        this.upper[0] = highest;
+        this.lowered[highest] = false;
+        this.siftDown(this.lower, this.lowerSize, 0, 1d);
+        this.siftDown(this.upper, this.upperSize, 0, -1d);
+      }
+    }
+
+    /**
+     * Moves the slot at the supplied index towards the top of the heap while it precedes its
+     * parent.
+     *
+     * @param heap  The heap.
+     * @param index The index of the slot in the heap.
+     * @param sign  1 for a max-heap, -1 for a min-heap.
+     * @return The index of the slot after moving it.
+     */
+    private int siftUp(final int[] heap, final int index, final double sign) {
+      final int slot = heap[index];
+      final double key = sign * this.values[slot];
+      int current = index;
+      while (current > 0) {
+        final int parent = (current - 1) / 2;
+        if (sign * this.values[heap[parent]] >= key) {
+          break;
+        }
+        heap[current] = heap[parent];
+        this.positions[heap[current]] = current;
+        current = parent;
+      }
+      heap[current] = slot;
+      this.positions[slot] = current;
+      return current;
+    }
+
+    /**
+     * Moves the slot at the supplied index towards the bottom of the heap while a child precedes
+     * it.
+     *
+     * @param heap  The heap.
+     * @param size  The amount of slots in the heap.
+     * @param index The index of the slot in the heap.
+     * @param sign  1 for a max-heap, -1 for a min-heap.
+     */
+    private void siftDown(final int[] heap, final int size, final int index, final double sign) {
+      final int slot = heap[index];
+      final double key = sign * this.values[slot];
+      int current = index;
+      while (2 * current + 1 < size) {
+        int child = 2 * current + 1;
+        if (child + 1 < size
+            && sign * this.values[heap[child + 1]] > sign * this.values[heap[child]]) {
+          child++;
+        }
+        if (sign * this.values[heap[child]] <= key) {
+          break;
+        }
+        heap[current] = heap[child];
+        this.positions[heap[current]] = current;
+        current = child;
+      }
+      heap[current] = slot;
+      this.positions[slot] = current;
+    }
+  }
+}
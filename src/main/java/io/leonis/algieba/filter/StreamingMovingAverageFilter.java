@@ -0,0 +1,161 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import java.util.Arrays;
+import java.util.function.Function;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class StreamingMovingAverageFilter.
+ *
+ * This class contains the functionality of a moving average filter which is fed one sample at a
+ * time. In contrast to {@link MovingAverageFilter}, which reduces the whole buffer on every call,
+ * the latest samples are kept in a primitive ring buffer alongside a running sum, such that a
+ * sample costs O(dimension) and allocates nothing. The running sum is maintained using <a
+ * href="https://en.wikipedia.org/wiki/Kahan_summation_algorithm#Further_enhancements">Neumaier's
+ * compensated summation</a>, which keeps the rounding error of adding and removing samples from
+ * accumulating over long streams, even when a sample is much larger than the running sum. The new
+ * sample is added and the evicted sample is subtracted as separate compensated steps, as the
+ * difference between the two would itself be rounded without compensation.
+ *
+ * Until the window is filled the average is taken over the samples which have been supplied so
+ * far. Instances are not thread-safe.
+ *
+ * @author agent
+ */
+public class StreamingMovingAverageFilter implements Function<INDArray, INDArray> {
+  /**
+   * The dimension of a sample.
+   */
+  private final int dimension;
+  /**
+   * The amount of samples which are averaged.
+   */
+  private final int window;
+
+  // ring buffer of samples, of which the sample at index head is the oldest
+  private final double[] samples;
+  private int head;
+  private int count;
+
+  // compensated running sum
+  private final double[] sum;
+  private final double[] compensation;
+
+  /**
+   * @param dimension The dimension of a sample.
+   * @param window    The amount of samples which are averaged.
+   */
+  public StreamingMovingAverageFilter(final int dimension, final int window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("The window must contain at least one sample.");
+    }
+    this.dimension = dimension;
+    this.window = window;
+    this.samples = new double[dimension * window];
+    this.sum = new double[dimension];
+    this.compensation = new double[dimension];
+  }
+
+  /**
+   * Adds the supplied sample to the window, evicting the oldest sample if the window is full.
+   *
+   * @param sample The sample.
+   */
+  public void apply(final double[] sample) {
+    final int n = this.dimension;
+    final int offset = this.head * n;
+    final boolean full = this.count == this.window;
+    for (int index = 0; index < n; index++) {
+      this.accumulate(index, sample[index]);
+      if (full) {
+        this.accumulate(index, -this.samples[offset + index]);
+      }
+    }
+    System.arraycopy(sample, 0, this.samples, offset, n);
+    this.head = (this.head + 1) % this.window;
+    if (!full) {
+      this.count++;
+    }
+  }
+
+  /**
+   * Adds the supplied value to an element of the running sum, and adds the low-order bits which
+   * are lost by the addition to the compensation.
+   *
+   * @param index The index of the element of the running sum.
+   * @param value The value to add.
+   */
+  private void accumulate(final int index, final double value) {
+    final double total = this.sum[index] + value;
+    this.compensation[index] += Math.abs(this.sum[index]) >= Math.abs(value)
+        ? (this.sum[index] - total) + value
+        : (value - total) + this.sum[index];
+    this.sum[index] = total;
+  }
+
+  /**
+   * Adds the supplied sample to the window and returns the resulting average.
+   *
+   * @param sample The sample as a column vector.
+   * @return The average of the samples in the window.
+   */
+  @Override
+  public INDArray apply(final INDArray sample) {
+    this.apply(Matrices.toArray(sample));
+    return this.getAverage();
+  }
+
+  /**
+   * Removes all samples from the window.
+   */
+  public void reset() {
+    Arrays.fill(this.sum, 0d);
+    Arrays.fill(this.compensation, 0d);
+    this.head = 0;
+    this.count = 0;
+  }
+
+  /**
+   * @param index The index of the element of the average.
+   * @return The element of the average of the samples in the window at the supplied index, or
+   *     zero if no samples have been supplied.
+   */
+  public double getAverage(final int index) {
+    return this.count == 0 ? 0d : (this.sum[index] + this.compensation[index]) / this.count;
+  }
+
+  /**
+   * Writes the average of the samples in the window into the supplied array.
+   *
+   * @param target The array to write the average into.
+   */
+  public void copyTo(final double[] target) {
+    for (int index = 0; index < this.dimension; index++) {
+      target[index] = this.getAverage(index);
+    }
+  }
+
+  /**
+   * @return The average of the samples in the window as a column vector.
+   */
+  public INDArray getAverage() {
+    final double[] average = new double[this.dimension];
+    this.copyTo(average);
+    return Matrices.toMatrix(average, this.dimension, 1);
+  }
+
+  /**
+   * @return The amount of samples in the window.
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * @return The amount of samples which are averaged.
+   */
+  public int getWindow() {
+    return this.window;
+  }
+}
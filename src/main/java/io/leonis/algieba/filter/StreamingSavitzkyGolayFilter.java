@@ -0,0 +1,260 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.spatial.Moving;
+import java.util.Arrays;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class StreamingSavitzkyGolayFilter.
+ *
+ * This class contains the functionality of a <a
+ * href="https://en.wikipedia.org/wiki/Savitzky%E2%80%93Golay_filter">Savitzky-Golay filter</a>
+ * which is fed one equidistant sample at a time, and which estimates the smoothed value, velocity
+ * and acceleration at the latest sample along every axis. The estimates are the derivatives of a
+ * least-squares polynomial fitted through the samples in the window, which is a fixed linear
+ * combination of those samples. The coefficients of these combinations are computed once at
+ * construction for every amount of samples from the order of the polynomial plus one up to the
+ * window, such that estimates are available before the window is filled. A sample costs
+ * O(dimension * window) and allocates nothing.
+ *
+ * Since the polynomial is evaluated at the end of the window rather than at its center, the
+ * estimates do not lag behind the samples, at the cost of more noise than a centered filter of
+ * the same window. Instances are not thread-safe.
+ *
+ * @author agent
+ */
+public class StreamingSavitzkyGolayFilter implements Spatial, Moving {
+  /**
+   * The amount of estimated derivatives: the value, the velocity and the acceleration.
+   */
+  private static final int DERIVATIVES = 3;
+  /**
+   * The dimension of a sample.
+   */
+  private final int dimension;
+  /**
+   * The amount of samples through which the polynomial is fitted.
+   */
+  private final int window;
+  /**
+   * The order of the polynomial.
+   */
+  private final int order;
+  /**
+   * The coefficients by amount of samples, each of which contains for every derivative the weight
+   * of every sample from the latest to the oldest.
+   */
+  private final double[][] coefficients;
+
+  // ring buffer of samples, of which the sample at index head - 1 is the latest
+  private final double[] samples;
+  private int head;
+  private int count;
+
+  // estimates, by derivative and axis
+  private final double[] estimates;
+
+  /**
+   * @param dimension    The dimension of a sample.
+   * @param window       The amount of samples through which the polynomial is fitted.
+   * @param order        The order of the polynomial, which is less than the window.
+   * @param samplePeriod The time between subsequent samples.
+   */
+  public StreamingSavitzkyGolayFilter(
+      final int dimension,
+      final int window,
+      final int order,
+      final double samplePeriod
+  ) {
+    if (order < 0 || order >= window) {
+      throw new IllegalArgumentException(
+          "The order must be non-negative and less than the window.");
+    }
+    this.dimension = dimension;
+    this.window = window;
+    this.order = order;
+    this.coefficients = new double[window + 1][];
+    for (int amount = order + 1; amount <= window; amount++) {
+      this.coefficients[amount] =
+          StreamingSavitzkyGolayFilter.computeCoefficients(amount, order, samplePeriod);
+    }
+    this.samples = new double[dimension * window];
+    this.estimates = new double[DERIVATIVES * dimension];
+    this.reset();
+  }
+
+  /**
+   * Adds the supplied sample to the window, evicting the oldest sample if the window is full, and
+   * updates the estimates.
+   *
+   * @param sample The sample.
+   */
+  public void apply(final double[] sample) {
+    final int n = this.dimension;
+    System.arraycopy(sample, 0, this.samples, this.head * n, n);
+    this.head = (this.head + 1) % this.window;
+    if (this.count < this.window) {
+      this.count++;
+    }
+    final double[] weights = this.coefficients[this.count];
+    if (weights == null) {
+      return;
+    }
+
+    Arrays.fill(this.estimates, 0d);
+    int slot = this.head;
+    for (int age = 0; age < this.count; age++) {
+      slot = slot == 0 ? this.window - 1 : slot - 1;
+      final int offset = slot * n;
+      for (int derivative = 0; derivative < DERIVATIVES; derivative++) {
+        final double weight = weights[derivative * this.count + age];
+        final int target = derivative * n;
+        for (int axis = 0; axis < n; axis++) {
+          this.estimates[target + axis] += weight * this.samples[offset + axis];
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes all samples from the window.
+   */
+  public void reset() {
+    Arrays.fill(this.estimates, Double.NaN);
+    this.head = 0;
+    this.count = 0;
+  }
+
+  /**
+   * @param axis The axis.
+   * @return The smoothed value at the latest sample along the supplied axis, or NaN if fewer
+   *     samples than the order plus one have been supplied.
+   */
+  public double getValue(final int axis) {
+    return this.estimates[axis];
+  }
+
+  /**
+   * @param axis The axis.
+   * @return The velocity at the latest sample along the supplied axis, or NaN if fewer samples
+   *     than the order plus one have been supplied.
+   */
+  public double getVelocity(final int axis) {
+    return this.estimates[this.dimension + axis];
+  }
+
+  /**
+   * @param axis The axis.
+   * @return The acceleration at the latest sample along the supplied axis, or NaN if fewer samples
+   *     than the order plus one have been supplied. The acceleration is zero if the order is less
+   *     than two.
+   */
+  public double getAcceleration(final int axis) {
+    return this.estimates[2 * this.dimension + axis];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getPosition() {
+    return this.toVector(0);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getVelocity() {
+    return this.toVector(1);
+  }
+
+  /**
+   * @return The acceleration at the latest sample as a column vector.
+   */
+  public INDArray getAcceleration() {
+    return this.toVector(2);
+  }
+
+  /**
+   * @return The amount of samples in the window.
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * @return The order of the polynomial.
+   */
+  public int getOrder() {
+    return this.order;
+  }
+
+  /**
+   * @param derivative The derivative.
+   * @return The estimate of the supplied derivative as a column vector.
+   */
+  private INDArray toVector(final int derivative) {
+    final double[] vector = new double[this.dimension];
+    System.arraycopy(this.estimates, derivative * this.dimension, vector, 0, this.dimension);
+    return Matrices.toMatrix(vector, this.dimension, 1);
+  }
+
+  /**
+   * Computes the weights of the samples in the value, velocity and acceleration of the polynomial
+   * at the latest sample, which are rows of k! * (V^T * V)^-1 * V^T / h^k for the Vandermonde
+   * matrix V. The sample times are normalized to [-1, 0] to keep V^T * V well-conditioned.
+   *
+   * @param amount       The amount of samples.
+   * @param order        The order of the polynomial.
+   * @param samplePeriod The time between subsequent samples.
+   * @return The weights, for every derivative, of every sample from the latest to the oldest.
+   */
+  private static double[] computeCoefficients(
+      final int amount,
+      final int order,
+      final double samplePeriod
+  ) {
+    final int terms = order + 1;
+    final double scale = amount > 1 ? amount - 1 : 1;
+
+    // V^T (terms by amount), of which element (k, j) is t_j^k for t_j = -j / scale
+    final double[] transposed = new double[terms * amount];
+    for (int age = 0; age < amount; age++) {
+      double power = 1d;
+      for (int term = 0; term < terms; term++) {
+        transposed[term * amount + age] = power;
+        power *= -age / scale;
+      }
+    }
+    final double[] gram = new double[terms * terms];
+    for (int row = 0; row < terms; row++) {
+      for (int column = 0; column < terms; column++) {
+        double sum = 0d;
+        for (int age = 0; age < amount; age++) {
+          sum += transposed[row * amount + age] * transposed[column * amount + age];
+        }
+        gram[row * terms + column] = sum;
+      }
+    }
+    if (!Matrices.decomposeCholesky(gram, terms)) {
+      throw new ArithmeticException("The Savitzky-Golay system is not positive-definite.");
+    }
+    Matrices.solveCholesky(gram, transposed, terms, amount);
+
+    // at t = 0 the k-th derivative of the polynomial is k! times its k-th coefficient
+    final double[] weights = new double[DERIVATIVES * amount];
+    double factor = 1d;
+    for (int derivative = 0; derivative < DERIVATIVES && derivative < terms; derivative++) {
+      if (derivative > 0) {
+        factor *= derivative / (scale * samplePeriod);
+      }
+      for (int age = 0; age < amount; age++) {
+        weights[derivative * amount + age] = factor * transposed[derivative * amount + age];
+      }
+    }
+    return weights;
+  }
+}
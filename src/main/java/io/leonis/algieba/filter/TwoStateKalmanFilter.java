@@ -0,0 +1,116 @@
+package io.leonis.algieba.filter;
+
+/**
+ * The Class TwoStateKalmanFilter.
+ *
+ * This class represents a {@link FixedKalmanFilter} with a two-dimensional state and a
+ * two-dimensional measurement, such as a position and velocity along a single axis. The predict
+ * and update equations are written out in full, which avoids all loops and buffers.
+ *
+ * @author agent
+ */
+public class TwoStateKalmanFilter extends FixedKalmanFilter {
+
+  /**
+   * Constructs a two-state Kalman filter. The supplied arrays are copied.
+   *
+   * @param stateTransition       The state-transition matrix (2 by 2) in row-major order.
+   * @param measurementTransition The measurement-transition matrix (2 by 2) in row-major order.
+   * @param processCovariance     The process covariance (2 by 2) in row-major order.
+   * @param mean                  The mean of the initial state.
+   * @param covariance            The covariance of the initial state (2 by 2) in row-major order.
+   * @throws IllegalArgumentException If the sizes of the supplied arrays do not match the
+   *                                  dimensions of the filter.
+   */
+  public TwoStateKalmanFilter(
+      final double[] stateTransition,
+      final double[] measurementTransition,
+      final double[] processCovariance,
+      final double[] mean,
+      final double[] covariance
+  ) {
+    super(stateTransition, measurementTransition, processCovariance, mean, covariance);
+    this.requireDimensions(2, 2);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void predict(final double[] controlEffect) {
+    final double f00 = this.stateTransition[0];
+    final double f01 = this.stateTransition[1];
+    final double f10 = this.stateTransition[2];
+    final double f11 = this.stateTransition[3];
+    final double p00 = this.covariance[0];
+    final double p01 = this.covariance[1];
+    final double p11 = this.covariance[3];
+    final double x0 = this.mean[0];
+    final double x1 = this.mean[1];
+
+    this.mean[0] = f00 * x0 + f01 * x1 + (controlEffect == null ? 0d : controlEffect[0]);
+    this.mean[1] = f10 * x0 + f11 * x1 + (controlEffect == null ? 0d : controlEffect[1]);
+
+    // F * P
+    final double a00 = f00 * p00 + f01 * p01;
+    final double a01 = f00 * p01 + f01 * p11;
+    final double a10 = f10 * p00 + f11 * p01;
+    final double a11 = f10 * p01 + f11 * p11;
+
+    // F * P * F^T + Q
+    this.covariance[0] = a00 * f00 + a01 * f01 + this.processCovariance[0];
+    this.covariance[1] = a00 * f10 + a01 * f11 + this.processCovariance[1];
+    this.covariance[2] = this.covariance[1];
+    this.covariance[3] = a10 * f10 + a11 * f11 + this.processCovariance[3];
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(final double[] measurement, final double[] measurementCovariance) {
+    final double h00 = this.measurementTransition[0];
+    final double h01 = this.measurementTransition[1];
+    final double h10 = this.measurementTransition[2];
+    final double h11 = this.measurementTransition[3];
+    final double p00 = this.covariance[0];
+    final double p01 = this.covariance[1];
+    final double p11 = this.covariance[3];
+
+    // P * H^T
+    final double t00 = p00 * h00 + p01 * h01;
+    final double t01 = p00 * h10 + p01 * h11;
+    final double t10 = p01 * h00 + p11 * h01;
+    final double t11 = p01 * h10 + p11 * h11;
+
+    // H * P * H^T + R
+    final double s00 = h00 * t00 + h01 * t10 + measurementCovariance[0];
+    final double s01 = h00 * t01 + h01 * t11 + measurementCovariance[1];
+    final double s11 = h10 * t01 + h11 * t11 + measurementCovariance[3];
+    final double determinant = s00 * s11 - s01 * s01;
+    if (!(determinant > 0d && s00 > 0d)) {
+      throw new ArithmeticException("The innovation covariance is not positive-definite.");
+    }
+
+    // P * H^T * S^-1
+    final double k00 = (t00 * s11 - t01 * s01) / determinant;
+    final double k01 = (t01 * s00 - t00 * s01) / determinant;
+    final double k10 = (t10 * s11 - t11 * s01) / determinant;
+    final double k11 = (t11 * s00 - t10 * s01) / determinant;
+
+    // z - H * x
+    final double y0 = measurement[0] - (h00 * this.mean[0] + h01 * this.mean[1]);
+    final double y1 = measurement[1] - (h10 * this.mean[0] + h11 * this.mean[1]);
+    this.logLikelihood = -0.5d * ((y0 * y0 * s11 - 2d * y0 * y1 * s01 + y1 * y1 * s00)
+        / determinant + Math.log(determinant) + 2d * Math.log(2d * Math.PI));
+
+    this.mean[0] += k00 * y0 + k01 * y1;
+    this.mean[1] += k10 * y0 + k11 * y1;
+
+    // P - K * (P * H^T)^T
+    this.covariance[0] = p00 - (k00 * t00 + k01 * t01);
+    this.covariance[1] = p01 - (k00 * t10 + k01 * t11);
+    this.covariance[2] = this.covariance[1];
+    this.covariance[3] = p11 - (k10 * t10 + k11 * t11);
+  }
+}
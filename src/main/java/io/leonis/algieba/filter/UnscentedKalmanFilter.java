@@ -0,0 +1,336 @@
+package io.leonis.algieba.filter;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.*;
+import java.util.stream.IntStream;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class UnscentedKalmanFilter.
+ *
+ * This class represents an unscented Kalman filter (UKF) for nonlinear applications. Contrary to
+ * the {@link ExtendedKalmanFilter}, the UKF does not linearise the state- and
+ * measurement-transitions, but propagates a deterministic set of 2n + 1 sigma points through them
+ * and recovers the mean and covariance from the transformed points. The implementation is based
+ * off of notes and equations which can be found <a
+ * href="https://en.wikipedia.org/wiki/Kalman_filter#Unscented_Kalman_filter">here</a>.
+ *
+ * The sigma points are either propagated as a single matrix, in which every column is a sigma
+ * point, or one at a time, optionally spread over a {@link ForkJoinPool} for expensive
+ * transitions. See {@link Propagation}.
+ *
+ * @author agent
+ */
+public class UnscentedKalmanFilter {
+  /**
+   * The spread of the sigma points around the mean.
+   */
+  private final double alpha;
+  /**
+   * The prior knowledge of the distribution, 2 is optimal for Gaussian distributions.
+   */
+  private final double beta;
+  /**
+   * The secondary scaling parameter.
+   */
+  private final double kappa;
+  /**
+   * The manner in which sigma points are propagated through the transitions.
+   */
+  private final Propagation propagation;
+  /**
+   * The pool which propagates the sigma points when the propagation is {@link
+   * Propagation#PARALLEL}.
+   */
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs an unscented Kalman filter with alpha = 1, beta = 2, and kappa = 0, which
+   * propagates the sigma points one at a time. A small alpha yields weights of the order of
+   * 1 / alpha^2 with alternating signs, which amplify the rounding errors of matrices stored in
+   * single precision, whereas these parameters keep every weight between 0 and 2.
+   */
+  public UnscentedKalmanFilter() {
+    this(1d, 2d, 0d, Propagation.SEQUENTIAL, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param alpha       The spread of the sigma points around the mean, between 0 and 1. Small
+   *                    values require the matrices to be stored in double precision.
+   * @param beta        The prior knowledge of the distribution, 2 is optimal for Gaussian
+   *                    distributions.
+   * @param kappa       The secondary scaling parameter, usually 0.
+   * @param propagation The manner in which sigma points are propagated through the transitions.
+   * @param pool        The pool which propagates the sigma points in parallel.
+   */
+  public UnscentedKalmanFilter(
+      final double alpha,
+      final double beta,
+      final double kappa,
+      final Propagation propagation,
+      final ForkJoinPool pool
+  ) {
+    this.alpha = alpha;
+    this.beta = beta;
+    this.kappa = kappa;
+    this.propagation = propagation;
+    this.pool = pool;
+  }
+
+  /**
+   * Computes the filtered {@link Distribution} (mean and covariance) using the supplied state- and
+   * measurement-transition functions, and the supplied control input, process noise, measurement,
+   * and current state.
+   *
+   * @param stateTransition       A {@link BiFunction} which takes as its first argument the
+   *                              previous state, and the control input as its second argument. The
+   *                              result is the next state. When the sigma points are propagated as
+   *                              a matrix, the function is applied to all states (columns) at
+   *                              once.
+   * @param measurementTransition A {@link Function} which takes as its first argument the current
+   *                              state and returns the measurement. When the sigma points are
+   *                              propagated as a matrix, the function is applied to all states
+   *                              (columns) at once.
+   * @param controlInput          The control input.
+   * @param processCovariance     The process covariance.
+   * @param measurement           The {@link Distribution} of the measurement, where the mean is
+   *                              equal to the measurement vector and the covariance is equal to
+   *                              the measurement variance matrix.
+   * @param state                 The {@link Distribution} of the latest state.
+   * @return The filtered state.
+   * @throws ArithmeticException If a covariance is not positive-definite.
+   */
+  public Distribution apply(
+      final BiFunction<INDArray, INDArray, INDArray> stateTransition,
+      final Function<INDArray, INDArray> measurementTransition,
+      final INDArray controlInput,
+      final INDArray processCovariance,
+      final Distribution measurement,
+      final Distribution state
+  ) {
+    final int n = state.getMean().rows();
+    final int points = 2 * n + 1;
+    final double lambda = this.alpha * this.alpha * (n + this.kappa) - n;
+    final double[] meanWeights = new double[points];
+    final double[] covarianceWeights = new double[points];
+    meanWeights[0] = lambda / (n + lambda);
+    covarianceWeights[0] = meanWeights[0] + 1d - this.alpha * this.alpha + this.beta;
+    for (int point = 1; point < points; point++) {
+      meanWeights[point] = 1d / (2d * (n + lambda));
+      covarianceWeights[point] = meanWeights[point];
+    }
+
+    // predict
+    final double[] projectedSigmaPoints = this.propagate(
+        this.computeSigmaPoints(
+            Matrices.toArray(state.getMean()), Matrices.toArray(state.getCovariance()), n, lambda),
+        n, sigmaPoint -> stateTransition.apply(sigmaPoint, controlInput));
+    final double[] projectedState = new double[n];
+    final double[] projectedErrorCovariance = Matrices.toArray(processCovariance);
+    UnscentedKalmanFilter.computeStatistics(projectedSigmaPoints, n, meanWeights,
+        covarianceWeights, projectedState, projectedErrorCovariance);
+
+    // update
+    final double[] sigmaPoints =
+        this.computeSigmaPoints(projectedState, projectedErrorCovariance, n, lambda);
+    final double[] measurementSigmaPoints =
+        this.propagate(sigmaPoints, n, measurementTransition);
+    final int m = measurementSigmaPoints.length / points;
+    final double[] projectedMeasurement = new double[m];
+    final double[] innovationCovariance = Matrices.toArray(measurement.getCovariance());
+    UnscentedKalmanFilter.computeStatistics(measurementSigmaPoints, m, meanWeights,
+        covarianceWeights, projectedMeasurement, innovationCovariance);
+
+    // cross-covariance (m by n), ie. the transpose of sum W * (X - x) * (Z - z)^T
+    final double[] transposedGain = new double[m * n];
+    for (int point = 0; point < points; point++) {
+      for (int row = 0; row < m; row++) {
+        final double measurementDeviation = covarianceWeights[point]
+            * (measurementSigmaPoints[row * points + point] - projectedMeasurement[row]);
+        for (int column = 0; column < n; column++) {
+          transposedGain[row * n + column] += measurementDeviation
+              * (sigmaPoints[column * points + point] - projectedState[column]);
+        }
+      }
+    }
+    final double[] crossCovariance = transposedGain.clone();
+
+    // solve S * K^T = C^T
+    if (!Matrices.decomposeCholesky(innovationCovariance, m)) {
+      throw new ArithmeticException("The innovation covariance is not positive-definite.");
+    }
+    Matrices.solveCholesky(innovationCovariance, transposedGain, m, n);
+
+    final double[] innovation = Matrices.toArray(measurement.getMean());
+    for (int row = 0; row < m; row++) {
+      innovation[row] -= projectedMeasurement[row];
+    }
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < m; column++) {
+        projectedState[row] += transposedGain[column * n + row] * innovation[column];
+      }
+    }
+    // P - K * S * K^T = P - K * C^T
+    for (int row = 0; row < n; row++) {
+      for (int column = 0; column < n; column++) {
+        for (int index = 0; index < m; index++) {
+          projectedErrorCovariance[row * n + column] -=
+              transposedGain[index * n + row] * crossCovariance[index * n + column];
+        }
+      }
+    }
+    Matrices.symmetrize(projectedErrorCovariance, n);
+
+    return new SimpleDistribution(
+        Matrices.toMatrix(projectedState, n, 1),
+        Matrices.toMatrix(projectedErrorCovariance, n, n));
+  }
+
+  /**
+   * Computes the sigma points of a distribution, ie. the mean, and the mean plus and minus every
+   * column of the square root of the scaled covariance.
+   *
+   * @param mean       The mean of the distribution.
+   * @param covariance The covariance of the distribution in row-major order.
+   * @param n          The dimension of the distribution.
+   * @param lambda     The scaling parameter.
+   * @return A matrix (n by 2n + 1) of which every column is a sigma point, in row-major order.
+   * @throws ArithmeticException If the covariance is not positive-definite.
+   */
+  private double[] computeSigmaPoints(
+      final double[] mean,
+      final double[] covariance,
+      final int n,
+      final double lambda
+  ) {
+    final int points = 2 * n + 1;
+    final double[] root = new double[n * n];
+    for (int index = 0; index < n * n; index++) {
+      root[index] = (n + lambda) * covariance[index];
+    }
+    if (!Matrices.decomposeCholesky(root, n)) {
+      throw new ArithmeticException("The state covariance is not positive-definite.");
+    }
+    final double[] sigmaPoints = new double[n * points];
+    for (int row = 0; row < n; row++) {
+      sigmaPoints[row * points] = mean[row];
+      for (int column = 0; column < n; column++) {
+        sigmaPoints[row * points + 1 + column] = mean[row] + root[row * n + column];
+        sigmaPoints[row * points + 1 + n + column] = mean[row] - root[row * n + column];
+      }
+    }
+    return sigmaPoints;
+  }
+
+  /**
+   * Propagates the sigma points through the supplied transition.
+   *
+   * @param sigmaPoints The sigma points as the columns of a matrix in row-major order.
+   * @param n           The dimension of the sigma points.
+   * @param transition  The transition to propagate the sigma points through.
+   * @return The propagated sigma points as the columns of a matrix in row-major order.
+   */
+  private double[] propagate(
+      final double[] sigmaPoints,
+      final int n,
+      final Function<INDArray, INDArray> transition
+  ) {
+    final int points = 2 * n + 1;
+    if (this.propagation == Propagation.BATCHED) {
+      return Matrices.toArray(transition.apply(Matrices.toMatrix(sigmaPoints, n, points)));
+    }
+
+    final INDArray[] propagatedPoints = new INDArray[points];
+    final IntConsumer propagator = point -> {
+      final double[] sigmaPoint = new double[n];
+      for (int row = 0; row < n; row++) {
+        sigmaPoint[row] = sigmaPoints[row * points + point];
+      }
+      propagatedPoints[point] = transition.apply(Matrices.toMatrix(sigmaPoint, n, 1));
+    };
+    if (this.propagation == Propagation.PARALLEL) {
+      this.pool.submit(() -> IntStream.range(0, points).parallel().forEach(propagator)).join();
+    } else {
+      IntStream.range(0, points).forEach(propagator);
+    }
+
+    final int dimension = propagatedPoints[0].rows();
+    final double[] result = new double[dimension * points];
+    for (int point = 0; point < points; point++) {
+      for (int row = 0; row < dimension; row++) {
+        result[row * points + point] = propagatedPoints[point].getDouble(row, 0);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Computes the weighted mean of the sigma points and adds their weighted covariance to the
+   * supplied covariance.
+   *
+   * @param sigmaPoints       The sigma points as the columns of a matrix in row-major order.
+   * @param dimension         The dimension of the sigma points.
+   * @param meanWeights       The weights of the sigma points in the mean.
+   * @param covarianceWeights The weights of the sigma points in the covariance.
+   * @param mean              The array to write the mean to.
+   * @param covariance        The covariance to add the covariance of the sigma points to.
+   */
+  private static void computeStatistics(
+      final double[] sigmaPoints,
+      final int dimension,
+      final double[] meanWeights,
+      final double[] covarianceWeights,
+      final double[] mean,
+      final double[] covariance
+  ) {
+    final int points = meanWeights.length;
+    for (int row = 0; row < dimension; row++) {
+      double sum = 0d;
+      for (int point = 0; point < points; point++) {
+        sum += meanWeights[point] * sigmaPoints[row * points + point];
+      }
+      mean[row] = sum;
+    }
+    for (int row = 0; row < dimension; row++) {
+      for (int column = row; column < dimension; column++) {
+        double sum = 0d;
+        for (int point = 0; point < points; point++) {
+          sum += covarianceWeights[point]
+              * (sigmaPoints[row * points + point] - mean[row])
+              * (sigmaPoints[column * points + point] - mean[column]);
+        }
+        covariance[row * dimension + column] += sum;
+        if (row != column) {
+          covariance[column * dimension + row] += sum;
+        }
+      }
+    }
+  }
+
+  /**
+   * The Enum Propagation.
+   *
+   * This enumeration enumerates the manners in which sigma points are propagated through the
+   * state- and measurement-transitions.
+   */
+  public enum Propagation {
+    /**
+     * The transition is applied once to a matrix of which every column is a sigma point. This
+     * requires the transition to operate column-wise, as linear transitions do.
+     */
+    BATCHED,
+
+    /**
+     * The transition is applied to every sigma point in turn.
+     */
+    SEQUENTIAL,
+
+    /**
+     * The transition is applied to every sigma point, spread over a {@link ForkJoinPool}. This is
+     * worthwhile for expensive transitions.
+     */
+    PARALLEL
+  }
+}
@@ -0,0 +1,262 @@
+package io.leonis.algieba.reactive;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.control.*;
+import io.leonis.algieba.filter.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.*;
+import lombok.experimental.UtilityClass;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+/**
+ * The Class FluxOperators.
+ *
+ * This class contains ready-made transformers, to be used with {@link Flux#transform(Function)},
+ * which apply the filters, controllers and anomaly detectors of this library to streams. Reactor
+ * is an optional dependency of this library; this class can only be used when Reactor is on the
+ * classpath.
+ *
+ * Contrary to {@link Flux#scan(Object, BiFunction)}, which requires a new aggregate to be
+ * allocated for every element, every transformer keeps its state in a single mutable holder which
+ * is created upon subscription, such that every subscriber has its own state. The transformers are
+ * built on {@link Flux#map(Function)} and {@link Flux#filter(Predicate)} and thus pass on the
+ * demand of their subscriber. The projections of the state are evaluated synchronously for every
+ * element, so they must copy whatever they emit.
+ *
+ * @author agent
+ */
+@UtilityClass
+public class FluxOperators {
+
+  /**
+   * Folds every element into a mutable state, and emits a projection of the state after every
+   * element.
+   *
+   * @param initialState The supplier of the state of a single subscription.
+   * @param accumulator  The function which folds an element into the state.
+   * @param projection   The function which projects the state onto an emitted value.
+   * @param <T>          The type of the elements.
+   * @param <S>          The type of the state.
+   * @param <R>          The type of the emitted values.
+   * @return The transformer.
+   */
+  public static <T, S, R> Function<Flux<T>, Flux<R>> fold(
+      final Supplier<S> initialState,
+      final BiConsumer<S, ? super T> accumulator,
+      final Function<? super S, R> projection
+  ) {
+    return flux -> Flux.defer(() -> {
+      final S state = initialState.get();
+      return flux.map(element -> {
+        accumulator.accept(state, element);
+        return projection.apply(state);
+      });
+    });
+  }
+
+  /**
+   * Folds every element of every batch into a mutable state, and emits a projection of the state
+   * after every batch.
+   *
+   * @param initialState The supplier of the state of a single subscription.
+   * @param accumulator  The function which folds an element into the state.
+   * @param projection   The function which projects the state onto an emitted value.
+   * @param <T>          The type of the elements.
+   * @param <S>          The type of the state.
+   * @param <R>          The type of the emitted values.
+   * @return The transformer.
+   * @see #batch(int, Duration, int, Consumer, BufferOverflowStrategy)
+   */
+  public static <T, S, R> Function<Flux<List<T>>, Flux<R>> foldBatches(
+      final Supplier<S> initialState,
+      final BiConsumer<S, ? super T> accumulator,
+      final Function<? super S, R> projection
+  ) {
+    return FluxOperators.fold(initialState,
+        (state, batch) -> batch.forEach(element -> accumulator.accept(state, element)),
+        projection);
+  }
+
+  /**
+   * Collects micro-bursts of elements, such as vision frames which arrive at once, into batches,
+   * such that the downstream operators handle a burst at once. A batch is emitted when it is full
+   * or when the supplied time has passed since its first element. Since the batches are formed
+   * on time, batches which are not yet requested are buffered. This buffer is bounded by the
+   * supplied capacity, and the caller decides what happens when a slow subscriber lets it
+   * overflow, eg. {@link BufferOverflowStrategy#DROP_OLDEST} to keep only the latest batches.
+   *
+   * @param maximumSize      The maximum amount of elements in a batch.
+   * @param maximumTime      The maximum time between the first element of a batch and its
+   *                         emission.
+   * @param capacity         The maximum amount of batches which are buffered for the subscriber.
+   * @param onOverflow       The consumer of every batch which is dropped when the buffer is full.
+   * @param overflowStrategy The {@link BufferOverflowStrategy} which is applied when the buffer
+   *                         is full.
+   * @param <T>              The type of the elements.
+   * @return The transformer.
+   */
+  public static <T> Function<Flux<T>, Flux<List<T>>> batch(
+      final int maximumSize,
+      final Duration maximumTime,
+      final int capacity,
+      final Consumer<? super List<T>> onOverflow,
+      final BufferOverflowStrategy overflowStrategy
+  ) {
+    return flux -> flux.bufferTimeout(maximumSize, maximumTime)
+        .onBackpressureBuffer(capacity, onOverflow, overflowStrategy);
+  }
+
+  /**
+   * Filters every measurement using a {@link FixedKalmanFilter}, which is predicted one step
+   * before every measurement.
+   *
+   * @param filter                The supplier of the filter of a single subscription.
+   * @param measurementCovariance The covariance of every measurement in row-major order.
+   * @param projection            The function which projects the filter onto an emitted value.
+   * @param <R>                   The type of the emitted values.
+   * @return The transformer.
+   */
+  public static <R> Function<Flux<double[]>, Flux<R>> track(
+      final Supplier<FixedKalmanFilter> filter,
+      final double[] measurementCovariance,
+      final Function<? super FixedKalmanFilter, R> projection
+  ) {
+    return FluxOperators.fold(filter,
+        (state, measurement) -> FluxOperators.track(state, measurement, measurementCovariance),
+        projection);
+  }
+
+  /**
+   * Filters every batch of measurements using a {@link FixedKalmanFilter}, which is predicted one
+   * step before every measurement, and emits once per batch.
+   *
+   * @param filter                The supplier of the filter of a single subscription.
+   * @param measurementCovariance The covariance of every measurement in row-major order.
+   * @param projection            The function which projects the filter onto an emitted value.
+   * @param <R>                   The type of the emitted values.
+   * @return The transformer.
+   * @see #batch(int, Duration, int, Consumer, BufferOverflowStrategy)
+   */
+  public static <R> Function<Flux<List<double[]>>, Flux<R>> trackBatches(
+      final Supplier<FixedKalmanFilter> filter,
+      final double[] measurementCovariance,
+      final Function<? super FixedKalmanFilter, R> projection
+  ) {
+    return FluxOperators.foldBatches(filter,
+        (state, measurement) -> FluxOperators.track(state, measurement, measurementCovariance),
+        projection);
+  }
+
+  /**
+   * Averages every sample with the preceding samples in a window using a {@link
+   * StreamingMovingAverageFilter}.
+   *
+   * @param dimension The dimension of a sample.
+   * @param window    The amount of samples which are averaged.
+   * @return The transformer, which emits the average as a column vector.
+   */
+  public static Function<Flux<double[]>, Flux<INDArray>> average(
+      final int dimension,
+      final int window
+  ) {
+    return FluxOperators.fold(() -> new StreamingMovingAverageFilter(dimension, window),
+        (filter, sample) -> filter.apply(sample), filter -> filter.getAverage());
+  }
+
+  /**
+   * Computes the control signal for every error term (also known as residual or innovation) using
+   * the same equations as {@link PSDController}. The latest control signal and error terms are
+   * kept in primitive arrays.
+   *
+   * @param dimension          The dimension of the control signal.
+   * @param proportionalFactor The coefficient for the proportional controller.
+   * @param summationFactor    The coefficient for the summation controller.
+   * @param differenceFactor   The coefficient for the difference controller.
+   * @param deltaTime          The time between subsequent error terms.
+   * @return The transformer, which emits the control signal as a column vector.
+   */
+  public static Function<Flux<double[]>, Flux<INDArray>> control(
+      final int dimension,
+      final double proportionalFactor,
+      final double summationFactor,
+      final double differenceFactor,
+      final double deltaTime
+  ) {
+    final double latestGain =
+        proportionalFactor + summationFactor * deltaTime / 2d + differenceFactor / deltaTime;
+    final double previousGain =
+        -1d * proportionalFactor + summationFactor * deltaTime / 2d
+            - 2d * differenceFactor / deltaTime;
+    final double oldestGain = differenceFactor / deltaTime;
+    return FluxOperators.fold(() -> new double[4 * dimension],
+        (state, residual) -> {
+          // state: control signal, followed by the latest three error terms
+          System.arraycopy(state, 2 * dimension, state, 3 * dimension, dimension);
+          System.arraycopy(state, dimension, state, 2 * dimension, dimension);
+          System.arraycopy(residual, 0, state, dimension, dimension);
+          for (int index = 0; index < dimension; index++) {
+            state[index] += latestGain * state[dimension + index]
+                + previousGain * state[2 * dimension + index]
+                + oldestGain * state[3 * dimension + index];
+          }
+        },
+        state -> Matrices.toMatrix(Arrays.copyOf(state, dimension), dimension, 1));
+  }
+
+  /**
+   * Drops every element which the supplied {@link AnomalyDetector} considers an anomaly.
+   *
+   * @param detector The anomaly detector.
+   * @param <T>      The type of the elements.
+   * @return The transformer.
+   */
+  public static <T> Function<Flux<T>, Flux<T>> gate(final AnomalyDetector<? super T> detector) {
+    return flux -> flux.filter(element -> !detector.test(element));
+  }
+
+  /**
+   * Drops every element which the supplied {@link ScanningAnomalyDetector} considers an anomaly
+   * given the representation of the input space, which is updated with every element which is not
+   * an anomaly.
+   *
+   * @param initialState The supplier of the input space representation of a single subscription.
+   * @param detector     The anomaly detector.
+   * @param accumulator  The function which folds an element into the input space representation.
+   * @param <S>          The type of the input space representation.
+   * @param <T>          The type of the elements.
+   * @return The transformer.
+   */
+  public static <S, T> Function<Flux<T>, Flux<T>> gate(
+      final Supplier<S> initialState,
+      final ScanningAnomalyDetector<? super S, ? super T> detector,
+      final BiConsumer<S, ? super T> accumulator
+  ) {
+    return flux -> Flux.defer(() -> {
+      final S state = initialState.get();
+      return flux.filter(element -> {
+        if (detector.test(state, element)) {
+          return false;
+        }
+        accumulator.accept(state, element);
+        return true;
+      });
+    });
+  }
+
+  /**
+   * @param filter                The filter.
+   * @param measurement           The measurement vector.
+   * @param measurementCovariance The covariance of the measurement in row-major order.
+   */
+  private static void track(
+      final FixedKalmanFilter filter,
+      final double[] measurement,
+      final double[] measurementCovariance
+  ) {
+    filter.predict(null);
+    filter.update(measurement, measurementCovariance);
+  }
+}
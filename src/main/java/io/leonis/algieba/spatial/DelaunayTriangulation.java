@@ -0,0 +1,1580 @@
+package io.leonis.algieba.spatial;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.algebra.Matrices;
+import java.math.BigDecimal;
+import java.util.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class DelaunayTriangulation.
+ *
+ * This class represents the <a href="https://en.wikipedia.org/wiki/Delaunay_triangulation">Delaunay
+ * triangulation</a> of the two-dimensional positions of a set of facilities, which is the dual of
+ * their Voronoi diagram: two facilities share an edge if and only if their Voronoi cells share a
+ * boundary. The nearest other facility of every facility is one of its neighbors in the
+ * triangulation, and the nearest facility to any point is found by walking from neighbor to
+ * neighbor towards the point, such that the facility queries of an {@link RTree} only inspect a
+ * handful of facilities.
+ *
+ * Facilities are inserted incrementally using the Bowyer-Watson algorithm: the triangle containing
+ * the new position is located by a randomized walk, after which every triangle of which the
+ * circumcircle contains the position is replaced by a fan around it. Every facility is also
+ * inserted into a coarser triangulation with a fixed probability, which recursively forms a
+ * <a href="https://hal.inria.fr/inria-00166711">Delaunay hierarchy</a>: a walk starts at the
+ * facility nearest to the point in the coarser triangulation, such that locating a point takes
+ * O(log n) expected time.
+ * The outside of the convex hull is covered by ghost triangles which share a vertex at infinity,
+ * such that positions outside of the hull need no special treatment. A removed facility leaves a
+ * hole which is filled by clipping the ears of which the circumcircles are empty. A facility which
+ * moves such that none of its triangles is inverted is moved in place, after which the
+ * triangulation is repaired by flipping the edges which are no longer Delaunay; any other
+ * facility is removed and inserted again. Facilities at the same position share a vertex.
+ *
+ * The triangles and facilities are stored in flat primitive arrays, of which freed slots are
+ * reused. The predicates are evaluated in floating point arithmetic, and exactly if the rounding
+ * error could change their outcome, such that nearly degenerate positions cannot corrupt the
+ * triangulation. The triangulation is not thread-safe, as queries update the triangle from which
+ * the next walk starts. Facilities are identified by reference rather than by
+ * {@link Object#equals(Object)}, such that facilities of which the equality depends on their
+ * mutable position can be updated in place.
+ *
+ * @param <O> The type of facility stored in the triangulation.
+ * @author agent
+ */
+public class DelaunayTriangulation<O extends Spatial> implements RTree<INDArray, O> {
+  /**
+   * The vertex at infinity, which is shared by all ghost triangles.
+   */
+  private static final int INFINITE = -1;
+  /**
+   * The marker of a released triangle.
+   */
+  private static final int FREE = -2;
+  /**
+   * The inverse of the probability that a facility is also inserted into the coarser
+   * triangulation.
+   */
+  private static final int RATIO = 30;
+  /**
+   * The relative rounding error of an arithmetic operation in double precision.
+   */
+  private static final double ROUNDING = Math.ulp(1d) / 2d;
+  /**
+   * The relative error bound of the orientation in floating point arithmetic, after Shewchuk.
+   */
+  private static final double ORIENTATION_ERROR = (3d + 16d * ROUNDING) * ROUNDING;
+  /**
+   * The relative error bound of the circumcircle test in floating point arithmetic, after
+   * Shewchuk.
+   */
+  private static final double CIRCLE_ERROR = (10d + 96d * ROUNDING) * ROUNDING;
+  /**
+   * The relative error bound of the difference of two squared distances in floating point
+   * arithmetic.
+   */
+  private static final double DISTANCE_ERROR = (9d + 64d * ROUNDING) * ROUNDING;
+
+  /**
+   * The site of every facility by facility, by reference.
+   */
+  private final Map<O, Integer> handles = new IdentityHashMap<>();
+
+  /**
+   * The position of every site, one after the other.
+   */
+  private double[] coordinates = new double[32];
+  /**
+   * The facility of every site.
+   */
+  private Object[] objects = new Object[16];
+  /**
+   * A triangle incident to every site which is a vertex, or -1.
+   */
+  private int[] incident = new int[16];
+  /**
+   * The vertex at the position of every site.
+   */
+  private int[] owners = new int[16];
+  /**
+   * The next site at the same position as every site, or the next free site for a released site.
+   */
+  private int[] stacks = new int[16];
+  /**
+   * The amount of sites which have ever been allocated.
+   */
+  private int siteTop;
+  /**
+   * The first released site, or -1 if there is none.
+   */
+  private int freeSite = -1;
+
+  /**
+   * The vertices of every triangle in counterclockwise order.
+   */
+  private int[] corners = new int[96];
+  /**
+   * The neighbor of every triangle across the edge opposite to each of its vertices.
+   */
+  private int[] adjacent = new int[96];
+  /**
+   * The amount of triangles which have ever been allocated.
+   */
+  private int triangleTop;
+  /**
+   * The first released triangle, or -1 if there is none.
+   */
+  private int freeTriangle = -1;
+  /**
+   * The amount of triangles which are not ghost triangles.
+   */
+  private int solidCount;
+  /**
+   * The triangle from which the next walk starts.
+   */
+  private int hint = -1;
+  /**
+   * The state of the generator which randomizes the walks and the sampling of the facilities.
+   */
+  private int seed = 0x2545F491;
+  /**
+   * The triangulation of a random sample of the facilities, or null if none has been sampled.
+   */
+  private DelaunayTriangulation<O> coarse;
+
+  /**
+   * The triangles of the cavity of an insertion, or the edges of a repair.
+   */
+  private int[] work = new int[64];
+  /**
+   * The stamp of every triangle, which marks the triangles of the current cavity.
+   */
+  private int[] marks = new int[32];
+  /**
+   * The current stamp.
+   */
+  private int stamp;
+
+  /**
+   * Constructs an empty triangulation.
+   */
+  public DelaunayTriangulation() {
+  }
+
+  /**
+   * @param facilities The facilities to insert.
+   */
+  public DelaunayTriangulation(final Collection<? extends O> facilities) {
+    facilities.forEach(this::insert);
+  }
+
+  /**
+   * Inserts the supplied facility into the triangulation.
+   *
+   * @param facility The facility.
+   * @return True if the facility was inserted, false if the triangulation already contains it.
+   */
+  public boolean insert(final O facility) {
+    if (this.handles.containsKey(facility)) {
+      return false;
+    }
+    final int site = this.allocateSite();
+    this.handles.put(facility, site);
+    this.objects[site] = facility;
+    this.setPosition(facility, site);
+    this.attach(site);
+    if (this.nextRandom() % RATIO == 0) {
+      if (this.coarse == null) {
+        this.coarse = new DelaunayTriangulation<>();
+      }
+      this.coarse.insert(facility);
+    }
+    return true;
+  }
+
+  /**
+   * Removes the supplied facility from the triangulation.
+   *
+   * @param facility The facility.
+   * @return True if the facility was removed, false if the triangulation does not contain it.
+   */
+  public boolean delete(final O facility) {
+    final Integer site = this.handles.remove(facility);
+    if (site == null) {
+      return false;
+    }
+    if (this.coarse != null) {
+      this.coarse.delete(facility);
+    }
+    this.detach(site);
+    this.objects[site] = null;
+    this.stacks[site] = this.freeSite;
+    this.freeSite = site;
+    return true;
+  }
+
+  /**
+   * Updates the position of the supplied facility in the triangulation.
+   *
+   * @param facility The facility.
+   * @return True if the facility was updated, false if the triangulation does not contain it.
+   */
+  public boolean update(final O facility) {
+    final Integer site = this.handles.get(facility);
+    if (site == null) {
+      return false;
+    }
+    if (this.coarse != null) {
+      this.coarse.update(facility);
+    }
+    final INDArray position = facility.getPosition();
+    final double x = position.getDouble(0);
+    final double y = position.getDouble(1);
+    if (x == this.coordinates[2 * site] && y == this.coordinates[2 * site + 1]) {
+      return true;
+    }
+    if (this.owners[site] == site && this.stacks[site] < 0 && this.solidCount > 0
+        && this.isMovable(site, x, y)) {
+      this.coordinates[2 * site] = x;
+      this.coordinates[2 * site + 1] = y;
+      this.repair(site);
+      return true;
+    }
+    this.detach(site);
+    this.coordinates[2 * site] = x;
+    this.coordinates[2 * site + 1] = y;
+    this.attach(site);
+    return true;
+  }
+
+  /**
+   * Updates the positions of all facilities in the triangulation.
+   */
+  public void update() {
+    for (final O facility : this.handles.keySet()) {
+      this.update(facility);
+    }
+  }
+
+  /**
+   * Finds the facility nearest to the supplied point by walking to the triangle containing the
+   * point, and from there to ever nearer neighbors.
+   *
+   * @param point The query point.
+   * @return The nearest facility, or null if the triangulation is empty.
+   */
+  public O getNearestNeighbor(final double[] point) {
+    return this.getNearestNeighbor(point[0], point[1]);
+  }
+
+  /**
+   * @param x The horizontal position of the query point.
+   * @param y The vertical position of the query point.
+   * @return The nearest facility, or null if the triangulation is empty.
+   */
+  private O getNearestNeighbor(final double x, final double y) {
+    if (this.handles.isEmpty()) {
+      return null;
+    }
+    if (this.solidCount == 0) {
+      return this.getObject(this.findNearest(x, y, -1));
+    }
+    final int triangle = this.locate(x, y, this.getStart(x, y));
+    int vertex = INFINITE;
+    for (int index = 0; index < 3; index++) {
+      final int corner = this.corners[3 * triangle + index];
+      if (corner != INFINITE && (vertex == INFINITE
+          || this.compareDistance(corner, vertex, x, y) < 0)) {
+        vertex = corner;
+      }
+    }
+    // a vertex which is not the nearest to the point has a neighbor which is nearer
+    int nearer = vertex;
+    do {
+      vertex = nearer;
+      final int first = this.incident[vertex];
+      int current = first;
+      do {
+        final int index = this.indexOf(current, vertex);
+        final int neighbor = this.corners[3 * current + (index + 1) % 3];
+        if (neighbor != INFINITE
+            && this.compareDistance(neighbor, nearer, x, y) < 0) {
+          nearer = neighbor;
+        }
+        current = this.adjacent[3 * current + (index + 1) % 3];
+      } while (current != first);
+    } while (nearer != vertex);
+    return this.getObject(vertex);
+  }
+
+  /**
+   * Computes the largest circle of which the center lies within the convex hull of the
+   * facilities and which contains no facility, ie. the largest distance from any point in the
+   * hull to its nearest facility. The center is either a vertex of the Voronoi diagram, which is
+   * the circumcenter of a triangle, or the point where an edge of the Voronoi diagram crosses the
+   * hull.
+   *
+   * @param center The array to write the center of the circle into, or null.
+   * @return The radius of the circle, or zero if the triangulation is empty.
+   */
+  public double getLargestEmptyCircle(final double[] center) {
+    if (this.handles.isEmpty()) {
+      return 0d;
+    }
+    if (this.solidCount == 0) {
+      return this.getLargestGap(center);
+    }
+    final double[] largest = {-1d, 0d, 0d};
+    for (int triangle = 0; triangle < this.triangleTop; triangle++) {
+      final int offset = 3 * triangle;
+      if (this.corners[offset] == FREE) {
+        continue;
+      }
+      final int ghost = this.indexOf(triangle, INFINITE);
+      if (ghost >= 0) {
+        this.scanHull(this.corners[offset + (ghost + 1) % 3],
+            this.corners[offset + (ghost + 2) % 3], largest);
+        continue;
+      }
+      final int a = this.corners[offset];
+      final int b = this.corners[offset + 1];
+      final int c = this.corners[offset + 2];
+      final double bx = this.coordinates[2 * b] - this.coordinates[2 * a];
+      final double by = this.coordinates[2 * b + 1] - this.coordinates[2 * a + 1];
+      final double cx = this.coordinates[2 * c] - this.coordinates[2 * a];
+      final double cy = this.coordinates[2 * c + 1] - this.coordinates[2 * a + 1];
+      final double determinant = 2d * (bx * cy - by * cx);
+      final double ux = (cy * (bx * bx + by * by) - by * (cx * cx + cy * cy)) / determinant;
+      final double uy = (bx * (cx * cx + cy * cy) - cx * (bx * bx + by * by)) / determinant;
+      final double radius = ux * ux + uy * uy;
+      final double x = this.coordinates[2 * a] + ux;
+      final double y = this.coordinates[2 * a + 1] + uy;
+      if (radius > largest[0] && this.indexOf(this.locate(x, y, triangle), INFINITE) < 0) {
+        largest[0] = radius;
+        largest[1] = x;
+        largest[2] = y;
+      }
+    }
+    if (center != null) {
+      center[0] = largest[1];
+      center[1] = largest[2];
+    }
+    return Math.sqrt(largest[0]);
+  }
+
+  /**
+   * @param facility The facility.
+   * @return The facilities of which the Voronoi cells border the cell of the supplied facility,
+   *     including the facilities at the same position.
+   */
+  public Set<O> getNeighbors(final O facility) {
+    final Set<O> neighbors = Collections.newSetFromMap(new IdentityHashMap<>());
+    final Integer site = this.handles.get(facility);
+    if (site == null) {
+      return neighbors;
+    }
+    final int vertex = this.owners[site];
+    for (int other = vertex; other >= 0; other = this.stacks[other]) {
+      if (other != site) {
+        neighbors.add(this.getObject(other));
+      }
+    }
+    if (this.solidCount == 0) {
+      this.addCollinearNeighbors(vertex, neighbors);
+      return neighbors;
+    }
+    final int first = this.incident[vertex];
+    int current = first;
+    do {
+      final int index = this.indexOf(current, vertex);
+      final int neighbor = this.corners[3 * current + (index + 1) % 3];
+      if (neighbor != INFINITE) {
+        for (int other = neighbor; other >= 0; other = this.stacks[other]) {
+          neighbors.add(this.getObject(other));
+        }
+      }
+      current = this.adjacent[3 * current + (index + 1) % 3];
+    } while (current != first);
+    return neighbors;
+  }
+
+  /**
+   * @return The amount of facilities in the triangulation.
+   */
+  public int getCount() {
+    return this.handles.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getFacilities() {
+    return Collections.unmodifiableSet(this.handles.keySet());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getNodes() {
+    return this.getFacilities();
+  }
+
+  /**
+   * Finds the nearest facility other than the supplied facility, which is one of its neighbors in
+   * the triangulation.
+   *
+   * @param object The facility to find the nearest neighbor of.
+   * @return The nearest neighbor of the supplied facility, or null if there is none.
+   */
+  @Override
+  public O getNearestNeighbor(final O object) {
+    final Integer site = this.handles.get(object);
+    if (site == null) {
+      return null;
+    }
+    final int neighbor = this.findNeighbor(site);
+    return neighbor < 0 ? null : this.getObject(neighbor);
+  }
+
+  /**
+   * Computes the distance from the supplied facility to the nearest other facility.
+   *
+   * @param facility The facility to find the maximum nearest neighbor distance of.
+   * @return The distance to the nearest other facility, or infinity if there is none.
+   */
+  @Override
+  public double getMaximumNearestNeighborDistance(final O facility) {
+    final Integer site = this.handles.get(facility);
+    if (site == null) {
+      return Double.POSITIVE_INFINITY;
+    }
+    final int neighbor = this.findNeighbor(site);
+    return neighbor < 0
+        ? Double.POSITIVE_INFINITY
+        : Math.sqrt(this.getDistance(neighbor,
+            this.coordinates[2 * site], this.coordinates[2 * site + 1]));
+  }
+
+  /**
+   * @return The minimum corner of the bounding box of all facilities.
+   */
+  @Override
+  public INDArray getPosition() {
+    final double[] box = this.getBox();
+    return Matrices.toMatrix(new double[]{box[0], box[1]}, 2, 1);
+  }
+
+  /**
+   * @return The extent of the bounding box of all facilities along every axis.
+   */
+  @Override
+  public INDArray getSize() {
+    final double[] box = this.getBox();
+    return Matrices.toMatrix(new double[]{box[2] - box[0], box[3] - box[1]}, 2, 1);
+  }
+
+  /**
+   * Adds the supplied site to the triangulation, as a new vertex or at the vertex which is
+   * already at its position.
+   *
+   * @param site The site, of which the position has been set.
+   */
+  private void attach(final int site) {
+    this.owners[site] = site;
+    this.stacks[site] = -1;
+    this.incident[site] = -1;
+    final double x = this.coordinates[2 * site];
+    final double y = this.coordinates[2 * site + 1];
+    if (this.solidCount == 0) {
+      // all vertices are collinear, so there are no triangles yet
+      final int vertex = this.findNearest(x, y, site);
+      if (vertex >= 0 && this.getDistance(vertex, x, y) == 0d) {
+        this.stack(site, vertex);
+      } else if (this.isSpanning(site)) {
+        this.rebuild();
+      }
+      return;
+    }
+    final int triangle = this.locate(x, y, this.getStart(x, y));
+    for (int index = 0; index < 3; index++) {
+      final int corner = this.corners[3 * triangle + index];
+      if (corner != INFINITE && this.getDistance(corner, x, y) == 0d) {
+        this.stack(site, corner);
+        return;
+      }
+    }
+    this.insertVertex(site, triangle);
+  }
+
+  /**
+   * Removes the supplied site from the triangulation. If other sites share its vertex, one of
+   * them takes over the vertex.
+   *
+   * @param site The site.
+   */
+  private void detach(final int site) {
+    final int owner = this.owners[site];
+    if (owner != site) {
+      int previous = owner;
+      while (this.stacks[previous] != site) {
+        previous = this.stacks[previous];
+      }
+      this.stacks[previous] = this.stacks[site];
+      return;
+    }
+    final int successor = this.stacks[site];
+    if (successor >= 0) {
+      for (int other = successor; other >= 0; other = this.stacks[other]) {
+        this.owners[other] = successor;
+      }
+      this.incident[successor] = this.incident[site];
+      if (this.incident[site] >= 0) {
+        this.replaceVertex(site, successor);
+      }
+    } else if (this.solidCount > 0) {
+      this.owners[site] = -1;
+      this.removeVertex(site);
+    }
+    this.owners[site] = -1;
+    this.incident[site] = -1;
+  }
+
+  /**
+   * Adds the supplied site to the facilities at the position of the supplied vertex.
+   *
+   * @param site   The site.
+   * @param vertex The vertex.
+   */
+  private void stack(final int site, final int vertex) {
+    this.owners[site] = vertex;
+    this.stacks[site] = this.stacks[vertex];
+    this.stacks[vertex] = site;
+  }
+
+  /**
+   * Replaces the supplied vertex by the supplied site in every triangle around the vertex.
+   *
+   * @param vertex The vertex.
+   * @param site   The site.
+   */
+  private void replaceVertex(final int vertex, final int site) {
+    final int first = this.incident[vertex];
+    int current = first;
+    do {
+      final int index = this.indexOf(current, vertex);
+      this.corners[3 * current + index] = site;
+      current = this.adjacent[3 * current + (index + 1) % 3];
+    } while (current != first);
+  }
+
+  /**
+   * Inserts the supplied site as a new vertex by replacing every triangle of which the
+   * circumcircle contains it by a fan of triangles around it.
+   *
+   * @param site     The site.
+   * @param triangle A triangle of which the circumcircle contains the site.
+   */
+  private void insertVertex(final int site, final int triangle) {
+    final double x = this.coordinates[2 * site];
+    final double y = this.coordinates[2 * site + 1];
+
+    // collect the cavity of triangles in conflict with the site by a depth-first search
+    this.stamp++;
+    this.marks[triangle] = this.stamp;
+    int size = 0;
+    int pending = 1;
+    this.work[0] = triangle;
+    while (pending > size) {
+      final int current = this.work[size++];
+      for (int index = 0; index < 3; index++) {
+        final int neighbor = this.adjacent[3 * current + index];
+        if (this.marks[neighbor] != this.stamp && this.isConflicting(neighbor, x, y)) {
+          this.marks[neighbor] = this.stamp;
+          this.push(pending++, neighbor);
+        }
+      }
+    }
+
+    // replace every edge on the boundary of the cavity by a triangle with the site
+    final int cavity = size;
+    for (int member = 0; member < cavity; member++) {
+      final int current = this.work[member];
+      for (int index = 0; index < 3; index++) {
+        final int neighbor = this.adjacent[3 * current + index];
+        if (this.marks[neighbor] != this.stamp) {
+          final int created = this.allocateTriangle(
+              this.corners[3 * current + (index + 1) % 3],
+              this.corners[3 * current + (index + 2) % 3],
+              site);
+          this.marks[created] = 0;
+          this.adjacent[3 * created + 2] = neighbor;
+          this.adjacent[3 * neighbor + this.indexOf(neighbor, current, this.adjacent)] = created;
+          this.push(size++, created);
+        }
+      }
+    }
+
+    // link the fan, in which every triangle starts where another one ends
+    for (int member = cavity; member < size; member++) {
+      final int created = this.work[member];
+      final int start = this.corners[3 * created];
+      final int end = this.corners[3 * created + 1];
+      for (int other = cavity; other < size; other++) {
+        final int candidate = this.work[other];
+        if (this.corners[3 * candidate] == end) {
+          this.adjacent[3 * created] = candidate;
+        }
+        if (this.corners[3 * candidate + 1] == start) {
+          this.adjacent[3 * created + 1] = candidate;
+        }
+      }
+      this.setIncident(created);
+    }
+    for (int member = 0; member < cavity; member++) {
+      this.freeTriangle(this.work[member]);
+    }
+  }
+
+  /**
+   * Removes the supplied vertex, and fills the hole of its triangles by repeatedly cutting off an
+   * ear of the surrounding polygon of which the circumcircle contains no other vertex of the
+   * polygon.
+   *
+   * @param vertex The vertex.
+   */
+  private void removeVertex(final int vertex) {
+    // the polygon of the neighbors of the vertex in counterclockwise order, and per edge of the
+    // polygon the triangle outside of it
+    int count = 0;
+    final int first = this.incident[vertex];
+    int current = first;
+    do {
+      final int index = this.indexOf(current, vertex);
+      final int outside = this.adjacent[3 * current + index];
+      this.push(3 * count, this.corners[3 * current + (index + 1) % 3]);
+      this.push(3 * count + 1, outside);
+      this.push(3 * count + 2, current);
+      count++;
+      current = this.adjacent[3 * current + (index + 1) % 3];
+    } while (current != first);
+    for (int index = 0; index < count; index++) {
+      this.freeTriangle(this.work[3 * index + 2]);
+    }
+    final int[] polygon = new int[count];
+    final int[] outside = new int[count];
+    final int[] next = new int[count];
+    final int[] previous = new int[count];
+    for (int index = 0; index < count; index++) {
+      polygon[index] = this.work[3 * index];
+      outside[index] = this.work[3 * index + 1];
+      next[index] = (index + 1) % count;
+      previous[index] = (index + count - 1) % count;
+    }
+
+    int remaining = count;
+    int position = 0;
+    while (remaining > 3) {
+      int attempts = 0;
+      while (!this.isEar(polygon, next, previous[position], position, next[position])) {
+        position = next[position];
+        if (++attempts > remaining) {
+          // the hole cannot be filled in floating point arithmetic
+          this.rebuild();
+          return;
+        }
+      }
+      final int before = previous[position];
+      final int after = next[position];
+      final int created = this.allocateTriangle(
+          polygon[before], polygon[position], polygon[after]);
+      this.connect(created, 2, outside[before]);
+      this.connect(created, 0, outside[position]);
+      this.setIncident(created);
+      outside[before] = created;
+      next[before] = after;
+      previous[after] = before;
+      remaining--;
+      position = before;
+    }
+    final int last = this.allocateTriangle(
+        polygon[previous[position]], polygon[position], polygon[next[position]]);
+    this.connect(last, 2, outside[previous[position]]);
+    this.connect(last, 0, outside[position]);
+    this.connect(last, 1, outside[next[position]]);
+    this.setIncident(last);
+    if (this.solidCount == 0) {
+      this.rebuild();
+    }
+  }
+
+  /**
+   * @param polygon  The vertices of the polygon.
+   * @param next     The index of the next vertex of every vertex in the polygon.
+   * @param before   The index of the vertex before the ear.
+   * @param position The index of the tip of the ear.
+   * @param after    The index of the vertex after the ear.
+   * @return True if the triangle of the supplied vertices is a Delaunay triangle of the vertices of
+   *     the polygon, ie. it is convex and no other vertex lies in its circumcircle.
+   */
+  private boolean isEar(
+      final int[] polygon,
+      final int[] next,
+      final int before,
+      final int position,
+      final int after
+  ) {
+    final int a = polygon[before];
+    final int b = polygon[position];
+    final int c = polygon[after];
+    final boolean ghost = a == INFINITE || b == INFINITE || c == INFINITE;
+    if (!ghost && this.orient(a, b, c) <= 0d) {
+      return false;
+    }
+    final int u = a == INFINITE ? b : b == INFINITE ? c : a;
+    final int w = a == INFINITE ? c : b == INFINITE ? a : b;
+    for (int index = next[after]; index != before; index = next[index]) {
+      final int other = polygon[index];
+      if (other == INFINITE) {
+        continue;
+      }
+      final double x = this.coordinates[2 * other];
+      final double y = this.coordinates[2 * other + 1];
+      if (ghost ? this.isBeyond(u, w, x, y) : this.inCircle(a, b, c, x, y) > 0d) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Restores the Delaunay property around the supplied vertex after it has moved, by flipping
+   * every edge of which the opposite vertex lies in the circumcircle of the triangle on the other
+   * side, and checking the edges surrounding every flipped edge in turn.
+   *
+   * @param vertex The vertex.
+   */
+  private void repair(final int vertex) {
+    int size = 0;
+    final int first = this.incident[vertex];
+    int current = first;
+    do {
+      final int index = this.indexOf(current, vertex);
+      for (int edge = 0; edge < 3; edge++) {
+        this.push(size++, 3 * current + edge);
+      }
+      current = this.adjacent[3 * current + (index + 1) % 3];
+    } while (current != first);
+
+    while (size > 0) {
+      final int edge = this.work[--size];
+      final int triangle = edge / 3;
+      final int index = edge % 3;
+      final int neighbor = this.adjacent[edge];
+      if (this.indexOf(triangle, INFINITE) >= 0 || this.indexOf(neighbor, INFINITE) >= 0) {
+        continue;
+      }
+      final int opposite = this.indexOf(neighbor, triangle, this.adjacent);
+      final int far = this.corners[3 * neighbor + opposite];
+      if (this.inCircle(this.corners[3 * triangle], this.corners[3 * triangle + 1],
+          this.corners[3 * triangle + 2],
+          this.coordinates[2 * far], this.coordinates[2 * far + 1]) > 0d) {
+        this.flip(triangle, index, neighbor, opposite);
+        this.push(size++, 3 * triangle);
+        this.push(size++, 3 * triangle + 2);
+        this.push(size++, 3 * neighbor);
+        this.push(size++, 3 * neighbor + 1);
+      }
+    }
+    this.hint = first;
+  }
+
+  /**
+   * Replaces the edge shared by the supplied triangles by the other diagonal of their
+   * quadrilateral, such that the triangle (p, q, r) and its neighbor (d, r, q) become (p, q, d)
+   * and (p, d, r).
+   *
+   * @param triangle The first triangle.
+   * @param index    The index of the vertex of the first triangle opposite to the edge.
+   * @param neighbor The second triangle.
+   * @param opposite The index of the vertex of the second triangle opposite to the edge.
+   */
+  private void flip(
+      final int triangle,
+      final int index,
+      final int neighbor,
+      final int opposite
+  ) {
+    final int p = this.corners[3 * triangle + index];
+    final int q = this.corners[3 * triangle + (index + 1) % 3];
+    final int r = this.corners[3 * triangle + (index + 2) % 3];
+    final int d = this.corners[3 * neighbor + opposite];
+    final int beforeP = this.adjacent[3 * triangle + (index + 1) % 3];
+    final int afterP = this.adjacent[3 * triangle + (index + 2) % 3];
+    final int beforeD = this.adjacent[3 * neighbor + (opposite + 1) % 3];
+    final int afterD = this.adjacent[3 * neighbor + (opposite + 2) % 3];
+
+    this.setTriangle(triangle, p, q, d);
+    this.setTriangle(neighbor, p, d, r);
+    this.adjacent[3 * triangle] = beforeD;
+    this.adjacent[3 * triangle + 1] = neighbor;
+    this.adjacent[3 * triangle + 2] = afterP;
+    this.adjacent[3 * neighbor] = afterD;
+    this.adjacent[3 * neighbor + 1] = beforeP;
+    this.adjacent[3 * neighbor + 2] = triangle;
+    this.adjacent[3 * beforeD + this.indexOf(beforeD, neighbor, this.adjacent)] = triangle;
+    this.adjacent[3 * beforeP + this.indexOf(beforeP, triangle, this.adjacent)] = neighbor;
+    this.setIncident(triangle);
+    this.setIncident(neighbor);
+  }
+
+  /**
+   * @param vertex The vertex.
+   * @param x      The new horizontal position of the vertex.
+   * @param y      The new vertical position of the vertex.
+   * @return True if the vertex lies inside of the convex hull and can move to the supplied
+   *     position without inverting any of its triangles.
+   */
+  private boolean isMovable(final int vertex, final double x, final double y) {
+    final int first = this.incident[vertex];
+    int current = first;
+    do {
+      final int index = this.indexOf(current, vertex);
+      final int b = this.corners[3 * current + (index + 1) % 3];
+      final int c = this.corners[3 * current + (index + 2) % 3];
+      if (b == INFINITE || c == INFINITE || DelaunayTriangulation.orient(x, y,
+          this.coordinates[2 * b], this.coordinates[2 * b + 1],
+          this.coordinates[2 * c], this.coordinates[2 * c + 1]) <= 0d) {
+        return false;
+      }
+      current = this.adjacent[3 * current + (index + 1) % 3];
+    } while (current != first);
+    return true;
+  }
+
+  /**
+   * Discards all triangles and triangulates the vertices again, or leaves them without triangles
+   * if they are collinear.
+   */
+  private void rebuild() {
+    this.triangleTop = 0;
+    this.freeTriangle = -1;
+    this.solidCount = 0;
+    this.hint = -1;
+    int a = -1;
+    int b = -1;
+    int c = -1;
+    for (int site = 0; site < this.siteTop; site++) {
+      if (this.objects[site] == null || this.owners[site] != site) {
+        continue;
+      }
+      this.incident[site] = -1;
+      if (a < 0) {
+        a = site;
+      } else if (b < 0) {
+        b = site;
+      } else if (c < 0 && this.orient(a, b, site) != 0d) {
+        c = site;
+      }
+    }
+    if (c < 0) {
+      return;
+    }
+    if (this.orient(a, b, c) < 0d) {
+      final int swap = a;
+      a = b;
+      b = swap;
+    }
+    final int solid = this.allocateTriangle(a, b, c);
+    final int[] ghosts = {
+        this.allocateTriangle(b, a, INFINITE),
+        this.allocateTriangle(c, b, INFINITE),
+        this.allocateTriangle(a, c, INFINITE)};
+    this.connect(solid, 2, ghosts[0]);
+    this.connect(solid, 0, ghosts[1]);
+    this.connect(solid, 1, ghosts[2]);
+    for (int ghost = 0; ghost < 3; ghost++) {
+      // every ghost triangle shares the edge to infinity from its second vertex with the previous
+      this.connect(ghosts[ghost], 0, ghosts[(ghost + 2) % 3]);
+    }
+    this.setIncident(solid);
+    for (int site = 0; site < this.siteTop; site++) {
+      if (this.objects[site] != null && this.owners[site] == site && site != a && site != b
+          && site != c) {
+        final int triangle = this.locate(this.coordinates[2 * site],
+            this.coordinates[2 * site + 1], this.getStart(this.coordinates[2 * site],
+            this.coordinates[2 * site + 1]));
+        this.insertVertex(site, triangle);
+      }
+    }
+  }
+
+  /**
+   * @param site A site which is not a vertex yet, while the vertices are collinear.
+   * @return True if the site does not lie on the line through the vertices.
+   */
+  private boolean isSpanning(final int site) {
+    int a = -1;
+    for (int other = 0; other < this.siteTop; other++) {
+      if (other == site || this.objects[other] == null || this.owners[other] != other) {
+        continue;
+      }
+      if (a < 0) {
+        a = other;
+      } else {
+        return this.orient(a, other, site) != 0d;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Locates the triangle containing the supplied point by a walk which crosses every edge of which
+   * the point lies on the other side, trying the edges in a random order such that it cannot
+   * cycle.
+   *
+   * @param x     The horizontal position of the point.
+   * @param y     The vertical position of the point.
+   * @param start The triangle to start from.
+   * @return The solid triangle containing the point, or a ghost triangle of which the edge of the
+   *     hull faces the point.
+   */
+  private int locate(final double x, final double y, final int start) {
+    int triangle = start;
+    for (int step = 0; step <= this.triangleTop; step++) {
+      if (this.indexOf(triangle, INFINITE) >= 0) {
+        return triangle;
+      }
+      final int offset = this.nextRandom() % 3;
+      int crossed = -1;
+      for (int edge = 0; edge < 3 && crossed < 0; edge++) {
+        final int index = (offset + edge) % 3;
+        final int a = this.corners[3 * triangle + (index + 1) % 3];
+        final int b = this.corners[3 * triangle + (index + 2) % 3];
+        if (DelaunayTriangulation.orient(
+            this.coordinates[2 * a], this.coordinates[2 * a + 1],
+            this.coordinates[2 * b], this.coordinates[2 * b + 1], x, y) < 0d) {
+          crossed = index;
+        }
+      }
+      if (crossed < 0) {
+        this.hint = triangle;
+        return triangle;
+      }
+      triangle = this.adjacent[3 * triangle + crossed];
+    }
+    // the walk did not terminate in floating point arithmetic
+    for (triangle = 0; triangle < this.triangleTop; triangle++) {
+      if (this.corners[3 * triangle] != FREE && this.isConflicting(triangle, x, y)) {
+        return triangle;
+      }
+    }
+    return start;
+  }
+
+  /**
+   * @param triangle The triangle.
+   * @param x        The horizontal position of the point.
+   * @param y        The vertical position of the point.
+   * @return True if the circumcircle of the triangle contains the point. The circumcircle of a
+   *     ghost triangle is the open half-plane beyond its edge of the hull, and the edge itself.
+   */
+  private boolean isConflicting(final int triangle, final double x, final double y) {
+    final int ghost = this.indexOf(triangle, INFINITE);
+    if (ghost < 0) {
+      return this.inCircle(this.corners[3 * triangle], this.corners[3 * triangle + 1],
+          this.corners[3 * triangle + 2], x, y) > 0d;
+    }
+    return this.isBeyond(this.corners[3 * triangle + (ghost + 1) % 3],
+        this.corners[3 * triangle + (ghost + 2) % 3], x, y);
+  }
+
+  /**
+   * @param a The start of the edge.
+   * @param b The end of the edge.
+   * @param x The horizontal position of the point.
+   * @param y The vertical position of the point.
+   * @return True if the point lies to the left of the edge, or strictly between its ends.
+   */
+  private boolean isBeyond(final int a, final int b, final double x, final double y) {
+    final double ax = this.coordinates[2 * a];
+    final double ay = this.coordinates[2 * a + 1];
+    final double bx = this.coordinates[2 * b];
+    final double by = this.coordinates[2 * b + 1];
+    final double orientation = DelaunayTriangulation.orient(ax, ay, bx, by, x, y);
+    if (orientation != 0d) {
+      return orientation > 0d;
+    }
+    // the point lies on the line through the edge
+    return ax != bx
+        ? Math.min(ax, bx) < x && x < Math.max(ax, bx)
+        : Math.min(ay, by) < y && y < Math.max(ay, by);
+  }
+
+  /**
+   * Walks along the supplied edge of the hull from one end to the other through the Voronoi cells
+   * which it crosses, and records every crossing of a Voronoi edge which lies farther from its
+   * nearest facilities than the largest circle so far.
+   *
+   * @param a       The start of the edge.
+   * @param b       The end of the edge.
+   * @param largest The squared radius and the center of the largest circle so far.
+   */
+  private void scanHull(final int a, final int b, final double[] largest) {
+    final double ax = this.coordinates[2 * a];
+    final double ay = this.coordinates[2 * a + 1];
+    final double dx = this.coordinates[2 * b] - ax;
+    final double dy = this.coordinates[2 * b + 1] - ay;
+    int site = a;
+    double parameter = 0d;
+    while (site != b) {
+      final double sx = this.coordinates[2 * site];
+      final double sy = this.coordinates[2 * site + 1];
+      double crossing = Double.POSITIVE_INFINITY;
+      int successor = -1;
+      final int first = this.incident[site];
+      int current = first;
+      do {
+        final int index = this.indexOf(current, site);
+        final int neighbor = this.corners[3 * current + (index + 1) % 3];
+        if (neighbor != INFINITE) {
+          // the position along the edge where the neighbor becomes nearer than the site
+          final double ux = this.coordinates[2 * neighbor];
+          final double uy = this.coordinates[2 * neighbor + 1];
+          final double approach = dx * (ux - sx) + dy * (uy - sy);
+          if (approach > 0d) {
+            final double position = (ux * ux + uy * uy - sx * sx - sy * sy
+                - 2d * (ax * (ux - sx) + ay * (uy - sy))) / (2d * approach);
+            if (position < crossing) {
+              crossing = position;
+              successor = neighbor;
+            }
+          }
+        }
+        current = this.adjacent[3 * current + (index + 1) % 3];
+      } while (current != first);
+      if (successor < 0 || crossing >= 1d) {
+        return;
+      }
+      parameter = Math.max(parameter, crossing);
+      final double x = ax + parameter * dx;
+      final double y = ay + parameter * dy;
+      final double radius = this.getDistance(site, x, y);
+      if (radius > largest[0]) {
+        largest[0] = radius;
+        largest[1] = x;
+        largest[2] = y;
+      }
+      site = successor;
+    }
+  }
+
+  /**
+   * Computes the largest empty circle of collinear facilities, which is centered halfway the
+   * largest gap between two consecutive facilities.
+   *
+   * @param center The array to write the center of the circle into, or null.
+   * @return The radius of the circle.
+   */
+  private double getLargestGap(final double[] center) {
+    int a = -1;
+    int b = -1;
+    for (int site = 0; site < this.siteTop && b < 0; site++) {
+      if (this.objects[site] != null && this.owners[site] == site) {
+        if (a < 0) {
+          a = site;
+        } else {
+          b = site;
+        }
+      }
+    }
+    if (b < 0) {
+      if (center != null) {
+        center[0] = this.coordinates[2 * a];
+        center[1] = this.coordinates[2 * a + 1];
+      }
+      return 0d;
+    }
+    final double dx = this.coordinates[2 * b] - this.coordinates[2 * a];
+    final double dy = this.coordinates[2 * b + 1] - this.coordinates[2 * a + 1];
+    final List<Integer> line = new ArrayList<>();
+    for (int site = 0; site < this.siteTop; site++) {
+      if (this.objects[site] != null && this.owners[site] == site) {
+        line.add(site);
+      }
+    }
+    line.sort(Comparator.comparingDouble(site ->
+        this.coordinates[2 * site] * dx + this.coordinates[2 * site + 1] * dy));
+    double largest = 0d;
+    for (int index = 1; index < line.size(); index++) {
+      final int from = line.get(index - 1);
+      final int to = line.get(index);
+      final double gap = Math.sqrt(this.getDistance(from,
+          this.coordinates[2 * to], this.coordinates[2 * to + 1])) / 2d;
+      if (gap > largest) {
+        largest = gap;
+        if (center != null) {
+          center[0] = (this.coordinates[2 * from] + this.coordinates[2 * to]) / 2d;
+          center[1] = (this.coordinates[2 * from + 1] + this.coordinates[2 * to + 1]) / 2d;
+        }
+      }
+    }
+    return largest;
+  }
+
+  /**
+   * Adds the nearest facility on either side of the supplied vertex to the supplied set, while
+   * the vertices are collinear.
+   *
+   * @param vertex    The vertex.
+   * @param neighbors The set to add the neighbors to.
+   */
+  private void addCollinearNeighbors(final int vertex, final Set<O> neighbors) {
+    final int other = this.findNearest(
+        this.coordinates[2 * vertex], this.coordinates[2 * vertex + 1], vertex);
+    if (other < 0) {
+      return;
+    }
+    final double dx = this.coordinates[2 * other] - this.coordinates[2 * vertex];
+    final double dy = this.coordinates[2 * other + 1] - this.coordinates[2 * vertex + 1];
+    int behind = -1;
+    double nearest = Double.POSITIVE_INFINITY;
+    for (int site = 0; site < this.siteTop; site++) {
+      if (this.objects[site] == null || this.owners[site] != site) {
+        continue;
+      }
+      final double ex = this.coordinates[2 * site] - this.coordinates[2 * vertex];
+      final double ey = this.coordinates[2 * site + 1] - this.coordinates[2 * vertex + 1];
+      if (ex * dx + ey * dy < 0d && ex * ex + ey * ey < nearest) {
+        nearest = ex * ex + ey * ey;
+        behind = site;
+      }
+    }
+    for (final int neighbor : new int[]{other, behind}) {
+      for (int site = neighbor; site >= 0; site = this.stacks[site]) {
+        neighbors.add(this.getObject(site));
+      }
+    }
+  }
+
+  /**
+   * @param site The site.
+   * @return The nearest other site, or -1 if there is none.
+   */
+  private int findNeighbor(final int site) {
+    final int vertex = this.owners[site];
+    if (vertex != site) {
+      return vertex;
+    }
+    if (this.stacks[site] >= 0) {
+      return this.stacks[site];
+    }
+    final double x = this.coordinates[2 * site];
+    final double y = this.coordinates[2 * site + 1];
+    if (this.solidCount == 0) {
+      return this.findNearest(x, y, site);
+    }
+    int nearest = -1;
+    final int first = this.incident[site];
+    int current = first;
+    do {
+      final int index = this.indexOf(current, site);
+      final int neighbor = this.corners[3 * current + (index + 1) % 3];
+      if (neighbor != INFINITE
+          && (nearest < 0 || this.compareDistance(neighbor, nearest, x, y) < 0)) {
+        nearest = neighbor;
+      }
+      current = this.adjacent[3 * current + (index + 1) % 3];
+    } while (current != first);
+    return nearest;
+  }
+
+  /**
+   * @param x        The horizontal position of the point.
+   * @param y        The vertical position of the point.
+   * @param excluded The site to exclude, or -1.
+   * @return The vertex nearest to the supplied point by inspecting every vertex, or -1 if there
+   *     is none.
+   */
+  private int findNearest(final double x, final double y, final int excluded) {
+    int nearest = -1;
+    for (int site = 0; site < this.siteTop; site++) {
+      if (site != excluded && this.objects[site] != null && this.owners[site] == site
+          && (nearest < 0 || this.compareDistance(site, nearest, x, y) < 0)) {
+        nearest = site;
+      }
+    }
+    return nearest;
+  }
+
+  /**
+   * @return The minimum and maximum corner of the bounding box of all facilities.
+   */
+  private double[] getBox() {
+    final double[] box = {0d, 0d, 0d, 0d};
+    boolean empty = true;
+    for (final int site : this.handles.values()) {
+      final double x = this.coordinates[2 * site];
+      final double y = this.coordinates[2 * site + 1];
+      box[0] = empty ? x : Math.min(box[0], x);
+      box[1] = empty ? y : Math.min(box[1], y);
+      box[2] = empty ? x : Math.max(box[2], x);
+      box[3] = empty ? y : Math.max(box[3], y);
+      empty = false;
+    }
+    return box;
+  }
+
+  /**
+   * @param x The horizontal position of the point.
+   * @param y The vertical position of the point.
+   * @return A solid triangle around the facility nearest to the supplied point in the coarser
+   *     triangulation, or any solid triangle if there is none or if that facility is not a vertex
+   *     at this level.
+   */
+  private int getStart(final double x, final double y) {
+    final O nearest = this.coarse == null ? null : this.coarse.getNearestNeighbor(x, y);
+    final Integer site = nearest == null ? null : this.handles.get(nearest);
+    // the coarser triangulation may already contain a facility which is being moved at this level
+    if (site != null && this.owners[site] >= 0) {
+      final int vertex = this.owners[site];
+      final int first = this.incident[vertex];
+      int current = first;
+      // the triangles around a vertex which has not been inserted again by a rebuild are unknown
+      while (current >= 0) {
+        if (this.indexOf(current, INFINITE) < 0) {
+          return current;
+        }
+        current = this.adjacent[3 * current + (this.indexOf(current, vertex) + 1) % 3];
+        if (current == first) {
+          break;
+        }
+      }
+    }
+    if (this.hint >= 0 && this.hint < this.triangleTop && this.corners[3 * this.hint] != FREE
+        && this.indexOf(this.hint, INFINITE) < 0) {
+      return this.hint;
+    }
+    for (int triangle = 0; triangle < this.triangleTop; triangle++) {
+      if (this.corners[3 * triangle] != FREE && this.indexOf(triangle, INFINITE) < 0) {
+        return triangle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Copies the position of the supplied facility into the positions.
+   *
+   * @param facility The facility.
+   * @param site     The site of the facility.
+   */
+  private void setPosition(final O facility, final int site) {
+    final INDArray position = facility.getPosition();
+    this.coordinates[2 * site] = position.getDouble(0);
+    this.coordinates[2 * site + 1] = position.getDouble(1);
+  }
+
+  /**
+   * Links the supplied triangle to the supplied neighbor across the edge opposite to the supplied
+   * vertex, in both directions.
+   *
+   * @param triangle The triangle.
+   * @param index    The index of the vertex opposite to the edge.
+   * @param neighbor The neighbor.
+   */
+  private void connect(final int triangle, final int index, final int neighbor) {
+    final int a = this.corners[3 * triangle + (index + 1) % 3];
+    final int b = this.corners[3 * triangle + (index + 2) % 3];
+    this.adjacent[3 * triangle + index] = neighbor;
+    for (int other = 0; other < 3; other++) {
+      if (this.corners[3 * neighbor + (other + 1) % 3] == b
+          && this.corners[3 * neighbor + (other + 2) % 3] == a) {
+        this.adjacent[3 * neighbor + other] = triangle;
+      }
+    }
+  }
+
+  /**
+   * Points every vertex of the supplied triangle to the triangle.
+   *
+   * @param triangle The triangle.
+   */
+  private void setIncident(final int triangle) {
+    for (int index = 0; index < 3; index++) {
+      final int corner = this.corners[3 * triangle + index];
+      if (corner != INFINITE) {
+        this.incident[corner] = triangle;
+      }
+    }
+    if (this.indexOf(triangle, INFINITE) < 0) {
+      this.hint = triangle;
+    }
+  }
+
+  /**
+   * @param triangle The triangle.
+   * @param a        The first vertex.
+   * @param b        The second vertex.
+   * @param c        The third vertex.
+   */
+  private void setTriangle(final int triangle, final int a, final int b, final int c) {
+    this.corners[3 * triangle] = a;
+    this.corners[3 * triangle + 1] = b;
+    this.corners[3 * triangle + 2] = c;
+  }
+
+  /**
+   * @param triangle The triangle.
+   * @param vertex   The vertex.
+   * @return The index of the vertex in the triangle, or -1 if it is not a vertex of the triangle.
+   */
+  private int indexOf(final int triangle, final int vertex) {
+    return this.indexOf(triangle, vertex, this.corners);
+  }
+
+  /**
+   * @param triangle The triangle.
+   * @param value    The value.
+   * @param values   The vertices or neighbors of every triangle.
+   * @return The index of the value in the triangle, or -1 if it is not found.
+   */
+  private int indexOf(final int triangle, final int value, final int[] values) {
+    for (int index = 0; index < 3; index++) {
+      if (values[3 * triangle + index] == value) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param index The index in the work buffer.
+   * @param value The value to store at the index.
+   */
+  private void push(final int index, final int value) {
+    if (index >= this.work.length) {
+      this.work = Arrays.copyOf(this.work, 2 * index);
+    }
+    this.work[index] = value;
+  }
+
+  /**
+   * @param a The first vertex.
+   * @param b The second vertex.
+   * @param c The third vertex.
+   * @return The index of a new triangle with the supplied vertices.
+   */
+  private int allocateTriangle(final int a, final int b, final int c) {
+    final int triangle;
+    if (this.freeTriangle >= 0) {
+      triangle = this.freeTriangle;
+      this.freeTriangle = this.adjacent[3 * triangle];
+    } else {
+      if (3 * this.triangleTop == this.corners.length) {
+        this.corners = Arrays.copyOf(this.corners, 2 * this.corners.length);
+        this.adjacent = Arrays.copyOf(this.adjacent, 2 * this.adjacent.length);
+        this.marks = Arrays.copyOf(this.marks, 2 * this.marks.length);
+      }
+      triangle = this.triangleTop++;
+    }
+    this.setTriangle(triangle, a, b, c);
+    if (a != INFINITE && b != INFINITE && c != INFINITE) {
+      this.solidCount++;
+    }
+    return triangle;
+  }
+
+  /**
+   * @return A pseudorandom non-negative integer.
+   */
+  private int nextRandom() {
+    this.seed ^= this.seed << 13;
+    this.seed ^= this.seed >>> 17;
+    this.seed ^= this.seed << 5;
+    return this.seed >>> 1;
+  }
+
+  /**
+   * @param triangle The triangle to release for reuse.
+   */
+  private void freeTriangle(final int triangle) {
+    if (this.indexOf(triangle, INFINITE) < 0) {
+      this.solidCount--;
+    }
+    this.corners[3 * triangle] = FREE;
+    this.adjacent[3 * triangle] = this.freeTriangle;
+    this.freeTriangle = triangle;
+  }
+
+  /**
+   * @return The index of a new site.
+   */
+  private int allocateSite() {
+    if (this.freeSite >= 0) {
+      final int site = this.freeSite;
+      this.freeSite = this.stacks[site];
+      return site;
+    }
+    if (this.siteTop == this.objects.length) {
+      final int capacity = 2 * this.siteTop;
+      this.coordinates = Arrays.copyOf(this.coordinates, 2 * capacity);
+      this.objects = Arrays.copyOf(this.objects, capacity);
+      this.incident = Arrays.copyOf(this.incident, capacity);
+      this.owners = Arrays.copyOf(this.owners, capacity);
+      this.stacks = Arrays.copyOf(this.stacks, capacity);
+    }
+    return this.siteTop++;
+  }
+
+  /**
+   * @param site The site.
+   * @return The facility of the site.
+   */
+  @SuppressWarnings("unchecked")
+  private O getObject(final int site) {
+    return (O) this.objects[site];
+  }
+
+  /**
+   * @param site The site.
+   * @param x    The horizontal position of the point.
+   * @param y    The vertical position of the point.
+   * @return The squared distance from the site to the point.
+   */
+  private double getDistance(final int site, final double x, final double y) {
+    final double dx = this.coordinates[2 * site] - x;
+    final double dy = this.coordinates[2 * site + 1] - y;
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * @param a The first site.
+   * @param b The second site.
+   * @param x The horizontal position of the point.
+   * @param y The vertical position of the point.
+   * @return A value which is negative if the first site lies nearer to the point than the second
+   *     site, positive if it lies farther from it and zero if both lie equally far, evaluated
+   *     exactly if the rounding error could change its sign. Otherwise, the nearest-neighbor walk
+   *     can stop at a vertex of which a nearly coincident neighbor is nearer to the point.
+   */
+  private int compareDistance(final int a, final int b, final double x, final double y) {
+    final double first = this.getDistance(a, x, y);
+    final double second = this.getDistance(b, x, y);
+    if (Math.abs(first - second) > DISTANCE_ERROR * (first + second)) {
+      return Double.compare(first, second);
+    }
+    final BigDecimal px = new BigDecimal(x);
+    final BigDecimal py = new BigDecimal(y);
+    final BigDecimal[] distances = new BigDecimal[2];
+    final int[] sites = {a, b};
+    for (int index = 0; index < 2; index++) {
+      final BigDecimal dx = new BigDecimal(this.coordinates[2 * sites[index]]).subtract(px);
+      final BigDecimal dy = new BigDecimal(this.coordinates[2 * sites[index] + 1]).subtract(py);
+      distances[index] = dx.multiply(dx).add(dy.multiply(dy));
+    }
+    return distances[0].compareTo(distances[1]);
+  }
+
+  /**
+   * @param a The first site.
+   * @param b The second site.
+   * @param c The third site.
+   * @return Twice the signed area of the triangle of the sites, which is positive if the sites are
+   *     in counterclockwise order and zero if they are collinear, or only its sign if the rounding
+   *     error could change it.
+   */
+  private double orient(final int a, final int b, final int c) {
+    return DelaunayTriangulation.orient(
+        this.coordinates[2 * a], this.coordinates[2 * a + 1],
+        this.coordinates[2 * b], this.coordinates[2 * b + 1],
+        this.coordinates[2 * c], this.coordinates[2 * c + 1]);
+  }
+
+  /**
+   * @param a The first site.
+   * @param b The second site.
+   * @param c The third site, such that the sites are in counterclockwise order.
+   * @param x The horizontal position of the point.
+   * @param y The vertical position of the point.
+   * @return A value which is positive if the point lies inside the circumcircle of the sites,
+   *     negative if it lies outside of it and zero if it lies on it, evaluated exactly if the
+   *     rounding error could change its sign.
+   */
+  private double inCircle(final int a, final int b, final int c, final double x, final double y) {
+    final double adx = this.coordinates[2 * a] - x;
+    final double ady = this.coordinates[2 * a + 1] - y;
+    final double bdx = this.coordinates[2 * b] - x;
+    final double bdy = this.coordinates[2 * b + 1] - y;
+    final double cdx = this.coordinates[2 * c] - x;
+    final double cdy = this.coordinates[2 * c + 1] - y;
+    final double aLift = adx * adx + ady * ady;
+    final double bLift = bdx * bdx + bdy * bdy;
+    final double cLift = cdx * cdx + cdy * cdy;
+    final double determinant = aLift * (bdx * cdy - cdx * bdy)
+        + bLift * (cdx * ady - adx * cdy)
+        + cLift * (adx * bdy - bdx * ady);
+    final double permanent = aLift * (Math.abs(bdx * cdy) + Math.abs(cdx * bdy))
+        + bLift * (Math.abs(cdx * ady) + Math.abs(adx * cdy))
+        + cLift * (Math.abs(adx * bdy) + Math.abs(bdx * ady));
+    if (Math.abs(determinant) > CIRCLE_ERROR * permanent) {
+      return determinant;
+    }
+    final BigDecimal px = new BigDecimal(x);
+    final BigDecimal py = new BigDecimal(y);
+    final BigDecimal[] differences = new BigDecimal[6];
+    final BigDecimal[] lifts = new BigDecimal[3];
+    final int[] sites = {a, b, c};
+    for (int index = 0; index < 3; index++) {
+      differences[2 * index] = new BigDecimal(this.coordinates[2 * sites[index]]).subtract(px);
+      differences[2 * index + 1] =
+          new BigDecimal(this.coordinates[2 * sites[index] + 1]).subtract(py);
+      lifts[index] = differences[2 * index].multiply(differences[2 * index])
+          .add(differences[2 * index + 1].multiply(differences[2 * index + 1]));
+    }
+    BigDecimal exact = BigDecimal.ZERO;
+    for (int index = 0; index < 3; index++) {
+      final int next = (index + 1) % 3;
+      final int last = (index + 2) % 3;
+      exact = exact.add(lifts[index].multiply(
+          differences[2 * next].multiply(differences[2 * last + 1])
+              .subtract(differences[2 * last].multiply(differences[2 * next + 1]))));
+    }
+    return exact.signum();
+  }
+
+  /**
+   * @param ax The horizontal position of the first point.
+   * @param ay The vertical position of the first point.
+   * @param bx The horizontal position of the second point.
+   * @param by The vertical position of the second point.
+   * @param cx The horizontal position of the third point.
+   * @param cy The vertical position of the third point.
+   * @return Twice the signed area of the triangle of the points, which is positive if the points
+   *     are in counterclockwise order and zero if they are collinear, or only its sign if the
+   *     rounding error could change it.
+   */
+  private static double orient(
+      final double ax,
+      final double ay,
+      final double bx,
+      final double by,
+      final double cx,
+      final double cy
+  ) {
+    final double left = (bx - ax) * (cy - ay);
+    final double right = (by - ay) * (cx - ax);
+    final double determinant = left - right;
+    if (Math.abs(determinant) > ORIENTATION_ERROR * (Math.abs(left) + Math.abs(right))) {
+      return determinant;
+    }
+    final BigDecimal exactAx = new BigDecimal(ax);
+    final BigDecimal exactAy = new BigDecimal(ay);
+    final BigDecimal exactLeft =
+        new BigDecimal(bx).subtract(exactAx).multiply(new BigDecimal(cy).subtract(exactAy));
+    final BigDecimal exactRight =
+        new BigDecimal(by).subtract(exactAy).multiply(new BigDecimal(cx).subtract(exactAx));
+    return exactLeft.compareTo(exactRight);
+  }
+}
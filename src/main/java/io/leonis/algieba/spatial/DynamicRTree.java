@@ -0,0 +1,1302 @@
+package io.leonis.algieba.spatial;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.algebra.Matrices;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class DynamicRTree.
+ *
+ * This class represents an {@link RTree} over the positions of a set of moving objects which
+ * supports insertion, deletion and updates of the positions in place. Nodes are inserted and
+ * split following the <a href="https://doi.org/10.1145/93597.98741">R*-tree</a>: an object is
+ * inserted into the leaf of which the overlap with its siblings grows least, an overflowing node
+ * first has its outermost entries reinserted once per level, and only then is split along the axis
+ * and at the position which minimizes the margin and overlap of the halves.
+ *
+ * Every object is stored with a bounding box which is fattened around its position by a margin and
+ * by the distance which it travels at its velocity within a horizon. Updating an object of which
+ * the position is still inside its box changes nothing in the tree; an object which leaves its box
+ * receives a new box, and is only moved to another leaf if that box does not fit in its leaf.
+ * Queries are answered using the exact positions.
+ *
+ * The nodes and objects are stored in flat primitive arrays, of which freed slots are reused. The
+ * tree is not thread-safe, queries must not run concurrently with modifications. Objects are
+ * identified by reference rather than by {@link Object#equals(Object)}, such that objects of which
+ * the equality depends on their mutable position can be updated in place.
+ *
+ * @param <O> The type of object stored in the tree.
+ * @author agent
+ */
+public class DynamicRTree<O extends Spatial & Moving> implements RTree<INDArray, O> {
+  /**
+   * The default maximum amount of children of a node.
+   */
+  public static final int DEFAULT_NODE_SIZE = 16;
+  /**
+   * The fraction of the entries of an overflowing node which is reinserted.
+   */
+  private static final double REINSERTION_FRACTION = 0.3d;
+  /**
+   * The maximum height of the tree.
+   */
+  private static final int MAXIMUM_HEIGHT = 64;
+
+  /**
+   * The dimension of the positions.
+   */
+  private final int dimension;
+  /**
+   * The maximum amount of children of a node.
+   */
+  private final int maximumEntries;
+  /**
+   * The minimum amount of children of a node other than the root.
+   */
+  private final int minimumEntries;
+  /**
+   * The time over which the velocity of an object fattens its box.
+   */
+  private final double horizon;
+  /**
+   * The distance by which the box of every object is fattened regardless of its velocity.
+   */
+  private final double margin;
+  /**
+   * The index of every object by object, by reference.
+   */
+  private final Map<O, Integer> handles = new IdentityHashMap<>();
+
+  /**
+   * The bounding box of every node, the minimum corner followed by the maximum corner.
+   */
+  private double[] nodeBounds;
+  /**
+   * The children of every node, which are objects in a leaf and nodes otherwise.
+   */
+  private int[] children;
+  /**
+   * The amount of children of every node.
+   */
+  private int[] counts;
+  /**
+   * The parent of every node, or the next free node for a released node.
+   */
+  private int[] parents;
+  /**
+   * The level of every node, which is zero for a leaf.
+   */
+  private int[] levels;
+  /**
+   * The amount of nodes which have ever been allocated.
+   */
+  private int nodeTop;
+  /**
+   * The first released node, or -1 if there is none.
+   */
+  private int freeNode = -1;
+  /**
+   * The root node.
+   */
+  private int root;
+  /**
+   * The objects by their index.
+   */
+  private Object[] objects;
+  /**
+   * The fattened box of every object, the minimum corner followed by the maximum corner.
+   */
+  private double[] objectBounds;
+  /**
+   * The position of every object, one after the other.
+   */
+  private double[] points;
+  /**
+   * The leaf containing every object, or the next free index for a released object.
+   */
+  private int[] leaves;
+  /**
+   * The amount of objects which have ever been allocated.
+   */
+  private int objectTop;
+  /**
+   * The first released object, or -1 if there is none.
+   */
+  private int freeObject = -1;
+  /**
+   * Whether entries have been reinserted at every level during the current insertion.
+   */
+  private final boolean[] reinserted = new boolean[MAXIMUM_HEIGHT];
+  /**
+   * The entries which are being reinserted at every level.
+   */
+  private final int[][] reinsertions = new int[MAXIMUM_HEIGHT][];
+  /**
+   * The entries of a node in the order of a candidate split.
+   */
+  private final int[] splitOrder;
+  /**
+   * The entries of a node in the order of the chosen split.
+   */
+  private final int[] bestOrder;
+  /**
+   * The sort keys of the entries of a node.
+   */
+  private final double[] splitKeys;
+  /**
+   * The bounding box of every prefix of the entries in the split order.
+   */
+  private final double[] prefixBounds;
+  /**
+   * The bounding box of every suffix of the entries in the split order.
+   */
+  private final double[] suffixBounds;
+  /**
+   * The fattened box of an object which is being updated.
+   */
+  private final double[] box;
+  /**
+   * The search state of every thread.
+   */
+  private final ThreadLocal<SpatialSearch> searches = ThreadLocal.withInitial(SpatialSearch::new);
+
+  /**
+   * Constructs an R*-tree with the default node size.
+   *
+   * @param dimension The dimension of the positions.
+   * @param horizon   The time over which the velocity of an object fattens its box.
+   * @param margin    The distance by which the box of every object is fattened.
+   */
+  public DynamicRTree(final int dimension, final double horizon, final double margin) {
+    this(dimension, horizon, margin, DEFAULT_NODE_SIZE);
+  }
+
+  /**
+   * @param dimension The dimension of the positions.
+   * @param horizon   The time over which the velocity of an object fattens its box.
+   * @param margin    The distance by which the box of every object is fattened.
+   * @param nodeSize  The maximum amount of children of a node, which is at least four.
+   */
+  public DynamicRTree(
+      final int dimension,
+      final double horizon,
+      final double margin,
+      final int nodeSize
+  ) {
+    if (nodeSize < 4) {
+      throw new IllegalArgumentException("A node must be able to contain at least four children.");
+    }
+    this.dimension = dimension;
+    this.maximumEntries = nodeSize;
+    this.minimumEntries = Math.max(2, (int) (0.4d * nodeSize));
+    this.horizon = horizon;
+    this.margin = margin;
+
+    final int capacity = 16;
+    this.nodeBounds = new double[2 * dimension * capacity];
+    this.children = new int[(nodeSize + 1) * capacity];
+    this.counts = new int[capacity];
+    this.parents = new int[capacity];
+    this.levels = new int[capacity];
+    this.objects = new Object[capacity];
+    this.objectBounds = new double[2 * dimension * capacity];
+    this.points = new double[dimension * capacity];
+    this.leaves = new int[capacity];
+
+    final int reinsertions = Math.max(1, (int) (REINSERTION_FRACTION * nodeSize));
+    for (int level = 0; level < MAXIMUM_HEIGHT; level++) {
+      this.reinsertions[level] = new int[reinsertions];
+    }
+    this.splitOrder = new int[nodeSize + 1];
+    this.bestOrder = new int[nodeSize + 1];
+    this.splitKeys = new double[nodeSize + 1];
+    this.prefixBounds = new double[2 * dimension * (nodeSize + 1)];
+    this.suffixBounds = new double[2 * dimension * (nodeSize + 1)];
+    this.box = new double[2 * dimension];
+
+    this.root = this.allocateNode(0);
+    this.parents[this.root] = -1;
+    this.empty(this.root);
+  }
+
+  /**
+   * Inserts the supplied object into the tree.
+   *
+   * @param object The object.
+   * @return True if the object was inserted, false if the tree already contains it.
+   */
+  public boolean insert(final O object) {
+    if (this.handles.containsKey(object)) {
+      return false;
+    }
+    final int handle = this.allocateObject();
+    this.handles.put(object, handle);
+    this.objects[handle] = object;
+    this.locate(object, handle);
+    this.fatten(object, handle, this.objectBounds, 2 * this.dimension * handle);
+    Arrays.fill(this.reinserted, false);
+    this.insert(handle, 0);
+    return true;
+  }
+
+  /**
+   * Removes the supplied object from the tree.
+   *
+   * @param object The object.
+   * @return True if the object was removed, false if the tree does not contain it.
+   */
+  public boolean delete(final O object) {
+    final Integer handle = this.handles.remove(object);
+    if (handle == null) {
+      return false;
+    }
+    this.remove(handle);
+    this.objects[handle] = null;
+    this.leaves[handle] = this.freeObject;
+    this.freeObject = handle;
+    return true;
+  }
+
+  /**
+   * Updates the position of the supplied object in the tree.
+   *
+   * @param object The object.
+   * @return True if the object was updated, false if the tree does not contain it.
+   */
+  public boolean update(final O object) {
+    final Integer handle = this.handles.get(object);
+    if (handle == null) {
+      return false;
+    }
+    final int n = this.dimension;
+    final int offset = 2 * n * handle;
+    this.locate(object, handle);
+    if (DynamicRTree.contains(this.objectBounds, offset, this.points, n * handle, n)) {
+      return true;
+    }
+
+    // the object left its box, refit it in its leaf if the new box fits
+    this.fatten(object, handle, this.box, 0);
+    final int leaf = this.leaves[handle];
+    if (DynamicRTree.encloses(this.nodeBounds, 2 * n * leaf, this.box, 0, n)) {
+      System.arraycopy(this.box, 0, this.objectBounds, offset, 2 * n);
+      return true;
+    }
+    this.remove(handle);
+    System.arraycopy(this.box, 0, this.objectBounds, offset, 2 * n);
+    Arrays.fill(this.reinserted, false);
+    this.insert(handle, 0);
+    return true;
+  }
+
+  /**
+   * Updates the positions of all objects in the tree.
+   */
+  public void update() {
+    for (final O object : this.handles.keySet()) {
+      this.update(object);
+    }
+  }
+
+  /**
+   * Finds the objects nearest to the supplied point in order of their distance.
+   *
+   * @param point     The query point.
+   * @param amount    The maximum amount of objects to find.
+   * @param result    The array to write the found objects into.
+   * @param distances The array to write the distances of the found objects into, or null.
+   * @return The amount of objects found, which is less than the requested amount only if the tree
+   *     contains fewer objects.
+   */
+  public int getNearestNeighbors(
+      final double[] point,
+      final int amount,
+      final O[] result,
+      final double[] distances
+  ) {
+    final SpatialSearch search = this.searches.get();
+    this.start(search, point);
+    int found = 0;
+    while (found < amount) {
+      final int handle = this.next(search, point);
+      if (handle < 0) {
+        break;
+      }
+      result[found] = this.getObject(handle);
+      if (distances != null) {
+        distances[found] = Math.sqrt(search.distance);
+      }
+      found++;
+    }
+    return found;
+  }
+
+  /**
+   * @param point The query point.
+   * @return The object nearest to the supplied point, or null if the tree is empty.
+   */
+  public O getNearestNeighbor(final double[] point) {
+    final SpatialSearch search = this.searches.get();
+    this.start(search, point);
+    final int handle = this.next(search, point);
+    return handle < 0 ? null : this.getObject(handle);
+  }
+
+  /**
+   * Supplies every object of which the position lies within the supplied distance of the supplied
+   * point to the supplied consumer.
+   *
+   * @param point    The query point.
+   * @param radius   The distance.
+   * @param consumer The consumer of the objects.
+   */
+  public void search(
+      final double[] point,
+      final double radius,
+      final Consumer<? super O> consumer
+  ) {
+    this.collect(point, radius * radius, handle -> consumer.accept(this.getObject(handle)));
+  }
+
+  /**
+   * Supplies every object of which the position lies within the supplied box to the supplied
+   * consumer.
+   *
+   * @param minimum  The minimum corner of the box.
+   * @param maximum  The maximum corner of the box.
+   * @param consumer The consumer of the objects.
+   */
+  public void search(
+      final double[] minimum,
+      final double[] maximum,
+      final Consumer<? super O> consumer
+  ) {
+    final int n = this.dimension;
+    final SpatialSearch search = this.searches.get();
+    search.stackSize = 0;
+    search.push(this.root);
+    while (search.stackSize > 0) {
+      final int node = search.stack[--search.stackSize];
+      final int offset = 2 * n * node;
+      boolean intersects = true;
+      for (int axis = 0; axis < n && intersects; axis++) {
+        intersects = this.nodeBounds[offset + axis] <= maximum[axis]
+            && this.nodeBounds[offset + n + axis] >= minimum[axis];
+      }
+      if (!intersects) {
+        continue;
+      }
+      for (int index = 0; index < this.counts[node]; index++) {
+        final int child = this.children[(this.maximumEntries + 1) * node + index];
+        if (this.levels[node] > 0) {
+          search.push(child);
+        } else if (DynamicRTree.within(this.points, n * child, minimum, maximum, n)) {
+          consumer.accept(this.getObject(child));
+        }
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getFacilities() {
+    return Collections.unmodifiableSet(this.handles.keySet());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getNodes() {
+    return this.getFacilities();
+  }
+
+  /**
+   * Finds the nearest object other than the supplied object.
+   *
+   * @param object The object to find the nearest neighbor of.
+   * @return The nearest neighbor of the supplied object, or null if there is none.
+   */
+  @Override
+  public O getNearestNeighbor(final O object) {
+    final int neighbor = this.findNeighbor(object);
+    return neighbor < 0 ? null : this.getObject(neighbor);
+  }
+
+  /**
+   * Computes the distance from the supplied facility to the nearest other facility.
+   *
+   * @param facility The facility to find the maximum nearest neighbor distance of.
+   * @return The distance to the nearest other facility, or infinity if there is none.
+   */
+  @Override
+  public double getMaximumNearestNeighborDistance(final O facility) {
+    return this.findNeighbor(facility) < 0
+        ? Double.POSITIVE_INFINITY
+        : Math.sqrt(this.searches.get().distance);
+  }
+
+  /**
+   * @return The minimum corner of the bounding box of the root, which encloses the fattened boxes
+   *     of all objects.
+   */
+  @Override
+  public INDArray getPosition() {
+    final double[] corner = new double[this.dimension];
+    if (this.counts[this.root] > 0) {
+      System.arraycopy(this.nodeBounds, 2 * this.dimension * this.root, corner, 0,
+          this.dimension);
+    }
+    return Matrices.toMatrix(corner, this.dimension, 1);
+  }
+
+  /**
+   * @return The extent of the bounding box of the root along every axis.
+   */
+  @Override
+  public INDArray getSize() {
+    final double[] size = new double[this.dimension];
+    if (this.counts[this.root] > 0) {
+      final int offset = 2 * this.dimension * this.root;
+      for (int axis = 0; axis < this.dimension; axis++) {
+        size[axis] =
+            this.nodeBounds[offset + this.dimension + axis] - this.nodeBounds[offset + axis];
+      }
+    }
+    return Matrices.toMatrix(size, this.dimension, 1);
+  }
+
+  /**
+   * @return The amount of objects in the tree.
+   */
+  public int getCount() {
+    return this.handles.size();
+  }
+
+  /**
+   * @return The height of the tree, which is one for a tree consisting of a single leaf.
+   */
+  public int getHeight() {
+    return this.levels[this.root] + 1;
+  }
+
+  /**
+   * Inserts the supplied entry into a node at the supplied level.
+   *
+   * @param entry The object (at level 0) or node.
+   * @param level The level of the node to insert the entry into.
+   */
+  private void insert(final int entry, final int level) {
+    final double[] bounds = this.getBounds(level);
+    final int offset = 2 * this.dimension * entry;
+    final int node = this.chooseNode(bounds, offset, level);
+    this.append(node, entry);
+    for (int ancestor = node; ancestor >= 0; ancestor = this.parents[ancestor]) {
+      DynamicRTree.extend(this.nodeBounds, 2 * this.dimension * ancestor, bounds, offset,
+          this.dimension);
+    }
+    if (this.counts[node] > this.maximumEntries) {
+      this.overflow(node);
+    }
+  }
+
+  /**
+   * Descends from the root to the node at the supplied level which requires the least
+   * enlargement to contain the supplied box.
+   *
+   * @param bounds The array containing the box.
+   * @param offset The offset of the box in the array.
+   * @param level  The level of the node to find.
+   * @return The node.
+   */
+  private int chooseNode(final double[] bounds, final int offset, final int level) {
+    final int n = this.dimension;
+    int node = this.root;
+    while (this.levels[node] > level) {
+      final int base = (this.maximumEntries + 1) * node;
+      final int count = this.counts[node];
+      final boolean overlapping = this.levels[node] == 1;
+      int best = -1;
+      double bestOverlap = Double.POSITIVE_INFINITY;
+      double bestEnlargement = Double.POSITIVE_INFINITY;
+      double bestVolume = Double.POSITIVE_INFINITY;
+      for (int index = 0; index < count; index++) {
+        final int child = this.children[base + index];
+        final int childOffset = 2 * n * child;
+        final double volume = DynamicRTree.getVolume(this.nodeBounds, childOffset, n);
+        final double enlargement =
+            DynamicRTree.getUnionVolume(this.nodeBounds, childOffset, bounds, offset, n) - volume;
+        double overlap = 0d;
+        if (overlapping && enlargement > 0d) {
+          // the growth of the overlap of the child with its siblings, if it contained the box
+          for (int other = 0; other < count; other++) {
+            if (other != index) {
+              overlap += this.getOverlapEnlargement(
+                  childOffset, bounds, offset, 2 * n * this.children[base + other]);
+            }
+          }
+        }
+        if (overlap < bestOverlap
+            || overlap == bestOverlap && (enlargement < bestEnlargement
+            || enlargement == bestEnlargement && volume < bestVolume)) {
+          best = child;
+          bestOverlap = overlap;
+          bestEnlargement = enlargement;
+          bestVolume = volume;
+        }
+      }
+      node = best;
+    }
+    return node;
+  }
+
+  /**
+   * Handles a node which contains one entry too many, by reinserting its outermost entries if no
+   * entries have been reinserted at its level during the current insertion, or by splitting it.
+   *
+   * @param node The node.
+   */
+  private void overflow(final int node) {
+    final int level = this.levels[node];
+    if (node != this.root && !this.reinserted[level]) {
+      this.reinserted[level] = true;
+      this.reinsert(node);
+    } else {
+      this.split(node);
+    }
+  }
+
+  /**
+   * Removes the entries of the supplied node of which the centers lie farthest from the center of
+   * the node, and inserts them again starting with the closest.
+   *
+   * @param node The node.
+   */
+  private void reinsert(final int node) {
+    final int n = this.dimension;
+    final int level = this.levels[node];
+    final double[] bounds = this.getBounds(level);
+    final int base = (this.maximumEntries + 1) * node;
+    final int count = this.counts[node];
+    final int nodeOffset = 2 * n * node;
+    for (int index = 0; index < count; index++) {
+      final int entryOffset = 2 * n * this.children[base + index];
+      double distance = 0d;
+      for (int axis = 0; axis < n; axis++) {
+        final double difference =
+            bounds[entryOffset + axis] + bounds[entryOffset + n + axis]
+                - this.nodeBounds[nodeOffset + axis] - this.nodeBounds[nodeOffset + n + axis];
+        distance += difference * difference;
+      }
+      this.splitOrder[index] = this.children[base + index];
+      this.splitKeys[index] = -distance;
+    }
+    DynamicRTree.sort(this.splitOrder, this.splitKeys, count);
+
+    final int[] removed = this.reinsertions[level];
+    final int amount = removed.length;
+    System.arraycopy(this.splitOrder, 0, removed, 0, amount);
+    System.arraycopy(this.splitOrder, amount, this.children, base, count - amount);
+    this.counts[node] = count - amount;
+    this.refit(node);
+    for (int index = amount - 1; index >= 0; index--) {
+      this.insert(removed[index], level);
+    }
+  }
+
+  /**
+   * Splits the supplied node into two along the axis of which the distributions have the least
+   * total margin, at the distribution with the least overlap.
+   *
+   * @param node The node.
+   */
+  private void split(final int node) {
+    final int n = this.dimension;
+    final int level = this.levels[node];
+    final double[] bounds = this.getBounds(level);
+    final int base = (this.maximumEntries + 1) * node;
+    final int count = this.counts[node];
+    final int minimum = this.minimumEntries;
+
+    double bestMargin = Double.POSITIVE_INFINITY;
+    int bestSplit = -1;
+    for (int axis = 0; axis < n; axis++) {
+      double axisMargin = 0d;
+      double axisOverlap = Double.POSITIVE_INFINITY;
+      double axisVolume = Double.POSITIVE_INFINITY;
+      int axisSplit = -1;
+      int axisSide = -1;
+      for (int side = 0; side < 2; side++) {
+        // sort by the lower, and then by the upper bound along the axis
+        for (int index = 0; index < count; index++) {
+          this.splitOrder[index] = this.children[base + index];
+          this.splitKeys[index] = bounds[2 * n * this.splitOrder[index] + side * n + axis];
+        }
+        DynamicRTree.sort(this.splitOrder, this.splitKeys, count);
+        this.accumulate(bounds, count);
+        for (int split = minimum; split <= count - minimum; split++) {
+          final int prefix = 2 * n * (split - 1);
+          final int suffix = 2 * n * split;
+          axisMargin += DynamicRTree.getMargin(this.prefixBounds, prefix, n)
+              + DynamicRTree.getMargin(this.suffixBounds, suffix, n);
+          final double overlap = DynamicRTree.getOverlap(this.prefixBounds, prefix,
+              this.suffixBounds, suffix, n);
+          final double volume = DynamicRTree.getVolume(this.prefixBounds, prefix, n)
+              + DynamicRTree.getVolume(this.suffixBounds, suffix, n);
+          if (overlap < axisOverlap || overlap == axisOverlap && volume < axisVolume) {
+            axisOverlap = overlap;
+            axisVolume = volume;
+            axisSplit = split;
+            axisSide = side;
+          }
+        }
+      }
+      if (axisMargin < bestMargin) {
+        bestMargin = axisMargin;
+        bestSplit = axisSplit;
+        for (int index = 0; index < count; index++) {
+          this.splitKeys[index] =
+              bounds[2 * n * this.children[base + index] + axisSide * n + axis];
+          this.bestOrder[index] = this.children[base + index];
+        }
+        DynamicRTree.sort(this.bestOrder, this.splitKeys, count);
+      }
+    }
+
+    // the node keeps the first part, a new sibling receives the second
+    final int sibling = this.allocateNode(level);
+    this.counts[node] = 0;
+    for (int index = 0; index < bestSplit; index++) {
+      this.append(node, this.bestOrder[index]);
+    }
+    for (int index = bestSplit; index < count; index++) {
+      this.append(sibling, this.bestOrder[index]);
+    }
+    this.enclose(node);
+    this.enclose(sibling);
+
+    if (node == this.root) {
+      final int root = this.allocateNode(level + 1);
+      this.parents[root] = -1;
+      this.append(root, node);
+      this.append(root, sibling);
+      this.enclose(root);
+      this.root = root;
+      return;
+    }
+    final int parent = this.parents[node];
+    this.append(parent, sibling);
+    DynamicRTree.extend(this.nodeBounds, 2 * n * parent, this.nodeBounds, 2 * n * sibling, n);
+    if (this.counts[parent] > this.maximumEntries) {
+      this.overflow(parent);
+    }
+  }
+
+  /**
+   * Computes the bounding boxes of every prefix and suffix of the entries in the split order.
+   *
+   * @param bounds The array containing the boxes of the entries.
+   * @param count  The amount of entries.
+   */
+  private void accumulate(final double[] bounds, final int count) {
+    final int n = this.dimension;
+    System.arraycopy(bounds, 2 * n * this.splitOrder[0], this.prefixBounds, 0, 2 * n);
+    for (int index = 1; index < count; index++) {
+      System.arraycopy(this.prefixBounds, 2 * n * (index - 1),
+          this.prefixBounds, 2 * n * index, 2 * n);
+      DynamicRTree.extend(this.prefixBounds, 2 * n * index,
+          bounds, 2 * n * this.splitOrder[index], n);
+    }
+    System.arraycopy(bounds, 2 * n * this.splitOrder[count - 1],
+        this.suffixBounds, 2 * n * (count - 1), 2 * n);
+    for (int index = count - 2; index >= 0; index--) {
+      System.arraycopy(this.suffixBounds, 2 * n * (index + 1),
+          this.suffixBounds, 2 * n * index, 2 * n);
+      DynamicRTree.extend(this.suffixBounds, 2 * n * index,
+          bounds, 2 * n * this.splitOrder[index], n);
+    }
+  }
+
+  /**
+   * Removes the supplied object from its leaf, after which every node on the path to the root
+   * which contains too few entries is removed and its entries are inserted again.
+   *
+   * @param handle The object.
+   */
+  private void remove(final int handle) {
+    final int leaf = this.leaves[handle];
+    this.detach(leaf, handle);
+
+    // collect the underflowing nodes as a chain through their parents
+    int orphans = -1;
+    int node = leaf;
+    while (node != this.root) {
+      final int parent = this.parents[node];
+      if (this.counts[node] < this.minimumEntries) {
+        this.detach(parent, node);
+        this.parents[node] = orphans;
+        orphans = node;
+      } else {
+        this.enclose(node);
+      }
+      node = parent;
+    }
+    this.enclose(this.root);
+
+    Arrays.fill(this.reinserted, true);
+    while (orphans >= 0) {
+      final int orphan = orphans;
+      orphans = this.parents[orphan];
+      final int base = (this.maximumEntries + 1) * orphan;
+      for (int index = 0; index < this.counts[orphan]; index++) {
+        this.insert(this.children[base + index], this.levels[orphan]);
+      }
+      this.freeNode(orphan);
+    }
+
+    // shorten the tree while the root has a single child
+    while (this.levels[this.root] > 0 && this.counts[this.root] == 1) {
+      final int child = this.children[(this.maximumEntries + 1) * this.root];
+      this.freeNode(this.root);
+      this.root = child;
+      this.parents[child] = -1;
+    }
+  }
+
+  /**
+   * Removes the supplied entry from the supplied node.
+   *
+   * @param node  The node.
+   * @param entry The entry.
+   */
+  private void detach(final int node, final int entry) {
+    final int base = (this.maximumEntries + 1) * node;
+    final int last = base + --this.counts[node];
+    for (int index = base; index <= last; index++) {
+      if (this.children[index] == entry) {
+        this.children[index] = this.children[last];
+        return;
+      }
+    }
+  }
+
+  /**
+   * Appends the supplied entry to the supplied node.
+   *
+   * @param node  The node.
+   * @param entry The object (if the node is a leaf) or node.
+   */
+  private void append(final int node, final int entry) {
+    this.children[(this.maximumEntries + 1) * node + this.counts[node]++] = entry;
+    if (this.levels[node] == 0) {
+      this.leaves[entry] = node;
+    } else {
+      this.parents[entry] = node;
+    }
+  }
+
+  /**
+   * Sets the bounding box of the supplied node to enclose its entries, and tightens the boxes of
+   * its ancestors accordingly.
+   *
+   * @param node The node.
+   */
+  private void refit(final int node) {
+    for (int ancestor = node; ancestor >= 0; ancestor = this.parents[ancestor]) {
+      this.enclose(ancestor);
+    }
+  }
+
+  /**
+   * Sets the bounding box of the supplied node to enclose its entries.
+   *
+   * @param node The node.
+   */
+  private void enclose(final int node) {
+    final int n = this.dimension;
+    final int offset = 2 * n * node;
+    this.empty(node);
+    final double[] bounds = this.getBounds(this.levels[node]);
+    final int base = (this.maximumEntries + 1) * node;
+    for (int index = 0; index < this.counts[node]; index++) {
+      DynamicRTree.extend(this.nodeBounds, offset, bounds, 2 * n * this.children[base + index], n);
+    }
+  }
+
+  /**
+   * Sets the bounding box of the supplied node to the empty box.
+   *
+   * @param node The node.
+   */
+  private void empty(final int node) {
+    final int offset = 2 * this.dimension * node;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      this.nodeBounds[offset + axis] = Double.POSITIVE_INFINITY;
+      this.nodeBounds[offset + this.dimension + axis] = Double.NEGATIVE_INFINITY;
+    }
+  }
+
+  /**
+   * @param level The level of a node.
+   * @return The array containing the boxes of the entries of a node at the supplied level.
+   */
+  private double[] getBounds(final int level) {
+    return level == 0 ? this.objectBounds : this.nodeBounds;
+  }
+
+  /**
+   * Copies the position of the supplied object into the positions.
+   *
+   * @param object The object.
+   * @param handle The index of the object.
+   */
+  private void locate(final O object, final int handle) {
+    final INDArray location = object.getPosition();
+    for (int axis = 0; axis < this.dimension; axis++) {
+      this.points[this.dimension * handle + axis] = location.getDouble(axis);
+    }
+  }
+
+  /**
+   * Writes the box around the position of the supplied object, fattened by the margin and the
+   * distance which it travels within the horizon, into the supplied array.
+   *
+   * @param object The object.
+   * @param handle The index of the object, of which the position has been copied.
+   * @param target The array to write the box into.
+   * @param offset The offset of the box in the array.
+   */
+  private void fatten(
+      final O object,
+      final int handle,
+      final double[] target,
+      final int offset
+  ) {
+    final int n = this.dimension;
+    final INDArray velocity = object.getVelocity();
+    for (int axis = 0; axis < n; axis++) {
+      final double extent = this.margin + Math.abs(velocity.getDouble(axis)) * this.horizon;
+      target[offset + axis] = this.points[n * handle + axis] - extent;
+      target[offset + n + axis] = this.points[n * handle + axis] + extent;
+    }
+  }
+
+  /**
+   * @param level The level of the node.
+   * @return The index of a new node at the supplied level without entries.
+   */
+  private int allocateNode(final int level) {
+    final int node;
+    if (this.freeNode >= 0) {
+      node = this.freeNode;
+      this.freeNode = this.parents[node];
+    } else {
+      if (this.nodeTop == this.counts.length) {
+        final int capacity = 2 * this.nodeTop;
+        this.nodeBounds = Arrays.copyOf(this.nodeBounds, 2 * this.dimension * capacity);
+        this.children = Arrays.copyOf(this.children, (this.maximumEntries + 1) * capacity);
+        this.counts = Arrays.copyOf(this.counts, capacity);
+        this.parents = Arrays.copyOf(this.parents, capacity);
+        this.levels = Arrays.copyOf(this.levels, capacity);
+      }
+      node = this.nodeTop++;
+    }
+    this.counts[node] = 0;
+    this.levels[node] = level;
+    return node;
+  }
+
+  /**
+   * @param node The node to release for reuse.
+   */
+  private void freeNode(final int node) {
+    this.parents[node] = this.freeNode;
+    this.freeNode = node;
+  }
+
+  /**
+   * @return The index of a new object.
+   */
+  private int allocateObject() {
+    if (this.freeObject >= 0) {
+      final int handle = this.freeObject;
+      this.freeObject = this.leaves[handle];
+      return handle;
+    }
+    if (this.objectTop == this.leaves.length) {
+      final int capacity = 2 * this.objectTop;
+      this.objects = Arrays.copyOf(this.objects, capacity);
+      this.objectBounds = Arrays.copyOf(this.objectBounds, 2 * this.dimension * capacity);
+      this.points = Arrays.copyOf(this.points, this.dimension * capacity);
+      this.leaves = Arrays.copyOf(this.leaves, capacity);
+    }
+    return this.objectTop++;
+  }
+
+  /**
+   * @param handle The index of an object.
+   * @return The object at the supplied index.
+   */
+  @SuppressWarnings("unchecked")
+  private O getObject(final int handle) {
+    return (O) this.objects[handle];
+  }
+
+  /**
+   * @param object The object.
+   * @return The index of the nearest object other than the supplied object, of which the squared
+   *     distance is left in the search state of this thread, or -1 if there is none.
+   */
+  private int findNeighbor(final O object) {
+    final double[] point = Matrices.toArray(object.getPosition());
+    final SpatialSearch search = this.searches.get();
+    this.start(search, point);
+    int handle;
+    do {
+      handle = this.next(search, point);
+    } while (handle >= 0 && this.getObject(handle) == object);
+    return handle;
+  }
+
+  /**
+   * Supplies the index of every object within the supplied squared distance of the supplied point
+   * to the supplied consumer.
+   *
+   * @param point         The query point.
+   * @param squaredRadius The squared distance.
+   * @param consumer      The consumer of the indices of the objects.
+   */
+  private void collect(
+      final double[] point,
+      final double squaredRadius,
+      final IntConsumer consumer
+  ) {
+    final SpatialSearch search = this.searches.get();
+    search.stackSize = 0;
+    search.push(this.root);
+    while (search.stackSize > 0) {
+      final int node = search.stack[--search.stackSize];
+      if (this.getMinimumDistance(node, point) > squaredRadius) {
+        continue;
+      }
+      for (int index = 0; index < this.counts[node]; index++) {
+        final int child = this.children[(this.maximumEntries + 1) * node + index];
+        if (this.levels[node] > 0) {
+          search.push(child);
+        } else if (this.getDistance(child, point) <= squaredRadius) {
+          consumer.accept(child);
+        }
+      }
+    }
+  }
+
+  /**
+   * Prepares the supplied search state for a best-first search from the supplied point.
+   *
+   * @param search The search state.
+   * @param point  The query point.
+   */
+  private void start(final SpatialSearch search, final double[] point) {
+    search.size = 0;
+    if (this.counts[this.root] > 0) {
+      search.offer(this.getMinimumDistance(this.root, point), this.root);
+    }
+  }
+
+  /**
+   * Continues the best-first search until the next nearest object is found.
+   *
+   * @param search The search state, of which the distance is set to the squared distance of the
+   *               found object.
+   * @param point  The query point.
+   * @return The index of the next nearest object, or -1 if all objects have been found.
+   */
+  private int next(final SpatialSearch search, final double[] point) {
+    while (search.size > 0) {
+      final double distance = search.keys[0];
+      final int entry = search.poll();
+      if (entry < 0) {
+        search.distance = distance;
+        return -entry - 1;
+      }
+      final int base = (this.maximumEntries + 1) * entry;
+      for (int index = 0; index < this.counts[entry]; index++) {
+        final int child = this.children[base + index];
+        if (this.levels[entry] > 0) {
+          search.offer(this.getMinimumDistance(child, point), child);
+        } else {
+          search.offer(this.getDistance(child, point), -child - 1);
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param handle The index of an object.
+   * @param point  The query point.
+   * @return The squared distance from the object to the point.
+   */
+  private double getDistance(final int handle, final double[] point) {
+    double sum = 0d;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      final double difference = this.points[this.dimension * handle + axis] - point[axis];
+      sum += difference * difference;
+    }
+    return sum;
+  }
+
+  /**
+   * @param node  The node.
+   * @param point The query point.
+   * @return The squared distance from the bounding box of the node to the point.
+   */
+  private double getMinimumDistance(final int node, final double[] point) {
+    final int offset = 2 * this.dimension * node;
+    double sum = 0d;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      final double difference = Math.max(0d, Math.max(
+          this.nodeBounds[offset + axis] - point[axis],
+          point[axis] - this.nodeBounds[offset + this.dimension + axis]));
+      sum += difference * difference;
+    }
+    return sum;
+  }
+
+  /**
+   * @param childOffset The offset of the box of a child in the node boxes.
+   * @param bounds      The array containing the box to add to the child.
+   * @param offset      The offset of the box in the array.
+   * @param sibling     The offset of the box of a sibling in the node boxes.
+   * @return The amount by which the overlap of the child with the sibling grows if the child is
+   *     extended to enclose the box.
+   */
+  private double getOverlapEnlargement(
+      final int childOffset,
+      final double[] bounds,
+      final int offset,
+      final int sibling
+  ) {
+    final int n = this.dimension;
+    double enlarged = 1d;
+    double original = 1d;
+    for (int axis = 0; axis < n; axis++) {
+      final double siblingLower = this.nodeBounds[sibling + axis];
+      final double siblingUpper = this.nodeBounds[sibling + n + axis];
+      final double childLower = this.nodeBounds[childOffset + axis];
+      final double childUpper = this.nodeBounds[childOffset + n + axis];
+      final double upper = Math.min(Math.max(childUpper, bounds[offset + n + axis]), siblingUpper);
+      final double lower = Math.max(Math.min(childLower, bounds[offset + axis]), siblingLower);
+      if (upper <= lower) {
+        return 0d;
+      }
+      enlarged *= upper - lower;
+      original *=
+          Math.max(0d, Math.min(childUpper, siblingUpper) - Math.max(childLower, siblingLower));
+    }
+    return enlarged - original;
+  }
+
+  /**
+   * Sorts the supplied entries by their keys in ascending order.
+   *
+   * @param entries The entries.
+   * @param keys    The key of every entry, which are sorted along.
+   * @param count   The amount of entries.
+   */
+  private static void sort(final int[] entries, final double[] keys, final int count) {
+    for (int index = 1; index < count; index++) {
+      final int entry = entries[index];
+      final double key = keys[index];
+      int position = index - 1;
+      while (position >= 0 && keys[position] > key) {
+        entries[position + 1] = entries[position];
+        keys[position + 1] = keys[position];
+        position--;
+      }
+      entries[position + 1] = entry;
+      keys[position + 1] = key;
+    }
+  }
+
+  /**
+   * Extends the first box to enclose the second box.
+   *
+   * @param target       The array containing the box to extend.
+   * @param targetOffset The offset of the box to extend.
+   * @param source       The array containing the box to enclose.
+   * @param sourceOffset The offset of the box to enclose.
+   * @param dimension    The dimension of the boxes.
+   */
+  private static void extend(
+      final double[] target,
+      final int targetOffset,
+      final double[] source,
+      final int sourceOffset,
+      final int dimension
+  ) {
+    for (int axis = 0; axis < dimension; axis++) {
+      target[targetOffset + axis] =
+          Math.min(target[targetOffset + axis], source[sourceOffset + axis]);
+      target[targetOffset + dimension + axis] = Math.max(
+          target[targetOffset + dimension + axis], source[sourceOffset + dimension + axis]);
+    }
+  }
+
+  /**
+   * @param outer       The array containing the outer box.
+   * @param outerOffset The offset of the outer box.
+   * @param inner       The array containing the inner box.
+   * @param innerOffset The offset of the inner box.
+   * @param dimension   The dimension of the boxes.
+   * @return True if the outer box encloses the inner box.
+   */
+  private static boolean encloses(
+      final double[] outer,
+      final int outerOffset,
+      final double[] inner,
+      final int innerOffset,
+      final int dimension
+  ) {
+    for (int axis = 0; axis < dimension; axis++) {
+      if (inner[innerOffset + axis] < outer[outerOffset + axis]
+          || inner[innerOffset + dimension + axis] > outer[outerOffset + dimension + axis]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param bounds      The array containing the box.
+   * @param offset      The offset of the box.
+   * @param point       The array containing the point.
+   * @param pointOffset The offset of the point.
+   * @param dimension   The dimension of the box.
+   * @return True if the box contains the point.
+   */
+  private static boolean contains(
+      final double[] bounds,
+      final int offset,
+      final double[] point,
+      final int pointOffset,
+      final int dimension
+  ) {
+    for (int axis = 0; axis < dimension; axis++) {
+      final double value = point[pointOffset + axis];
+      if (value < bounds[offset + axis] || value > bounds[offset + dimension + axis]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param point     The array containing the point.
+   * @param offset    The offset of the point.
+   * @param minimum   The minimum corner of the box.
+   * @param maximum   The maximum corner of the box.
+   * @param dimension The dimension of the box.
+   * @return True if the box contains the point.
+   */
+  private static boolean within(
+      final double[] point,
+      final int offset,
+      final double[] minimum,
+      final double[] maximum,
+      final int dimension
+  ) {
+    for (int axis = 0; axis < dimension; axis++) {
+      final double value = point[offset + axis];
+      if (value < minimum[axis] || value > maximum[axis]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param bounds    The array containing the box.
+   * @param offset    The offset of the box.
+   * @param dimension The dimension of the box.
+   * @return The volume of the box.
+   */
+  private static double getVolume(final double[] bounds, final int offset, final int dimension) {
+    double volume = 1d;
+    for (int axis = 0; axis < dimension; axis++) {
+      volume *= bounds[offset + dimension + axis] - bounds[offset + axis];
+    }
+    return volume;
+  }
+
+  /**
+   * @param bounds    The array containing the box.
+   * @param offset    The offset of the box.
+   * @param dimension The dimension of the box.
+   * @return The sum of the extents of the box along every axis.
+   */
+  private static double getMargin(final double[] bounds, final int offset, final int dimension) {
+    double margin = 0d;
+    for (int axis = 0; axis < dimension; axis++) {
+      margin += bounds[offset + dimension + axis] - bounds[offset + axis];
+    }
+    return margin;
+  }
+
+  /**
+   * @param first        The array containing the first box.
+   * @param firstOffset  The offset of the first box.
+   * @param second       The array containing the second box.
+   * @param secondOffset The offset of the second box.
+   * @param dimension    The dimension of the boxes.
+   * @return The volume of the union of the boxes.
+   */
+  private static double getUnionVolume(
+      final double[] first,
+      final int firstOffset,
+      final double[] second,
+      final int secondOffset,
+      final int dimension
+  ) {
+    double volume = 1d;
+    for (int axis = 0; axis < dimension; axis++) {
+      volume *= Math.max(
+          first[firstOffset + dimension + axis], second[secondOffset + dimension + axis])
+          - Math.min(first[firstOffset + axis], second[secondOffset + axis]);
+    }
+    return volume;
+  }
+
+  /**
+   * @param first        The array containing the first box.
+   * @param firstOffset  The offset of the first box.
+   * @param second       The array containing the second box.
+   * @param secondOffset The offset of the second box.
+   * @param dimension    The dimension of the boxes.
+   * @return The volume of the intersection of the boxes.
+   */
+  private static double getOverlap(
+      final double[] first,
+      final int firstOffset,
+      final double[] second,
+      final int secondOffset,
+      final int dimension
+  ) {
+    double volume = 1d;
+    for (int axis = 0; axis < dimension; axis++) {
+      final double extent =
+          Math.min(first[firstOffset + dimension + axis], second[secondOffset + dimension + axis])
+              - Math.max(first[firstOffset + axis], second[secondOffset + axis]);
+      if (extent <= 0d) {
+        return 0d;
+      }
+      volume *= extent;
+    }
+    return volume;
+  }
+}
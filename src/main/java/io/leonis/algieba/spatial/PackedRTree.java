@@ -0,0 +1,1079 @@
+package io.leonis.algieba.spatial;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.algebra.Matrices;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class PackedRTree.
+ *
+ * This class represents a static {@link RTree} over the positions of a set of {@link Spatial}
+ * objects, which is bulk-loaded using <a href="https://doi.org/10.1109/ICDE.1997.582015">Sort-Tile-Recursive</a>
+ * packing: the objects are sorted along the first axis and tiled into slabs, every slab is sorted
+ * and tiled along the next axis and so on, after which every run of objects forms a leaf. The
+ * nodes of every level above are packed in the same way from the centers of the level below.
+ *
+ * The tree is stored in flat primitive arrays: the positions of the objects in the order of the
+ * leaves, and per node its bounding box and the range of its children, which are contiguous in
+ * the level below. Nearest-neighbor queries use a best-first search, ie. a priority queue of
+ * nodes and objects by their (minimum) distance to the query point, and range queries use a
+ * depth-first search. The queue and stack of every thread are reused between queries, such that
+ * queries do not allocate once warmed up; consequently, the consumer of a range query must not
+ * query the same tree. The tree is immutable and can be queried by any amount of threads.
+ *
+ * The nearest neighbors of all objects are computed at once by a dual-tree traversal, which visits
+ * pairs of query and reference nodes and prunes every pair of which the boxes lie farther apart
+ * than the largest nearest neighbor distance found so far in the query node. Subtrees of the query
+ * tree are independent and are traversed in parallel on a {@link ForkJoinPool}.
+ *
+ * The objects are identified by their index in the order in which they were supplied, and by
+ * reference rather than by {@link Object#equals(Object)}, such that equal objects at the same
+ * position are nearest neighbors of each other.
+ *
+ * @param <O> The type of object stored in the tree.
+ * @author agent
+ */
+public class PackedRTree<O extends Spatial> implements RTree<INDArray, O> {
+  /**
+   * The default maximum amount of children of a node.
+   */
+  public static final int DEFAULT_NODE_SIZE = 16;
+  /**
+   * The minimum amount of objects in a batch query for which all nearest neighbors are computed
+   * in a single dual-tree traversal, rather than by one search per object.
+   */
+  private static final int BATCH_SIZE = 64;
+  /**
+   * The dimension of the positions.
+   */
+  private final int dimension;
+  /**
+   * The maximum amount of children of a node.
+   */
+  private final int nodeSize;
+  /**
+   * The objects in the order in which they were supplied.
+   */
+  private final List<O> objects;
+  /**
+   * The objects as a set.
+   */
+  private final Set<O> facilities;
+  /**
+   * Whether no object has been supplied more than once.
+   */
+  private final boolean distinct;
+  /**
+   * The positions of the objects in the order of the leaves.
+   */
+  private final double[] points;
+  /**
+   * The index of every object in the order of the leaves.
+   */
+  private final int[] items;
+  /**
+   * The minimum corner followed by the maximum corner of the bounding box of every node.
+   */
+  private final double[] bounds;
+  /**
+   * The index of the first child of every node, which is an index into the items for a leaf.
+   */
+  private final int[] firstChild;
+  /**
+   * The amount of children of every node.
+   */
+  private final int[] childCount;
+  /**
+   * The amount of leaves, which are stored before the other nodes.
+   */
+  private final int leafCount;
+  /**
+   * The index of the root node, or -1 if the tree is empty.
+   */
+  private final int root;
+  /**
+   * The search state of every thread.
+   */
+  private final ThreadLocal<SpatialSearch> searches = ThreadLocal.withInitial(SpatialSearch::new);
+
+  /**
+   * Constructs an R-tree with the default node size.
+   *
+   * @param dimension The dimension of the positions.
+   * @param objects   The objects to store in the tree.
+   */
+  public PackedRTree(final int dimension, final Collection<? extends O> objects) {
+    this(dimension, objects, DEFAULT_NODE_SIZE);
+  }
+
+  /**
+   * @param dimension The dimension of the positions.
+   * @param objects   The objects to store in the tree.
+   * @param nodeSize  The maximum amount of children of a node, which is at least two.
+   */
+  public PackedRTree(
+      final int dimension,
+      final Collection<? extends O> objects,
+      final int nodeSize
+  ) {
+    if (nodeSize < 2) {
+      throw new IllegalArgumentException("A node must be able to contain at least two children.");
+    }
+    this.dimension = dimension;
+    this.nodeSize = nodeSize;
+    this.objects = Collections.unmodifiableList(new ArrayList<>(objects));
+    this.facilities = Collections.unmodifiableSet(new LinkedHashSet<>(this.objects));
+    final Set<O> references = Collections.newSetFromMap(new IdentityHashMap<>());
+    references.addAll(this.objects);
+    this.distinct = references.size() == this.objects.size();
+
+    final int n = this.objects.size();
+    final double[] positions = new double[n * dimension];
+    for (int index = 0; index < n; index++) {
+      System.arraycopy(Matrices.toArray(this.objects.get(index).getPosition()), 0,
+          positions, index * dimension, dimension);
+    }
+
+    // pack the objects into leaves
+    this.items = new int[n];
+    for (int index = 0; index < n; index++) {
+      this.items[index] = index;
+    }
+    this.tile(this.items, 0, n, positions, 0);
+    this.points = new double[n * dimension];
+    for (int index = 0; index < n; index++) {
+      System.arraycopy(positions, this.items[index] * dimension,
+          this.points, index * dimension, dimension);
+    }
+
+    // every level contains at most a fraction of the nodes of the level below
+    int capacity = 0;
+    for (int count = PackedRTree.divide(n, nodeSize); count > 1;
+        count = PackedRTree.divide(count, nodeSize)) {
+      capacity += count;
+    }
+    capacity++;
+    this.bounds = new double[2 * dimension * capacity];
+    this.firstChild = new int[capacity];
+    this.childCount = new int[capacity];
+
+    this.leafCount = n == 0 ? 0 : PackedRTree.divide(n, nodeSize);
+    for (int leaf = 0; leaf < this.leafCount; leaf++) {
+      this.firstChild[leaf] = leaf * nodeSize;
+      this.childCount[leaf] = Math.min(nodeSize, n - leaf * nodeSize);
+      this.enclosePoints(leaf);
+    }
+
+    // pack every level into the level above until a single node remains
+    int start = 0;
+    int end = this.leafCount;
+    while (end - start > 1) {
+      this.tileNodes(start, end);
+      final int parents = PackedRTree.divide(end - start, nodeSize);
+      for (int parent = 0; parent < parents; parent++) {
+        final int node = end + parent;
+        this.firstChild[node] = start + parent * nodeSize;
+        this.childCount[node] = Math.min(nodeSize, end - start - parent * nodeSize);
+        this.encloseNodes(node);
+      }
+      start = end;
+      end += parents;
+    }
+    this.root = end - 1;
+  }
+
+  /**
+   * Finds the objects nearest to the supplied point in order of their distance.
+   *
+   * @param point     The query point.
+   * @param amount    The maximum amount of objects to find.
+   * @param result    The array to write the indices of the found objects into.
+   * @param distances The array to write the distances of the found objects into, or null.
+   * @return The amount of objects found, which is less than the requested amount only if the tree
+   *     contains fewer objects.
+   */
+  public int getNearestNeighbors(
+      final double[] point,
+      final int amount,
+      final int[] result,
+      final double[] distances
+  ) {
+    final SpatialSearch search = this.searches.get();
+    this.start(search, point);
+    int found = 0;
+    while (found < amount) {
+      final int item = this.next(search, point);
+      if (item < 0) {
+        break;
+      }
+      result[found] = item;
+      if (distances != null) {
+        distances[found] = Math.sqrt(search.distance);
+      }
+      found++;
+    }
+    return found;
+  }
+
+  /**
+   * @param point The query point.
+   * @return The index of the object nearest to the supplied point, or -1 if the tree is empty.
+   */
+  public int getNearestNeighbor(final double[] point) {
+    final SpatialSearch search = this.searches.get();
+    this.start(search, point);
+    return this.next(search, point);
+  }
+
+  /**
+   * Finds the nearest other object of every object in the tree on the common fork-join pool.
+   *
+   * @param neighbors The array to write the index of the nearest neighbor of every object into,
+   *                  which is -1 if the tree contains a single object.
+   * @param distances The array to write the distance to the nearest neighbor of every object
+   *                  into, or null.
+   */
+  public void getAllNearestNeighbors(final int[] neighbors, final double[] distances) {
+    this.getAllNearestNeighbors(neighbors, distances, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Finds the nearest other object of every object in the tree using a dual-tree traversal of the
+   * tree with itself, of which the subtrees are traversed in parallel on the supplied pool.
+   *
+   * @param neighbors The array to write the index of the nearest neighbor of every object into,
+   *                  which is -1 if the tree contains a single object.
+   * @param distances The array to write the distance to the nearest neighbor of every object
+   *                  into, or null.
+   * @param pool      The pool to traverse the tree on.
+   */
+  public void getAllNearestNeighbors(
+      final int[] neighbors,
+      final double[] distances,
+      final ForkJoinPool pool
+  ) {
+    final int count = this.objects.size();
+    if (count == 0) {
+      return;
+    }
+    final double[] best = new double[count];
+    final int[] found = new int[count];
+    final double[] nodeBounds = new double[this.firstChild.length];
+    Arrays.fill(best, Double.POSITIVE_INFINITY);
+    Arrays.fill(found, -1);
+    Arrays.fill(nodeBounds, Double.POSITIVE_INFINITY);
+    int height = 1;
+    for (int node = this.root; node >= this.leafCount; node = this.firstChild[node]) {
+      height++;
+    }
+    // every step of the traversal splits either the query or the reference node
+    pool.invoke(new NeighborJoin(best, found, nodeBounds, this.root, this.root, 0d, 2 * height));
+
+    // the results are stored in the order of the leaves
+    for (int item = 0; item < count; item++) {
+      final int object = this.items[item];
+      neighbors[object] = found[item] < 0 ? -1 : this.items[found[item]];
+      if (distances != null) {
+        distances[object] = Math.sqrt(best[item]);
+      }
+    }
+  }
+
+  /**
+   * Supplies the index of every object of which the position lies within the supplied box to the
+   * supplied consumer.
+   *
+   * @param minimum  The minimum corner of the box.
+   * @param maximum  The maximum corner of the box.
+   * @param consumer The consumer of the indices of the objects.
+   */
+  public void search(final double[] minimum, final double[] maximum, final IntConsumer consumer) {
+    if (this.root < 0) {
+      return;
+    }
+    final int n = this.dimension;
+    final SpatialSearch search = this.searches.get();
+    search.stackSize = 0;
+    search.push(this.root);
+    while (search.stackSize > 0) {
+      final int node = search.stack[--search.stackSize];
+      if (!this.intersects(node, minimum, maximum)) {
+        continue;
+      }
+      final int first = this.firstChild[node];
+      final int last = first + this.childCount[node];
+      if (node >= this.leafCount) {
+        for (int child = first; child < last; child++) {
+          search.push(child);
+        }
+        continue;
+      }
+      for (int item = first; item < last; item++) {
+        boolean contained = true;
+        for (int axis = 0; axis < n && contained; axis++) {
+          final double value = this.points[item * n + axis];
+          contained = value >= minimum[axis] && value <= maximum[axis];
+        }
+        if (contained) {
+          consumer.accept(this.items[item]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Supplies the index of every object which lies within the supplied distance of the supplied
+   * point to the supplied consumer.
+   *
+   * @param point    The query point.
+   * @param radius   The distance.
+   * @param consumer The consumer of the indices of the objects.
+   */
+  public void search(final double[] point, final double radius, final IntConsumer consumer) {
+    if (this.root < 0) {
+      return;
+    }
+    final int n = this.dimension;
+    final double squaredRadius = radius * radius;
+    final SpatialSearch search = this.searches.get();
+    search.stackSize = 0;
+    search.push(this.root);
+    while (search.stackSize > 0) {
+      final int node = search.stack[--search.stackSize];
+      if (this.getMinimumDistance(node, point) > squaredRadius) {
+        continue;
+      }
+      final int first = this.firstChild[node];
+      final int last = first + this.childCount[node];
+      if (node >= this.leafCount) {
+        for (int child = first; child < last; child++) {
+          search.push(child);
+        }
+        continue;
+      }
+      for (int item = first; item < last; item++) {
+        if (this.getDistance(item, point) <= squaredRadius) {
+          consumer.accept(this.items[item]);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param index The index of an object.
+   * @return The object at the supplied index.
+   */
+  public O getObject(final int index) {
+    return this.objects.get(index);
+  }
+
+  /**
+   * @return The amount of objects in the tree.
+   */
+  public int getCount() {
+    return this.objects.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getFacilities() {
+    return this.facilities;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getNodes() {
+    return this.facilities;
+  }
+
+  /**
+   * Finds the nearest object other than the supplied object.
+   *
+   * @param object The object to find the nearest neighbor of.
+   * @return The nearest neighbor of the supplied object, or null if there is none.
+   */
+  @Override
+  public O getNearestNeighbor(final O object) {
+    final int neighbor = this.findNeighbor(object);
+    return neighbor < 0 ? null : this.objects.get(neighbor);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<O> getNearestNeighbors(final Set<O> objects) {
+    if (!this.isBatch(objects.size())) {
+      return RTree.super.getNearestNeighbors(objects);
+    }
+    final int[] batch = new int[this.objects.size()];
+    this.getAllNearestNeighbors(batch, null);
+    final Map<O, Integer> indices = this.getIndices();
+    final Set<O> neighbors = new LinkedHashSet<>();
+    for (final O object : objects) {
+      final Integer index = indices.get(object);
+      final O neighbor = index == null
+          ? this.getNearestNeighbor(object)
+          : batch[index] < 0 ? null : this.objects.get(batch[index]);
+      if (neighbor != null) {
+        neighbors.add(neighbor);
+      }
+    }
+    return neighbors;
+  }
+
+  /**
+   * Computes the distance from the supplied facility to the nearest other facility.
+   *
+   * @param facility The facility to find the maximum nearest neighbor distance of.
+   * @return The distance to the nearest other facility, or infinity if there is none.
+   */
+  @Override
+  public double getMaximumNearestNeighborDistance(final O facility) {
+    return this.findNeighbor(facility) < 0
+        ? Double.POSITIVE_INFINITY
+        : Math.sqrt(this.searches.get().distance);
+  }
+
+  /**
+   * Computes the largest distance from any of the supplied facilities to its nearest other
+   * facility.
+   *
+   * @param facilities The set of facilities to find the maximum nearest neighbor distance of.
+   * @return The largest nearest neighbor distance, or zero if the set is empty.
+   */
+  @Override
+  public double getMaximumNearestNeighborDistance(final Set<O> facilities) {
+    if (!this.isBatch(facilities.size())) {
+      return RTree.super.getMaximumNearestNeighborDistance(facilities);
+    }
+    final double[] distances = new double[this.objects.size()];
+    this.getAllNearestNeighbors(new int[distances.length], distances);
+    final Map<O, Integer> indices = this.getIndices();
+    double maximum = 0d;
+    for (final O facility : facilities) {
+      final Integer index = indices.get(facility);
+      maximum = Math.max(maximum, index == null
+          ? this.getMaximumNearestNeighborDistance(facility)
+          : distances[index]);
+    }
+    return maximum;
+  }
+
+  /**
+   * @param size The amount of objects in a batch query.
+   * @return True if the batch query is large enough for a dual-tree traversal of all objects to
+   *     pay off, and the objects are distinct.
+   */
+  private boolean isBatch(final int size) {
+    final int count = this.objects.size();
+    return size >= BATCH_SIZE && 4 * size >= count && this.distinct;
+  }
+
+  /**
+   * @return The index of every object by reference.
+   */
+  private Map<O, Integer> getIndices() {
+    final Map<O, Integer> indices = new IdentityHashMap<>(this.objects.size());
+    for (int index = 0; index < this.objects.size(); index++) {
+      indices.put(this.objects.get(index), index);
+    }
+    return indices;
+  }
+
+  /**
+   * @return The minimum corner of the bounding box of all objects.
+   */
+  @Override
+  public INDArray getPosition() {
+    final double[] corner = new double[this.dimension];
+    if (this.root >= 0) {
+      System.arraycopy(this.bounds, 2 * this.dimension * this.root, corner, 0, this.dimension);
+    }
+    return Matrices.toMatrix(corner, this.dimension, 1);
+  }
+
+  /**
+   * @return The extent of the bounding box of all objects along every axis.
+   */
+  @Override
+  public INDArray getSize() {
+    final double[] size = new double[this.dimension];
+    if (this.root >= 0) {
+      final int offset = 2 * this.dimension * this.root;
+      for (int axis = 0; axis < this.dimension; axis++) {
+        size[axis] = this.bounds[offset + this.dimension + axis] - this.bounds[offset + axis];
+      }
+    }
+    return Matrices.toMatrix(size, this.dimension, 1);
+  }
+
+  /**
+   * @param object The object.
+   * @return The index of the nearest object other than the supplied object, of which the squared
+   *     distance is left in the search state of this thread, or -1 if there is none.
+   */
+  private int findNeighbor(final O object) {
+    final double[] point = Matrices.toArray(object.getPosition());
+    final SpatialSearch search = this.searches.get();
+    this.start(search, point);
+    int item;
+    do {
+      item = this.next(search, point);
+    } while (item >= 0 && this.objects.get(item) == object);
+    return item;
+  }
+
+  /**
+   * Prepares the supplied search state for a best-first search from the supplied point.
+   *
+   * @param search The search state.
+   * @param point  The query point.
+   */
+  private void start(final SpatialSearch search, final double[] point) {
+    search.size = 0;
+    if (this.root >= 0) {
+      search.offer(this.getMinimumDistance(this.root, point), this.root);
+    }
+  }
+
+  /**
+   * Continues the best-first search until the next nearest object is found.
+   *
+   * @param search The search state, of which the distance is set to the squared distance of the
+   *               found object.
+   * @param point  The query point.
+   * @return The index of the next nearest object, or -1 if all objects have been found.
+   */
+  private int next(final SpatialSearch search, final double[] point) {
+    while (search.size > 0) {
+      final double distance = search.keys[0];
+      final int entry = search.poll();
+      if (entry < 0) {
+        search.distance = distance;
+        return this.items[-entry - 1];
+      }
+      final int first = this.firstChild[entry];
+      final int last = first + this.childCount[entry];
+      if (entry >= this.leafCount) {
+        for (int child = first; child < last; child++) {
+          search.offer(this.getMinimumDistance(child, point), child);
+        }
+      } else {
+        for (int item = first; item < last; item++) {
+          search.offer(this.getDistance(item, point), -item - 1);
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param item  The position of an object in the order of the leaves.
+   * @param point The query point.
+   * @return The squared distance from the object to the point.
+   */
+  private double getDistance(final int item, final double[] point) {
+    double sum = 0d;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      final double difference = this.points[item * this.dimension + axis] - point[axis];
+      sum += difference * difference;
+    }
+    return sum;
+  }
+
+  /**
+   * @param node  The node.
+   * @param point The query point.
+   * @return The squared distance from the bounding box of the node to the point.
+   */
+  private double getMinimumDistance(final int node, final double[] point) {
+    return this.getMinimumDistance(node, point, 0);
+  }
+
+  /**
+   * @param node        The node.
+   * @param point       The array containing the query point.
+   * @param pointOffset The offset of the query point in the array.
+   * @return The squared distance from the bounding box of the node to the point.
+   */
+  private double getMinimumDistance(final int node, final double[] point, final int pointOffset) {
+    final int offset = 2 * this.dimension * node;
+    double sum = 0d;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      final double difference = Math.max(0d, Math.max(
+          this.bounds[offset + axis] - point[pointOffset + axis],
+          point[pointOffset + axis] - this.bounds[offset + this.dimension + axis]));
+      sum += difference * difference;
+    }
+    return sum;
+  }
+
+  /**
+   * @param node    The node.
+   * @param minimum The minimum corner of the box.
+   * @param maximum The maximum corner of the box.
+   * @return True if the bounding box of the node intersects the supplied box.
+   */
+  private boolean intersects(final int node, final double[] minimum, final double[] maximum) {
+    final int offset = 2 * this.dimension * node;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      if (this.bounds[offset + axis] > maximum[axis]
+          || this.bounds[offset + this.dimension + axis] < minimum[axis]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sets the bounding box of the supplied leaf to enclose its objects.
+   *
+   * @param leaf The leaf.
+   */
+  private void enclosePoints(final int leaf) {
+    final int n = this.dimension;
+    final int offset = 2 * n * leaf;
+    final int first = this.firstChild[leaf];
+    for (int axis = 0; axis < n; axis++) {
+      this.bounds[offset + axis] = Double.POSITIVE_INFINITY;
+      this.bounds[offset + n + axis] = Double.NEGATIVE_INFINITY;
+    }
+    for (int item = first; item < first + this.childCount[leaf]; item++) {
+      for (int axis = 0; axis < n; axis++) {
+        final double value = this.points[item * n + axis];
+        this.bounds[offset + axis] = Math.min(this.bounds[offset + axis], value);
+        this.bounds[offset + n + axis] = Math.max(this.bounds[offset + n + axis], value);
+      }
+    }
+  }
+
+  /**
+   * Sets the bounding box of the supplied node to enclose its children.
+   *
+   * @param node The node.
+   */
+  private void encloseNodes(final int node) {
+    final int n = this.dimension;
+    final int offset = 2 * n * node;
+    final int first = this.firstChild[node];
+    for (int axis = 0; axis < n; axis++) {
+      this.bounds[offset + axis] = Double.POSITIVE_INFINITY;
+      this.bounds[offset + n + axis] = Double.NEGATIVE_INFINITY;
+    }
+    for (int child = first; child < first + this.childCount[node]; child++) {
+      final int childOffset = 2 * n * child;
+      for (int axis = 0; axis < n; axis++) {
+        this.bounds[offset + axis] =
+            Math.min(this.bounds[offset + axis], this.bounds[childOffset + axis]);
+        this.bounds[offset + n + axis] =
+            Math.max(this.bounds[offset + n + axis], this.bounds[childOffset + n + axis]);
+      }
+    }
+  }
+
+  /**
+   * Reorders the supplied level of nodes using Sort-Tile-Recursive packing on their centers.
+   *
+   * @param start The index of the first node of the level.
+   * @param end   The index after the last node of the level.
+   */
+  private void tileNodes(final int start, final int end) {
+    final int n = this.dimension;
+    final int count = end - start;
+    final double[] centers = new double[count * n];
+    final int[] order = new int[count];
+    for (int index = 0; index < count; index++) {
+      order[index] = index;
+      final int offset = 2 * n * (start + index);
+      for (int axis = 0; axis < n; axis++) {
+        centers[index * n + axis] =
+            (this.bounds[offset + axis] + this.bounds[offset + n + axis]) / 2d;
+      }
+    }
+    this.tile(order, 0, count, centers, 0);
+
+    final double[] boundCopy = Arrays.copyOfRange(this.bounds, 2 * n * start, 2 * n * end);
+    final int[] firstCopy = Arrays.copyOfRange(this.firstChild, start, end);
+    final int[] countCopy = Arrays.copyOfRange(this.childCount, start, end);
+    for (int index = 0; index < count; index++) {
+      System.arraycopy(boundCopy, 2 * n * order[index],
+          this.bounds, 2 * n * (start + index), 2 * n);
+      this.firstChild[start + index] = firstCopy[order[index]];
+      this.childCount[start + index] = countCopy[order[index]];
+    }
+  }
+
+  /**
+   * Orders the supplied range of indices using Sort-Tile-Recursive packing, ie. sorts the range
+   * along the supplied axis, divides it into slabs and tiles every slab along the next axis.
+   *
+   * @param order     The indices.
+   * @param from      The start of the range.
+   * @param to        The end of the range.
+   * @param positions The position of every index.
+   * @param axis      The axis along which to sort.
+   */
+  private void tile(
+      final int[] order,
+      final int from,
+      final int to,
+      final double[] positions,
+      final int axis
+  ) {
+    final int count = to - from;
+    if (count <= this.nodeSize) {
+      return;
+    }
+    PackedRTree.sort(order, from, to - 1, positions, this.dimension, axis);
+    if (axis == this.dimension - 1) {
+      return;
+    }
+    final int nodes = PackedRTree.divide(count, this.nodeSize);
+    final int slabs = (int) Math.ceil(Math.pow(nodes, 1d / (this.dimension - axis)));
+    final int slab = this.nodeSize * PackedRTree.divide(nodes, slabs);
+    for (int start = from; start < to; start += slab) {
+      this.tile(order, start, Math.min(to, start + slab), positions, axis + 1);
+    }
+  }
+
+  /**
+   * Sorts the supplied range of indices by their position along the supplied axis.
+   *
+   * @param order     The indices.
+   * @param low       The first index of the range.
+   * @param high      The last index of the range.
+   * @param positions The position of every index.
+   * @param dimension The dimension of the positions.
+   * @param axis      The axis along which to sort.
+   */
+  private static void sort(
+      final int[] order,
+      final int low,
+      final int high,
+      final double[] positions,
+      final int dimension,
+      final int axis
+  ) {
+    int from = low;
+    int to = high;
+    while (to - from > 16) {
+      final double pivot = positions[order[(from + to) >>> 1] * dimension + axis];
+      int left = from;
+      int right = to;
+      while (left <= right) {
+        while (positions[order[left] * dimension + axis] < pivot) {
+          left++;
+        }
+        while (positions[order[right] * dimension + axis] > pivot) {
+          right--;
+        }
+        if (left <= right) {
+          final int swap = order[left];
+          order[left++] = order[right];
+          order[right--] = swap;
+        }
+      }
+      // recurse into the smaller part to bound the depth of the stack
+      if (right - from < to - left) {
+        PackedRTree.sort(order, from, right, positions, dimension, axis);
+        from = left;
+      } else {
+        PackedRTree.sort(order, left, to, positions, dimension, axis);
+        to = right;
+      }
+    }
+    for (int index = from + 1; index <= to; index++) {
+      final int value = order[index];
+      final double key = positions[value * dimension + axis];
+      int position = index - 1;
+      while (position >= from && positions[order[position] * dimension + axis] > key) {
+        order[position + 1] = order[position];
+        position--;
+      }
+      order[position + 1] = value;
+    }
+  }
+
+  /**
+   * @param first  The first node.
+   * @param second The second node.
+   * @return The squared distance between the bounding boxes of the nodes.
+   */
+  private double getNodeDistance(final int first, final int second) {
+    final int n = this.dimension;
+    final int firstOffset = 2 * n * first;
+    final int secondOffset = 2 * n * second;
+    double sum = 0d;
+    for (int axis = 0; axis < n; axis++) {
+      final double difference = Math.max(0d, Math.max(
+          this.bounds[firstOffset + axis] - this.bounds[secondOffset + n + axis],
+          this.bounds[secondOffset + axis] - this.bounds[firstOffset + n + axis]));
+      sum += difference * difference;
+    }
+    return sum;
+  }
+
+  /**
+   * @param node The node.
+   * @return The length of the diagonal of the bounding box of the node.
+   */
+  private double getDiameter(final int node) {
+    final int offset = 2 * this.dimension * node;
+    double sum = 0d;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      final double extent =
+          this.bounds[offset + this.dimension + axis] - this.bounds[offset + axis];
+      sum += extent * extent;
+    }
+    return Math.sqrt(sum);
+  }
+
+  /**
+   * @param node The node.
+   * @return The sum of the extents of the bounding box of the node along every axis.
+   */
+  private double getMargin(final int node) {
+    final int offset = 2 * this.dimension * node;
+    double margin = 0d;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      margin += this.bounds[offset + this.dimension + axis] - this.bounds[offset + axis];
+    }
+    return margin;
+  }
+
+  /**
+   * @param dividend The dividend.
+   * @param divisor  The divisor.
+   * @return The quotient rounded up.
+   */
+  private static int divide(final int dividend, final int divisor) {
+    return (dividend + divisor - 1) / divisor;
+  }
+
+  /**
+   * The Class NeighborJoin.
+   *
+   * This class represents the dual-tree traversal of a pair of a query node and a reference node,
+   * which updates the nearest neighbor of every object in the query node with the objects in the
+   * reference node. The node which is split is the one which is not a leaf, or the larger one if
+   * neither is. The children of a split reference node are traversed in order of their distance,
+   * such that the bound of the query node shrinks early and the remaining children can be skipped
+   * as soon as one lies beyond it. The subtrees of the query tree are independent, such that every
+   * node above the parents of the leaves is traversed with the whole tree as a separate task.
+   */
+  private final class NeighborJoin extends RecursiveAction {
+    /**
+     * The squared distance to the nearest neighbor of every object, in the order of the leaves.
+     */
+    private final double[] best;
+    /**
+     * The nearest neighbor of every object, both in the order of the leaves.
+     */
+    private final int[] found;
+    /**
+     * The upper bound of the squared nearest neighbor distances of the objects in every node.
+     */
+    private final double[] nodeBounds;
+    /**
+     * The query node.
+     */
+    private final int query;
+    /**
+     * The reference node.
+     */
+    private final int reference;
+    /**
+     * The squared distance between the query node and the reference node.
+     */
+    private final double distance;
+    /**
+     * The children of a split reference node in order of their distance, per depth.
+     */
+    private final int[] order;
+    /**
+     * The squared distances of the children of a split reference node, per depth.
+     */
+    private final double[] keys;
+
+    /**
+     * @param best       The squared distance to the nearest neighbor of every object.
+     * @param found      The nearest neighbor of every object.
+     * @param nodeBounds The upper bound of the squared nearest neighbor distances of every node.
+     * @param query      The query node.
+     * @param reference  The reference node.
+     * @param distance   The squared distance between the query node and the reference node.
+     * @param depth      The maximum depth of the traversal.
+     */
+    private NeighborJoin(
+        final double[] best,
+        final int[] found,
+        final double[] nodeBounds,
+        final int query,
+        final int reference,
+        final double distance,
+        final int depth
+    ) {
+      this.best = best;
+      this.found = found;
+      this.nodeBounds = nodeBounds;
+      this.query = query;
+      this.reference = reference;
+      this.distance = distance;
+      this.order = new int[depth * PackedRTree.this.nodeSize];
+      this.keys = new double[depth * PackedRTree.this.nodeSize];
+    }
+
+    /**
+     * Traverses the pair of nodes of this task. The subtrees of the query node are traversed with
+     * the root as separate tasks, until their children are leaves.
+     */
+    @Override
+    protected void compute() {
+      final PackedRTree<O> tree = PackedRTree.this;
+      final int first = tree.firstChild[this.query];
+      if (this.reference != tree.root || this.query < tree.leafCount || first < tree.leafCount) {
+        this.join(this.query, this.reference, this.distance, 0);
+        return;
+      }
+      final int last = first + tree.childCount[this.query];
+      final List<NeighborJoin> tasks = new ArrayList<>(last - first);
+      for (int child = first; child < last; child++) {
+        tasks.add(new NeighborJoin(this.best, this.found, this.nodeBounds, child, tree.root,
+            tree.getNodeDistance(child, tree.root), this.keys.length / tree.nodeSize));
+      }
+      ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Traverses the supplied pair of nodes.
+     *
+     * @param query     The query node.
+     * @param reference The reference node.
+     * @param distance  The squared distance between the nodes.
+     * @param depth     The depth of the pair in the traversal of this task.
+     */
+    private void join(
+        final int query,
+        final int reference,
+        final double distance,
+        final int depth
+    ) {
+      final PackedRTree<O> tree = PackedRTree.this;
+      if (distance > this.nodeBounds[query]) {
+        return;
+      }
+      final boolean queryLeaf = query < tree.leafCount;
+      final boolean referenceLeaf = reference < tree.leafCount;
+      if (queryLeaf && referenceLeaf) {
+        this.compare(query, reference);
+      } else if (!queryLeaf
+          && (referenceLeaf || tree.getMargin(query) >= tree.getMargin(reference))) {
+        this.splitQuery(query, reference, depth);
+      } else {
+        this.splitReference(query, reference, depth);
+      }
+    }
+
+    /**
+     * Traverses every child of the supplied query node with the supplied reference node.
+     *
+     * @param query     The query node.
+     * @param reference The reference node.
+     * @param depth     The depth of the pair in the traversal of this task.
+     */
+    private void splitQuery(final int query, final int reference, final int depth) {
+      final PackedRTree<O> tree = PackedRTree.this;
+      final int first = tree.firstChild[query];
+      final int last = first + tree.childCount[query];
+      for (int child = first; child < last; child++) {
+        this.join(child, reference, tree.getNodeDistance(child, reference), depth + 1);
+      }
+      double bound = 0d;
+      for (int child = first; child < last; child++) {
+        bound = Math.max(bound, this.nodeBounds[child]);
+      }
+      this.nodeBounds[query] = Math.min(this.nodeBounds[query], bound);
+    }
+
+    /**
+     * Traverses the supplied query node with every child of the supplied reference node in order
+     * of their distance, until the distance exceeds the bound of the query node.
+     *
+     * @param query     The query node.
+     * @param reference The reference node.
+     * @param depth     The depth of the pair in the traversal of this task.
+     */
+    private void splitReference(final int query, final int reference, final int depth) {
+      final PackedRTree<O> tree = PackedRTree.this;
+      final int first = tree.firstChild[reference];
+      final int count = tree.childCount[reference];
+      final int offset = depth * tree.nodeSize;
+      for (int index = 0; index < count; index++) {
+        final double distance = tree.getNodeDistance(query, first + index);
+        int position = offset + index - 1;
+        while (position >= offset && this.keys[position] > distance) {
+          this.keys[position + 1] = this.keys[position];
+          this.order[position + 1] = this.order[position];
+          position--;
+        }
+        this.keys[position + 1] = distance;
+        this.order[position + 1] = first + index;
+      }
+      for (int index = offset; index < offset + count; index++) {
+        if (this.keys[index] > this.nodeBounds[query]) {
+          return;
+        }
+        this.join(query, this.order[index], this.keys[index], depth + 1);
+      }
+    }
+
+    /**
+     * Updates the nearest neighbor of every object in the supplied query leaf with the objects in
+     * the supplied reference leaf, after which the bound of the query leaf is the smaller of the
+     * largest nearest neighbor distance, and the smallest plus the extent of the leaf.
+     *
+     * @param query     The query leaf.
+     * @param reference The reference leaf.
+     */
+    private void compare(final int query, final int reference) {
+      final PackedRTree<O> tree = PackedRTree.this;
+      final int n = tree.dimension;
+      final int queryFirst = tree.firstChild[query];
+      final int queryLast = queryFirst + tree.childCount[query];
+      final int referenceFirst = tree.firstChild[reference];
+      final int referenceLast = referenceFirst + tree.childCount[reference];
+      double largest = 0d;
+      double smallest = Double.POSITIVE_INFINITY;
+      for (int item = queryFirst; item < queryLast; item++) {
+        // skip the reference leaf for the objects which already found a nearer neighbor
+        if (tree.getMinimumDistance(reference, tree.points, item * n) < this.best[item]) {
+          for (int other = referenceFirst; other < referenceLast; other++) {
+            double distance = 0d;
+            for (int axis = 0; axis < n; axis++) {
+              final double difference =
+                  tree.points[item * n + axis] - tree.points[other * n + axis];
+              distance += difference * difference;
+            }
+            if (distance < this.best[item] && other != item) {
+              this.best[item] = distance;
+              this.found[item] = other;
+            }
+          }
+        }
+        largest = Math.max(largest, this.best[item]);
+        smallest = Math.min(smallest, this.best[item]);
+      }
+      // every object lies within the diameter of the leaf from the nearest neighbor of any other
+      final double reach = Math.sqrt(smallest) + tree.getDiameter(query);
+      this.nodeBounds[query] = Math.min(largest, reach * reach);
+    }
+  }
+}
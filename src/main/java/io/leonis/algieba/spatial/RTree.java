@@ -1,7 +1,7 @@
 package io.leonis.algieba.spatial;
 
 import io.leonis.algieba.tree.Tree;
-import java.util.Set;
+import java.util.*;
 
 /**
  * The Interface RTree.
@@ -27,7 +27,16 @@ public interface RTree<V, O> extends Tree<O> {
    * @param objects The object to find the nearest neighbors of.
    * @return The nearest neighbors of the supplied object.
    */
-  Set<O> getNearestNeighbors(final Set<O> objects);
+  default Set<O> getNearestNeighbors(final Set<O> objects) {
+    final Set<O> neighbors = new LinkedHashSet<>();
+    for (final O object : objects) {
+      final O neighbor = this.getNearestNeighbor(object);
+      if (neighbor != null) {
+        neighbors.add(neighbor);
+      }
+    }
+    return neighbors;
+  }
 
   /**
    * @param facility The facility to find the maximum nearest neighbor distance of.
@@ -36,10 +45,17 @@ public interface RTree<V, O> extends Tree<O> {
   double getMaximumNearestNeighborDistance(final O facility);
 
   /**
-   * @param facility The set of facilities to find the maximum nearest neighbor distance of.
-   * @return The maximum nearest neighbor distance of the supplied facilities.
+   * @param facilities The set of facilities to find the maximum nearest neighbor distance of.
+   * @return The maximum nearest neighbor distance of the supplied facilities, or zero if the set
+   *     is empty.
    */
-  double getMaximumNearestNeighborDistance(final Set<O> facility);
+  default double getMaximumNearestNeighborDistance(final Set<O> facilities) {
+    double maximum = 0d;
+    for (final O facility : facilities) {
+      maximum = Math.max(maximum, this.getMaximumNearestNeighborDistance(facility));
+    }
+    return maximum;
+  }
 
   /**
    * @return The position vector of the facility.
@@ -0,0 +1,339 @@
+package io.leonis.algieba.spatial;
+
+import io.leonis.algieba.Spatial;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class SpatialHash.
+ *
+ * This class represents a uniform grid over the positions of a set of objects, which answers
+ * fixed-radius neighbor queries by visiting only the cells within the radius of the query point.
+ * The cells are hashed into a table of which the size is proportional to the amount of objects, so
+ * the grid does not need to know the extent of the space in advance.
+ *
+ * The grid is meant to be rebuilt every frame: {@link #build(Collection)} sorts the objects by
+ * their cell using a counting sort into flat arrays, which are reused between builds, after which
+ * the objects of a cell lie next to each other in memory. Choosing the cell size equal to the query
+ * radius means that a query visits the 3^d cells surrounding the query point, such that finding the
+ * neighbors of every object in a bounded space of N objects takes O(N) rather than O(N^2) time.
+ * Queries do not allocate and may run concurrently with each other, but not with a build, nor from
+ * within the consumer of another query on the same thread.
+ *
+ * @param <O> The type of object stored in the grid.
+ * @author agent
+ */
+public class SpatialHash<O extends Spatial> {
+  /**
+   * The dimension of the positions.
+   */
+  private final int dimension;
+  /**
+   * The length of the sides of a cell.
+   */
+  private final double cellSize;
+  /**
+   * The query state of every thread, containing the center cell and the current cell.
+   */
+  private final ThreadLocal<int[]> queries;
+
+  /**
+   * The objects, in the order in which they were supplied.
+   */
+  private Object[] objects = new Object[0];
+  /**
+   * The position of every object, in the order in which they were supplied.
+   */
+  private double[] points = new double[0];
+  /**
+   * The index of every object, sorted by bucket.
+   */
+  private int[] sorted = new int[0];
+  /**
+   * The position of every object, sorted by bucket.
+   */
+  private double[] sortedPoints = new double[0];
+  /**
+   * The cell of every object, sorted by bucket.
+   */
+  private int[] sortedCells = new int[0];
+  /**
+   * The cell of every object, in the order in which they were supplied.
+   */
+  private int[] cells = new int[0];
+  /**
+   * The bucket of every object, in the order in which they were supplied.
+   */
+  private int[] buckets = new int[0];
+  /**
+   * The index in the sorted arrays of the first object of every bucket.
+   */
+  private int[] starts = new int[2];
+  /**
+   * The amount of objects.
+   */
+  private int count;
+  /**
+   * The amount of buckets minus one.
+   */
+  private int mask;
+
+  /**
+   * @param dimension The dimension of the positions.
+   * @param cellSize  The length of the sides of a cell, which is best chosen equal to the radius
+   *                  of the queries.
+   */
+  public SpatialHash(final int dimension, final double cellSize) {
+    if (!(cellSize > 0d)) {
+      throw new IllegalArgumentException("The cell size must be positive.");
+    }
+    this.dimension = dimension;
+    this.cellSize = cellSize;
+    this.queries = ThreadLocal.withInitial(() -> new int[2 * dimension]);
+  }
+
+  /**
+   * Replaces the contents of the grid with the supplied objects, of which the index is their
+   * position in the iteration order of the collection.
+   *
+   * @param objects The objects.
+   */
+  public void build(final Collection<? extends O> objects) {
+    final int n = this.dimension;
+    this.count = objects.size();
+    this.ensureCapacity(this.count);
+    int index = 0;
+    for (final O object : objects) {
+      this.objects[index] = object;
+      final INDArray position = object.getPosition();
+      for (int axis = 0; axis < n; axis++) {
+        this.points[n * index + axis] = position.getDouble(axis);
+      }
+      index++;
+    }
+    this.sort();
+  }
+
+  /**
+   * Supplies the index of every object of which the position lies within the supplied distance of
+   * the supplied point to the supplied consumer.
+   *
+   * @param point    The query point.
+   * @param radius   The distance.
+   * @param consumer The consumer of the indices of the objects.
+   */
+  public void search(final double[] point, final double radius, final IntConsumer consumer) {
+    this.search(point, 0, radius, -1, consumer, null);
+  }
+
+  /**
+   * Supplies the index of every object other than the supplied object of which the position lies
+   * within the supplied distance of the position of the supplied object to the supplied consumer.
+   *
+   * @param index    The index of the object.
+   * @param radius   The distance.
+   * @param consumer The consumer of the indices of the neighbors.
+   */
+  public void search(final int index, final double radius, final IntConsumer consumer) {
+    this.search(this.points, this.dimension * index, radius, index, consumer, null);
+  }
+
+  /**
+   * Supplies every pair of distinct objects of which the positions lie within the supplied
+   * distance of each other to the supplied consumer, exactly once per pair.
+   *
+   * @param radius   The distance.
+   * @param consumer The consumer of the indices of the pairs, of which the first is the smaller.
+   */
+  public void forEachPair(final double radius, final BiIntConsumer consumer) {
+    for (int index = 0; index < this.count; index++) {
+      this.search(this.points, this.dimension * index, radius, index, null, consumer);
+    }
+  }
+
+  /**
+   * @param index The index of an object.
+   * @return The object.
+   */
+  @SuppressWarnings("unchecked")
+  public O getObject(final int index) {
+    return (O) this.objects[index];
+  }
+
+  /**
+   * @param index The index of an object.
+   * @param axis  The axis.
+   * @return The position of the object along the supplied axis, at the moment of the last build.
+   */
+  public double getPosition(final int index, final int axis) {
+    return this.points[this.dimension * index + axis];
+  }
+
+  /**
+   * @return The amount of objects in the grid.
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * @return The length of the sides of a cell.
+   */
+  public double getCellSize() {
+    return this.cellSize;
+  }
+
+  /**
+   * Computes the cell and bucket of every object, and sorts the objects by bucket.
+   */
+  private void sort() {
+    final int n = this.dimension;
+    final int buckets = Math.max(2, Integer.highestOneBit(Math.max(1, this.count)) << 2);
+    if (this.starts.length < buckets + 1) {
+      this.starts = new int[buckets + 1];
+    }
+    this.mask = buckets - 1;
+    Arrays.fill(this.starts, 0, buckets + 1, 0);
+
+    for (int index = 0; index < this.count; index++) {
+      for (int axis = 0; axis < n; axis++) {
+        this.cells[n * index + axis] =
+            (int) Math.floor(this.points[n * index + axis] / this.cellSize);
+      }
+      final int bucket = this.hash(this.cells, n * index);
+      this.buckets[index] = bucket;
+      this.starts[bucket + 1]++;
+    }
+    for (int bucket = 0; bucket < buckets; bucket++) {
+      this.starts[bucket + 1] += this.starts[bucket];
+    }
+    for (int index = 0; index < this.count; index++) {
+      // scatter using the start of the bucket as cursor, which is restored afterwards
+      final int target = this.starts[this.buckets[index]]++;
+      this.sorted[target] = index;
+      System.arraycopy(this.points, n * index, this.sortedPoints, n * target, n);
+      System.arraycopy(this.cells, n * index, this.sortedCells, n * target, n);
+    }
+    for (int bucket = buckets; bucket > 0; bucket--) {
+      this.starts[bucket] = this.starts[bucket - 1];
+    }
+    this.starts[0] = 0;
+  }
+
+  /**
+   * Supplies the index of every object within the supplied distance of the supplied point to the
+   * supplied consumer, by visiting every cell of which the coordinates differ from the cell of the
+   * point by at most the amount of cells spanned by the distance.
+   *
+   * @param point    The array containing the query point.
+   * @param offset   The offset of the query point in the array.
+   * @param radius   The distance.
+   * @param excluded The index of the object to exclude, or -1.
+   * @param consumer The consumer of the indices of the objects, or null.
+   * @param pairs    The consumer of the excluded object paired with every object of a larger
+   *                 index, which is used if the consumer of the indices is null.
+   */
+  private void search(
+      final double[] point,
+      final int offset,
+      final double radius,
+      final int excluded,
+      final IntConsumer consumer,
+      final BiIntConsumer pairs
+  ) {
+    if (this.count == 0) {
+      return;
+    }
+    final int n = this.dimension;
+    final int span = (int) Math.ceil(radius / this.cellSize);
+    final double squaredRadius = radius * radius;
+    final int[] query = this.queries.get();
+    for (int axis = 0; axis < n; axis++) {
+      query[axis] = (int) Math.floor(point[offset + axis] / this.cellSize);
+      query[n + axis] = query[axis] - span;
+    }
+    while (true) {
+      final int bucket = this.hash(query, n);
+      for (int entry = this.starts[bucket]; entry < this.starts[bucket + 1]; entry++) {
+        // skip the objects of other cells which share the bucket
+        boolean inside = true;
+        double distance = 0d;
+        for (int axis = 0; axis < n && inside; axis++) {
+          inside = this.sortedCells[n * entry + axis] == query[n + axis];
+          final double difference = this.sortedPoints[n * entry + axis] - point[offset + axis];
+          distance += difference * difference;
+        }
+        final int index = this.sorted[entry];
+        if (!inside || distance > squaredRadius || index == excluded) {
+          continue;
+        }
+        if (consumer != null) {
+          consumer.accept(index);
+        } else if (index > excluded) {
+          pairs.accept(excluded, index);
+        }
+      }
+
+      // advance to the next cell
+      int axis = 0;
+      while (axis < n && query[n + axis] == query[axis] + span) {
+        query[n + axis] = query[axis] - span;
+        axis++;
+      }
+      if (axis == n) {
+        return;
+      }
+      query[n + axis]++;
+    }
+  }
+
+  /**
+   * @param cells  The array containing the coordinates of the cell.
+   * @param offset The offset of the coordinates in the array.
+   * @return The bucket of the cell.
+   */
+  private int hash(final int[] cells, final int offset) {
+    int hash = 0;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      hash = (hash ^ cells[offset + axis]) * 0x9E3779B1;
+    }
+    return (hash ^ (hash >>> 16)) & this.mask;
+  }
+
+  /**
+   * Grows the arrays such that they can contain the supplied amount of objects.
+   *
+   * @param capacity The amount of objects.
+   */
+  private void ensureCapacity(final int capacity) {
+    if (this.objects.length >= capacity) {
+      Arrays.fill(this.objects, capacity, this.objects.length, null);
+      return;
+    }
+    final int n = this.dimension;
+    final int size = Math.max(capacity, 2 * this.objects.length);
+    this.objects = new Object[size];
+    this.points = new double[n * size];
+    this.sortedPoints = new double[n * size];
+    this.cells = new int[n * size];
+    this.sortedCells = new int[n * size];
+    this.sorted = new int[size];
+    this.buckets = new int[size];
+  }
+
+  /**
+   * The Interface BiIntConsumer.
+   *
+   * This interface represents an operation which accepts a pair of indices.
+   */
+  @FunctionalInterface
+  public interface BiIntConsumer {
+    /**
+     * @param first  The first index.
+     * @param second The second index.
+     */
+    void accept(final int first, final int second);
+  }
+}
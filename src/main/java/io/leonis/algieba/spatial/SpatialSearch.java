@@ -0,0 +1,97 @@
+package io.leonis.algieba.spatial;
+
+import java.util.Arrays;
+
+/**
+ * The Class SpatialSearch.
+ *
+ * This class contains the priority queue and stack of the queries on a spatial index by a single
+ * thread, which grow as required and are reused between queries. Entries in the queue are nodes,
+ * or objects encoded as -(index + 1), keyed by their squared distance to the query point.
+ *
+ * @author agent
+ */
+final class SpatialSearch {
+  /**
+   * The keys of the entries in the queue, as a binary heap.
+   */
+  double[] keys = new double[64];
+  /**
+   * The entries in the queue, in the order of their keys.
+   */
+  int[] values = new int[64];
+  /**
+   * The amount of entries in the queue.
+   */
+  int size;
+  /**
+   * The entries on the stack.
+   */
+  int[] stack = new int[64];
+  /**
+   * The amount of entries on the stack.
+   */
+  int stackSize;
+  /**
+   * The squared distance of the latest object which was polled.
+   */
+  double distance;
+
+  /**
+   * @param value The entry to push onto the stack.
+   */
+  void push(final int value) {
+    if (this.stackSize == this.stack.length) {
+      this.stack = Arrays.copyOf(this.stack, 2 * this.stack.length);
+    }
+    this.stack[this.stackSize++] = value;
+  }
+
+  /**
+   * @param key   The key of the entry.
+   * @param value The entry to add to the queue.
+   */
+  void offer(final double key, final int value) {
+    if (this.size == this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+      this.values = Arrays.copyOf(this.values, 2 * this.size);
+    }
+    int index = this.size++;
+    while (index > 0) {
+      final int parent = (index - 1) >>> 1;
+      if (this.keys[parent] <= key) {
+        break;
+      }
+      this.keys[index] = this.keys[parent];
+      this.values[index] = this.values[parent];
+      index = parent;
+    }
+    this.keys[index] = key;
+    this.values[index] = value;
+  }
+
+  /**
+   * @return The entry with the smallest key, which is removed from the queue.
+   */
+  int poll() {
+    final int result = this.values[0];
+    final double key = this.keys[--this.size];
+    final int value = this.values[this.size];
+    int index = 0;
+    while (2 * index + 1 < this.size) {
+      int child = 2 * index + 1;
+      if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+        child++;
+      }
+      if (this.keys[child] >= key) {
+        break;
+      }
+      this.keys[index] = this.keys[child];
+      this.values[index] = this.values[child];
+      index = child;
+    }
+    this.keys[index] = key;
+    this.values[index] = value;
+    return result;
+  }
+}
@@ -0,0 +1,297 @@
+package io.leonis.algieba.spatial;
+
+import io.leonis.algieba.*;
+import io.leonis.algieba.algebra.Matrices;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class TemporalBuffer.
+ *
+ * This class contains a bounded history of the positions and velocities of a moving object by
+ * timestamp, which is used to look up the state of the object at a time in the past, eg. to
+ * compensate for the latency of vision and radio. Between samples the position is interpolated
+ * either linearly or using a cubic <a href="https://en.wikipedia.org/wiki/Cubic_Hermite_spline">Hermite
+ * spline</a> through the positions and velocities of the surrounding samples; after the latest
+ * sample it is extrapolated using the latest velocity. A lookup costs O(log(capacity)) through a
+ * binary search over the timestamps.
+ *
+ * The samples are kept in a ring buffer of fixed capacity, backed by primitive arrays of which
+ * the elements are accessed atomically. A single thread may add samples while any amount of
+ * threads look up positions without locking: a lookup validates afterwards that none of the
+ * samples which it read have been overwritten in the meantime, and is retried otherwise. To that
+ * end, one slot of the ring buffer is kept free for the sample which is being written, such that
+ * at most capacity - 1 samples can be looked up.
+ *
+ * @author agent
+ */
+public class TemporalBuffer {
+  /**
+   * The dimension of the positions and velocities.
+   */
+  private final int dimension;
+  /**
+   * The amount of slots in the ring buffer.
+   */
+  private final int capacity;
+  /**
+   * The duration of a single unit of the timestamps, in the time unit of the velocities.
+   */
+  private final double timeUnit;
+  /**
+   * The timestamp of the sample in every slot.
+   */
+  private final AtomicLongArray timestamps;
+  /**
+   * The bits of the position followed by the velocity of the sample in every slot.
+   */
+  private final AtomicLongArray values;
+  /**
+   * The amount of samples which have been added, of which the sample with index i is stored in
+   * slot i % capacity. Samples are published by incrementing this value.
+   */
+  private volatile long written;
+
+  /**
+   * @param dimension The dimension of the positions and velocities.
+   * @param capacity  The amount of slots in the ring buffer, of which all but one hold a sample
+   *                  which can be looked up.
+   * @param timeUnit  The duration of a single unit of the timestamps, in the time unit of the
+   *                  velocities, eg. 1e-3 for timestamps in milliseconds and velocities in meters
+   *                  per second.
+   */
+  public TemporalBuffer(final int dimension, final int capacity, final double timeUnit) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("The capacity must be at least two.");
+    }
+    this.dimension = dimension;
+    this.capacity = capacity;
+    this.timeUnit = timeUnit;
+    this.timestamps = new AtomicLongArray(capacity);
+    this.values = new AtomicLongArray(2 * dimension * capacity);
+  }
+
+  /**
+   * Adds a sample to the buffer, overwriting the oldest sample if the buffer is full. This method
+   * must only be called by a single thread at a time.
+   *
+   * @param timestamp The timestamp of the sample, which is not older than the latest sample.
+   * @param position  The position of the sample.
+   * @param velocity  The velocity of the sample.
+   * @return True if the sample was added, false if it is older than the latest sample.
+   */
+  public boolean add(final long timestamp, final double[] position, final double[] velocity) {
+    final long index = this.written;
+    if (index > 0 && timestamp < this.timestamps.get(this.locate(index - 1))) {
+      return false;
+    }
+    final int slot = this.locate(index);
+    final int offset = 2 * this.dimension * slot;
+    this.timestamps.lazySet(slot, timestamp);
+    for (int axis = 0; axis < this.dimension; axis++) {
+      this.values.lazySet(offset + axis, Double.doubleToRawLongBits(position[axis]));
+      this.values.lazySet(offset + this.dimension + axis,
+          Double.doubleToRawLongBits(velocity[axis]));
+    }
+    this.written = index + 1;
+    return true;
+  }
+
+  /**
+   * Adds the supplied sample to the buffer.
+   *
+   * @param sample The timestamped moving object.
+   * @param <S>    The type of the sample.
+   * @return True if the sample was added, false if it is older than the latest sample.
+   * @see #add(long, double[], double[])
+   */
+  public <S extends Temporal & Spatial & Moving> boolean add(final S sample) {
+    return this.add(sample.getTimestamp(),
+        Matrices.toArray(sample.getPosition()), Matrices.toArray(sample.getVelocity()));
+  }
+
+  /**
+   * Computes the position at the supplied timestamp.
+   *
+   * @param timestamp     The timestamp.
+   * @param interpolation The interpolation between samples.
+   * @param target        The array to write the position into.
+   * @return True if the position was computed, false if the buffer is empty or the timestamp is
+   *     older than the oldest sample.
+   */
+  public boolean apply(
+      final long timestamp,
+      final Interpolation interpolation,
+      final double[] target
+  ) {
+    while (true) {
+      final long latest = this.written - 1;
+      if (latest < 0) {
+        return false;
+      }
+      final long oldest = Math.max(0, latest - this.capacity + 2);
+      final long first = this.locateBefore(timestamp, oldest, latest);
+      final boolean found;
+      if (first < oldest) {
+        found = false;
+      } else if (first == latest) {
+        this.extrapolate(this.locate(latest), timestamp, target);
+        found = true;
+      } else {
+        this.interpolate(this.locate(first), this.locate(first + 1), timestamp, interpolation,
+            target);
+        found = true;
+      }
+      // retry if the writer has started overwriting a sample which may have been read
+      if (oldest >= this.written - this.capacity + 1) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * Computes the position at the supplied timestamp.
+   *
+   * @param timestamp     The timestamp.
+   * @param interpolation The interpolation between samples.
+   * @return The position as a column vector.
+   * @throws IllegalArgumentException If the buffer is empty or the timestamp is older than the
+   *                                  oldest sample.
+   */
+  public INDArray getPosition(final long timestamp, final Interpolation interpolation) {
+    final double[] position = new double[this.dimension];
+    if (!this.apply(timestamp, interpolation, position)) {
+      throw new IllegalArgumentException("No sample precedes the timestamp " + timestamp + ".");
+    }
+    return Matrices.toMatrix(position, this.dimension, 1);
+  }
+
+  /**
+   * @return The amount of samples which can be looked up.
+   */
+  public int getSize() {
+    return (int) Math.min(this.written, this.capacity - 1);
+  }
+
+  /**
+   * @return The dimension of the positions and velocities.
+   */
+  public int getDimension() {
+    return this.dimension;
+  }
+
+  /**
+   * @param timestamp The timestamp.
+   * @param oldest    The index of the oldest sample to search.
+   * @param latest    The index of the latest sample to search.
+   * @return The index of the latest sample which is not newer than the supplied timestamp, or
+   *     oldest - 1 if there is none.
+   */
+  private long locateBefore(final long timestamp, final long oldest, final long latest) {
+    long lower = oldest;
+    long upper = latest + 1;
+    while (lower < upper) {
+      final long middle = (lower + upper) >>> 1;
+      if (this.timestamps.get(this.locate(middle)) <= timestamp) {
+        lower = middle + 1;
+      } else {
+        upper = middle;
+      }
+    }
+    return lower - 1;
+  }
+
+  /**
+   * Writes the position of the supplied sample, moved by its velocity to the supplied timestamp,
+   * into the supplied array.
+   *
+   * @param slot      The slot of the sample.
+   * @param timestamp The timestamp.
+   * @param target    The array to write the position into.
+   */
+  private void extrapolate(final int slot, final long timestamp, final double[] target) {
+    final int offset = 2 * this.dimension * slot;
+    final double duration = (timestamp - this.timestamps.get(slot)) * this.timeUnit;
+    for (int axis = 0; axis < this.dimension; axis++) {
+      target[axis] = this.get(offset + axis) + duration * this.get(offset + this.dimension + axis);
+    }
+  }
+
+  /**
+   * Writes the position between the supplied samples at the supplied timestamp into the supplied
+   * array.
+   *
+   * @param start         The slot of the sample before the timestamp.
+   * @param end           The slot of the sample after the timestamp.
+   * @param timestamp     The timestamp.
+   * @param interpolation The interpolation between the samples.
+   * @param target        The array to write the position into.
+   */
+  private void interpolate(
+      final int start,
+      final int end,
+      final long timestamp,
+      final Interpolation interpolation,
+      final double[] target
+  ) {
+    final int n = this.dimension;
+    final int startOffset = 2 * n * start;
+    final int endOffset = 2 * n * end;
+    final long startTimestamp = this.timestamps.get(start);
+    final long interval = this.timestamps.get(end) - startTimestamp;
+    // the end is newer than the timestamp, so the interval is positive
+    final double s = (timestamp - startTimestamp) / (double) interval;
+    if (interpolation == Interpolation.LINEAR) {
+      for (int axis = 0; axis < n; axis++) {
+        final double from = this.get(startOffset + axis);
+        target[axis] = from + s * (this.get(endOffset + axis) - from);
+      }
+      return;
+    }
+    final double duration = interval * this.timeUnit;
+    final double s2 = s * s;
+    final double s3 = s2 * s;
+    final double startWeight = 2d * s3 - 3d * s2 + 1d;
+    final double startTangentWeight = (s3 - 2d * s2 + s) * duration;
+    final double endWeight = -2d * s3 + 3d * s2;
+    final double endTangentWeight = (s3 - s2) * duration;
+    for (int axis = 0; axis < n; axis++) {
+      target[axis] = startWeight * this.get(startOffset + axis)
+          + startTangentWeight * this.get(startOffset + n + axis)
+          + endWeight * this.get(endOffset + axis)
+          + endTangentWeight * this.get(endOffset + n + axis);
+    }
+  }
+
+  /**
+   * @param index The index of the value.
+   * @return The value at the supplied index.
+   */
+  private double get(final int index) {
+    return Double.longBitsToDouble(this.values.get(index));
+  }
+
+  /**
+   * @param index The index of a sample.
+   * @return The slot of the sample in the ring buffer.
+   */
+  private int locate(final long index) {
+    return (int) (index % this.capacity);
+  }
+
+  /**
+   * The Enum Interpolation.
+   *
+   * This enum describes the interpolation of the position between two samples.
+   */
+  public enum Interpolation {
+    /**
+     * Linear interpolation between the positions, which ignores the velocities.
+     */
+    LINEAR,
+    /**
+     * Cubic Hermite interpolation through the positions and velocities.
+     */
+    HERMITE
+  }
+}
@@ -0,0 +1,299 @@
+package io.leonis.algieba.spatial;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.algebra.Matrices;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class WorldState.
+ *
+ * This class contains the latest positions and velocities of a set of moving objects, which are
+ * written by a single thread (eg. a tracker) and read by any amount of other threads (eg.
+ * planners). Every write publishes a new immutable {@link Snapshot} with a single atomic
+ * reference swap, such that a reader which obtains a snapshot sees a consistent view of every
+ * object at a single moment without locking, and without copying on read, for as long as it holds
+ * on to that snapshot.
+ *
+ * @author agent
+ */
+public class WorldState {
+  /**
+   * The dimension of the positions and velocities.
+   */
+  private final int dimension;
+  /**
+   * The latest snapshot.
+   */
+  private final AtomicReference<Snapshot> snapshot;
+
+  /**
+   * @param dimension The dimension of the positions and velocities.
+   */
+  public WorldState(final int dimension) {
+    this.dimension = dimension;
+    this.snapshot = new AtomicReference<>(
+        new Snapshot(dimension, Long.MIN_VALUE, new long[0], new double[0], new double[0]));
+  }
+
+  /**
+   * Publishes the supplied objects as the latest snapshot. The supplied arrays are copied.
+   *
+   * @param timestamp   The timestamp of the snapshot.
+   * @param identifiers The identifier of every object.
+   * @param positions   The position of every object, one after the other.
+   * @param velocities  The velocity of every object, one after the other.
+   * @param count       The amount of objects.
+   * @return The published snapshot.
+   */
+  public Snapshot publish(
+      final long timestamp,
+      final long[] identifiers,
+      final double[] positions,
+      final double[] velocities,
+      final int count
+  ) {
+    final int length = count * this.dimension;
+    final double[] positionCopy = new double[length];
+    final double[] velocityCopy = new double[length];
+    System.arraycopy(positions, 0, positionCopy, 0, length);
+    System.arraycopy(velocities, 0, velocityCopy, 0, length);
+    final long[] identifierCopy = new long[count];
+    System.arraycopy(identifiers, 0, identifierCopy, 0, count);
+    final Snapshot published =
+        new Snapshot(this.dimension, timestamp, identifierCopy, positionCopy, velocityCopy);
+    this.snapshot.set(published);
+    return published;
+  }
+
+  /**
+   * Publishes the supplied objects as the latest snapshot, of which the identifier of every object
+   * is its index in the supplied list.
+   *
+   * @param timestamp The timestamp of the snapshot.
+   * @param objects   The moving objects.
+   * @param <S>       The type of the objects.
+   * @return The published snapshot.
+   */
+  public <S extends Spatial & Moving> Snapshot publish(
+      final long timestamp,
+      final List<S> objects
+  ) {
+    final int n = this.dimension;
+    final int count = objects.size();
+    final long[] identifiers = new long[count];
+    final double[] positions = new double[count * n];
+    final double[] velocities = new double[count * n];
+    for (int index = 0; index < count; index++) {
+      identifiers[index] = index;
+      final S object = objects.get(index);
+      System.arraycopy(Matrices.toArray(object.getPosition()), 0, positions, index * n, n);
+      System.arraycopy(Matrices.toArray(object.getVelocity()), 0, velocities, index * n, n);
+    }
+    final Snapshot published = new Snapshot(n, timestamp, identifiers, positions, velocities);
+    this.snapshot.set(published);
+    return published;
+  }
+
+  /**
+   * @return The latest published snapshot, which is empty until the first publication.
+   */
+  public Snapshot getSnapshot() {
+    return this.snapshot.get();
+  }
+
+  /**
+   * @return The dimension of the positions and velocities.
+   */
+  public int getDimension() {
+    return this.dimension;
+  }
+
+  /**
+   * The Class Snapshot.
+   *
+   * This class contains the positions and velocities of a set of moving objects at a single
+   * moment. Instances are immutable and can be read by any amount of threads. The primitive
+   * accessors do not allocate; the {@link INDArray} accessors allocate a copy.
+   */
+  public static final class Snapshot {
+    /**
+     * The dimension of the positions and velocities.
+     */
+    private final int dimension;
+    /**
+     * The timestamp of the snapshot.
+     */
+    private final long timestamp;
+    /**
+     * The identifier of every object.
+     */
+    private final long[] identifiers;
+    /**
+     * The position of every object, one after the other.
+     */
+    private final double[] positions;
+    /**
+     * The velocity of every object, one after the other.
+     */
+    private final double[] velocities;
+
+    /**
+     * @param dimension   The dimension of the positions and velocities.
+     * @param timestamp   The timestamp of the snapshot.
+     * @param identifiers The identifier of every object.
+     * @param positions   The position of every object, one after the other.
+     * @param velocities  The velocity of every object, one after the other.
+     */
+    private Snapshot(
+        final int dimension,
+        final long timestamp,
+        final long[] identifiers,
+        final double[] positions,
+        final double[] velocities
+    ) {
+      this.dimension = dimension;
+      this.timestamp = timestamp;
+      this.identifiers = identifiers;
+      this.positions = positions;
+      this.velocities = velocities;
+    }
+
+    /**
+     * @return The timestamp of the snapshot.
+     */
+    public long getTimestamp() {
+      return this.timestamp;
+    }
+
+    /**
+     * @return The amount of objects.
+     */
+    public int getSize() {
+      return this.identifiers.length;
+    }
+
+    /**
+     * @param index The index of the object.
+     * @return The identifier of the object.
+     */
+    public long getIdentifier(final int index) {
+      return this.identifiers[index];
+    }
+
+    /**
+     * @param identifier The identifier of an object.
+     * @return The index of the object with the supplied identifier, or -1 if there is none.
+     */
+    public int indexOf(final long identifier) {
+      for (int index = 0; index < this.identifiers.length; index++) {
+        if (this.identifiers[index] == identifier) {
+          return index;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * @param index The index of the object.
+     * @param axis  The axis.
+     * @return The position of the object along the supplied axis.
+     */
+    public double getPosition(final int index, final int axis) {
+      return this.positions[index * this.dimension + axis];
+    }
+
+    /**
+     * @param index The index of the object.
+     * @param axis  The axis.
+     * @return The velocity of the object along the supplied axis.
+     */
+    public double getVelocity(final int index, final int axis) {
+      return this.velocities[index * this.dimension + axis];
+    }
+
+    /**
+     * @param index The index of the object.
+     * @return The position of the object as a column vector.
+     */
+    public INDArray getPosition(final int index) {
+      return this.toVector(this.positions, index);
+    }
+
+    /**
+     * @param index The index of the object.
+     * @return The velocity of the object as a column vector.
+     */
+    public INDArray getVelocity(final int index) {
+      return this.toVector(this.velocities, index);
+    }
+
+    /**
+     * @param index The index of the object.
+     * @return The object as a {@link Spatial} and {@link Moving} view on this snapshot.
+     */
+    public Entry get(final int index) {
+      return new Entry(this, index);
+    }
+
+    /**
+     * @param values The values of every object, one after the other.
+     * @param index  The index of the object.
+     * @return The values of the object as a column vector.
+     */
+    private INDArray toVector(final double[] values, final int index) {
+      final double[] vector = new double[this.dimension];
+      System.arraycopy(values, index * this.dimension, vector, 0, this.dimension);
+      return Matrices.toMatrix(vector, this.dimension, 1);
+    }
+  }
+
+  /**
+   * The Class Entry.
+   *
+   * This class represents a single object in a {@link Snapshot}.
+   */
+  public static final class Entry implements Spatial, Moving {
+    /**
+     * The snapshot containing the object.
+     */
+    private final Snapshot snapshot;
+    /**
+     * The index of the object in the snapshot.
+     */
+    private final int index;
+
+    /**
+     * @param snapshot The snapshot containing the object.
+     * @param index    The index of the object in the snapshot.
+     */
+    private Entry(final Snapshot snapshot, final int index) {
+      this.snapshot = snapshot;
+      this.index = index;
+    }
+
+    /**
+     * @return The identifier of the object.
+     */
+    public long getIdentifier() {
+      return this.snapshot.getIdentifier(this.index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public INDArray getPosition() {
+      return this.snapshot.getPosition(this.index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public INDArray getVelocity() {
+      return this.snapshot.getVelocity(this.index);
+    }
+  }
+}
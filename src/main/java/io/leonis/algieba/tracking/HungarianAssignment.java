@@ -0,0 +1,140 @@
+package io.leonis.algieba.tracking;
+
+import java.util.Arrays;
+
+/**
+ * The Class HungarianAssignment.
+ *
+ * This class solves the rectangular <a href="https://en.wikipedia.org/wiki/Assignment_problem">assignment
+ * problem</a>, ie. it assigns every row of a cost matrix to a distinct column such that the total
+ * cost is minimal, using the O(rows^2 * columns) shortest augmenting path formulation of the <a
+ * href="https://en.wikipedia.org/wiki/Hungarian_algorithm">Hungarian algorithm</a>. The buffers
+ * of the solver are reused between invocations and only grow, so an instance is not thread-safe.
+ *
+ * @author agent
+ */
+public class HungarianAssignment {
+  /**
+   * The potential of every row, indexed from 1.
+   */
+  private double[] rowPotentials = new double[0];
+  /**
+   * The potential of every column, indexed from 1, where column 0 is the root of the tree.
+   */
+  private double[] columnPotentials = new double[0];
+  /**
+   * The smallest reduced cost from the tree to every column in the current augmentation.
+   */
+  private double[] minima = new double[0];
+  /**
+   * The row (indexed from 1) which is assigned to every column, or 0 if it is unassigned.
+   */
+  private int[] columnAssignments = new int[0];
+  /**
+   * The previous column on the shortest augmenting path to every column.
+   */
+  private int[] predecessors = new int[0];
+  /**
+   * Whether every column is part of the tree in the current augmentation.
+   */
+  private boolean[] visited = new boolean[0];
+
+  /**
+   * Assigns every row to a distinct column such that the total cost is minimal.
+   *
+   * @param costs       The cost matrix (rows by columns) in row-major order.
+   * @param rows        The amount of rows.
+   * @param columns     The amount of columns, which must be at least the amount of rows.
+   * @param assignments The array to write the column which is assigned to every row to.
+   * @return The total cost of the assignment.
+   * @throws IllegalArgumentException If there are more rows than columns.
+   */
+  public double solve(
+      final double[] costs,
+      final int rows,
+      final int columns,
+      final int[] assignments
+  ) {
+    if (rows > columns) {
+      throw new IllegalArgumentException("The cost matrix must not have more rows than columns.");
+    }
+    this.ensureCapacity(rows, columns);
+    Arrays.fill(this.rowPotentials, 0, rows + 1, 0d);
+    Arrays.fill(this.columnPotentials, 0, columns + 1, 0d);
+    Arrays.fill(this.columnAssignments, 0, columns + 1, 0);
+
+    for (int row = 1; row <= rows; row++) {
+      this.columnAssignments[0] = row;
+      int column = 0;
+      Arrays.fill(this.minima, 0, columns + 1, Double.POSITIVE_INFINITY);
+      Arrays.fill(this.visited, 0, columns + 1, false);
+
+      // grow a tree of tight edges until it reaches an unassigned column
+      do {
+        this.visited[column] = true;
+        final int currentRow = this.columnAssignments[column];
+        double delta = Double.POSITIVE_INFINITY;
+        int nextColumn = 0;
+        for (int candidate = 1; candidate <= columns; candidate++) {
+          if (!this.visited[candidate]) {
+            final double reducedCost = costs[(currentRow - 1) * columns + candidate - 1]
+                - this.rowPotentials[currentRow] - this.columnPotentials[candidate];
+            if (reducedCost < this.minima[candidate]) {
+              this.minima[candidate] = reducedCost;
+              this.predecessors[candidate] = column;
+            }
+            if (this.minima[candidate] < delta) {
+              delta = this.minima[candidate];
+              nextColumn = candidate;
+            }
+          }
+        }
+        for (int candidate = 0; candidate <= columns; candidate++) {
+          if (this.visited[candidate]) {
+            this.rowPotentials[this.columnAssignments[candidate]] += delta;
+            this.columnPotentials[candidate] -= delta;
+          } else {
+            this.minima[candidate] -= delta;
+          }
+        }
+        column = nextColumn;
+      } while (this.columnAssignments[column] != 0);
+
+      // flip the augmenting path
+      do {
+        final int previousColumn = this.predecessors[column];
+        this.columnAssignments[column] = this.columnAssignments[previousColumn];
+        column = previousColumn;
+      } while (column != 0);
+    }
+
+    double total = 0d;
+    for (int column = 1; column <= columns; column++) {
+      final int row = this.columnAssignments[column];
+      if (row != 0) {
+        assignments[row - 1] = column - 1;
+        total += costs[(row - 1) * columns + column - 1];
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Grows the buffers such that they fit the supplied dimensions.
+   *
+   * @param rows    The amount of rows.
+   * @param columns The amount of columns.
+   */
+  private void ensureCapacity(final int rows, final int columns) {
+    if (this.rowPotentials.length <= rows) {
+      this.rowPotentials = new double[rows + 1];
+    }
+    if (this.columnPotentials.length <= columns) {
+      this.columnPotentials = new double[columns + 1];
+      this.minima = new double[columns + 1];
+      this.columnAssignments = new int[columns + 1];
+      this.predecessors = new int[columns + 1];
+      this.visited = new boolean[columns + 1];
+    }
+  }
+}
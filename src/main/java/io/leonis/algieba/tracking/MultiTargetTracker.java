@@ -0,0 +1,573 @@
+package io.leonis.algieba.tracking;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.filter.FixedKalmanFilter;
+import java.util.*;
+
+/**
+ * The Class MultiTargetTracker.
+ *
+ * This class maintains a set of {@link Track} which share a single linear model, and associates
+ * the detections of every frame with those tracks. Every track is filtered by a {@link
+ * FixedKalmanFilter}. The association of a frame consists of the following steps:
+ *
+ * <ol>
+ * <li>every track is projected, and its projected measurement and innovation covariance are
+ * computed,</li>
+ * <li>the detections are sorted into a grid of cells of the gate radius, such that every track
+ * only considers the detections in the 3 by 3 cells around its projected measurement,</li>
+ * <li>of those detections, the ones within the Mahalanobis gate of the track are candidates,</li>
+ * <li>the tracks and detections are split into clusters which share no candidates, and every
+ * cluster is assigned by the {@link HungarianAssignment}, or greedily by ascending distance if
+ * the cluster contains more than a maximum amount of tracks,</li>
+ * <li>assigned tracks are corrected, tracks which missed too many frames are retired, and every
+ * unassigned detection starts a new track.</li>
+ * </ol>
+ *
+ * The spatial gate uses the first two elements of the measurement as its position, and a new
+ * track starts with the detection as its leading states, ie. the measurement-transition matrix is
+ * expected to be of the form [I 0]. The buffers of the tracker are reused between frames and only
+ * grow, so a tracker is not thread-safe.
+ *
+ * @author agent
+ */
+public class MultiTargetTracker {
+  /**
+   * The maximum amount of detections per frame, limited by the packing of the cell index.
+   */
+  private static final int MAXIMUM_DETECTIONS = 1 << 20;
+  /**
+   * The dimension of the state vector.
+   */
+  private final int stateDimension;
+  /**
+   * The dimension of the measurement vector.
+   */
+  private final int measurementDimension;
+  /**
+   * The state-transition matrix in row-major order.
+   */
+  private final double[] stateTransition;
+  /**
+   * The measurement-transition matrix in row-major order.
+   */
+  private final double[] measurementTransition;
+  /**
+   * The process covariance in row-major order.
+   */
+  private final double[] processCovariance;
+  /**
+   * The covariance of a new track in row-major order.
+   */
+  private final double[] initialCovariance;
+  /**
+   * The size of a cell of the spatial gate.
+   */
+  private final double gateRadius;
+  /**
+   * The squared Mahalanobis distance beyond which a detection is not associated with a track.
+   */
+  private final double gateDistance;
+  /**
+   * The amount of consecutive missed frames after which a track is retired.
+   */
+  private final int maximumMisses;
+  /**
+   * The maximum amount of tracks in a cluster which is assigned optimally.
+   */
+  private final int maximumClusterSize;
+  /**
+   * The active tracks.
+   */
+  private final List<Track> tracks = new ArrayList<>();
+  /**
+   * An unmodifiable view of the active tracks.
+   */
+  private final List<Track> trackView = Collections.unmodifiableList(this.tracks);
+  /**
+   * The solver of the assignment of clusters.
+   */
+  private final HungarianAssignment assignment = new HungarianAssignment();
+  /**
+   * The identifier of the next track.
+   */
+  private long nextIdentifier;
+
+  // fixed buffers
+  private final double[] mean;
+  private final double[] covariance;
+  private final double[] crossCovariance;
+  private final double[] innovationCovariance;
+  private final double[] measurement;
+
+  // growing buffers
+  private double[] projectedMeasurements = new double[0];
+  private double[] factors = new double[0];
+  private long[] detectionCells = new long[0];
+  private int[] parents = new int[0];
+  private int[] assignedDetections = new int[0];
+  private int[] assignedTracks = new int[0];
+  private int[] candidateTracks = new int[0];
+  private int[] candidateDetections = new int[0];
+  private double[] candidateDistances = new double[0];
+  private long[] clusterOrder = new long[0];
+  private int[] rows = new int[0];
+  private int[] columns = new int[0];
+  private double[] costs = new double[0];
+  private int[] clusterAssignments = new int[0];
+  private int candidateCount;
+
+  /**
+   * @param stateTransition       The state-transition matrix (state by state) in row-major order.
+   * @param measurementTransition The measurement-transition matrix (measurement by state) in
+   *                              row-major order.
+   * @param processCovariance     The process covariance (state by state) in row-major order.
+   * @param initialCovariance     The covariance (state by state) of a new track in row-major
+   *                              order.
+   * @param gateRadius            The size of a cell of the spatial gate. This must be large
+   *                              enough that the Mahalanobis gate of every track fits within one
+   *                              cell around its projected position.
+   * @param gateDistance          The squared Mahalanobis distance beyond which a detection is not
+   *                              associated with a track, eg. 9.21 for a 99% gate on a
+   *                              two-dimensional measurement.
+   * @param maximumMisses         The amount of consecutive missed frames after which a track is
+   *                              retired.
+   * @param maximumClusterSize    The maximum amount of tracks in a cluster which is assigned
+   *                              optimally, larger clusters are assigned greedily to bound the
+   *                              time spent per frame.
+   */
+  public MultiTargetTracker(
+      final double[] stateTransition,
+      final double[] measurementTransition,
+      final double[] processCovariance,
+      final double[] initialCovariance,
+      final double gateRadius,
+      final double gateDistance,
+      final int maximumMisses,
+      final int maximumClusterSize
+  ) {
+    this.stateDimension = (int) Math.round(Math.sqrt(stateTransition.length));
+    this.measurementDimension = measurementTransition.length / this.stateDimension;
+    this.stateTransition = stateTransition.clone();
+    this.measurementTransition = measurementTransition.clone();
+    this.processCovariance = processCovariance.clone();
+    this.initialCovariance = initialCovariance.clone();
+    this.gateRadius = gateRadius;
+    this.gateDistance = gateDistance;
+    this.maximumMisses = maximumMisses;
+    this.maximumClusterSize = maximumClusterSize;
+    this.mean = new double[this.stateDimension];
+    this.covariance = new double[this.stateDimension * this.stateDimension];
+    this.crossCovariance = new double[this.stateDimension * this.measurementDimension];
+    this.innovationCovariance = new double[this.measurementDimension * this.measurementDimension];
+    this.measurement = new double[this.measurementDimension];
+  }
+
+  /**
+   * Projects every track one step ahead, associates the supplied detections with the tracks,
+   * corrects the associated tracks, retires lost tracks and starts new tracks.
+   *
+   * @param detections            The detections (detections by measurement) in row-major order.
+   * @param detectionCount        The amount of detections.
+   * @param measurementCovariance The covariance of a detection (measurement by measurement) in
+   *                              row-major order.
+   * @return An unmodifiable view of the active tracks.
+   * @throws ArithmeticException      If the innovation covariance of a track is not
+   *                                  positive-definite.
+   * @throws IllegalArgumentException If there are more than 2^20 detections.
+   */
+  public List<Track> apply(
+      final double[] detections,
+      final int detectionCount,
+      final double[] measurementCovariance
+  ) {
+    if (detectionCount > MAXIMUM_DETECTIONS) {
+      throw new IllegalArgumentException("Too many detections in a single frame.");
+    }
+    final int trackCount = this.tracks.size();
+    this.ensureCapacity(trackCount, detectionCount);
+    this.project(measurementCovariance);
+    this.gate(detections, detectionCount);
+    this.associate(trackCount, detectionCount);
+
+    for (int track = 0; track < trackCount; track++) {
+      final Track current = this.tracks.get(track);
+      final int detection = this.assignedDetections[track];
+      if (detection >= 0) {
+        System.arraycopy(detections, detection * this.measurementDimension,
+            this.measurement, 0, this.measurementDimension);
+        current.getFilter().update(this.measurement, measurementCovariance);
+        current.hit();
+      } else {
+        current.miss();
+      }
+    }
+    this.tracks.removeIf(track -> track.getMisses() > this.maximumMisses);
+
+    for (int detection = 0; detection < detectionCount; detection++) {
+      if (this.assignedTracks[detection] < 0) {
+        Arrays.fill(this.mean, 0d);
+        System.arraycopy(detections, detection * this.measurementDimension,
+            this.mean, 0, this.measurementDimension);
+        this.tracks.add(new Track(this.nextIdentifier++, new FixedKalmanFilter(
+            this.stateTransition, this.measurementTransition, this.processCovariance,
+            this.mean, this.initialCovariance)));
+      }
+    }
+    return this.trackView;
+  }
+
+  /**
+   * @return An unmodifiable view of the active tracks.
+   */
+  public List<Track> getTracks() {
+    return this.trackView;
+  }
+
+  /**
+   * Projects every track, and computes its projected measurement and the Cholesky factor of its
+   * innovation covariance.
+   *
+   * @param measurementCovariance The covariance of a detection in row-major order.
+   * @throws ArithmeticException If the innovation covariance of a track is not positive-definite.
+   */
+  private void project(final double[] measurementCovariance) {
+    final int n = this.stateDimension;
+    final int m = this.measurementDimension;
+    for (int track = 0; track < this.tracks.size(); track++) {
+      final FixedKalmanFilter filter = this.tracks.get(track).getFilter();
+      filter.predict(null);
+      filter.copyTo(this.mean, 0, this.covariance, 0);
+      Matrices.multiplyVector(this.measurementTransition, this.mean, this.measurement, m, n);
+      System.arraycopy(this.measurement, 0, this.projectedMeasurements, track * m, m);
+
+      // H * P * H^T + R
+      Matrices.multiplyTransposed(
+          this.covariance, this.measurementTransition, this.crossCovariance, n, n, m);
+      Matrices.multiply(
+          this.measurementTransition, this.crossCovariance, this.innovationCovariance, m, n, m);
+      for (int index = 0; index < m * m; index++) {
+        this.innovationCovariance[index] += measurementCovariance[index];
+      }
+      if (!Matrices.decomposeCholesky(this.innovationCovariance, m)) {
+        throw new ArithmeticException("The innovation covariance is not positive-definite.");
+      }
+      System.arraycopy(this.innovationCovariance, 0, this.factors, track * m * m, m * m);
+    }
+  }
+
+  /**
+   * Collects the candidate pairs of tracks and detections which pass the spatial and Mahalanobis
+   * gates, and joins the tracks and detections of every pair into a cluster.
+   *
+   * @param detections     The detections in row-major order.
+   * @param detectionCount The amount of detections.
+   */
+  private void gate(final double[] detections, final int detectionCount) {
+    final int m = this.measurementDimension;
+    final int trackCount = this.tracks.size();
+
+    // sort the detections by cell, packed as (cell hash << 20) | detection
+    for (int detection = 0; detection < detectionCount; detection++) {
+      this.detectionCells[detection] = MultiTargetTracker.hashCell(
+          this.locateCell(detections[detection * m]),
+          m > 1 ? this.locateCell(detections[detection * m + 1]) : 0L) << 20 | detection;
+    }
+    Arrays.sort(this.detectionCells, 0, detectionCount);
+
+    for (int node = 0; node < trackCount + detectionCount; node++) {
+      this.parents[node] = node;
+    }
+    this.candidateCount = 0;
+    final int reach = m > 1 ? 1 : 0;
+    for (int track = 0; track < trackCount; track++) {
+      final long column = this.locateCell(this.projectedMeasurements[track * m]);
+      final long row = m > 1 ? this.locateCell(this.projectedMeasurements[track * m + 1]) : 0L;
+      for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+        for (int rowOffset = -reach; rowOffset <= reach; rowOffset++) {
+          final long cell = MultiTargetTracker.hashCell(column + columnOffset, row + rowOffset);
+          int index = MultiTargetTracker.lowerBound(
+              this.detectionCells, detectionCount, cell << 20);
+          for (; index < detectionCount && this.detectionCells[index] >>> 20 == cell; index++) {
+            final int detection = (int) (this.detectionCells[index] & (MAXIMUM_DETECTIONS - 1));
+            final double distance = this.computeDistance(track, detections, detection);
+            if (distance <= this.gateDistance) {
+              this.addCandidate(track, detection, distance);
+              this.join(track, trackCount + detection);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Assigns the detections to the tracks per cluster.
+   *
+   * @param trackCount     The amount of tracks.
+   * @param detectionCount The amount of detections.
+   */
+  private void associate(final int trackCount, final int detectionCount) {
+    Arrays.fill(this.assignedDetections, 0, trackCount, -1);
+    Arrays.fill(this.assignedTracks, 0, detectionCount, -1);
+    if (this.candidateCount == 0) {
+      return;
+    }
+
+    // sort the candidates by cluster, packed as (cluster << 32) | candidate
+    for (int candidate = 0; candidate < this.candidateCount; candidate++) {
+      this.clusterOrder[candidate] =
+          (long) this.find(this.candidateTracks[candidate]) << 32 | candidate;
+    }
+    Arrays.sort(this.clusterOrder, 0, this.candidateCount);
+
+    int start = 0;
+    while (start < this.candidateCount) {
+      int end = start + 1;
+      while (end < this.candidateCount
+          && this.clusterOrder[end] >>> 32 == this.clusterOrder[start] >>> 32) {
+        end++;
+      }
+      this.assignCluster(start, end, trackCount);
+      start = end;
+    }
+  }
+
+  /**
+   * Assigns the detections to the tracks of a single cluster.
+   *
+   * @param start      The index of the first candidate of the cluster in the cluster order.
+   * @param end        The index after the last candidate of the cluster in the cluster order.
+   * @param trackCount The amount of tracks.
+   */
+  private void assignCluster(final int start, final int end, final int trackCount) {
+    // number the tracks and detections of the cluster, marked as -2 - index in the assignments
+    int rowCount = 0;
+    int columnCount = 0;
+    for (int index = start; index < end; index++) {
+      final int candidate = (int) this.clusterOrder[index];
+      final int track = this.candidateTracks[candidate];
+      final int detection = this.candidateDetections[candidate];
+      if (this.assignedDetections[track] == -1) {
+        this.assignedDetections[track] = -2 - rowCount;
+        this.rows[rowCount++] = track;
+      }
+      if (this.assignedTracks[detection] == -1) {
+        this.assignedTracks[detection] = -2 - columnCount;
+        this.columns[columnCount++] = detection;
+      }
+    }
+
+    if (rowCount > this.maximumClusterSize) {
+      this.assignGreedily(start, end, rowCount, columnCount);
+      return;
+    }
+
+    // every track has its own dummy column which represents a miss at the cost of the gate
+    final int width = columnCount + rowCount;
+    final double forbidden = 2d * this.gateDistance + 1d;
+    if (this.costs.length < rowCount * width) {
+      this.costs = new double[rowCount * width];
+    }
+    if (this.clusterAssignments.length < rowCount) {
+      this.clusterAssignments = new int[rowCount];
+    }
+    Arrays.fill(this.costs, 0, rowCount * width, forbidden);
+    for (int row = 0; row < rowCount; row++) {
+      this.costs[row * width + columnCount + row] = this.gateDistance;
+    }
+    for (int index = start; index < end; index++) {
+      final int candidate = (int) this.clusterOrder[index];
+      final int row = -2 - this.assignedDetections[this.candidateTracks[candidate]];
+      final int column = -2 - this.assignedTracks[this.candidateDetections[candidate]];
+      this.costs[row * width + column] = this.candidateDistances[candidate];
+    }
+    this.assignment.solve(this.costs, rowCount, width, this.clusterAssignments);
+
+    for (int column = 0; column < columnCount; column++) {
+      this.assignedTracks[this.columns[column]] = -1;
+    }
+    for (int row = 0; row < rowCount; row++) {
+      final int track = this.rows[row];
+      final int column = this.clusterAssignments[row];
+      if (column < columnCount && this.costs[row * width + column] <= this.gateDistance) {
+        this.assignedDetections[track] = this.columns[column];
+        this.assignedTracks[this.columns[column]] = track;
+      } else {
+        this.assignedDetections[track] = -1;
+      }
+    }
+  }
+
+  /**
+   * Assigns the candidates of a cluster greedily by ascending Mahalanobis distance.
+   *
+   * @param start       The index of the first candidate of the cluster in the cluster order.
+   * @param end         The index after the last candidate of the cluster in the cluster order.
+   * @param rowCount    The amount of tracks in the cluster.
+   * @param columnCount The amount of detections in the cluster.
+   */
+  private void assignGreedily(
+      final int start,
+      final int end,
+      final int rowCount,
+      final int columnCount
+  ) {
+    for (int row = 0; row < rowCount; row++) {
+      this.assignedDetections[this.rows[row]] = -1;
+    }
+    for (int column = 0; column < columnCount; column++) {
+      this.assignedTracks[this.columns[column]] = -1;
+    }
+    // order by distance, packed as (distance bits << 32) | candidate; non-negative doubles order
+    // like their bits, and truncating to the upper 32 bits only coarsens the ordering
+    for (int index = start; index < end; index++) {
+      final int candidate = (int) this.clusterOrder[index];
+      this.clusterOrder[index] =
+          (Double.doubleToLongBits(this.candidateDistances[candidate]) >>> 32) << 32 | candidate;
+    }
+    Arrays.sort(this.clusterOrder, start, end);
+    for (int index = start; index < end; index++) {
+      final int candidate = (int) this.clusterOrder[index];
+      final int track = this.candidateTracks[candidate];
+      final int detection = this.candidateDetections[candidate];
+      if (this.assignedDetections[track] < 0 && this.assignedTracks[detection] < 0) {
+        this.assignedDetections[track] = detection;
+        this.assignedTracks[detection] = track;
+      }
+    }
+  }
+
+  /**
+   * @param track      The index of the track.
+   * @param detections The detections in row-major order.
+   * @param detection  The index of the detection.
+   * @return The squared Mahalanobis distance between the detection and the projected measurement
+   *     of the track.
+   */
+  private double computeDistance(final int track, final double[] detections, final int detection) {
+    final int m = this.measurementDimension;
+    final int factorOffset = track * m * m;
+    double distance = 0d;
+    // |L^-1 * (z - H * x)|^2
+    for (int row = 0; row < m; row++) {
+      double value = detections[detection * m + row] - this.projectedMeasurements[track * m + row];
+      for (int index = 0; index < row; index++) {
+        value -= this.factors[factorOffset + row * m + index] * this.measurement[index];
+      }
+      this.measurement[row] = value / this.factors[factorOffset + row * m + row];
+      distance += this.measurement[row] * this.measurement[row];
+    }
+    return distance;
+  }
+
+  /**
+   * @param coordinate The coordinate of a position.
+   * @return The index of the cell of the spatial gate which contains the coordinate.
+   */
+  private long locateCell(final double coordinate) {
+    return (long) Math.floor(coordinate / this.gateRadius);
+  }
+
+  /**
+   * @param column The index of the cell along the first axis.
+   * @param row    The index of the cell along the second axis.
+   * @return A 43-bit hash of the cell. Colliding cells only add candidates, which are rejected by
+   *     the Mahalanobis gate.
+   */
+  private static long hashCell(final long column, final long row) {
+    return (column * 0x9E3779B97F4A7C15L ^ row * 0xC2B2AE3D27D4EB4FL) >>> 21;
+  }
+
+  /**
+   * @param sorted The sorted array.
+   * @param length The amount of sorted elements.
+   * @param key    The key to search for.
+   * @return The index of the first element which is not less than the supplied key.
+   */
+  private static int lowerBound(final long[] sorted, final int length, final long key) {
+    int low = 0;
+    int high = length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (sorted[middle] < key) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param track     The index of the track.
+   * @param detection The index of the detection.
+   * @param distance  The squared Mahalanobis distance between the track and the detection.
+   */
+  private void addCandidate(final int track, final int detection, final double distance) {
+    if (this.candidateCount == this.candidateTracks.length) {
+      final int capacity = Math.max(16, 2 * this.candidateCount);
+      this.candidateTracks = Arrays.copyOf(this.candidateTracks, capacity);
+      this.candidateDetections = Arrays.copyOf(this.candidateDetections, capacity);
+      this.candidateDistances = Arrays.copyOf(this.candidateDistances, capacity);
+      this.clusterOrder = Arrays.copyOf(this.clusterOrder, capacity);
+    }
+    this.candidateTracks[this.candidateCount] = track;
+    this.candidateDetections[this.candidateCount] = detection;
+    this.candidateDistances[this.candidateCount] = distance;
+    this.candidateCount++;
+  }
+
+  /**
+   * @param node The node of which to find the cluster.
+   * @return The root of the cluster of the supplied node.
+   */
+  private int find(final int node) {
+    int root = node;
+    while (this.parents[root] != root) {
+      this.parents[root] = this.parents[this.parents[root]];
+      root = this.parents[root];
+    }
+    return root;
+  }
+
+  /**
+   * Joins the clusters of the supplied nodes.
+   *
+   * @param first  The first node.
+   * @param second The second node.
+   */
+  private void join(final int first, final int second) {
+    final int firstRoot = this.find(first);
+    final int secondRoot = this.find(second);
+    if (firstRoot != secondRoot) {
+      this.parents[secondRoot] = firstRoot;
+    }
+  }
+
+  /**
+   * Grows the buffers such that they fit the supplied amounts of tracks and detections.
+   *
+   * @param trackCount     The amount of tracks.
+   * @param detectionCount The amount of detections.
+   */
+  private void ensureCapacity(final int trackCount, final int detectionCount) {
+    final int m = this.measurementDimension;
+    if (this.assignedDetections.length < trackCount) {
+      final int capacity = Math.max(trackCount, 2 * this.assignedDetections.length);
+      this.assignedDetections = new int[capacity];
+      this.rows = new int[capacity];
+      this.projectedMeasurements = new double[capacity * m];
+      this.factors = new double[capacity * m * m];
+    }
+    if (this.assignedTracks.length < detectionCount) {
+      final int capacity = Math.max(detectionCount, 2 * this.assignedTracks.length);
+      this.assignedTracks = new int[capacity];
+      this.columns = new int[capacity];
+      this.detectionCells = new long[capacity];
+    }
+    if (this.parents.length < trackCount + detectionCount) {
+      this.parents = new int[2 * (trackCount + detectionCount)];
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package io.leonis.algieba.tracking;
+
+import io.leonis.algieba.filter.FixedKalmanFilter;
+import io.leonis.algieba.statistic.Distribution;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The Class Track.
+ *
+ * This class represents a single target which is maintained by a {@link MultiTargetTracker}. The
+ * track is the {@link Distribution} of the latest state of the target, and counts the frames in
+ * which it was and was not associated with a detection.
+ *
+ * @author agent
+ */
+public class Track implements Distribution {
+  /**
+   * The identifier of the track, which is unique within its tracker.
+   */
+  private final long identifier;
+  /**
+   * The filter which contains the state of the target.
+   */
+  private final FixedKalmanFilter filter;
+  /**
+   * The amount of frames in which the track was associated with a detection.
+   */
+  private int hits;
+  /**
+   * The amount of consecutive frames in which the track was not associated with a detection.
+   */
+  private int misses;
+
+  /**
+   * @param identifier The identifier of the track.
+   * @param filter     The filter which contains the state of the target.
+   */
+  Track(final long identifier, final FixedKalmanFilter filter) {
+    this.identifier = identifier;
+    this.filter = filter;
+    this.hits = 1;
+  }
+
+  /**
+   * Records that the track was associated with a detection.
+   */
+  void hit() {
+    this.hits++;
+    this.misses = 0;
+  }
+
+  /**
+   * Records that the track was not associated with a detection.
+   */
+  void miss() {
+    this.misses++;
+  }
+
+  /**
+   * @return The filter which contains the state of the target.
+   */
+  FixedKalmanFilter getFilter() {
+    return this.filter;
+  }
+
+  /**
+   * @return The identifier of the track, which is unique within its tracker.
+   */
+  public long getIdentifier() {
+    return this.identifier;
+  }
+
+  /**
+   * @return The amount of frames in which the track was associated with a detection.
+   */
+  public int getHits() {
+    return this.hits;
+  }
+
+  /**
+   * @return The amount of consecutive frames in which the track was not associated with a
+   *     detection.
+   */
+  public int getMisses() {
+    return this.misses;
+  }
+
+  /**
+   * @param index The index of the element of the mean.
+   * @return The element of the mean of the state at the supplied index.
+   */
+  public double getMean(final int index) {
+    return this.filter.getMean(index);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getMean() {
+    return this.filter.getMean();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public INDArray getCovariance() {
+    return this.filter.getCovariance();
+  }
+}
@@ -0,0 +1,82 @@
+package io.leonis.algieba.algebra;
+
+import static org.testng.Assert.assertEquals;
+
+import org.testng.annotations.Test;
+
+/**
+ * The Test DualRingUnitTest.
+ *
+ * @author agent
+ */
+public class DualRingUnitTest {
+
+  private final static double EPSILON = 1e-12;
+  private final DualRing dualRing = new DualRing();
+  private final DualNumber[] variables = DualRing.variables(3d, -2d);
+
+  /**
+   * Add.
+   */
+  @Test
+  public void add() {
+    final DualNumber sum = this.dualRing.add(this.variables[0], this.variables[1]);
+    assertEquals(sum.getValue(), 1d, EPSILON);
+    assertEquals(sum.getDerivative(0), 1d, EPSILON);
+    assertEquals(sum.getDerivative(1), 1d, EPSILON);
+
+    final DualNumber shifted = this.dualRing.add(this.variables[0], DualRing.constant(5d));
+    assertEquals(shifted.getValue(), 8d, EPSILON);
+    assertEquals(shifted.getDerivative(0), 1d, EPSILON);
+    assertEquals(shifted.getDerivative(1), 0d, EPSILON);
+  }
+
+  /**
+   * Multiply.
+   */
+  @Test
+  public void multiply() {
+    // d(xy)/dx = y, d(xy)/dy = x
+    final DualNumber product = this.dualRing.multiply(this.variables[0], this.variables[1]);
+    assertEquals(product.getValue(), -6d, EPSILON);
+    assertEquals(product.getDerivative(0), -2d, EPSILON);
+    assertEquals(product.getDerivative(1), 3d, EPSILON);
+  }
+
+  /**
+   * Gets multiplicative inverse.
+   */
+  @Test
+  public void getMultiplicativeInverse() {
+    // d(1/x)/dx = -1/x^2
+    final DualNumber inverse = this.dualRing.getMultiplicativeInverse(this.variables[0]);
+    assertEquals(inverse.getValue(), 1d / 3d, EPSILON);
+    assertEquals(inverse.getDerivative(0), -1d / 9d, EPSILON);
+    assertEquals(inverse.getDerivative(1), 0d, EPSILON);
+  }
+
+  /**
+   * Chain rule.
+   */
+  @Test
+  public void chainRule() {
+    // d(sin(x * y))/dx = y * cos(x * y)
+    final DualNumber sine =
+        this.dualRing.sin(this.dualRing.multiply(this.variables[0], this.variables[1]));
+    assertEquals(sine.getValue(), Math.sin(-6d), EPSILON);
+    assertEquals(sine.getDerivative(0), -2d * Math.cos(-6d), EPSILON);
+    assertEquals(sine.getDerivative(1), 3d * Math.cos(-6d), EPSILON);
+
+    // d(sqrt(exp(x)))/dx = sqrt(exp(x)) / 2
+    final DualNumber root = this.dualRing.sqrt(this.dualRing.exp(this.variables[0]));
+    assertEquals(root.getDerivative(0), Math.sqrt(Math.exp(3d)) / 2d, EPSILON);
+  }
+
+  /**
+   * Division by zero.
+   */
+  @Test(expectedExceptions = ArithmeticException.class)
+  public void divisionByZero() {
+    this.dualRing.getMultiplicativeInverse(DualRing.constant(0d));
+  }
+}
@@ -0,0 +1,179 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.Random;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.testng.annotations.Test;
+
+/**
+ * The Test BatchKalmanFilterUnitTest.
+ *
+ * @author agent
+ */
+public class BatchKalmanFilterUnitTest {
+
+  // the stacked states are stored in single precision
+  private final static double EPSILON = 1e-5;
+  private final static int TRACKS = 7;
+  private final static int STEPS = 25;
+  private final static int STATE = 4;
+  private final static int MEASUREMENT = 2;
+  private final static int CONTROL = 2;
+  private final double[] stateTransition = {
+      1, 0, 0.1, 0,
+      0, 1, 0, 0.1,
+      0, 0, 1, 0,
+      0, 0, 0, 1
+  };
+  private final double[] measurementTransition = {
+      1, 0, 0, 0,
+      0, 1, 0, 0
+  };
+  private final double[] controlTransition = {
+      0.005, 0,
+      0, 0.005,
+      0.1, 0,
+      0, 0.1
+  };
+  private final double[] processCovariance = {
+      0.001, 0, 0.0005, 0,
+      0, 0.001, 0, 0.0005,
+      0.0005, 0, 0.01, 0,
+      0, 0.0005, 0, 0.01
+  };
+
+  /**
+   * Every track of a batch with a control input and measurement covariance per track, of which
+   * some tracks are not measured, equals a single filter per track.
+   */
+  @Test
+  public void stacked() {
+    this.assertEquivalence(false);
+  }
+
+  /**
+   * Every track of a batch with a shared control input and measurement covariance equals a single
+   * filter per track.
+   */
+  @Test
+  public void shared() {
+    this.assertEquivalence(true);
+  }
+
+  /**
+   * @param shared True if the control input and measurement covariance are shared by all tracks
+   *               and every track is measured.
+   */
+  private void assertEquivalence(final boolean shared) {
+    final Random random = new Random(42);
+    final BatchKalmanFilter batchFilter = new BatchKalmanFilter();
+    final double[] means = new double[TRACKS * STATE];
+    final double[] covariances = new double[TRACKS * STATE * STATE];
+    for (int track = 0; track < TRACKS; track++) {
+      for (int row = 0; row < STATE; row++) {
+        means[track * STATE + row] = this.round(random.nextGaussian());
+        covariances[(track * STATE + row) * STATE + row] = 1d + track;
+      }
+    }
+    Distribution states = new SimpleDistribution(
+        Nd4j.create(means, new int[]{TRACKS, STATE, 1}),
+        Nd4j.create(covariances, new int[]{TRACKS, STATE, STATE}));
+
+    for (int step = 0; step < STEPS; step++) {
+      final double[] controlInputs = new double[(shared ? 1 : TRACKS) * CONTROL];
+      for (int index = 0; index < controlInputs.length; index++) {
+        controlInputs[index] = this.round(random.nextGaussian());
+      }
+      final double[] measurements = new double[TRACKS * MEASUREMENT];
+      for (int index = 0; index < measurements.length; index++) {
+        measurements[index] = this.round(step * 0.1d + random.nextGaussian());
+      }
+      final double[] measurementCovariances =
+          new double[(shared ? 1 : TRACKS) * MEASUREMENT * MEASUREMENT];
+      for (int index = 0; index < measurementCovariances.length; index += 4) {
+        measurementCovariances[index] = this.round(0.1d + random.nextDouble());
+        measurementCovariances[index + 1] = 0.03125d;
+        measurementCovariances[index + 2] = 0.03125d;
+        measurementCovariances[index + 3] = this.round(0.1d + random.nextDouble());
+      }
+      final boolean[] measured = new boolean[TRACKS];
+      for (int track = 0; track < TRACKS; track++) {
+        measured[track] = shared || random.nextInt(3) > 0;
+      }
+
+      final INDArray controlInputVectors = shared
+          ? Matrices.toMatrix(controlInputs, CONTROL, 1)
+          : Nd4j.create(controlInputs, new int[]{TRACKS, CONTROL, 1});
+      final Distribution measurementDistribution = new SimpleDistribution(
+          Nd4j.create(measurements, new int[]{TRACKS, MEASUREMENT, 1}),
+          shared
+              ? Matrices.toMatrix(measurementCovariances, MEASUREMENT, MEASUREMENT)
+              : Nd4j.create(measurementCovariances, new int[]{TRACKS, MEASUREMENT, MEASUREMENT}));
+      final Distribution filtered = shared
+          ? batchFilter.apply(
+              Matrices.toMatrix(this.stateTransition, STATE, STATE),
+              Matrices.toMatrix(this.measurementTransition, MEASUREMENT, STATE),
+              Matrices.toMatrix(this.controlTransition, STATE, CONTROL),
+              controlInputVectors,
+              Matrices.toMatrix(this.processCovariance, STATE, STATE),
+              measurementDistribution,
+              states)
+          : batchFilter.apply(
+              Matrices.toMatrix(this.stateTransition, STATE, STATE),
+              Matrices.toMatrix(this.measurementTransition, MEASUREMENT, STATE),
+              Matrices.toMatrix(this.controlTransition, STATE, CONTROL),
+              controlInputVectors,
+              Matrices.toMatrix(this.processCovariance, STATE, STATE),
+              measurementDistribution,
+              measured,
+              states);
+
+      final double[] previousMeans = Matrices.flatten(states.getMean());
+      final double[] previousCovariances = Matrices.flatten(states.getCovariance());
+      for (int track = 0; track < TRACKS; track++) {
+        final FixedKalmanFilter filter = new FixedKalmanFilter(
+            this.stateTransition, this.measurementTransition, this.processCovariance,
+            new double[STATE], new double[STATE * STATE]);
+        filter.reset(previousMeans, track * STATE, previousCovariances, track * STATE * STATE);
+        final double[] controlInput = new double[CONTROL];
+        System.arraycopy(controlInputs, shared ? 0 : track * CONTROL, controlInput, 0, CONTROL);
+        final double[] controlEffect = new double[STATE];
+        Matrices.multiplyVector(this.controlTransition, controlInput, controlEffect, STATE,
+            CONTROL);
+        filter.predict(controlEffect);
+        if (measured[track]) {
+          final double[] measurement = new double[MEASUREMENT];
+          System.arraycopy(measurements, track * MEASUREMENT, measurement, 0, MEASUREMENT);
+          final double[] measurementCovariance = new double[MEASUREMENT * MEASUREMENT];
+          System.arraycopy(measurementCovariances,
+              shared ? 0 : track * MEASUREMENT * MEASUREMENT, measurementCovariance, 0,
+              MEASUREMENT * MEASUREMENT);
+          filter.update(measurement, measurementCovariance);
+        }
+
+        for (int row = 0; row < STATE; row++) {
+          assertEquals(filtered.getMean().getDouble(track, row, 0), filter.getMean(row),
+              EPSILON * (1 + Math.abs(filter.getMean(row))));
+          for (int column = 0; column < STATE; column++) {
+            assertEquals(filtered.getCovariance().getDouble(track, row, column),
+                filter.getCovariance(row, column),
+                EPSILON * (1 + Math.abs(filter.getCovariance(row, column))));
+          }
+        }
+      }
+      states = filtered;
+    }
+  }
+
+  /**
+   * @param value The value.
+   * @return The value rounded to single precision, such that it is stored exactly.
+   */
+  private double round(final double value) {
+    return (float) value;
+  }
+}
@@ -0,0 +1,57 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.filter.ContinuousModel.Discretization;
+import org.testng.annotations.Test;
+
+/**
+ * The Test ContinuousModelUnitTest.
+ *
+ * @author agent
+ */
+public class ContinuousModelUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static double[] TIME_STEPS = new double[]{1e-3, 0.016, 0.1, 0.5, 1, 2};
+
+  /**
+   * The Van Loan discretization equals the closed form of the constant-velocity model.
+   */
+  @Test
+  public void constantVelocity() {
+    for (int axes = 1; axes <= 3; axes++) {
+      this.assertDiscretization(new ConstantVelocityModel(axes, 0.7, 1e-3, 16));
+    }
+  }
+
+  /**
+   * The Van Loan discretization equals the closed form of the constant-acceleration model.
+   */
+  @Test
+  public void constantAcceleration() {
+    for (int axes = 1; axes <= 3; axes++) {
+      this.assertDiscretization(new ConstantAccelerationModel(axes, 0.7, 1e-3, 16));
+    }
+  }
+
+  /**
+   * @param closedForm The model with a closed-form discretization.
+   */
+  private void assertDiscretization(final ContinuousModel closedForm) {
+    final int n = closedForm.getDimension();
+    // the arrays are supplied directly, as matrices may be stored in single precision
+    final ContinuousModel vanLoan =
+        new ContinuousModel(closedForm.drift, closedForm.diffusion, n, 1e-3, 16);
+    for (final double timeStep : TIME_STEPS) {
+      final Discretization expected = closedForm.discretize(timeStep);
+      final Discretization actual = vanLoan.discretize(timeStep);
+      for (int index = 0; index < n * n; index++) {
+        assertEquals(actual.getStateTransitionValues()[index],
+            expected.getStateTransitionValues()[index], EPSILON);
+        assertEquals(actual.getProcessCovarianceValues()[index],
+            expected.getProcessCovarianceValues()[index], EPSILON);
+      }
+    }
+  }
+}
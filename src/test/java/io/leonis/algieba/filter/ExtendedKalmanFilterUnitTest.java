@@ -0,0 +1,166 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.*;
+import io.leonis.algieba.statistic.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.testng.annotations.Test;
+
+/**
+ * The Test ExtendedKalmanFilterUnitTest.
+ *
+ * @author agent
+ */
+public class ExtendedKalmanFilterUnitTest {
+
+  // the matrices may be stored in single precision
+  private final static double EPSILON = 1e-5;
+  private final static int STEPS = 50;
+  private final static double TIME_STEP = 0.1d;
+  private final DualRing dualRing = new DualRing();
+  private final INDArray stateTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0.1,
+      0, 1
+  }, 2, 2);
+  private final INDArray measurementTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0
+  }, 1, 2);
+  private final INDArray processCovariance = Matrices.toMatrix(new double[]{
+      0.001, 0.0005,
+      0.0005, 0.01
+  }, 2, 2);
+  private final INDArray controlTransitionMatrix = Nd4j.zeros(2, 1);
+  private final INDArray controlInputVector = Nd4j.zeros(1, 1);
+  private final Distribution initialState = new SimpleDistribution(
+      Matrices.toMatrix(new double[]{0.5, -1}, 2, 1),
+      Matrices.toMatrix(new double[]{
+          2, 0.5,
+          0.5, 1
+      }, 2, 2));
+
+  /**
+   * The covariance of the filter with explicit Jacobians of a linear model is projected through
+   * the covariance of the state and equals the covariance of the {@link KalmanFilter}.
+   */
+  @Test
+  public void covariance() {
+    final ExtendedKalmanFilter filter = new ExtendedKalmanFilter();
+    final KalmanFilter reference = new KalmanFilter();
+    Distribution state = this.initialState;
+    Distribution referenceState = this.initialState;
+    for (int step = 0; step < STEPS; step++) {
+      final Distribution measurement = this.createMeasurement(step);
+      state = filter.apply(
+          (mean, control) -> this.stateTransitionMatrix.mmul(mean),
+          this.measurementTransitionMatrix::mmul,
+          this.stateTransitionMatrix,
+          this.measurementTransitionMatrix,
+          this.controlInputVector,
+          this.processCovariance,
+          measurement,
+          state);
+      referenceState = reference.apply(this.stateTransitionMatrix,
+          this.measurementTransitionMatrix, this.controlTransitionMatrix,
+          this.controlInputVector, this.processCovariance, measurement, referenceState);
+      this.assertCovariance(state, referenceState);
+    }
+  }
+
+  /**
+   * The filter with dual numbers equals the {@link KalmanFilter} on a linear model.
+   */
+  @Test
+  public void dualLinear() {
+    final ExtendedKalmanFilter filter = new ExtendedKalmanFilter();
+    final KalmanFilter reference = new KalmanFilter();
+    Distribution state = this.initialState;
+    Distribution referenceState = this.initialState;
+    for (int step = 0; step < STEPS; step++) {
+      final Distribution measurement = this.createMeasurement(step);
+      state = filter.apply(
+          (mean, control) -> new DualNumber[]{
+              this.dualRing.add(mean[0], this.dualRing.scale(mean[1], TIME_STEP)),
+              mean[1]},
+          mean -> new DualNumber[]{mean[0]},
+          this.controlInputVector,
+          this.processCovariance,
+          measurement,
+          state);
+      referenceState = reference.apply(this.stateTransitionMatrix,
+          this.measurementTransitionMatrix, this.controlTransitionMatrix,
+          this.controlInputVector, this.processCovariance, measurement, referenceState);
+      for (int row = 0; row < 2; row++) {
+        assertEquals(state.getMean().getDouble(row, 0),
+            referenceState.getMean().getDouble(row, 0), EPSILON);
+      }
+      this.assertCovariance(state, referenceState);
+    }
+  }
+
+  /**
+   * The filter with dual numbers yields the same covariance as the filter with explicit
+   * Jacobians on a nonlinear model of a pendulum of which the sine of the angle is measured.
+   */
+  @Test
+  public void dualJacobian() {
+    final ExtendedKalmanFilter filter = new ExtendedKalmanFilter();
+    Distribution state = this.initialState;
+    for (int step = 0; step < STEPS; step++) {
+      final Distribution measurement = this.createMeasurement(step);
+      final Distribution dualState = filter.apply(
+          (mean, control) -> new DualNumber[]{
+              this.dualRing.add(mean[0], this.dualRing.scale(mean[1], TIME_STEP)),
+              this.dualRing.add(mean[1],
+                  this.dualRing.scale(this.dualRing.sin(mean[0]), -TIME_STEP))},
+          mean -> new DualNumber[]{this.dualRing.sin(mean[0])},
+          this.controlInputVector,
+          this.processCovariance,
+          measurement,
+          state);
+
+      final double angle = state.getMean().getDouble(0, 0);
+      final double projectedAngle = angle + TIME_STEP * state.getMean().getDouble(1, 0);
+      final Distribution explicitState = filter.apply(
+          (mean, control) -> Matrices.toMatrix(new double[]{
+              mean.getDouble(0, 0) + TIME_STEP * mean.getDouble(1, 0),
+              mean.getDouble(1, 0) - TIME_STEP * Math.sin(mean.getDouble(0, 0))}, 2, 1),
+          mean -> Matrices.toMatrix(new double[]{Math.sin(mean.getDouble(0, 0))}, 1, 1),
+          Matrices.toMatrix(new double[]{
+              1, TIME_STEP,
+              -TIME_STEP * Math.cos(angle), 1
+          }, 2, 2),
+          Matrices.toMatrix(new double[]{Math.cos(projectedAngle), 0}, 1, 2),
+          this.controlInputVector,
+          this.processCovariance,
+          measurement,
+          state);
+      this.assertCovariance(dualState, explicitState);
+      state = dualState;
+    }
+  }
+
+  /**
+   * @param step The step.
+   * @return The measurement at the supplied step.
+   */
+  private Distribution createMeasurement(final int step) {
+    return new SimpleDistribution(
+        Matrices.toMatrix(new double[]{Math.sin(step * TIME_STEP)}, 1, 1),
+        Matrices.toMatrix(new double[]{0.1}, 1, 1));
+  }
+
+  /**
+   * @param state    The state of the filter under test.
+   * @param expected The expected state.
+   */
+  private void assertCovariance(final Distribution state, final Distribution expected) {
+    for (int row = 0; row < 2; row++) {
+      for (int column = 0; column < 2; column++) {
+        assertEquals(state.getCovariance().getDouble(row, column),
+            expected.getCovariance().getDouble(row, column), EPSILON);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.List;
+import java.util.stream.*;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.linalg.factory.Nd4j;
+import org.testng.ITestResult;
+import org.testng.annotations.*;
+
+/**
+ * The Test FixedKalmanFilterPerformanceTest.
+ *
+ * @author agent
+ */
+@Slf4j
+public class FixedKalmanFilterPerformanceTest {
+
+  private final static double NOISE_RANGE = 10f;
+  private final static int POINTS = 1000;
+  private final double[] stateTransitionMatrix = {
+      1, 0,
+      0.5f, 0
+  };
+  private final double[] measurementTransitionMatrix = {
+      1, 0,
+      0, 1
+  };
+  private final double[] measurementCovarianceMatrix = {
+      0, 0,
+      0, 0.01f
+  };
+  private final double[] controlInputVector = {
+      0.01f,
+      0.01f
+  };
+  private final double[] processCovariance = {
+      0.001f, 0,
+      0, 0.1f
+  };
+  private final List<double[]> testData = IntStream.range(0, POINTS).sequential()
+      .mapToObj(index -> new double[]{
+          2 * index,
+          index + NOISE_RANGE * Math.random() - NOISE_RANGE / 2f
+      })
+      .collect(Collectors.toList());
+
+  /**
+   * Filter.
+   */
+  @Test(invocationCount = 10)
+  public void filter() {
+    final TwoStateKalmanFilter filter = new TwoStateKalmanFilter(
+        this.stateTransitionMatrix,
+        this.measurementTransitionMatrix,
+        this.processCovariance,
+        this.controlInputVector,
+        this.processCovariance);
+    this.testData.forEach(measurement ->
+        filter.apply(this.controlInputVector, measurement, this.measurementCovarianceMatrix));
+  }
+
+  /**
+   * Equivalence with {@link KalmanFilter}.
+   */
+  @Test
+  public void equivalence() {
+    final KalmanFilter reference = new KalmanFilter();
+    final FixedKalmanFilter filter = new FixedKalmanFilter(
+        this.stateTransitionMatrix,
+        this.measurementTransitionMatrix,
+        this.processCovariance,
+        this.controlInputVector,
+        this.processCovariance);
+    final TwoStateKalmanFilter unrolledFilter = new TwoStateKalmanFilter(
+        this.stateTransitionMatrix,
+        this.measurementTransitionMatrix,
+        this.processCovariance,
+        this.controlInputVector,
+        this.processCovariance);
+    Distribution state = new SimpleDistribution(
+        Matrices.toMatrix(this.controlInputVector, 2, 1),
+        Matrices.toMatrix(this.processCovariance, 2, 2));
+    for (final double[] measurement : this.testData) {
+      state = reference.apply(
+          Matrices.toMatrix(this.stateTransitionMatrix, 2, 2),
+          Matrices.toMatrix(this.measurementTransitionMatrix, 2, 2),
+          Nd4j.eye(2),
+          Matrices.toMatrix(this.controlInputVector, 2, 1),
+          Matrices.toMatrix(this.processCovariance, 2, 2),
+          new SimpleDistribution(
+              Matrices.toMatrix(measurement, 2, 1),
+              Matrices.toMatrix(this.measurementCovarianceMatrix, 2, 2)),
+          state);
+      filter.apply(this.controlInputVector, measurement, this.measurementCovarianceMatrix);
+      unrolledFilter.apply(this.controlInputVector, measurement, this.measurementCovarianceMatrix);
+      for (int row = 0; row < 2; row++) {
+        // the reference filter computes in single precision
+        assertEquals(filter.getMean(row), state.getMean().getDouble(row, 0),
+            1e-3 * (1 + Math.abs(filter.getMean(row))));
+        assertEquals(unrolledFilter.getMean(row), filter.getMean(row),
+            1e-9 * (1 + Math.abs(filter.getMean(row))));
+        for (int column = 0; column < 2; column++) {
+          assertEquals(filter.getCovariance(row, column),
+              state.getCovariance().getDouble(row, column),
+              1e-3 * (1 + Math.abs(filter.getCovariance(row, column))));
+          assertEquals(unrolledFilter.getCovariance(row, column),
+              filter.getCovariance(row, column),
+              1e-9 * (1 + Math.abs(filter.getCovariance(row, column))));
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets run time.
+   *
+   * @param testResult the test result
+   */
+  @AfterMethod
+  public void getRunTime(final ITestResult testResult) {
+    final long time = testResult.getEndMillis() - testResult.getStartMillis();
+    log.info("Iteration #" + testResult.getMethod().getCurrentInvocationCount()
+        + " on " + POINTS + " measurements ran in " + time + "ms. "
+        + (time / ((double) POINTS)) + "ms per measurement.");
+  }
+
+  /**
+   * Initialization.
+   */
+  @BeforeClass
+  public void initialization() {
+    log.info("Starting fixed Kalman filter test suite.");
+  }
+
+  /**
+   * Terminate.
+   */
+  @AfterClass
+  public void terminate() {
+    log.info("Done with fixed Kalman filter test suite.");
+  }
+}
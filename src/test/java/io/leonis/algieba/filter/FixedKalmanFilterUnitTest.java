@@ -0,0 +1,158 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * The Test FixedKalmanFilterUnitTest.
+ *
+ * @author agent
+ */
+public class FixedKalmanFilterUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static double TIME_STEP = 0.1d;
+  private final static int STEPS = 200;
+
+  /**
+   * The four-state filter equals the general filter with the measurement-transition matrix [I 0].
+   */
+  @Test
+  public void fourState() {
+    final double[] stateTransition = this.createStateTransition(2);
+    final double[] processCovariance = this.createProcessCovariance(2);
+    final double[] mean = {1, -2, 0.5, 0.3};
+    final double[] covariance = this.createDiagonal(4, 2d);
+    this.assertEquivalence(
+        new FourStateKalmanFilter(stateTransition, processCovariance, mean, covariance),
+        new FixedKalmanFilter(stateTransition, this.createLeading(4, 2), processCovariance, mean,
+            covariance),
+        2);
+  }
+
+  /**
+   * The six-state filter equals the general filter with the measurement-transition matrix [I 0].
+   */
+  @Test
+  public void sixState() {
+    final double[] stateTransition = this.createStateTransition(3);
+    final double[] processCovariance = this.createProcessCovariance(3);
+    final double[] mean = {1, -2, 0.25, 0.5, 0.3, -0.1};
+    final double[] covariance = this.createDiagonal(6, 2d);
+    this.assertEquivalence(
+        new SixStateKalmanFilter(stateTransition, processCovariance, mean, covariance),
+        new FixedKalmanFilter(stateTransition, this.createLeading(6, 3), processCovariance, mean,
+            covariance),
+        3);
+  }
+
+  /**
+   * The two-state filter rejects a measurement of the position only.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void positionOnly() {
+    new TwoStateKalmanFilter(this.createStateTransition(1), new double[]{1, 0},
+        this.createProcessCovariance(1), new double[]{0, 0}, this.createDiagonal(2, 1d));
+  }
+
+  /**
+   * The general filter rejects matrices which do not match the dimension of the state.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void mismatch() {
+    new FixedKalmanFilter(this.createStateTransition(1), new double[]{1, 0},
+        this.createProcessCovariance(1), new double[]{0, 0}, this.createDiagonal(3, 1d));
+  }
+
+  /**
+   * @param filter    The filter under test.
+   * @param reference The general filter.
+   * @param measured  The amount of leading states which are measured.
+   */
+  private void assertEquivalence(
+      final FixedKalmanFilter filter,
+      final FixedKalmanFilter reference,
+      final int measured
+  ) {
+    final Random random = new Random(42);
+    final int n = filter.getStateDimension();
+    final double[] controlEffect = new double[n];
+    final double[] measurement = new double[measured];
+    final double[] measurementCovariance = this.createDiagonal(measured, 0.2d);
+    measurementCovariance[1] = 0.05d;
+    measurementCovariance[measured] = 0.05d;
+    for (int step = 0; step < STEPS; step++) {
+      for (int index = 0; index < n; index++) {
+        controlEffect[index] = random.nextGaussian() * 0.01d;
+      }
+      for (int index = 0; index < measured; index++) {
+        measurement[index] = step * TIME_STEP * (index + 1) + random.nextGaussian() * 0.3d;
+      }
+      filter.apply(step % 3 == 0 ? null : controlEffect, measurement, measurementCovariance);
+      reference.apply(step % 3 == 0 ? null : controlEffect, measurement, measurementCovariance);
+      assertEquals(filter.getLogLikelihood(), reference.getLogLikelihood(), EPSILON);
+      for (int row = 0; row < n; row++) {
+        assertEquals(filter.getMean(row), reference.getMean(row), EPSILON);
+        for (int column = 0; column < n; column++) {
+          assertEquals(filter.getCovariance(row, column), reference.getCovariance(row, column),
+              EPSILON);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param axes The amount of axes.
+   * @return The constant-velocity state-transition matrix of the positions followed by the
+   *     velocities.
+   */
+  private double[] createStateTransition(final int axes) {
+    final double[] stateTransition = this.createDiagonal(2 * axes, 1d);
+    for (int axis = 0; axis < axes; axis++) {
+      stateTransition[axis * 2 * axes + axes + axis] = TIME_STEP;
+    }
+    return stateTransition;
+  }
+
+  /**
+   * @param axes The amount of axes.
+   * @return A process covariance of the positions followed by the velocities.
+   */
+  private double[] createProcessCovariance(final int axes) {
+    final double[] processCovariance = this.createDiagonal(2 * axes, 1e-3d);
+    for (int axis = 0; axis < axes; axis++) {
+      processCovariance[(axes + axis) * 2 * axes + axes + axis] = 1e-2d;
+      processCovariance[axis * 2 * axes + axes + axis] = 5e-4d;
+      processCovariance[(axes + axis) * 2 * axes + axis] = 5e-4d;
+    }
+    return processCovariance;
+  }
+
+  /**
+   * @param states   The dimension of the state.
+   * @param measured The amount of leading states which are measured.
+   * @return The measurement-transition matrix [I 0].
+   */
+  private double[] createLeading(final int states, final int measured) {
+    final double[] measurementTransition = new double[measured * states];
+    for (int index = 0; index < measured; index++) {
+      measurementTransition[index * states + index] = 1d;
+    }
+    return measurementTransition;
+  }
+
+  /**
+   * @param size  The size of the matrix.
+   * @param value The value on the diagonal.
+   * @return A diagonal matrix in row-major order.
+   */
+  private double[] createDiagonal(final int size, final double value) {
+    final double[] matrix = new double[size * size];
+    for (int index = 0; index < size; index++) {
+      matrix[index * size + index] = value;
+    }
+    return matrix;
+  }
+}
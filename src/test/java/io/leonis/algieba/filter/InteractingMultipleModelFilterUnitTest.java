@@ -0,0 +1,110 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * The Test InteractingMultipleModelFilterUnitTest.
+ *
+ * @author agent
+ */
+public class InteractingMultipleModelFilterUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static int POINTS = 100;
+  private final double[] stateTransitionMatrix = {
+      1, 0.1,
+      0, 1
+  };
+  private final double[] measurementTransitionMatrix = {
+      1, 0
+  };
+  private final double[] processCovariance = {
+      0.001, 0,
+      0, 0.01
+  };
+  private final double[] measurementCovarianceMatrix = {0.25};
+  private final double[] initialMean = {0, 0};
+  private final double[] initialCovariance = {
+      1, 0,
+      0, 1
+  };
+
+  /**
+   * Equivalence of an estimator with a single model with the filter of that model.
+   */
+  @Test
+  public void singleModel() {
+    final FixedKalmanFilter reference = this.createFilter();
+    final InteractingMultipleModelFilter filter = new InteractingMultipleModelFilter(
+        new FixedKalmanFilter[]{this.createFilter()}, new double[]{1}, new double[]{1});
+    final Random random = new Random(42);
+    for (int step = 0; step < POINTS; step++) {
+      final double[] measurement = {0.2 * step + 0.5 * random.nextGaussian()};
+      if (step % 10 == 9) {
+        // a missing measurement only projects the state
+        reference.predict(null);
+        filter.apply(null, null, null);
+      } else {
+        reference.apply(null, measurement, this.measurementCovarianceMatrix);
+        filter.apply(null, measurement, this.measurementCovarianceMatrix);
+      }
+      this.assertState(filter, reference);
+      assertEquals(filter.getModeProbability(0), 1d, EPSILON);
+    }
+  }
+
+  /**
+   * Equivalence of an estimator with identical models with the filter of a single model, in which
+   * case mixing is exact and the mode probabilities follow the Markov chain.
+   */
+  @Test
+  public void identicalModels() {
+    final FixedKalmanFilter reference = this.createFilter();
+    final InteractingMultipleModelFilter filter = new InteractingMultipleModelFilter(
+        new FixedKalmanFilter[]{this.createFilter(), this.createFilter()},
+        new double[]{
+            0.9, 0.1,
+            0.3, 0.7
+        },
+        new double[]{0.5, 0.5});
+    final Random random = new Random(42);
+    double probability = 0.5;
+    for (int step = 0; step < POINTS; step++) {
+      final double[] measurement = {0.2 * step + 0.5 * random.nextGaussian()};
+      reference.apply(null, measurement, this.measurementCovarianceMatrix);
+      filter.apply(null, measurement, this.measurementCovarianceMatrix);
+      probability = 0.9 * probability + 0.3 * (1 - probability);
+      this.assertState(filter, reference);
+      assertEquals(filter.getModeProbability(0), probability, EPSILON);
+    }
+  }
+
+  /**
+   * @return A filter of the model with the initial state.
+   */
+  private FixedKalmanFilter createFilter() {
+    return new FixedKalmanFilter(this.stateTransitionMatrix, this.measurementTransitionMatrix,
+        this.processCovariance, this.initialMean, this.initialCovariance);
+  }
+
+  /**
+   * @param filter    The estimator.
+   * @param reference The reference filter.
+   */
+  private void assertState(
+      final InteractingMultipleModelFilter filter,
+      final FixedKalmanFilter reference
+  ) {
+    for (int row = 0; row < 2; row++) {
+      assertEquals(filter.getMean(row), reference.getMean(row),
+          EPSILON * (1 + Math.abs(reference.getMean(row))));
+      for (int column = 0; column < 2; column++) {
+        assertEquals(filter.getCovariance(row, column), reference.getCovariance(row, column),
+            EPSILON * (1 + Math.abs(reference.getCovariance(row, column))));
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.testng.annotations.Test;
+
+/**
+ * The Test MeasurementUpdateUnitTest.
+ *
+ * @author agent
+ */
+public class MeasurementUpdateUnitTest {
+
+  // the matrices may be stored in single precision
+  private final static double EPSILON = 1e-5;
+  private final INDArray projectedState = Matrices.toMatrix(new double[]{1, 2}, 2, 1);
+  private final INDArray projectedErrorCovariance = Matrices.toMatrix(new double[]{
+      2, 0.5,
+      0.5, 1
+  }, 2, 2);
+  private final List<INDArray> measurementTransitionMatrices = Arrays.asList(
+      Matrices.toMatrix(new double[]{1, 0}, 1, 2),
+      Matrices.toMatrix(new double[]{
+          1, 1,
+          0, 1
+      }, 2, 2));
+
+  /**
+   * Fusing in information form equals correcting the state with one sensor after another.
+   */
+  @Test
+  public void fusion() {
+    this.assertFusion(Arrays.asList(
+        new SimpleDistribution(
+            Matrices.toMatrix(new double[]{1.5}, 1, 1),
+            Matrices.toMatrix(new double[]{0.3}, 1, 1)),
+        new SimpleDistribution(
+            Matrices.toMatrix(new double[]{2.5, 1.8}, 2, 1),
+            Matrices.toMatrix(new double[]{
+                0.4, 0.1,
+                0.1, 0.2
+            }, 2, 2))));
+  }
+
+  /**
+   * A measurement covariance which is not positive-definite falls back to sequential updates.
+   */
+  @Test
+  public void exactMeasurement() {
+    final List<Distribution> measurements = Arrays.asList(
+        new SimpleDistribution(
+            Matrices.toMatrix(new double[]{1.5}, 1, 1),
+            Matrices.toMatrix(new double[]{0}, 1, 1)),
+        new SimpleDistribution(
+            Matrices.toMatrix(new double[]{2.5, 1.8}, 2, 1),
+            Matrices.toMatrix(new double[]{
+                0.4, 0.1,
+                0.1, 0.2
+            }, 2, 2)));
+    this.assertFusion(measurements);
+    final Distribution fused = new MeasurementUpdate().fuse(this.projectedState,
+        this.projectedErrorCovariance, this.measurementTransitionMatrices, measurements);
+    assertEquals(fused.getMean().getDouble(0), 1.5, EPSILON);
+    assertEquals(fused.getCovariance().getDouble(0, 0), 0d, EPSILON);
+  }
+
+  /**
+   * The Joseph form equals the standard form, both for a diagonal measurement covariance, which
+   * is processed one scalar at a time, and for a full measurement covariance.
+   */
+  @Test
+  public void josephForm() {
+    final INDArray measurementTransitionMatrix = this.measurementTransitionMatrices.get(1);
+    final INDArray innovation = Matrices.toMatrix(new double[]{0.7, -0.4}, 2, 1);
+    for (final INDArray measurementCovariance : Arrays.asList(
+        Matrices.toMatrix(new double[]{
+            0.4, 0,
+            0, 0.2
+        }, 2, 2),
+        Matrices.toMatrix(new double[]{
+            0.4, 0.1,
+            0.1, 0.2
+        }, 2, 2))) {
+      final Distribution standard = new MeasurementUpdate(false).apply(this.projectedState,
+          this.projectedErrorCovariance, measurementTransitionMatrix, innovation,
+          measurementCovariance);
+      final Distribution joseph = new MeasurementUpdate(true).apply(this.projectedState,
+          this.projectedErrorCovariance, measurementTransitionMatrix, innovation,
+          measurementCovariance);
+      for (int row = 0; row < 2; row++) {
+        assertEquals(joseph.getMean().getDouble(row), standard.getMean().getDouble(row),
+            EPSILON);
+        for (int column = 0; column < 2; column++) {
+          assertEquals(joseph.getCovariance().getDouble(row, column),
+              standard.getCovariance().getDouble(row, column), EPSILON);
+        }
+      }
+    }
+  }
+
+  /**
+   * The Joseph form keeps the covariance symmetric and positive-definite when a nearly exact
+   * measurement of a vague and strongly correlated state is repeated, in which case the standard
+   * form loses positive-definiteness, for both the diagonal and the full measurement covariance.
+   */
+  @Test
+  public void illConditioned() {
+    final double[] stateTransition = {
+        1, 1,
+        0, 1
+    };
+    final double[] processCovariance = {
+        1e-8, 0,
+        0, 1e-8
+    };
+    final INDArray measurementTransitionMatrix = Matrices.toMatrix(new double[]{
+        1, 0,
+        0, 1e-3
+    }, 2, 2);
+    for (final INDArray measurementCovariance : Arrays.asList(
+        Matrices.toMatrix(new double[]{
+            1e-10, 0,
+            0, 1e-10
+        }, 2, 2),
+        Matrices.toMatrix(new double[]{
+            1e-10, 5e-11,
+            5e-11, 1e-10
+        }, 2, 2))) {
+      final MeasurementUpdate measurementUpdate = new MeasurementUpdate(true);
+      double[] covariance = {
+          1e6, 1e6 - 1,
+          1e6 - 1, 1e6
+      };
+      for (int step = 0; step < 100; step++) {
+        final double[] buffer = new double[4];
+        final double[] projectedCovariance = new double[4];
+        Matrices.multiply(stateTransition, covariance, buffer, 2, 2, 2);
+        Matrices.multiplyTransposed(buffer, stateTransition, projectedCovariance, 2, 2, 2);
+        for (int index = 0; index < 4; index++) {
+          projectedCovariance[index] += processCovariance[index];
+        }
+        covariance = Matrices.toArray(measurementUpdate.apply(
+            Matrices.toMatrix(new double[]{step, 1}, 2, 1),
+            Matrices.toMatrix(projectedCovariance, 2, 2),
+            measurementTransitionMatrix,
+            Matrices.toMatrix(new double[]{1e-3, -1e-3}, 2, 1),
+            measurementCovariance).getCovariance());
+
+        assertEquals(covariance[1], covariance[2]);
+        assertTrue(Matrices.decomposeCholesky(covariance.clone(), 2));
+      }
+    }
+  }
+
+  /**
+   * The amount of measurements must equal the amount of measurement-transition matrices.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void mismatch() {
+    new MeasurementUpdate().fuse(this.projectedState, this.projectedErrorCovariance,
+        this.measurementTransitionMatrices, Collections.singletonList(new SimpleDistribution(
+            Matrices.toMatrix(new double[]{1.5}, 1, 1),
+            Matrices.toMatrix(new double[]{0.3}, 1, 1))));
+  }
+
+  /**
+   * @param measurements The measurement of every sensor.
+   */
+  private void assertFusion(final List<Distribution> measurements) {
+    final MeasurementUpdate measurementUpdate = new MeasurementUpdate();
+    final Distribution fused = measurementUpdate.fuse(this.projectedState,
+        this.projectedErrorCovariance, this.measurementTransitionMatrices, measurements);
+
+    Distribution expected =
+        new SimpleDistribution(this.projectedState, this.projectedErrorCovariance);
+    for (int sensor = 0; sensor < measurements.size(); sensor++) {
+      final INDArray measurementTransitionMatrix = this.measurementTransitionMatrices.get(sensor);
+      expected = measurementUpdate.apply(
+          expected.getMean(),
+          expected.getCovariance(),
+          measurementTransitionMatrix,
+          measurements.get(sensor).getMean()
+              .sub(measurementTransitionMatrix.mmul(expected.getMean())),
+          measurements.get(sensor).getCovariance());
+    }
+
+    for (int row = 0; row < 2; row++) {
+      assertEquals(fused.getMean().getDouble(row), expected.getMean().getDouble(row), EPSILON);
+      for (int column = 0; column < 2; column++) {
+        assertEquals(fused.getCovariance().getDouble(row, column),
+            expected.getCovariance().getDouble(row, column), EPSILON);
+      }
+    }
+  }
+}
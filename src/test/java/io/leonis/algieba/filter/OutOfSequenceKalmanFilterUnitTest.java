@@ -0,0 +1,196 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.filter.ContinuousModel.Discretization;
+import java.util.*;
+import org.testng.annotations.Test;
+
+/**
+ * The Test OutOfSequenceKalmanFilterUnitTest.
+ *
+ * @author agent
+ */
+public class OutOfSequenceKalmanFilterUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static int SAMPLES = 200;
+  private final static int CAPACITY = 16;
+  private final static double TIME_UNIT = 1e-3;
+  private final static double[] MEASUREMENT_TRANSITION = new double[]{
+      1, 0, 0, 0,
+      0, 1, 0, 0
+  };
+  private final static double[] MEASUREMENT_COVARIANCE = new double[]{
+      0.01, 0,
+      0, 0.02
+  };
+  private final static double[] MEAN = new double[4];
+  private final static double[] COVARIANCE = new double[]{
+      1, 0, 0, 0,
+      0, 1, 0, 0,
+      0, 0, 1, 0,
+      0, 0, 0, 1
+  };
+
+  /**
+   * Measurements which arrive in order are filtered as by a plain filter.
+   */
+  @Test
+  public void inOrder() {
+    final ContinuousModel model = new ConstantVelocityModel(2, 0.5, TIME_UNIT, 64);
+    final OutOfSequenceKalmanFilter filter = new OutOfSequenceKalmanFilter(
+        model, MEASUREMENT_TRANSITION, TIME_UNIT, CAPACITY, 0L, MEAN, COVARIANCE);
+    final FixedKalmanFilter reference = new FixedKalmanFilter(
+        new double[16], MEASUREMENT_TRANSITION, new double[16], MEAN, COVARIANCE);
+    final Random random = new Random(42);
+    final long[] timestamps = this.createTimestamps(random);
+    final double[][] measurements = this.createMeasurements(random, timestamps);
+
+    long previous = 0L;
+    for (int sample = 0; sample < SAMPLES; sample++) {
+      final Discretization discretization =
+          model.apply((timestamps[sample] - previous) * TIME_UNIT);
+      System.arraycopy(discretization.getStateTransitionValues(), 0,
+          reference.stateTransition, 0, 16);
+      System.arraycopy(discretization.getProcessCovarianceValues(), 0,
+          reference.processCovariance, 0, 16);
+      reference.predict(null);
+      reference.update(measurements[sample], MEASUREMENT_COVARIANCE);
+      previous = timestamps[sample];
+
+      assertTrue(filter.apply(timestamps[sample], measurements[sample], MEASUREMENT_COVARIANCE));
+      assertEquals(filter.getTimestamp(), timestamps[sample]);
+      assertEquals(filter.getSize(), Math.min(sample + 1, CAPACITY));
+      this.assertState(filter, reference);
+    }
+  }
+
+  /**
+   * Measurements which arrive late are filtered as if they had arrived in order.
+   */
+  @Test
+  public void outOfOrder() {
+    final ContinuousModel model = new ConstantVelocityModel(2, 0.5, TIME_UNIT, 64);
+    final OutOfSequenceKalmanFilter shuffled = new OutOfSequenceKalmanFilter(
+        model, MEASUREMENT_TRANSITION, TIME_UNIT, CAPACITY, 0L, MEAN, COVARIANCE);
+    final OutOfSequenceKalmanFilter sorted = new OutOfSequenceKalmanFilter(
+        model, MEASUREMENT_TRANSITION, TIME_UNIT, CAPACITY, 0L, MEAN, COVARIANCE);
+    final Random random = new Random(42);
+    final long[] timestamps = this.createTimestamps(random);
+    final double[][] measurements = this.createMeasurements(random, timestamps);
+
+    // delay every measurement by at most a few positions, well within the capacity
+    final Integer[] order = new Integer[SAMPLES];
+    final double[] arrivals = new double[SAMPLES];
+    for (int sample = 0; sample < SAMPLES; sample++) {
+      order[sample] = sample;
+      arrivals[sample] = sample + random.nextDouble() * CAPACITY / 4d;
+    }
+    Arrays.sort(order, Comparator.comparingDouble(sample -> arrivals[sample]));
+
+    int applied = 0;
+    int latest = -1;
+    for (int arrival = 0; arrival < SAMPLES; arrival++) {
+      final int sample = order[arrival];
+      assertTrue(
+          shuffled.apply(timestamps[sample], measurements[sample], MEASUREMENT_COVARIANCE));
+      latest = Math.max(latest, sample);
+      // once every earlier measurement has arrived both filters hold the same measurements
+      if (latest == arrival) {
+        for (; applied <= arrival; applied++) {
+          assertTrue(sorted.apply(
+              timestamps[applied], measurements[applied], MEASUREMENT_COVARIANCE));
+        }
+        this.assertState(shuffled, sorted);
+      }
+    }
+    assertEquals(shuffled.getTimestamp(), timestamps[SAMPLES - 1]);
+    this.assertState(shuffled, sorted);
+  }
+
+  /**
+   * Measurements which are older than the oldest buffered measurement are rejected.
+   */
+  @Test
+  public void rejection() {
+    final ContinuousModel model = new ConstantVelocityModel(2, 0.5, TIME_UNIT, 64);
+    final OutOfSequenceKalmanFilter filter = new OutOfSequenceKalmanFilter(
+        model, MEASUREMENT_TRANSITION, TIME_UNIT, 4, 100L, MEAN, COVARIANCE);
+    final double[] measurement = new double[]{1, 2};
+    assertFalse(filter.apply(50L, measurement, MEASUREMENT_COVARIANCE));
+    for (int sample = 1; sample <= 4; sample++) {
+      assertTrue(filter.apply(100L + 10L * sample, measurement, MEASUREMENT_COVARIANCE));
+    }
+    assertFalse(filter.apply(105L, measurement, MEASUREMENT_COVARIANCE));
+    assertTrue(filter.apply(115L, measurement, MEASUREMENT_COVARIANCE));
+    assertEquals(filter.getSize(), 4);
+    assertEquals(filter.getTimestamp(), 140L);
+  }
+
+  /**
+   * @param random The source of randomness.
+   * @return Increasing timestamps in milliseconds with a jittery interval of around 16 ms.
+   */
+  private long[] createTimestamps(final Random random) {
+    final long[] timestamps = new long[SAMPLES];
+    long timestamp = 0L;
+    for (int sample = 0; sample < SAMPLES; sample++) {
+      timestamp += 12L + random.nextInt(9);
+      timestamps[sample] = timestamp;
+    }
+    return timestamps;
+  }
+
+  /**
+   * @param random     The source of randomness.
+   * @param timestamps The timestamps of the measurements.
+   * @return Noisy positions of an object which moves along a circle.
+   */
+  private double[][] createMeasurements(final Random random, final long[] timestamps) {
+    final double[][] measurements = new double[SAMPLES][];
+    for (int sample = 0; sample < SAMPLES; sample++) {
+      final double time = timestamps[sample] * TIME_UNIT;
+      measurements[sample] = new double[]{
+          Math.cos(time) + 0.1 * random.nextGaussian(),
+          Math.sin(time) + 0.1 * random.nextGaussian()
+      };
+    }
+    return measurements;
+  }
+
+  /**
+   * @param actual   The filter under test.
+   * @param expected The reference filter.
+   */
+  private void assertState(
+      final OutOfSequenceKalmanFilter actual,
+      final FixedKalmanFilter expected
+  ) {
+    for (int row = 0; row < 4; row++) {
+      assertEquals(actual.getMean(row), expected.getMean(row), EPSILON);
+      for (int column = 0; column < 4; column++) {
+        assertEquals(actual.getCovariance(row, column), expected.getCovariance(row, column),
+            EPSILON);
+      }
+    }
+  }
+
+  /**
+   * @param actual   The filter under test.
+   * @param expected The reference filter.
+   */
+  private void assertState(
+      final OutOfSequenceKalmanFilter actual,
+      final OutOfSequenceKalmanFilter expected
+  ) {
+    assertEquals(actual.getTimestamp(), expected.getTimestamp());
+    for (int row = 0; row < 4; row++) {
+      assertEquals(actual.getMean(row), expected.getMean(row), EPSILON);
+      for (int column = 0; column < 4; column++) {
+        assertEquals(actual.getCovariance(row, column), expected.getCovariance(row, column),
+            EPSILON);
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import org.testng.annotations.Test;
+
+/**
+ * The Test ParticleFilterUnitTest.
+ *
+ * @author agent
+ */
+public class ParticleFilterUnitTest {
+
+  private final static int PARTICLES = 20000;
+  private final static int STEPS = 50;
+  private final static double PROCESS_VARIANCE = 0.1;
+  private final static double MEASUREMENT_VARIANCE = 0.5;
+
+  /**
+   * Convergence to the exact posterior of a linear-Gaussian random walk.
+   */
+  @Test
+  public void convergence() {
+    final ParticleFilter filter = new ParticleFilter(
+        PARTICLES, 1, 0.5d, ForkJoinPool.commonPool(), new Random(42));
+    filter.reset(new SimpleDistribution(
+        Matrices.toMatrix(new double[]{0d}, 1, 1),
+        Matrices.toMatrix(new double[]{1d}, 1, 1)));
+    final Random random = new Random(7);
+    double truth = 0d;
+    double mean = 0d;
+    double variance = 1d;
+    for (int step = 0; step < STEPS; step++) {
+      // the transition is called concurrently, so every particle draws from its own generator
+      final long seed = (long) step * PARTICLES;
+      filter.predict((particles, particle) -> particles[0][particle] +=
+          Math.sqrt(PROCESS_VARIANCE) * new SplittableRandom(seed + particle).nextGaussian());
+      truth += Math.sqrt(PROCESS_VARIANCE) * random.nextGaussian();
+      final double measurement = truth + Math.sqrt(MEASUREMENT_VARIANCE) * random.nextGaussian();
+      filter.update((particles, particle) -> Math.exp(-0.5d
+          * Math.pow(measurement - particles[0][particle], 2) / MEASUREMENT_VARIANCE));
+
+      variance += PROCESS_VARIANCE;
+      final double gain = variance / (variance + MEASUREMENT_VARIANCE);
+      mean += gain * (measurement - mean);
+      variance *= 1d - gain;
+
+      final Distribution summary = filter.summarize();
+      assertEquals(summary.getMean().getDouble(0, 0), mean, 0.05d);
+      assertEquals(summary.getCovariance().getDouble(0, 0), variance, 0.2d * variance);
+    }
+  }
+
+  /**
+   * Systematic resampling preserves the weighted mean and equalizes the weights.
+   */
+  @Test
+  public void resample() {
+    final ParticleFilter filter = new ParticleFilter(
+        PARTICLES, 1, 0d, ForkJoinPool.commonPool(), new Random(42));
+    filter.reset(new SimpleDistribution(
+        Matrices.toMatrix(new double[]{0d}, 1, 1),
+        Matrices.toMatrix(new double[]{1d}, 1, 1)));
+    filter.update((particles, particle) -> particles[0][particle] > 0d ? 3d : 1d);
+    final double mean = filter.summarize().getMean().getDouble(0, 0);
+    filter.resample();
+    assertEquals(filter.getEffectiveSampleSize(), PARTICLES, 1e-6 * PARTICLES);
+    assertEquals(filter.summarize().getMean().getDouble(0, 0), mean, 0.02d);
+  }
+}
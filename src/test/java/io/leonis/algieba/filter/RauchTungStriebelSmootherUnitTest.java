@@ -0,0 +1,143 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import java.util.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.inverse.InvertMatrix;
+import org.testng.annotations.Test;
+
+/**
+ * The Test RauchTungStriebelSmootherUnitTest.
+ *
+ * @author agent
+ */
+public class RauchTungStriebelSmootherUnitTest {
+
+  private final static int SAMPLES = 200;
+  private final INDArray stateTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0.1,
+      0, 1
+  }, 2, 2);
+  private final INDArray measurementTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0
+  }, 1, 2);
+  private final INDArray processCovariance = Matrices.toMatrix(new double[]{
+      0.001, 0,
+      0, 0.01
+  }, 2, 2);
+  private final INDArray measurementCovariance = Matrices.toMatrix(new double[]{0.25}, 1, 1);
+  private final Random random = new Random(42);
+  private final double[] measurements = new double[SAMPLES];
+
+  {
+    for (int sample = 0; sample < SAMPLES; sample++) {
+      this.measurements[sample] = Math.sin(0.05 * sample) + 0.5 * this.random.nextGaussian();
+    }
+  }
+
+  /**
+   * Equivalence with the textbook recursion on top of {@link KalmanFilter}, which inverts the
+   * projected covariance explicitly.
+   */
+  @Test
+  public void equivalence() {
+    final Distribution initialState = new SimpleDistribution(Nd4j.zeros(2, 1), Nd4j.eye(2));
+    final Distribution smoothed = new RauchTungStriebelSmoother().apply(
+        this.stateTransitionMatrix,
+        this.measurementTransitionMatrix,
+        Nd4j.zeros(2, 1),
+        Nd4j.zeros(1, 1),
+        this.processCovariance,
+        new SimpleDistribution(
+            Nd4j.create(this.measurements.clone(), new int[]{SAMPLES, 1, 1}),
+            this.measurementCovariance),
+        initialState);
+
+    final KalmanFilter filter = new KalmanFilter();
+    final List<Distribution> filtered = new ArrayList<>();
+    Distribution state = initialState;
+    for (final double measurement : this.measurements) {
+      state = filter.apply(this.stateTransitionMatrix, this.measurementTransitionMatrix,
+          Nd4j.zeros(2, 1), Nd4j.zeros(1, 1), this.processCovariance,
+          new SimpleDistribution(Matrices.toMatrix(new double[]{measurement}, 1, 1),
+              this.measurementCovariance),
+          state);
+      filtered.add(state);
+    }
+    INDArray mean = filtered.get(SAMPLES - 1).getMean();
+    INDArray covariance = filtered.get(SAMPLES - 1).getCovariance();
+    this.assertSample(smoothed, SAMPLES - 1, mean, covariance);
+    for (int sample = SAMPLES - 2; sample >= 0; sample--) {
+      final Distribution current = filtered.get(sample);
+      final INDArray projectedState = this.stateTransitionMatrix.mmul(current.getMean());
+      final INDArray projectedCovariance = this.stateTransitionMatrix
+          .mmul(current.getCovariance().mmul(this.stateTransitionMatrix.transpose()))
+          .add(this.processCovariance);
+      final INDArray gain = current.getCovariance()
+          .mmul(this.stateTransitionMatrix.transpose())
+          .mmul(InvertMatrix.invert(projectedCovariance, false));
+      mean = current.getMean().add(gain.mmul(mean.sub(projectedState)));
+      covariance = current.getCovariance()
+          .add(gain.mmul(covariance.sub(projectedCovariance)).mmul(gain.transpose()));
+      this.assertSample(smoothed, sample, mean, covariance);
+    }
+  }
+
+  /**
+   * The smoothed variance of a long scalar random walk approaches the closed-form steady state
+   * halfway the sequence.
+   */
+  @Test
+  public void steadyState() {
+    final double process = 0.1;
+    final double measurement = 0.5;
+    final Distribution smoothed = new RauchTungStriebelSmoother().apply(
+        Matrices.toMatrix(new double[]{1}, 1, 1),
+        Matrices.toMatrix(new double[]{1}, 1, 1),
+        Nd4j.zeros(1, 1),
+        Nd4j.zeros(1, 1),
+        Matrices.toMatrix(new double[]{process}, 1, 1),
+        new SimpleDistribution(
+            Nd4j.create(this.measurements.clone(), new int[]{SAMPLES, 1, 1}),
+            Matrices.toMatrix(new double[]{measurement}, 1, 1)),
+        new SimpleDistribution(Nd4j.zeros(1, 1), Matrices.toMatrix(new double[]{1}, 1, 1)));
+
+    // P = (P + q) * r / (P + q + r), ie. P^2 + q * P - q * r = 0
+    final double filtered = (-process + Math.sqrt(process * process + 4 * process * measurement))
+        / 2;
+    // P_s = P + G^2 * (P_s - P - q) with G = P / (P + q)
+    final double gain = filtered / (filtered + process);
+    final double expected = (filtered - gain * gain * (filtered + process)) / (1 - gain * gain);
+    assertEquals(smoothed.getCovariance().getDouble(SAMPLES / 2, 0, 0), expected, 1e-6);
+    assertEquals(smoothed.getCovariance().getDouble(SAMPLES - 1, 0, 0), filtered, 1e-6);
+  }
+
+  /**
+   * @param smoothed   The stacked smoothed states.
+   * @param sample     The index of the sample.
+   * @param mean       The expected mean.
+   * @param covariance The expected covariance.
+   */
+  private void assertSample(
+      final Distribution smoothed,
+      final int sample,
+      final INDArray mean,
+      final INDArray covariance
+  ) {
+    for (int row = 0; row < 2; row++) {
+      final double expectedMean = mean.getDouble(row, 0);
+      // the reference filter computes in single precision
+      assertEquals(smoothed.getMean().getDouble(sample, row, 0), expectedMean,
+          1e-3 * (1 + Math.abs(expectedMean)));
+      for (int column = 0; column < 2; column++) {
+        final double expectedCovariance = covariance.getDouble(row, column);
+        assertEquals(smoothed.getCovariance().getDouble(sample, row, column), expectedCovariance,
+            1e-3 * (1 + Math.abs(expectedCovariance)));
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.*;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * The Test SmoothingFilterBankUnitTest.
+ *
+ * @author agent
+ */
+public class SmoothingFilterBankUnitTest {
+
+  private final static double EPSILON = 1e-12;
+  private final static int CHANNELS = 8;
+  private final static int FRAMES = 500;
+
+  /**
+   * Every channel, with its own coefficients, irregular time steps including zero and missing
+   * measurements, equals a scalar alpha-beta filter.
+   */
+  @Test
+  public void recursion() {
+    final Random random = new Random(42);
+    final double[] alpha = new double[CHANNELS];
+    final double[] beta = new double[CHANNELS];
+    for (int channel = 0; channel < CHANNELS; channel++) {
+      alpha[channel] = 0.1d + 0.8d * random.nextDouble();
+      beta[channel] = channel == 0 ? 0d : 0.5d * random.nextDouble() * alpha[channel];
+    }
+    final SmoothingFilterBank bank = new SmoothingFilterBank(alpha, beta);
+    final double[] values = new double[CHANNELS];
+    final double[] rates = new double[CHANNELS];
+    final boolean[] measured = new boolean[CHANNELS];
+    final double[] frame = new double[CHANNELS + 1];
+
+    for (int step = 0; step < FRAMES; step++) {
+      final double timeStep = random.nextInt(5) == 0 ? 0d : 0.01d + 0.1d * random.nextDouble();
+      for (int channel = 0; channel < CHANNELS; channel++) {
+        frame[channel + 1] = random.nextInt(5) == 0
+            ? Double.NaN
+            : Math.sin(step * 0.05d + channel) + 0.1d * random.nextGaussian();
+
+        // scalar alpha-beta filter
+        final double measurement = frame[channel + 1];
+        if (!measured[channel]) {
+          if (!Double.isNaN(measurement)) {
+            values[channel] = measurement;
+            measured[channel] = true;
+          }
+        } else if (Double.isNaN(measurement)) {
+          values[channel] += timeStep * rates[channel];
+        } else {
+          final double predicted = values[channel] + timeStep * rates[channel];
+          final double residual = measurement - predicted;
+          values[channel] = predicted + alpha[channel] * residual;
+          if (timeStep > 0d) {
+            rates[channel] += beta[channel] * residual / timeStep;
+          }
+        }
+      }
+      bank.apply(frame, 1, timeStep);
+
+      for (int channel = 0; channel < CHANNELS; channel++) {
+        if (measured[channel]) {
+          assertEquals(bank.getValue(channel), values[channel], EPSILON);
+        } else {
+          assertTrue(Double.isNaN(bank.getValue(channel)));
+        }
+        assertEquals(bank.getRate(channel), rates[channel], EPSILON);
+      }
+    }
+  }
+
+  /**
+   * A channel which is not measured is only predicted, and a channel which has never been
+   * measured stays NaN.
+   */
+  @Test
+  public void unmeasured() {
+    final SmoothingFilterBank bank = new SmoothingFilterBank(2, 0.5d, 0.1d);
+    bank.apply(new double[]{1, Double.NaN}, 0.1d);
+    bank.apply(new double[]{2, Double.NaN}, 0.1d);
+    final double value = bank.getValue(0);
+    final double rate = bank.getRate(0);
+    assertTrue(rate > 0d);
+    assertTrue(Double.isNaN(bank.getValue(1)));
+
+    bank.apply(new double[]{Double.NaN, Double.NaN}, 0.1d);
+    assertEquals(bank.getValue(0), value + 0.1d * rate, EPSILON);
+    assertEquals(bank.getRate(0), rate, EPSILON);
+    assertTrue(Double.isNaN(bank.getValue(1)));
+
+    bank.apply(new double[]{Double.NaN, 3}, 0.1d);
+    assertEquals(bank.getValue(1), 3d, EPSILON);
+    assertEquals(bank.getRate(1), 0d, EPSILON);
+  }
+
+  /**
+   * A frame without elapsed time corrects the value but leaves the rate unchanged.
+   */
+  @Test
+  public void zeroTimeStep() {
+    final SmoothingFilterBank bank = new SmoothingFilterBank(1, 0.5d, 0.1d);
+    bank.apply(new double[]{1}, 0.1d);
+    bank.apply(new double[]{2}, 0.1d);
+    final double value = bank.getValue(0);
+    final double rate = bank.getRate(0);
+
+    bank.apply(new double[]{4}, 0d);
+    assertEquals(bank.getValue(0), value + 0.5d * (4d - value), EPSILON);
+    assertEquals(bank.getRate(0), rate, EPSILON);
+    assertFalse(Double.isInfinite(bank.getRate(0)));
+  }
+}
@@ -0,0 +1,137 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.statistic.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.testng.annotations.Test;
+
+/**
+ * The Test SteadyStateKalmanFilterUnitTest.
+ *
+ * @author agent
+ */
+public class SteadyStateKalmanFilterUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  // the matrices may be stored in single precision
+  private final static double STEADY_EPSILON = 1e-5;
+  private final INDArray stateTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0.1,
+      0, 1
+  }, 2, 2);
+  private final INDArray measurementTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0
+  }, 1, 2);
+  private final INDArray processCovariance = Matrices.toMatrix(new double[]{
+      0.01, 0,
+      0, 0.01
+  }, 2, 2);
+  private final INDArray controlTransitionMatrix = Nd4j.zeros(2, 1);
+  private final INDArray controlInputVector = Nd4j.zeros(1, 1);
+
+  /**
+   * A measurement covariance which is modified in place invalidates the cached gain.
+   */
+  @Test
+  public void recomputeAfterInPlaceChange() {
+    final SteadyStateKalmanFilter filter = new SteadyStateKalmanFilter();
+    final INDArray measurementCovariance = Matrices.toMatrix(new double[]{0.1}, 1, 1);
+    Distribution state = new SimpleDistribution(Nd4j.zeros(2, 1), Nd4j.eye(2));
+    for (int step = 0; step < 10; step++) {
+      state = filter.apply(this.stateTransitionMatrix, this.measurementTransitionMatrix,
+          this.controlTransitionMatrix, this.controlInputVector, this.processCovariance,
+          new SimpleDistribution(Matrices.toMatrix(new double[]{step}, 1, 1),
+              measurementCovariance),
+          state);
+    }
+
+    measurementCovariance.putScalar(0, 0, 100d);
+    final Distribution measurement = new SimpleDistribution(
+        Matrices.toMatrix(new double[]{50d}, 1, 1), measurementCovariance);
+    final Distribution updated = filter.apply(this.stateTransitionMatrix,
+        this.measurementTransitionMatrix, this.controlTransitionMatrix, this.controlInputVector,
+        this.processCovariance, measurement, state);
+    final Distribution expected = new SteadyStateKalmanFilter().apply(this.stateTransitionMatrix,
+        this.measurementTransitionMatrix, this.controlTransitionMatrix, this.controlInputVector,
+        this.processCovariance,
+        new SimpleDistribution(Matrices.toMatrix(new double[]{50d}, 1, 1),
+            Matrices.toMatrix(new double[]{100d}, 1, 1)),
+        state);
+    for (int row = 0; row < 2; row++) {
+      assertEquals(updated.getMean().getDouble(row, 0), expected.getMean().getDouble(row, 0),
+          EPSILON);
+      for (int column = 0; column < 2; column++) {
+        assertEquals(updated.getCovariance().getDouble(row, column),
+            expected.getCovariance().getDouble(row, column), EPSILON);
+      }
+    }
+  }
+
+  /**
+   * The steady state agrees with the covariance of the full filter after convergence.
+   */
+  @Test
+  public void convergence() {
+    final SteadyStateKalmanFilter filter = new SteadyStateKalmanFilter();
+    final KalmanFilter reference = new KalmanFilter();
+    final INDArray measurementCovariance = Matrices.toMatrix(new double[]{0.1}, 1, 1);
+    Distribution state = new SimpleDistribution(Nd4j.zeros(2, 1), Nd4j.eye(2));
+    Distribution referenceState = state;
+    for (int step = 0; step < 500; step++) {
+      final Distribution measurement = new SimpleDistribution(
+          Matrices.toMatrix(new double[]{Math.sin(step * 0.1)}, 1, 1), measurementCovariance);
+      state = filter.apply(this.stateTransitionMatrix, this.measurementTransitionMatrix,
+          this.controlTransitionMatrix, this.controlInputVector, this.processCovariance,
+          measurement, state);
+      referenceState = reference.apply(this.stateTransitionMatrix,
+          this.measurementTransitionMatrix, this.controlTransitionMatrix,
+          this.controlInputVector, this.processCovariance, measurement, referenceState);
+    }
+    for (int row = 0; row < 2; row++) {
+      assertEquals(state.getMean().getDouble(row, 0),
+          referenceState.getMean().getDouble(row, 0), STEADY_EPSILON);
+      for (int column = 0; column < 2; column++) {
+        assertEquals(state.getCovariance().getDouble(row, column),
+            referenceState.getCovariance().getDouble(row, column), STEADY_EPSILON);
+      }
+    }
+  }
+
+  /**
+   * The first measurement is processed with the cached gain, such that the steady-state covariance
+   * is returned instead of the covariance after a single correction.
+   */
+  @Test
+  public void cachedGain() {
+    final INDArray measurementCovariance = Matrices.toMatrix(new double[]{0.1}, 1, 1);
+    final Distribution initialState = new SimpleDistribution(Nd4j.zeros(2, 1), Nd4j.eye(2));
+    final Distribution measurement = new SimpleDistribution(
+        Matrices.toMatrix(new double[]{1d}, 1, 1), measurementCovariance);
+    final Distribution state = new SteadyStateKalmanFilter().apply(this.stateTransitionMatrix,
+        this.measurementTransitionMatrix, this.controlTransitionMatrix, this.controlInputVector,
+        this.processCovariance, measurement, initialState);
+
+    final KalmanFilter reference = new KalmanFilter();
+    final Distribution singleState = reference.apply(this.stateTransitionMatrix,
+        this.measurementTransitionMatrix, this.controlTransitionMatrix, this.controlInputVector,
+        this.processCovariance, measurement, initialState);
+    Distribution referenceState = singleState;
+    for (int step = 1; step < 500; step++) {
+      referenceState = reference.apply(this.stateTransitionMatrix,
+          this.measurementTransitionMatrix, this.controlTransitionMatrix, this.controlInputVector,
+          this.processCovariance, measurement, referenceState);
+    }
+    for (int row = 0; row < 2; row++) {
+      for (int column = 0; column < 2; column++) {
+        assertEquals(state.getCovariance().getDouble(row, column),
+            referenceState.getCovariance().getDouble(row, column), STEADY_EPSILON);
+      }
+    }
+    assertNotEquals(state.getCovariance().getDouble(0, 0),
+        singleState.getCovariance().getDouble(0, 0), STEADY_EPSILON);
+  }
+}
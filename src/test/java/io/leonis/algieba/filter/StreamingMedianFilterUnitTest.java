@@ -0,0 +1,84 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.*;
+
+import java.util.*;
+import org.testng.annotations.Test;
+
+/**
+ * The Test StreamingMedianFilterUnitTest.
+ *
+ * @author agent
+ */
+public class StreamingMedianFilterUnitTest {
+
+  private final static double EPSILON = 1e-12;
+  private final static int SAMPLES = 2000;
+  private final static int DIMENSION = 3;
+  private final static int[] WINDOWS = new int[]{1, 2, 3, 4, 7, 10, 31};
+
+  /**
+   * The median of every axis equals the median of a sorted copy of the window, for odd and even
+   * windows, while the window fills up, after a reset and with many duplicate values.
+   */
+  @Test
+  public void randomized() {
+    final Random random = new Random(42);
+    for (final int window : WINDOWS) {
+      final StreamingMedianFilter filter = new StreamingMedianFilter(DIMENSION, window);
+      final Deque<double[]> buffer = new ArrayDeque<>();
+      final double[] sample = new double[DIMENSION];
+      for (int step = 0; step < SAMPLES; step++) {
+        if (step % 500 == 499) {
+          filter.reset();
+          buffer.clear();
+          assertTrue(Double.isNaN(filter.getMedian(0)));
+        }
+        // the first axis is continuous, the others only take a few distinct values
+        sample[0] = random.nextGaussian();
+        sample[1] = random.nextInt(3);
+        sample[2] = random.nextInt(2) == 0 ? -1d : random.nextInt(5);
+        filter.apply(sample);
+        buffer.addLast(sample.clone());
+        if (buffer.size() > window) {
+          buffer.removeFirst();
+        }
+
+        assertEquals(filter.getCount(), buffer.size());
+        for (int axis = 0; axis < DIMENSION; axis++) {
+          assertEquals(filter.getMedian(axis), this.computeMedian(buffer, axis), EPSILON);
+        }
+      }
+    }
+  }
+
+  /**
+   * An impulsive outlier does not affect the median of a window of equal values.
+   */
+  @Test
+  public void outlier() {
+    final StreamingMedianFilter filter = new StreamingMedianFilter(1, 5);
+    for (int step = 0; step < 10; step++) {
+      filter.apply(new double[]{step == 7 ? 1e9 : 2d});
+      assertEquals(filter.getMedian(0), 2d, EPSILON);
+    }
+  }
+
+  /**
+   * @param buffer The samples in the window.
+   * @param axis   The axis.
+   * @return The median of the sorted copy of the samples along the supplied axis.
+   */
+  private double computeMedian(final Collection<double[]> buffer, final int axis) {
+    final double[] values = new double[buffer.size()];
+    int index = 0;
+    for (final double[] sample : buffer) {
+      values[index++] = sample[axis];
+    }
+    Arrays.sort(values);
+    final int middle = values.length / 2;
+    return values.length % 2 == 1
+        ? values[middle]
+        : (values[middle - 1] + values[middle]) / 2d;
+  }
+}
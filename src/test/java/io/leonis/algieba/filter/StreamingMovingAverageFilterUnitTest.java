@@ -0,0 +1,77 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import java.util.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.testng.annotations.Test;
+
+/**
+ * The Test StreamingMovingAverageFilterUnitTest.
+ *
+ * @author agent
+ */
+public class StreamingMovingAverageFilterUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static int SAMPLES = 200000;
+  private final static int WINDOW = 4;
+  private final static double SPIKE = 1e12;
+  private final static int RESOLUTION = 1 << 20;
+
+  /**
+   * After many samples, of which some are large enough that the difference with the evicted
+   * sample is rounded, the average of the window equals that of the {@link MovingAverageFilter}.
+   */
+  @Test
+  public void drift() {
+    final Random random = new Random(42);
+    final StreamingMovingAverageFilter filter = new StreamingMovingAverageFilter(2, WINDOW);
+    final Deque<INDArray> buffer = new ArrayDeque<>();
+    for (int sample = 0; sample < SAMPLES; sample++) {
+      // small samples have 20 fractional bits, which are stored exactly in single precision but
+      // are lost when subtracted from a spike
+      final double[] values = {
+          random.nextInt(RESOLUTION) / (double) RESOLUTION,
+          sample < SAMPLES - WINDOW && random.nextInt(10) == 0
+              ? SPIKE + random.nextDouble()
+              : -random.nextInt(RESOLUTION) / (double) RESOLUTION
+      };
+      filter.apply(values);
+      buffer.addLast(Matrices.toMatrix(values, 2, 1));
+      if (buffer.size() > WINDOW) {
+        buffer.removeFirst();
+      }
+    }
+
+    final INDArray expected = new MovingAverageFilter().apply(buffer);
+    for (int index = 0; index < 2; index++) {
+      assertEquals(filter.getAverage(index), expected.getDouble(index, 0), EPSILON);
+    }
+  }
+
+  /**
+   * Until the window is filled the average is taken over the supplied samples, and a reset
+   * empties the window.
+   */
+  @Test
+  public void fillAndReset() {
+    final StreamingMovingAverageFilter filter = new StreamingMovingAverageFilter(1, WINDOW);
+    assertEquals(filter.getAverage(0), 0d, EPSILON);
+    filter.apply(new double[]{2});
+    filter.apply(new double[]{4});
+    assertEquals(filter.getCount(), 2);
+    assertEquals(filter.getAverage(0), 3d, EPSILON);
+    for (int sample = 0; sample < WINDOW; sample++) {
+      filter.apply(new double[]{sample});
+    }
+    assertEquals(filter.getCount(), WINDOW);
+    assertEquals(filter.getAverage(0), (WINDOW - 1) / 2d, EPSILON);
+
+    filter.reset();
+    assertEquals(filter.getCount(), 0);
+    filter.apply(new double[]{5});
+    assertEquals(filter.getAverage(0), 5d, EPSILON);
+  }
+}
@@ -0,0 +1,130 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.*;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * The Test StreamingSavitzkyGolayFilterUnitTest.
+ *
+ * @author agent
+ */
+public class StreamingSavitzkyGolayFilterUnitTest {
+
+  private final static double EPSILON = 1e-8;
+  private final static double SAMPLE_PERIOD = 0.02d;
+  private final static int SAMPLES = 40;
+  private final static int DIMENSION = 2;
+  private final static int MAXIMUM_ORDER = 3;
+  private final static int[] WINDOWS = new int[]{4, 5, 9, 16};
+
+  /**
+   * The value, velocity and acceleration of samples of a polynomial of which the degree does not
+   * exceed the order are exact, both before and after the window is filled.
+   */
+  @Test
+  public void polynomial() {
+    final Random random = new Random(42);
+    for (final int window : WINDOWS) {
+      for (int order = 0; order <= MAXIMUM_ORDER && order < window; order++) {
+        for (int degree = 0; degree <= order; degree++) {
+          this.assertPolynomial(random, window, order, degree);
+        }
+      }
+    }
+  }
+
+  /**
+   * The estimates are NaN until the order plus one samples have been supplied, and again after a
+   * reset.
+   */
+  @Test
+  public void reset() {
+    final StreamingSavitzkyGolayFilter filter =
+        new StreamingSavitzkyGolayFilter(1, 5, 2, SAMPLE_PERIOD);
+    filter.apply(new double[]{1});
+    filter.apply(new double[]{2});
+    assertTrue(Double.isNaN(filter.getValue(0)));
+    filter.apply(new double[]{3});
+    assertEquals(filter.getValue(0), 3d, EPSILON);
+    assertEquals(filter.getVelocity(0), 1d / SAMPLE_PERIOD, EPSILON / SAMPLE_PERIOD);
+
+    filter.reset();
+    assertEquals(filter.getCount(), 0);
+    assertTrue(Double.isNaN(filter.getValue(0)));
+    assertTrue(Double.isNaN(filter.getVelocity(0)));
+    assertTrue(Double.isNaN(filter.getAcceleration(0)));
+  }
+
+  /**
+   * An order which is not less than the window is rejected.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void orderExceedsWindow() {
+    new StreamingSavitzkyGolayFilter(1, 3, 3, SAMPLE_PERIOD);
+  }
+
+  /**
+   * @param random The source of the coefficients of the polynomial.
+   * @param window The window of the filter.
+   * @param order  The order of the filter.
+   * @param degree The degree of the polynomial.
+   */
+  private void assertPolynomial(
+      final Random random,
+      final int window,
+      final int order,
+      final int degree
+  ) {
+    final StreamingSavitzkyGolayFilter filter =
+        new StreamingSavitzkyGolayFilter(DIMENSION, window, order, SAMPLE_PERIOD);
+    final double[][] coefficients = new double[DIMENSION][degree + 1];
+    for (int axis = 0; axis < DIMENSION; axis++) {
+      for (int power = 0; power <= degree; power++) {
+        coefficients[axis][power] = random.nextDouble() * 4d - 2d;
+      }
+    }
+    final double[] sample = new double[DIMENSION];
+    for (int step = 0; step < SAMPLES; step++) {
+      final double time = step * SAMPLE_PERIOD;
+      for (int axis = 0; axis < DIMENSION; axis++) {
+        sample[axis] = this.evaluate(coefficients[axis], time, 0);
+      }
+      filter.apply(sample);
+
+      for (int axis = 0; axis < DIMENSION; axis++) {
+        if (step < order) {
+          assertTrue(Double.isNaN(filter.getValue(axis)));
+          continue;
+        }
+        final double value = this.evaluate(coefficients[axis], time, 0);
+        final double velocity = this.evaluate(coefficients[axis], time, 1);
+        final double acceleration = this.evaluate(coefficients[axis], time, 2);
+        assertEquals(filter.getValue(axis), value, EPSILON * (1 + Math.abs(value)));
+        assertEquals(filter.getVelocity(axis), velocity,
+            EPSILON / SAMPLE_PERIOD * (1 + Math.abs(velocity)));
+        assertEquals(filter.getAcceleration(axis), acceleration,
+            EPSILON / (SAMPLE_PERIOD * SAMPLE_PERIOD) * (1 + Math.abs(acceleration)));
+      }
+    }
+  }
+
+  /**
+   * @param coefficients The coefficients of the polynomial by ascending power.
+   * @param time         The time.
+   * @param derivative   The derivative.
+   * @return The supplied derivative of the polynomial at the supplied time.
+   */
+  private double evaluate(final double[] coefficients, final double time, final int derivative) {
+    double result = 0d;
+    for (int power = derivative; power < coefficients.length; power++) {
+      double factor = 1d;
+      for (int index = 0; index < derivative; index++) {
+        factor *= power - index;
+      }
+      result += factor * coefficients[power] * Math.pow(time, power - derivative);
+    }
+    return result;
+  }
+}
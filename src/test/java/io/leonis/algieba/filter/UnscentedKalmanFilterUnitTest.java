@@ -0,0 +1,93 @@
+package io.leonis.algieba.filter;
+
+import static org.testng.Assert.assertEquals;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.filter.UnscentedKalmanFilter.Propagation;
+import io.leonis.algieba.statistic.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.testng.annotations.Test;
+
+/**
+ * The Test UnscentedKalmanFilterUnitTest.
+ *
+ * @author agent
+ */
+public class UnscentedKalmanFilterUnitTest {
+
+  private final static int POINTS = 100;
+  private final INDArray stateTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0.1,
+      0, 1
+  }, 2, 2);
+  private final INDArray measurementTransitionMatrix = Matrices.toMatrix(new double[]{
+      1, 0
+  }, 1, 2);
+  private final INDArray processCovariance = Matrices.toMatrix(new double[]{
+      0.001, 0,
+      0, 0.01
+  }, 2, 2);
+  private final INDArray measurementCovariance = Matrices.toMatrix(new double[]{0.25}, 1, 1);
+
+  /**
+   * Equivalence with {@link KalmanFilter} on a linear model, for every propagation.
+   */
+  @Test
+  public void equivalence() {
+    for (final Propagation propagation : Propagation.values()) {
+      this.assertEquivalence(
+          new UnscentedKalmanFilter(1d, 2d, 0d, propagation, ForkJoinPool.commonPool()));
+    }
+  }
+
+  /**
+   * Equivalence with {@link KalmanFilter} on a linear model, for the default parameters.
+   */
+  @Test
+  public void defaultParameters() {
+    this.assertEquivalence(new UnscentedKalmanFilter());
+  }
+
+  /**
+   * @param filter The filter under test.
+   */
+  private void assertEquivalence(final UnscentedKalmanFilter filter) {
+    final KalmanFilter reference = new KalmanFilter();
+    final Random random = new Random(42);
+    Distribution state = new SimpleDistribution(Nd4j.zeros(2, 1), Nd4j.eye(2));
+    Distribution referenceState = state;
+    for (int step = 0; step < POINTS; step++) {
+      final Distribution measurement = new SimpleDistribution(
+          Matrices.toMatrix(new double[]{0.2 * step + random.nextGaussian() * 0.5}, 1, 1),
+          this.measurementCovariance);
+      state = filter.apply(
+          (mean, control) -> this.stateTransitionMatrix.mmul(mean),
+          this.measurementTransitionMatrix::mmul,
+          Nd4j.zeros(1, 1),
+          this.processCovariance,
+          measurement,
+          state);
+      referenceState = reference.apply(
+          this.stateTransitionMatrix,
+          this.measurementTransitionMatrix,
+          Nd4j.zeros(2, 1),
+          Nd4j.zeros(1, 1),
+          this.processCovariance,
+          measurement,
+          referenceState);
+      for (int row = 0; row < 2; row++) {
+        final double mean = referenceState.getMean().getDouble(row, 0);
+        // the reference filter computes in single precision
+        assertEquals(state.getMean().getDouble(row, 0), mean, 1e-3 * (1 + Math.abs(mean)));
+        for (int column = 0; column < 2; column++) {
+          final double covariance = referenceState.getCovariance().getDouble(row, column);
+          assertEquals(state.getCovariance().getDouble(row, column), covariance,
+              1e-3 * (1 + Math.abs(covariance)));
+        }
+      }
+    }
+  }
+}
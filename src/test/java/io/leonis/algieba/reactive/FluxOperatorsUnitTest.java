@@ -0,0 +1,305 @@
+package io.leonis.algieba.reactive;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.algebra.Matrices;
+import io.leonis.algieba.control.PSDController;
+import io.leonis.algieba.filter.*;
+import io.leonis.algieba.statistic.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.Test;
+import reactor.core.Exceptions;
+import reactor.core.publisher.*;
+
+/**
+ * The Test FluxOperatorsUnitTest.
+ *
+ * @author agent
+ */
+public class FluxOperatorsUnitTest {
+
+  // the matrices may be stored in single precision
+  private final static double EPSILON = 1e-5;
+  private final static int POINTS = 100;
+  private final static int WINDOW = 4;
+  private final static int BATCHES = 10;
+  private final static int CAPACITY = 2;
+  private final double[] stateTransition = {
+      1, 0,
+      0.5, 0
+  };
+  private final double[] measurementTransition = {
+      1, 0,
+      0, 1
+  };
+  private final double[] measurementCovariance = {
+      0, 0,
+      0, 0.01
+  };
+  private final double[] processCovariance = {
+      0.001, 0,
+      0, 0.1
+  };
+  private final double[] initialMean = {0.01, 0.01};
+  private final List<double[]> measurements = new Random(42).doubles(POINTS)
+      .mapToObj(noise -> new double[]{noise * 20d, noise * 10d - 5d})
+      .collect(Collectors.toList());
+
+  /**
+   * Tracking equals the scan over {@link KalmanFilter} of the Kalman filter performance test.
+   */
+  @Test
+  public void track() {
+    final KalmanFilter filter = new KalmanFilter();
+    final List<Distribution> expected = Flux.fromIterable(this.measurements)
+        .scan((Distribution) new SimpleDistribution(
+                Matrices.toMatrix(this.initialMean, 2, 1),
+                Matrices.toMatrix(this.processCovariance, 2, 2)),
+            (previousState, measurement) -> filter.apply(
+                Matrices.toMatrix(this.stateTransition, 2, 2),
+                Matrices.toMatrix(this.measurementTransition, 2, 2),
+                Nd4j.zeros(2, 1),
+                Nd4j.zeros(1, 1),
+                Matrices.toMatrix(this.processCovariance, 2, 2),
+                new SimpleDistribution(
+                    Matrices.toMatrix(measurement, 2, 1),
+                    Matrices.toMatrix(this.measurementCovariance, 2, 2)),
+                previousState))
+        .skip(1)
+        .collectList()
+        .block();
+    final List<double[]> actual = Flux.fromIterable(this.measurements)
+        .transform(FluxOperators.track(
+            () -> new FixedKalmanFilter(this.stateTransition, this.measurementTransition,
+                this.processCovariance, this.initialMean, this.processCovariance),
+            this.measurementCovariance,
+            state -> new double[]{state.getMean(0), state.getMean(1)}))
+        .collectList()
+        .block();
+
+    assertEquals(actual.size(), expected.size());
+    for (int point = 0; point < POINTS; point++) {
+      for (int row = 0; row < 2; row++) {
+        final double mean = expected.get(point).getMean().getDouble(row, 0);
+        assertEquals(actual.get(point)[row], mean, EPSILON * (1 + Math.abs(mean)));
+      }
+    }
+  }
+
+  /**
+   * The control signal equals the scan over {@link PSDController} of the PSD controller
+   * convergence test, for the factors of that test and for factors of every term.
+   */
+  @Test
+  public void control() {
+    this.assertControl(1.2d, 0d, 0d);
+    this.assertControl(0.4d, 0.2d, 0.01d);
+  }
+
+  /**
+   * Averaging equals the {@link MovingAverageFilter} of the latest samples.
+   */
+  @Test
+  public void average() {
+    final List<INDArray> expected = Flux.fromIterable(this.measurements)
+        .scan(Collections.<INDArray>emptyList(), (window, sample) -> {
+          final List<INDArray> next = new ArrayList<>(window);
+          next.add(Matrices.toMatrix(sample, 2, 1));
+          return next.size() > WINDOW ? next.subList(1, next.size()) : next;
+        })
+        .skip(1)
+        .map(new MovingAverageFilter())
+        .collectList()
+        .block();
+    final List<INDArray> actual = Flux.fromIterable(this.measurements)
+        .transform(FluxOperators.average(2, WINDOW))
+        .collectList()
+        .block();
+
+    assertEquals(actual.size(), expected.size());
+    for (int point = 0; point < POINTS; point++) {
+      for (int row = 0; row < 2; row++) {
+        final double mean = expected.get(point).getDouble(row, 0);
+        assertEquals(actual.get(point).getDouble(row, 0), mean, EPSILON * (1 + Math.abs(mean)));
+      }
+    }
+  }
+
+  /**
+   * Every subscription of a transformed flux, including interleaved subscriptions, has its own
+   * state.
+   */
+  @Test
+  public void subscriptions() {
+    final Flux<INDArray> averages = Flux.fromIterable(this.measurements)
+        .transform(FluxOperators.average(2, WINDOW));
+    final List<INDArray> first = averages.collectList().block();
+    final List<INDArray> second = averages.collectList().block();
+    final List<INDArray[]> interleaved =
+        Flux.zip(averages, averages, (left, right) -> new INDArray[]{left, right})
+            .collectList()
+            .block();
+
+    for (int point = 0; point < POINTS; point++) {
+      for (int row = 0; row < 2; row++) {
+        final double mean = first.get(point).getDouble(row, 0);
+        assertEquals(second.get(point).getDouble(row, 0), mean);
+        assertEquals(interleaved.get(point)[0].getDouble(row, 0), mean);
+        assertEquals(interleaved.get(point)[1].getDouble(row, 0), mean);
+      }
+    }
+  }
+
+  /**
+   * Batches which overflow the buffer of a subscriber without demand are dropped starting from
+   * the oldest batch.
+   */
+  @Test
+  public void batchDropOldest() {
+    final List<List<Integer>> dropped = new ArrayList<>();
+    final BatchSubscriber subscriber =
+        this.subscribeBatches(dropped, BufferOverflowStrategy.DROP_OLDEST);
+    assertEquals(this.flatten(dropped), IntStream.range(0, BATCHES - CAPACITY).boxed()
+        .collect(Collectors.toList()));
+    assertEquals(this.flatten(subscriber.received), IntStream.range(BATCHES - CAPACITY, BATCHES)
+        .boxed().collect(Collectors.toList()));
+    assertNull(subscriber.error);
+  }
+
+  /**
+   * Batches which overflow the buffer of a subscriber without demand are dropped starting from
+   * the latest batch.
+   */
+  @Test
+  public void batchDropLatest() {
+    final List<List<Integer>> dropped = new ArrayList<>();
+    final BatchSubscriber subscriber =
+        this.subscribeBatches(dropped, BufferOverflowStrategy.DROP_LATEST);
+    assertEquals(this.flatten(dropped), IntStream.range(CAPACITY, BATCHES).boxed()
+        .collect(Collectors.toList()));
+    assertEquals(this.flatten(subscriber.received), IntStream.range(0, CAPACITY).boxed()
+        .collect(Collectors.toList()));
+    assertNull(subscriber.error);
+  }
+
+  /**
+   * A batch which overflows the buffer of a subscriber without demand terminates the flux with an
+   * overflow error.
+   */
+  @Test
+  public void batchError() {
+    final List<List<Integer>> dropped = new ArrayList<>();
+    final BatchSubscriber subscriber =
+        this.subscribeBatches(dropped, BufferOverflowStrategy.ERROR);
+    assertEquals(this.flatten(dropped), Collections.singletonList(CAPACITY));
+    assertTrue(Exceptions.isOverflow(subscriber.error));
+  }
+
+  /**
+   * @param proportionalFactor The coefficient for the proportional controller.
+   * @param summationFactor    The coefficient for the summation controller.
+   * @param differenceFactor   The coefficient for the difference controller.
+   */
+  private void assertControl(
+      final double proportionalFactor,
+      final double summationFactor,
+      final double differenceFactor
+  ) {
+    final double deltaTime = 0.1d;
+    final INDArray setPoint = Matrices.toMatrix(new double[]{-100d, 30d}, 2, 1);
+    // state: the state, the control signal and the latest three residuals
+    final List<List<INDArray>> expected = Flux.range(1, POINTS)
+        .scan(Arrays.asList(Nd4j.zeros(2, 1), Nd4j.zeros(2, 1), Nd4j.zeros(2, 1),
+            Nd4j.zeros(2, 1), Nd4j.zeros(2, 1)),
+            (previousState, iteration) -> {
+              final INDArray residual = setPoint.sub(previousState.get(0));
+              final INDArray control = PSDController.apply(
+                  previousState.get(1),
+                  Arrays.asList(residual, previousState.get(2), previousState.get(3)),
+                  proportionalFactor,
+                  summationFactor,
+                  differenceFactor,
+                  deltaTime);
+              return Arrays.asList(previousState.get(0).add(control), control, residual,
+                  previousState.get(2), previousState.get(3));
+            })
+        .skip(1)
+        .collectList()
+        .block();
+    final List<INDArray> actual = Flux.fromIterable(expected)
+        .map(state -> Matrices.toArray(state.get(2)))
+        .transform(FluxOperators.control(
+            2, proportionalFactor, summationFactor, differenceFactor, deltaTime))
+        .collectList()
+        .block();
+
+    assertEquals(actual.size(), expected.size());
+    for (int point = 0; point < POINTS; point++) {
+      for (int row = 0; row < 2; row++) {
+        final double control = expected.get(point).get(1).getDouble(row, 0);
+        assertEquals(actual.get(point).getDouble(row, 0), control,
+            EPSILON * (1 + Math.abs(control)));
+      }
+    }
+  }
+
+  /**
+   * Batches a synchronous flux of single elements for a subscriber which requests nothing until
+   * the flux has been emitted, and then requests everything.
+   *
+   * @param dropped          The list to add every dropped batch to.
+   * @param overflowStrategy The {@link BufferOverflowStrategy}.
+   * @return The subscriber.
+   */
+  private BatchSubscriber subscribeBatches(
+      final List<List<Integer>> dropped,
+      final BufferOverflowStrategy overflowStrategy
+  ) {
+    final BatchSubscriber subscriber = new BatchSubscriber();
+    Flux.range(0, BATCHES)
+        .transform(FluxOperators.batch(1, Duration.ofMinutes(1), CAPACITY, dropped::add,
+            overflowStrategy))
+        .subscribe(subscriber);
+    subscriber.request(Long.MAX_VALUE);
+    return subscriber;
+  }
+
+  /**
+   * @param batches The batches.
+   * @return The elements of the batches in order.
+   */
+  private List<Integer> flatten(final List<List<Integer>> batches) {
+    return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  /**
+   * The Class BatchSubscriber.
+   *
+   * This class represents a subscriber which requests nothing upon subscription, and which
+   * records the batches and error it receives.
+   */
+  private static class BatchSubscriber extends BaseSubscriber<List<Integer>> {
+    private final List<List<Integer>> received = new ArrayList<>();
+    private Throwable error;
+
+    @Override
+    protected void hookOnSubscribe(final Subscription subscription) {
+      // no demand until requested
+    }
+
+    @Override
+    protected void hookOnNext(final List<Integer> batch) {
+      this.received.add(batch);
+    }
+
+    @Override
+    protected void hookOnError(final Throwable throwable) {
+      this.error = throwable;
+    }
+  }
+}
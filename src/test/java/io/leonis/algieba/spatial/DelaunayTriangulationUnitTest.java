@@ -0,0 +1,425 @@
+package io.leonis.algieba.spatial;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.geometry.Vectors;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Supplier;
+import lombok.*;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.testng.annotations.Test;
+
+/**
+ * The Test DelaunayTriangulationUnitTest.
+ *
+ * @author agent
+ */
+public class DelaunayTriangulationUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static int STEPS = 2000;
+
+  /**
+   * Random operations on facilities in general position keep the queries exact.
+   */
+  @Test
+  public void uniform() {
+    final Random random = new Random(42);
+    this.assertOperations(random,
+        () -> new double[]{random.nextDouble() * 10d, random.nextDouble() * 10d});
+  }
+
+  /**
+   * Random operations on facilities on a coarse grid, of which many coincide or are collinear,
+   * keep the queries exact.
+   */
+  @Test
+  public void grid() {
+    final Random random = new Random(42);
+    this.assertOperations(random,
+        () -> new double[]{random.nextInt(6), random.nextInt(6)});
+  }
+
+  /**
+   * Random operations on facilities which mostly lie on a single line keep the queries exact.
+   */
+  @Test
+  public void collinear() {
+    final Random random = new Random(42);
+    this.assertOperations(random, () -> {
+      final double x = random.nextInt(20);
+      return random.nextInt(25) == 0
+          ? new double[]{x, random.nextInt(20)}
+          : new double[]{x, 2d * x + 1d};
+    });
+  }
+
+  /**
+   * Random operations on facilities near the points of a grid, of which the orientations and
+   * circumcircle tests are dominated by rounding errors in floating point arithmetic, keep the
+   * queries exact. In single precision only the perturbations of points near the origin remain.
+   */
+  @Test
+  public void nearlyDegenerate() {
+    final Random random = new Random(42);
+    this.assertOperations(random, () -> new double[]{
+        random.nextInt(8) + random.nextGaussian() * 1e-13,
+        random.nextInt(8) + random.nextGaussian() * 1e-13});
+  }
+
+  /**
+   * The largest empty circle is at least as large as any empty circle around a point of a dense
+   * grid over the convex hull, and contains no facility.
+   */
+  @Test
+  public void getLargestEmptyCircle() {
+    final Random random = new Random(42);
+    for (int iteration = 0; iteration < 10; iteration++) {
+      final List<Body> bodies = new ArrayList<>();
+      final int count = 3 + random.nextInt(60);
+      for (int index = 0; index < count; index++) {
+        bodies.add(new Body(random.nextDouble() * 10d, random.nextDouble() * 6d));
+      }
+      final DelaunayTriangulation<Body> triangulation = new DelaunayTriangulation<>(bodies);
+      final double[] center = new double[2];
+      final double radius = triangulation.getLargestEmptyCircle(center);
+
+      final List<double[]> hull = DelaunayTriangulationUnitTest.getHull(bodies);
+      assertTrue(DelaunayTriangulationUnitTest.isInside(hull, center[0], center[1], 1e-9));
+      assertEquals(DelaunayTriangulationUnitTest.getNearestDistance(bodies, center[0], center[1]),
+          radius, EPSILON);
+
+      final double spacing = 0.02d;
+      double sampled = 0d;
+      for (double x = 0d; x <= 10d; x += spacing) {
+        for (double y = 0d; y <= 6d; y += spacing) {
+          if (DelaunayTriangulationUnitTest.isInside(hull, x, y, 0d)) {
+            sampled = Math.max(sampled,
+                DelaunayTriangulationUnitTest.getNearestDistance(bodies, x, y));
+          }
+        }
+      }
+      assertTrue(sampled <= radius + EPSILON);
+      assertTrue(sampled >= radius - 2d * spacing);
+    }
+  }
+
+  /**
+   * Facilities which are equal but not identical are stored separately.
+   */
+  @Test
+  public void identity() {
+    final DelaunayTriangulation<Body> triangulation = new DelaunayTriangulation<>();
+    final Body first = new Body(1d, 1d);
+    final Body second = new Body(1d, 1d);
+    final Body third = new Body(3d, 1d);
+    final Body fourth = new Body(2d, 3d);
+    assertEquals(first, second);
+    assertTrue(triangulation.insert(first));
+    assertTrue(triangulation.insert(second));
+    assertTrue(triangulation.insert(third));
+    assertTrue(triangulation.insert(fourth));
+    assertSame(triangulation.getNearestNeighbor(first), second);
+    assertEquals(triangulation.getNeighbors(first).size(), 3);
+
+    second.setY(2d);
+    assertTrue(triangulation.update(second));
+    assertTrue(triangulation.delete(first));
+    assertEquals(triangulation.getCount(), 3);
+    assertSame(triangulation.getNearestNeighbor(new double[]{1d, 2d}), second);
+  }
+
+  /**
+   * @param random   The source of randomness.
+   * @param position The supplier of the positions of new and moved facilities.
+   */
+  private void assertOperations(final Random random, final Supplier<double[]> position) {
+    final DelaunayTriangulation<Body> triangulation = new DelaunayTriangulation<>();
+    final List<Body> bodies = new ArrayList<>();
+    for (int step = 0; step < STEPS; step++) {
+      final double operation = random.nextDouble();
+      if (bodies.isEmpty() || operation < 0.4d) {
+        final Body body = new Body(position.get());
+        assertTrue(triangulation.insert(body));
+        assertFalse(triangulation.insert(body));
+        bodies.add(body);
+      } else if (operation < 0.6d) {
+        final Body body = bodies.remove(random.nextInt(bodies.size()));
+        assertTrue(triangulation.delete(body));
+        assertFalse(triangulation.delete(body));
+      } else if (operation < 0.98d) {
+        final Body body = bodies.get(random.nextInt(bodies.size()));
+        if (random.nextBoolean()) {
+          body.setCoordinates(position.get());
+        } else {
+          body.setX(body.getX() + random.nextGaussian() * 0.1d);
+          body.setY(body.getY() + random.nextGaussian() * 0.1d);
+        }
+        assertTrue(triangulation.update(body));
+      } else {
+        for (final Body body : bodies) {
+          if (random.nextBoolean()) {
+            body.setCoordinates(position.get());
+          }
+        }
+        triangulation.update();
+      }
+      assertEquals(triangulation.getCount(), bodies.size());
+      this.assertQueries(triangulation, bodies, random);
+      if (step % 10 == 0) {
+        this.assertDelaunay(triangulation);
+      }
+    }
+  }
+
+  /**
+   * @param triangulation The triangulation under test.
+   * @param bodies        The facilities in the triangulation.
+   * @param random        The source of randomness.
+   */
+  private void assertQueries(
+      final DelaunayTriangulation<Body> triangulation,
+      final List<Body> bodies,
+      final Random random
+  ) {
+    final double x = random.nextDouble() * 50d - 10d;
+    final double y = random.nextDouble() * 50d - 10d;
+    final Body nearest = triangulation.getNearestNeighbor(new double[]{x, y});
+    if (bodies.isEmpty()) {
+      assertNull(nearest);
+      return;
+    }
+    assertEquals(nearest.distanceTo(x, y),
+        DelaunayTriangulationUnitTest.getNearestDistance(bodies, x, y), EPSILON);
+
+    final Body body = bodies.get(random.nextInt(bodies.size()));
+    final double expected = bodies.stream()
+        .filter(other -> other != body)
+        .mapToDouble(other -> other.distanceTo(body.getX(), body.getY()))
+        .min()
+        .orElse(Double.POSITIVE_INFINITY);
+    assertEquals(triangulation.getMaximumNearestNeighborDistance(body), expected, EPSILON);
+    final Body neighbor = triangulation.getNearestNeighbor(body);
+    if (bodies.size() > 1) {
+      assertNotSame(neighbor, body);
+      assertEquals(neighbor.distanceTo(body.getX(), body.getY()), expected, EPSILON);
+    } else {
+      assertNull(neighbor);
+    }
+  }
+
+  /**
+   * Asserts that every solid triangle is oriented counterclockwise, and that no vertex lies inside
+   * the circumcircle of any solid triangle.
+   *
+   * @param triangulation The triangulation under test.
+   */
+  private void assertDelaunay(final DelaunayTriangulation<Body> triangulation) {
+    final int[] corners = DelaunayTriangulationUnitTest.get(triangulation, "corners");
+    final double[] coordinates = DelaunayTriangulationUnitTest.get(triangulation, "coordinates");
+    final int[] owners = DelaunayTriangulationUnitTest.get(triangulation, "owners");
+    final Object[] objects = DelaunayTriangulationUnitTest.get(triangulation, "objects");
+    final int triangleTop = DelaunayTriangulationUnitTest.get(triangulation, "triangleTop");
+    final int siteTop = DelaunayTriangulationUnitTest.get(triangulation, "siteTop");
+    for (int triangle = 0; triangle < triangleTop; triangle++) {
+      final int a = corners[3 * triangle];
+      final int b = corners[3 * triangle + 1];
+      final int c = corners[3 * triangle + 2];
+      if (a < 0 || b < 0 || c < 0) {
+        continue;
+      }
+      final double ax = coordinates[2 * a];
+      final double ay = coordinates[2 * a + 1];
+      final double bx = coordinates[2 * b] - ax;
+      final double by = coordinates[2 * b + 1] - ay;
+      final double cx = coordinates[2 * c] - ax;
+      final double cy = coordinates[2 * c + 1] - ay;
+      final double determinant = 2d * (bx * cy - by * cx);
+      assertTrue(determinant > 0d
+          || DelaunayTriangulationUnitTest.getLift(coordinates, new int[]{a, b, c}, -1) > 0);
+      final double ux = (cy * (bx * bx + by * by) - by * (cx * cx + cy * cy)) / determinant;
+      final double uy = (bx * (cx * cx + cy * cy) - cx * (bx * bx + by * by)) / determinant;
+      final double radius = Math.hypot(ux, uy);
+      for (int site = 0; site < siteTop; site++) {
+        // the test is only evaluated exactly if the site is near the circumcircle
+        if (objects[site] != null && owners[site] == site
+            && !(Math.hypot(coordinates[2 * site] - ax - ux,
+            coordinates[2 * site + 1] - ay - uy) > radius * (1d + 1e-6))) {
+          assertTrue(DelaunayTriangulationUnitTest.getLift(
+              coordinates, new int[]{a, b, c}, site) <= 0);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param coordinates The position of every site, one after the other.
+   * @param triangle    The sites of the triangle.
+   * @param site        The site to test against the circumcircle of the triangle, or -1.
+   * @return The exact sign of the orientation of the triangle if no site is supplied, or else
+   *     positive if the site lies inside the circumcircle of the triangle, zero if it lies on it,
+   *     and negative if it lies outside of it.
+   */
+  private static int getLift(final double[] coordinates, final int[] triangle, final int site) {
+    final BigDecimal[][] rows = new BigDecimal[3][3];
+    for (int row = 0; row < 3; row++) {
+      final BigDecimal x = new BigDecimal(coordinates[2 * triangle[row]]);
+      final BigDecimal y = new BigDecimal(coordinates[2 * triangle[row] + 1]);
+      rows[row][0] = site < 0 ? x : x.subtract(new BigDecimal(coordinates[2 * site]));
+      rows[row][1] = site < 0 ? y : y.subtract(new BigDecimal(coordinates[2 * site + 1]));
+      rows[row][2] = site < 0
+          ? BigDecimal.ONE
+          : rows[row][0].multiply(rows[row][0]).add(rows[row][1].multiply(rows[row][1]));
+    }
+    BigDecimal determinant = BigDecimal.ZERO;
+    for (int column = 0; column < 3; column++) {
+      determinant = determinant.add(rows[0][column].multiply(
+          rows[1][(column + 1) % 3].multiply(rows[2][(column + 2) % 3])
+              .subtract(rows[1][(column + 2) % 3].multiply(rows[2][(column + 1) % 3]))));
+    }
+    return determinant.signum();
+  }
+
+  /**
+   * @param bodies The facilities.
+   * @param x      The horizontal position of the point.
+   * @param y      The vertical position of the point.
+   * @return The distance from the supplied point to the nearest facility.
+   */
+  private static double getNearestDistance(
+      final List<Body> bodies,
+      final double x,
+      final double y
+  ) {
+    double nearest = Double.POSITIVE_INFINITY;
+    for (final Body body : bodies) {
+      nearest = Math.min(nearest, body.distanceTo(x, y));
+    }
+    return nearest;
+  }
+
+  /**
+   * @param bodies The facilities.
+   * @return The vertices of the convex hull in counterclockwise order.
+   */
+  private static List<double[]> getHull(final List<Body> bodies) {
+    final List<double[]> points = new ArrayList<>();
+    bodies.forEach(body -> points.add(new double[]{body.getX(), body.getY()}));
+    points.sort(Comparator.<double[]>comparingDouble(point -> point[0])
+        .thenComparingDouble(point -> point[1]));
+    final List<double[]> hull = new ArrayList<>();
+    for (int pass = 0; pass < 2; pass++) {
+      final int start = hull.size();
+      for (final double[] point : points) {
+        while (hull.size() >= start + 2 && DelaunayTriangulationUnitTest.cross(
+            hull.get(hull.size() - 2), hull.get(hull.size() - 1), point) <= 0d) {
+          hull.remove(hull.size() - 1);
+        }
+        hull.add(point);
+      }
+      hull.remove(hull.size() - 1);
+      Collections.reverse(points);
+    }
+    return hull;
+  }
+
+  /**
+   * @param hull      The vertices of the convex hull in counterclockwise order.
+   * @param x         The horizontal position of the point.
+   * @param y         The vertical position of the point.
+   * @param tolerance The distance by which the point may lie outside of the hull.
+   * @return True if the supplied point lies inside the hull.
+   */
+  private static boolean isInside(
+      final List<double[]> hull,
+      final double x,
+      final double y,
+      final double tolerance
+  ) {
+    for (int index = 0; index < hull.size(); index++) {
+      final double[] from = hull.get(index);
+      final double[] to = hull.get((index + 1) % hull.size());
+      final double length = Math.hypot(to[0] - from[0], to[1] - from[1]);
+      if (DelaunayTriangulationUnitTest.cross(from, to, new double[]{x, y})
+          < -tolerance * length) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param origin The origin.
+   * @param first  The first point.
+   * @param second The second point.
+   * @return The cross product of the vectors from the origin to the supplied points.
+   */
+  private static double cross(final double[] origin, final double[] first, final double[] second) {
+    return (first[0] - origin[0]) * (second[1] - origin[1])
+        - (first[1] - origin[1]) * (second[0] - origin[0]);
+  }
+
+  /**
+   * @param triangulation The triangulation.
+   * @param name          The name of a field of the triangulation.
+   * @param <T>           The type of the field.
+   * @return The value of the field.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T get(final DelaunayTriangulation<?> triangulation, final String name) {
+    try {
+      final Field field = DelaunayTriangulation.class.getDeclaredField(name);
+      field.setAccessible(true);
+      return (T) field.get(triangulation);
+    } catch (final ReflectiveOperationException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  @Data
+  private static class Body implements Spatial {
+    private double x;
+    private double y;
+
+    Body(final double x, final double y) {
+      this.setX(x);
+      this.setY(y);
+    }
+
+    Body(final double[] coordinates) {
+      this(coordinates[0], coordinates[1]);
+    }
+
+    void setCoordinates(final double[] coordinates) {
+      this.setX(coordinates[0]);
+      this.setY(coordinates[1]);
+    }
+
+    public void setX(final double x) {
+      this.x = Body.round(x);
+    }
+
+    public void setY(final double y) {
+      this.y = Body.round(y);
+    }
+
+    // the positions may be stored in single precision, so the coordinates are rounded alike
+    private static double round(final double coordinate) {
+      return Nd4j.dataType() == DataBuffer.Type.DOUBLE ? coordinate : (float) coordinate;
+    }
+
+    @Override
+    public INDArray getPosition() {
+      return Vectors.columnVector(this.x, this.y);
+    }
+
+    double distanceTo(final double x, final double y) {
+      return Math.hypot(this.x - x, this.y - y);
+    }
+  }
+}
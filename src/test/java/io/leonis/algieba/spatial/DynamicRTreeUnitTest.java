@@ -0,0 +1,305 @@
+package io.leonis.algieba.spatial;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.geometry.Vectors;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Predicate;
+import lombok.*;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.testng.annotations.Test;
+
+/**
+ * The Test DynamicRTreeUnitTest.
+ *
+ * @author agent
+ */
+public class DynamicRTreeUnitTest {
+
+  private final static double EPSILON = 1e-12;
+  private final static int STEPS = 3000;
+  private final static int NEIGHBORS = 5;
+
+  /**
+   * Random insertions, deletions and updates keep the tree valid and its queries exact.
+   */
+  @Test
+  public void randomOperations() {
+    final Random random = new Random(42);
+    final DynamicRTree<Body> tree = new DynamicRTree<>(2, 0.1d, 0.05d, 6);
+    final List<Body> bodies = new ArrayList<>();
+    for (int step = 0; step < STEPS; step++) {
+      final double operation = random.nextDouble();
+      if (bodies.isEmpty() || operation < 0.4d) {
+        // some bodies coincide with, and thus equal, a body which is already in the tree
+        final Body body = !bodies.isEmpty() && random.nextDouble() < 0.1d
+            ? this.copy(bodies.get(random.nextInt(bodies.size())))
+            : new Body(random.nextDouble() * 9d, random.nextDouble() * 6d,
+                random.nextGaussian(), random.nextGaussian());
+        assertTrue(tree.insert(body));
+        assertFalse(tree.insert(body));
+        bodies.add(body);
+      } else if (operation < 0.6d) {
+        final Body body = bodies.remove(random.nextInt(bodies.size()));
+        assertTrue(tree.delete(body));
+        assertFalse(tree.delete(body));
+      } else if (operation < 0.98d) {
+        final Body body = bodies.get(random.nextInt(bodies.size()));
+        final double distance = random.nextDouble() < 0.8d ? 0.02d : 3d;
+        body.setX(body.getX() + random.nextGaussian() * distance);
+        body.setY(body.getY() + random.nextGaussian() * distance);
+        body.setVelocityX(random.nextGaussian());
+        assertTrue(tree.update(body));
+      } else {
+        bodies.forEach(body -> body.setY(body.getY() - random.nextDouble()));
+        tree.update();
+      }
+      assertEquals(tree.getCount(), bodies.size());
+      this.assertInvariants(tree);
+      if (step % 10 == 0) {
+        this.assertQueries(tree, bodies, random);
+      }
+    }
+  }
+
+  /**
+   * Objects which are equal but not identical are stored separately.
+   */
+  @Test
+  public void identity() {
+    final DynamicRTree<Body> tree = new DynamicRTree<>(2, 0.1d, 0.05d);
+    final Body first = new Body(1d, 1d, 0d, 0d);
+    final Body second = this.copy(first);
+    assertEquals(first, second);
+    assertTrue(tree.insert(first));
+    assertTrue(tree.insert(second));
+    assertSame(tree.getNearestNeighbor(first), second);
+    assertSame(tree.getNearestNeighbor(second), first);
+    assertEquals(tree.getMaximumNearestNeighborDistance(first), 0d, EPSILON);
+
+    second.setX(2d);
+    assertTrue(tree.update(second));
+    assertTrue(tree.delete(first));
+    assertEquals(tree.getFacilities().size(), 1);
+    assertSame(tree.getFacilities().iterator().next(), second);
+  }
+
+  /**
+   * @param tree   The tree under test.
+   * @param bodies The bodies in the tree.
+   * @param random The source of randomness.
+   */
+  private void assertQueries(
+      final DynamicRTree<Body> tree,
+      final List<Body> bodies,
+      final Random random
+  ) {
+    final double[] point = {random.nextDouble() * 11d - 1d, random.nextDouble() * 8d - 1d};
+
+    final Body[] result = new Body[NEIGHBORS];
+    final double[] distances = new double[NEIGHBORS];
+    final double[] expected = bodies.stream()
+        .mapToDouble(body -> body.distanceTo(point))
+        .sorted()
+        .limit(NEIGHBORS)
+        .toArray();
+    assertEquals(tree.getNearestNeighbors(point, NEIGHBORS, result, distances), expected.length);
+    for (int index = 0; index < expected.length; index++) {
+      assertEquals(distances[index], expected[index], EPSILON);
+      assertEquals(result[index].distanceTo(point), expected[index], EPSILON);
+    }
+
+    final double radius = random.nextDouble() * 2d;
+    final Set<Body> found = Collections.newSetFromMap(new IdentityHashMap<>());
+    tree.search(point, radius, found::add);
+    assertEquals(found, this.filter(bodies, body -> body.distanceTo(point) <= radius));
+
+    final double[] minimum = {point[0] - random.nextDouble(), point[1] - random.nextDouble()};
+    final double[] maximum = {point[0] + random.nextDouble(), point[1] + random.nextDouble()};
+    found.clear();
+    tree.search(minimum, maximum, found::add);
+    assertEquals(found, this.filter(bodies, body -> body.getX() >= minimum[0]
+        && body.getX() <= maximum[0] && body.getY() >= minimum[1] && body.getY() <= maximum[1]));
+
+    if (!bodies.isEmpty()) {
+      final Body body = bodies.get(random.nextInt(bodies.size()));
+      final double nearest = bodies.stream()
+          .filter(other -> other != body)
+          .mapToDouble(other -> other.distanceTo(body.getCoordinates()))
+          .min()
+          .orElse(Double.POSITIVE_INFINITY);
+      assertEquals(tree.getMaximumNearestNeighborDistance(body), nearest, EPSILON);
+      final Body neighbor = tree.getNearestNeighbor(body);
+      if (bodies.size() > 1) {
+        assertNotSame(neighbor, body);
+        assertEquals(neighbor.distanceTo(body.getCoordinates()), nearest, EPSILON);
+      } else {
+        assertNull(neighbor);
+      }
+    }
+  }
+
+  /**
+   * Asserts that every node encloses its entries, that every node other than the root contains
+   * between the minimum and maximum amount of entries, and that every entry refers back to its
+   * node.
+   *
+   * @param tree The tree under test.
+   */
+  private void assertInvariants(final DynamicRTree<Body> tree) {
+    final int root = DynamicRTreeUnitTest.get(tree, "root");
+    final int[] parents = DynamicRTreeUnitTest.get(tree, "parents");
+    final int[] levels = DynamicRTreeUnitTest.get(tree, "levels");
+    assertEquals(parents[root], -1);
+    assertEquals(tree.getHeight(), levels[root] + 1);
+    assertEquals(this.assertNode(tree, root), tree.getCount());
+  }
+
+  /**
+   * @param tree The tree under test.
+   * @param node The node to check.
+   * @return The amount of objects below the supplied node.
+   */
+  private int assertNode(final DynamicRTree<Body> tree, final int node) {
+    final int root = DynamicRTreeUnitTest.get(tree, "root");
+    final int maximumEntries = DynamicRTreeUnitTest.get(tree, "maximumEntries");
+    final int minimumEntries = DynamicRTreeUnitTest.get(tree, "minimumEntries");
+    final int[] children = DynamicRTreeUnitTest.get(tree, "children");
+    final int[] counts = DynamicRTreeUnitTest.get(tree, "counts");
+    final int[] parents = DynamicRTreeUnitTest.get(tree, "parents");
+    final int[] levels = DynamicRTreeUnitTest.get(tree, "levels");
+    final int[] leaves = DynamicRTreeUnitTest.get(tree, "leaves");
+    final double[] nodeBounds = DynamicRTreeUnitTest.get(tree, "nodeBounds");
+    final double[] objectBounds = DynamicRTreeUnitTest.get(tree, "objectBounds");
+    final double[] points = DynamicRTreeUnitTest.get(tree, "points");
+    final Object[] objects = DynamicRTreeUnitTest.get(tree, "objects");
+
+    final int count = counts[node];
+    assertTrue(count <= maximumEntries);
+    if (node != root) {
+      assertTrue(count >= minimumEntries);
+    } else if (levels[node] > 0) {
+      assertTrue(count >= 2);
+    }
+    int total = 0;
+    for (int index = 0; index < count; index++) {
+      final int child = children[(maximumEntries + 1) * node + index];
+      if (levels[node] == 0) {
+        assertEquals(leaves[child], node);
+        DynamicRTreeUnitTest.assertEncloses(nodeBounds, node, objectBounds, child);
+        final Body body = (Body) objects[child];
+        assertEquals(points[2 * child], body.getX());
+        assertEquals(points[2 * child + 1], body.getY());
+        for (int axis = 0; axis < 2; axis++) {
+          assertTrue(objectBounds[4 * child + axis] <= points[2 * child + axis]);
+          assertTrue(objectBounds[4 * child + 2 + axis] >= points[2 * child + axis]);
+        }
+        total++;
+      } else {
+        assertEquals(parents[child], node);
+        assertEquals(levels[child], levels[node] - 1);
+        DynamicRTreeUnitTest.assertEncloses(nodeBounds, node, nodeBounds, child);
+        total += this.assertNode(tree, child);
+      }
+    }
+    return total;
+  }
+
+  /**
+   * @param outer      The array containing the enclosing box.
+   * @param outerIndex The index of the enclosing box.
+   * @param inner      The array containing the enclosed box.
+   * @param innerIndex The index of the enclosed box.
+   */
+  private static void assertEncloses(
+      final double[] outer,
+      final int outerIndex,
+      final double[] inner,
+      final int innerIndex
+  ) {
+    for (int axis = 0; axis < 2; axis++) {
+      assertTrue(outer[4 * outerIndex + axis] <= inner[4 * innerIndex + axis]);
+      assertTrue(outer[4 * outerIndex + 2 + axis] >= inner[4 * innerIndex + 2 + axis]);
+    }
+  }
+
+  /**
+   * @param tree The tree.
+   * @param name The name of a field of the tree.
+   * @param <T>  The type of the field.
+   * @return The value of the field.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T get(final DynamicRTree<?> tree, final String name) {
+    try {
+      final Field field = DynamicRTree.class.getDeclaredField(name);
+      field.setAccessible(true);
+      return (T) field.get(tree);
+    } catch (final ReflectiveOperationException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  /**
+   * @param bodies    The bodies.
+   * @param predicate The predicate.
+   * @return The bodies which satisfy the predicate, by reference.
+   */
+  private Set<Body> filter(final List<Body> bodies, final Predicate<Body> predicate) {
+    final Set<Body> filtered = Collections.newSetFromMap(new IdentityHashMap<>());
+    bodies.stream().filter(predicate).forEach(filtered::add);
+    return filtered;
+  }
+
+  /**
+   * @param body The body.
+   * @return A body which equals the supplied body.
+   */
+  private Body copy(final Body body) {
+    return new Body(body.getX(), body.getY(), body.getVelocityX(), body.getVelocityY());
+  }
+
+  @Data
+  private static class Body implements Spatial, Moving {
+    private double x;
+    private double y;
+    private double velocityX;
+    private double velocityY;
+
+    Body(final double x, final double y, final double velocityX, final double velocityY) {
+      this.setX(x);
+      this.setY(y);
+      this.velocityX = velocityX;
+      this.velocityY = velocityY;
+    }
+
+    // the positions may be stored in single precision, so the coordinates are rounded to floats
+    public void setX(final double x) {
+      this.x = (float) x;
+    }
+
+    public void setY(final double y) {
+      this.y = (float) y;
+    }
+
+    @Override
+    public INDArray getPosition() {
+      return Vectors.columnVector(this.x, this.y);
+    }
+
+    @Override
+    public INDArray getVelocity() {
+      return Vectors.columnVector(this.velocityX, this.velocityY);
+    }
+
+    double[] getCoordinates() {
+      return new double[]{this.x, this.y};
+    }
+
+    double distanceTo(final double[] other) {
+      return Math.hypot(this.x - other[0], this.y - other[1]);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package io.leonis.algieba.spatial;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.geometry.Vectors;
+import java.util.*;
+import java.util.stream.*;
+import lombok.Value;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.testng.annotations.Test;
+
+/**
+ * The Test PackedRTreeUnitTest.
+ *
+ * @author agent
+ */
+public class PackedRTreeUnitTest {
+
+  private final static double EPSILON = 1e-12;
+  private final static int POINTS = 1000;
+  private final Random random = new Random(42);
+  // the positions may be stored in single precision, so the coordinates are rounded to floats
+  private final List<Point> points = IntStream.range(0, POINTS)
+      .mapToObj(index -> new Point(
+          (float) (this.random.nextDouble() * 9d), (float) (this.random.nextDouble() * 6d)))
+      .collect(Collectors.toList());
+  private final PackedRTree<Point> tree = new PackedRTree<>(2, this.points, 8);
+
+  /**
+   * Nearest neighbors.
+   */
+  @Test
+  public void getNearestNeighbors() {
+    final double[] query = {4.5d, 3d};
+    final int[] result = new int[10];
+    final double[] distances = new double[10];
+    assertEquals(this.tree.getNearestNeighbors(query, 10, result, distances), 10);
+
+    final double[] expected = this.points.stream()
+        .mapToDouble(point -> point.distanceTo(query))
+        .sorted()
+        .limit(10)
+        .toArray();
+    for (int index = 0; index < 10; index++) {
+      assertEquals(distances[index], expected[index], EPSILON);
+      assertEquals(this.points.get(result[index]).distanceTo(query), expected[index], EPSILON);
+    }
+  }
+
+  /**
+   * Nearest neighbor of a facility.
+   */
+  @Test
+  public void getNearestNeighbor() {
+    final Point facility = this.points.get(0);
+    final Point expected = this.points.stream()
+        .filter(point -> point != facility)
+        .min(Comparator.comparingDouble(point -> point.distanceTo(facility.getCoordinates())))
+        .orElseThrow(IllegalStateException::new);
+    assertSame(this.tree.getNearestNeighbor(facility), expected);
+    assertEquals(this.tree.getMaximumNearestNeighborDistance(facility),
+        expected.distanceTo(facility.getCoordinates()), EPSILON);
+  }
+
+  /**
+   * All nearest neighbors.
+   */
+  @Test
+  public void getAllNearestNeighbors() {
+    final int[] neighbors = new int[POINTS];
+    final double[] distances = new double[POINTS];
+    this.tree.getAllNearestNeighbors(neighbors, distances);
+    for (int index = 0; index < POINTS; index++) {
+      final double[] coordinates = this.points.get(index).getCoordinates();
+      final int self = index;
+      final double expected = IntStream.range(0, POINTS)
+          .filter(other -> other != self)
+          .mapToDouble(other -> this.points.get(other).distanceTo(coordinates))
+          .min()
+          .orElseThrow(IllegalStateException::new);
+      assertNotEquals(neighbors[index], index);
+      assertEquals(distances[index], expected, EPSILON);
+      assertEquals(this.points.get(neighbors[index]).distanceTo(coordinates), expected, EPSILON);
+    }
+    assertEquals(this.tree.getMaximumNearestNeighborDistance(this.tree.getFacilities()),
+        Arrays.stream(distances).max().orElse(0d), EPSILON);
+  }
+
+  /**
+   * Range search.
+   */
+  @Test
+  public void search() {
+    final double[] minimum = {2d, 1d};
+    final double[] maximum = {5d, 2.5d};
+    final Set<Integer> found = new HashSet<>();
+    this.tree.search(minimum, maximum, found::add);
+    final Set<Integer> expected = IntStream.range(0, POINTS)
+        .filter(index -> {
+          final double[] coordinates = this.points.get(index).getCoordinates();
+          return coordinates[0] >= minimum[0] && coordinates[0] <= maximum[0]
+              && coordinates[1] >= minimum[1] && coordinates[1] <= maximum[1];
+        })
+        .boxed()
+        .collect(Collectors.toSet());
+    assertEquals(found, expected);
+
+    final double[] center = {7d, 4d};
+    found.clear();
+    this.tree.search(center, 1.5d, found::add);
+    assertEquals(found, IntStream.range(0, POINTS)
+        .filter(index -> this.points.get(index).distanceTo(center) <= 1.5d)
+        .boxed()
+        .collect(Collectors.toSet()));
+  }
+
+  /**
+   * Equal objects at the same position are each other's nearest neighbor, both for a single
+   * query and for a batch query.
+   */
+  @Test
+  public void coincident() {
+    final List<Point> pairs = this.points.stream()
+        .flatMap(point -> Stream.of(point, new Point(point.getCoordinates().clone())))
+        .collect(Collectors.toList());
+    final PackedRTree<Point> coincident = new PackedRTree<>(2, pairs, 8);
+    final Point first = pairs.get(0);
+    final Point second = pairs.get(1);
+    assertEquals(first, second);
+    assertSame(coincident.getNearestNeighbor(first), second);
+    assertSame(coincident.getNearestNeighbor(second), first);
+    assertEquals(coincident.getMaximumNearestNeighborDistance(first), 0d);
+
+    final Set<Point> facilities = Collections.newSetFromMap(new IdentityHashMap<>());
+    facilities.addAll(pairs);
+    assertEquals(coincident.getMaximumNearestNeighborDistance(facilities), 0d);
+  }
+
+  /**
+   * Empty tree.
+   */
+  @Test
+  public void empty() {
+    final PackedRTree<Point> empty = new PackedRTree<>(2, Collections.emptyList());
+    assertEquals(empty.getNearestNeighbor(new double[]{0d, 0d}), -1);
+    assertNull(empty.getNearestNeighbor(this.points.get(0)));
+  }
+
+  @Value
+  private static class Point implements Spatial {
+    private final double[] coordinates;
+
+    Point(final double... coordinates) {
+      this.coordinates = coordinates;
+    }
+
+    @Override
+    public INDArray getPosition() {
+      return Vectors.columnVector(this.coordinates);
+    }
+
+    double distanceTo(final double[] other) {
+      return Math.hypot(this.coordinates[0] - other[0], this.coordinates[1] - other[1]);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package io.leonis.algieba.spatial;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.Spatial;
+import io.leonis.algieba.geometry.Vectors;
+import java.util.*;
+import lombok.Value;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.testng.annotations.Test;
+
+/**
+ * The Test SpatialHashUnitTest.
+ *
+ * @author agent
+ */
+public class SpatialHashUnitTest {
+
+  private final static double CELL_SIZE = 1.5d;
+  private final static double[] RADII = {0.3d, CELL_SIZE, 4d};
+
+  /**
+   * Queries in the plane equal a brute-force scan, including after a smaller rebuild.
+   */
+  @Test
+  public void plane() {
+    this.assertQueries(2);
+  }
+
+  /**
+   * Queries in space equal a brute-force scan, including after a smaller rebuild.
+   */
+  @Test
+  public void space() {
+    this.assertQueries(3);
+  }
+
+  /**
+   * An empty grid finds nothing.
+   */
+  @Test
+  public void empty() {
+    final SpatialHash<Point> hash = new SpatialHash<>(2, CELL_SIZE);
+    hash.build(Collections.emptyList());
+    hash.search(new double[]{0d, 0d}, 10d, index -> fail());
+    hash.forEachPair(10d, (first, second) -> fail());
+    assertEquals(hash.getCount(), 0);
+  }
+
+  /**
+   * @param dimension The dimension of the positions.
+   */
+  private void assertQueries(final int dimension) {
+    final Random random = new Random(42);
+    final SpatialHash<Point> hash = new SpatialHash<>(dimension, CELL_SIZE);
+    for (final int count : new int[]{600, 150, 0, 40}) {
+      final List<Point> points = this.createPoints(random, dimension, count);
+      hash.build(points);
+      assertEquals(hash.getCount(), count);
+      for (int index = 0; index < count; index++) {
+        assertSame(hash.getObject(index), points.get(index));
+      }
+      for (final double radius : RADII) {
+        for (int query = 0; query < 20; query++) {
+          final double[] point = new double[dimension];
+          for (int axis = 0; axis < dimension; axis++) {
+            point[axis] = random.nextDouble() * 24d - 12d;
+          }
+          final List<Integer> found = new ArrayList<>();
+          hash.search(point, radius, found::add);
+          Collections.sort(found);
+          assertEquals(found, this.scan(points, point, radius, -1));
+        }
+        for (int index = 0; index < count; index++) {
+          final List<Integer> found = new ArrayList<>();
+          hash.search(index, radius, found::add);
+          Collections.sort(found);
+          assertEquals(found,
+              this.scan(points, points.get(index).getCoordinates(), radius, index));
+        }
+
+        final Set<List<Integer>> pairs = new HashSet<>();
+        hash.forEachPair(radius, (first, second) -> {
+          assertTrue(first < second);
+          assertTrue(pairs.add(Arrays.asList(first, second)));
+        });
+        final Set<List<Integer>> expected = new HashSet<>();
+        for (int first = 0; first < count; first++) {
+          for (final int second
+              : this.scan(points, points.get(first).getCoordinates(), radius, first)) {
+            if (first < second) {
+              expected.add(Arrays.asList(first, second));
+            }
+          }
+        }
+        assertEquals(pairs, expected);
+      }
+    }
+  }
+
+  /**
+   * @param random    The source of randomness.
+   * @param dimension The dimension of the positions.
+   * @param count     The amount of points.
+   * @return Points around the origin, some of which coincide.
+   */
+  private List<Point> createPoints(final Random random, final int dimension, final int count) {
+    final List<Point> points = new ArrayList<>();
+    for (int index = 0; index < count; index++) {
+      if (index > 0 && random.nextDouble() < 0.05d) {
+        points.add(new Point(points.get(random.nextInt(index)).getCoordinates().clone()));
+        continue;
+      }
+      final double[] coordinates = new double[dimension];
+      for (int axis = 0; axis < dimension; axis++) {
+        coordinates[axis] = random.nextDouble() * 20d - 10d;
+      }
+      points.add(new Point(coordinates));
+    }
+    return points;
+  }
+
+  /**
+   * @param points   The points.
+   * @param point    The query point.
+   * @param radius   The distance.
+   * @param excluded The index of the point to exclude, or -1.
+   * @return The indices of the points within the distance of the query point in ascending order.
+   */
+  private List<Integer> scan(
+      final List<Point> points,
+      final double[] point,
+      final double radius,
+      final int excluded
+  ) {
+    final List<Integer> found = new ArrayList<>();
+    for (int index = 0; index < points.size(); index++) {
+      final double[] coordinates = points.get(index).getCoordinates();
+      double distance = 0d;
+      for (int axis = 0; axis < point.length; axis++) {
+        final double difference = coordinates[axis] - point[axis];
+        distance += difference * difference;
+      }
+      if (index != excluded && distance <= radius * radius) {
+        found.add(index);
+      }
+    }
+    return found;
+  }
+
+  @Value
+  private static class Point implements Spatial {
+    private final double[] coordinates;
+
+    @Override
+    public INDArray getPosition() {
+      return Vectors.columnVector(this.coordinates);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package io.leonis.algieba.spatial;
+
+import static org.testng.Assert.*;
+
+import io.leonis.algieba.spatial.TemporalBuffer.Interpolation;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+import org.testng.annotations.Test;
+
+/**
+ * The Test TemporalBufferUnitTest.
+ *
+ * @author agent
+ */
+public class TemporalBufferUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static double FLOAT_EPSILON = 1e-6;
+  private final static double TIME_UNIT = 1e-3;
+  private final static int CAPACITY = 8;
+
+  /**
+   * Linear interpolation reproduces a straight line and otherwise the chord between samples.
+   */
+  @Test
+  public void linear() {
+    final TemporalBuffer buffer = new TemporalBuffer(2, CAPACITY, TIME_UNIT);
+    final long[] timestamps = {100, 116, 135, 150, 170};
+    for (final long timestamp : timestamps) {
+      final double time = timestamp * TIME_UNIT;
+      assertTrue(buffer.add(timestamp,
+          new double[]{3d + 2d * time, time * time}, new double[]{2d, 2d * time}));
+    }
+    final double[] position = new double[2];
+    for (long timestamp = 100; timestamp <= 170; timestamp++) {
+      assertTrue(buffer.apply(timestamp, Interpolation.LINEAR, position));
+      int next = 1;
+      while (next < timestamps.length - 1 && timestamps[next] <= timestamp) {
+        next++;
+      }
+      final double start = timestamps[next - 1] * TIME_UNIT;
+      final double end = timestamps[next] * TIME_UNIT;
+      final double time = timestamp * TIME_UNIT;
+      final double chord =
+          start * start + (time - start) / (end - start) * (end * end - start * start);
+      assertEquals(position[0], 3d + 2d * time, EPSILON);
+      assertEquals(position[1], chord, EPSILON);
+    }
+  }
+
+  /**
+   * Hermite interpolation reproduces a cubic through the positions and velocities.
+   */
+  @Test
+  public void hermite() {
+    final TemporalBuffer buffer = new TemporalBuffer(1, CAPACITY, TIME_UNIT);
+    final long[] timestamps = {0, 250, 600, 1000, 1300};
+    for (final long timestamp : timestamps) {
+      final double time = timestamp * TIME_UNIT;
+      assertTrue(buffer.add(timestamp,
+          new double[]{this.cubic(time)}, new double[]{this.cubicDerivative(time)}));
+    }
+    final double[] position = new double[1];
+    for (long timestamp = 0; timestamp <= 1300; timestamp += 7) {
+      assertTrue(buffer.apply(timestamp, Interpolation.HERMITE, position));
+      assertEquals(position[0], this.cubic(timestamp * TIME_UNIT), EPSILON);
+    }
+    assertTrue(buffer.apply(425, Interpolation.HERMITE, position));
+    assertEquals(position[0], this.cubic(0.425), EPSILON);
+    // the matrices may be stored in single precision
+    assertEquals(buffer.getPosition(425, Interpolation.HERMITE).getDouble(0), position[0],
+        FLOAT_EPSILON * (1 + Math.abs(position[0])));
+  }
+
+  /**
+   * Positions after the latest sample are extrapolated using the latest velocity.
+   */
+  @Test
+  public void extrapolation() {
+    final TemporalBuffer buffer = new TemporalBuffer(2, CAPACITY, TIME_UNIT);
+    assertTrue(buffer.add(100, new double[]{0d, 0d}, new double[]{5d, 5d}));
+    assertTrue(buffer.add(200, new double[]{1d, -1d}, new double[]{2d, -3d}));
+    final double[] position = new double[2];
+    for (final Interpolation interpolation : Interpolation.values()) {
+      assertTrue(buffer.apply(200, interpolation, position));
+      assertEquals(position[0], 1d, EPSILON);
+      assertEquals(position[1], -1d, EPSILON);
+      assertTrue(buffer.apply(450, interpolation, position));
+      assertEquals(position[0], 1d + 0.25d * 2d, EPSILON);
+      assertEquals(position[1], -1d - 0.25d * 3d, EPSILON);
+    }
+  }
+
+  /**
+   * Only the latest capacity - 1 samples can be looked up once the ring buffer has wrapped.
+   */
+  @Test
+  public void wraparound() {
+    final TemporalBuffer buffer = new TemporalBuffer(1, CAPACITY, TIME_UNIT);
+    final double[] position = new double[1];
+    assertFalse(buffer.apply(0, Interpolation.LINEAR, position));
+    assertEquals(buffer.getSize(), 0);
+
+    final int samples = 3 * CAPACITY + 3;
+    for (int sample = 0; sample < samples; sample++) {
+      assertTrue(buffer.add(10L * sample, new double[]{sample}, new double[]{100d}));
+      assertEquals(buffer.getSize(), Math.min(sample + 1, CAPACITY - 1));
+    }
+    assertFalse(buffer.add(10L * samples - 15L, new double[]{0d}, new double[]{0d}));
+
+    final int oldest = samples - CAPACITY + 1;
+    assertTrue(buffer.apply(10L * oldest, Interpolation.LINEAR, position));
+    assertEquals(position[0], oldest, EPSILON);
+    assertTrue(buffer.apply(10L * oldest + 5L, Interpolation.LINEAR, position));
+    assertEquals(position[0], oldest + 0.5d, EPSILON);
+    assertFalse(buffer.apply(10L * oldest - 1L, Interpolation.LINEAR, position));
+    assertFalse(buffer.apply(10L * (oldest - 1), Interpolation.HERMITE, position));
+  }
+
+  /**
+   * Lookups older than the oldest sample are rejected.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void tooOld() {
+    final TemporalBuffer buffer = new TemporalBuffer(1, CAPACITY, TIME_UNIT);
+    buffer.add(100, new double[]{0d}, new double[]{0d});
+    buffer.getPosition(99, Interpolation.LINEAR);
+  }
+
+  /**
+   * Readers which race a single writer only observe positions of samples which were written.
+   */
+  @Test
+  public void concurrency() throws InterruptedException {
+    final int samples = 200000;
+    final TemporalBuffer buffer = new TemporalBuffer(2, 4, 1d);
+    final AtomicReference<String> failure = new AtomicReference<>();
+    final AtomicInteger latest = new AtomicInteger();
+    final AtomicLong lookups = new AtomicLong();
+    final Thread writer = new Thread(() -> {
+      // every sample lies on the line t / 10, such that every consistent lookup lies on it too
+      for (int sample = 0; sample < samples; sample++) {
+        buffer.add(10L * sample, new double[]{sample, -sample}, new double[]{0.1d, -0.1d});
+        latest.lazySet(sample);
+      }
+    });
+    final List<Thread> readers = new ArrayList<>();
+    for (int reader = 0; reader < 3; reader++) {
+      final Random random = new Random(42 + reader);
+      readers.add(new Thread(() -> {
+        final double[] position = new double[2];
+        while (writer.isAlive() && failure.get() == null) {
+          // most lookups fall within the samples, which the writer is about to overwrite
+          final long timestamp = Math.max(0L, 10L * latest.get() - 30L + random.nextInt(40));
+          final Interpolation interpolation = Interpolation.values()[random.nextInt(2)];
+          if (buffer.apply(timestamp, interpolation, position)) {
+            lookups.incrementAndGet();
+            if (Math.abs(position[0] - timestamp / 10d) > 1e-6
+                || Math.abs(position[1] + timestamp / 10d) > 1e-6) {
+              failure.compareAndSet(null, timestamp + " " + Arrays.toString(position));
+            }
+          }
+        }
+      }));
+    }
+    writer.start();
+    readers.forEach(Thread::start);
+    writer.join();
+    for (final Thread reader : readers) {
+      reader.join();
+    }
+    assertNull(failure.get());
+    assertTrue(lookups.get() > 0);
+  }
+
+  /**
+   * @param time The time.
+   * @return The value of the cubic at the supplied time.
+   */
+  private double cubic(final double time) {
+    return 2d * time * time * time - 3d * time * time + 0.5d * time - 1d;
+  }
+
+  /**
+   * @param time The time.
+   * @return The derivative of the cubic at the supplied time.
+   */
+  private double cubicDerivative(final double time) {
+    return 6d * time * time - 6d * time + 0.5d;
+  }
+}
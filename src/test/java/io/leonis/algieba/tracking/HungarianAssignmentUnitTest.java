@@ -0,0 +1,139 @@
+package io.leonis.algieba.tracking;
+
+import static org.testng.Assert.*;
+
+import java.util.Random;
+import org.testng.annotations.Test;
+
+/**
+ * The Test HungarianAssignmentUnitTest.
+ *
+ * @author agent
+ */
+public class HungarianAssignmentUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static int ITERATIONS = 500;
+  private final static int MAXIMUM_DIMENSION = 6;
+
+  /**
+   * The assignment of random rectangular cost matrices is as cheap as the cheapest permutation.
+   */
+  @Test
+  public void rectangular() {
+    final HungarianAssignment solver = new HungarianAssignment();
+    final Random random = new Random(42);
+    for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+      final int columns = 1 + random.nextInt(MAXIMUM_DIMENSION);
+      final int rows = 1 + random.nextInt(columns);
+      final double[] costs = new double[rows * columns];
+      for (int index = 0; index < costs.length; index++) {
+        costs[index] = random.nextDouble() * 200d - 100d;
+      }
+      this.assertOptimal(solver, costs, rows, columns);
+    }
+  }
+
+  /**
+   * The assignment of random square cost matrices is as cheap as the cheapest permutation.
+   */
+  @Test
+  public void square() {
+    final HungarianAssignment solver = new HungarianAssignment();
+    final Random random = new Random(42);
+    for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+      final int dimension = 1 + random.nextInt(MAXIMUM_DIMENSION);
+      final double[] costs = new double[dimension * dimension];
+      for (int index = 0; index < costs.length; index++) {
+        costs[index] = random.nextDouble();
+      }
+      this.assertOptimal(solver, costs, dimension, dimension);
+    }
+  }
+
+  /**
+   * The assignment of cost matrices with many equal costs is as cheap as the cheapest
+   * permutation.
+   */
+  @Test
+  public void ties() {
+    final HungarianAssignment solver = new HungarianAssignment();
+    final Random random = new Random(42);
+    for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+      final int columns = 1 + random.nextInt(MAXIMUM_DIMENSION);
+      final int rows = 1 + random.nextInt(columns);
+      final double[] costs = new double[rows * columns];
+      for (int index = 0; index < costs.length; index++) {
+        costs[index] = random.nextInt(3);
+      }
+      this.assertOptimal(solver, costs, rows, columns);
+    }
+    this.assertOptimal(solver, new double[12], 3, 4);
+  }
+
+  /**
+   * A cost matrix with more rows than columns is rejected.
+   */
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void moreRowsThanColumns() {
+    new HungarianAssignment().solve(new double[6], 3, 2, new int[3]);
+  }
+
+  /**
+   * @param solver  The solver under test.
+   * @param costs   The cost matrix in row-major order.
+   * @param rows    The amount of rows.
+   * @param columns The amount of columns.
+   */
+  private void assertOptimal(
+      final HungarianAssignment solver,
+      final double[] costs,
+      final int rows,
+      final int columns
+  ) {
+    final int[] assignments = new int[rows];
+    final double total = solver.solve(costs, rows, columns, assignments);
+
+    final boolean[] used = new boolean[columns];
+    double sum = 0d;
+    for (int row = 0; row < rows; row++) {
+      assertTrue(assignments[row] >= 0 && assignments[row] < columns);
+      assertFalse(used[assignments[row]]);
+      used[assignments[row]] = true;
+      sum += costs[row * columns + assignments[row]];
+    }
+    assertEquals(total, sum, EPSILON);
+    assertEquals(total,
+        this.minimize(costs, columns, 0, new boolean[columns], rows), EPSILON);
+  }
+
+  /**
+   * @param costs   The cost matrix in row-major order.
+   * @param columns The amount of columns.
+   * @param row     The first row which is not yet assigned.
+   * @param used    Whether every column is assigned to one of the preceding rows.
+   * @param rows    The amount of rows.
+   * @return The minimal cost of assigning the remaining rows to distinct unused columns.
+   */
+  private double minimize(
+      final double[] costs,
+      final int columns,
+      final int row,
+      final boolean[] used,
+      final int rows
+  ) {
+    if (row == rows) {
+      return 0d;
+    }
+    double minimum = Double.POSITIVE_INFINITY;
+    for (int column = 0; column < columns; column++) {
+      if (!used[column]) {
+        used[column] = true;
+        minimum = Math.min(minimum, costs[row * columns + column]
+            + this.minimize(costs, columns, row + 1, used, rows));
+        used[column] = false;
+      }
+    }
+    return minimum;
+  }
+}
@@ -0,0 +1,180 @@
+package io.leonis.algieba.tracking;
+
+import static org.testng.Assert.*;
+
+import java.util.*;
+import org.testng.annotations.Test;
+
+/**
+ * The Test MultiTargetTrackerUnitTest.
+ *
+ * @author agent
+ */
+public class MultiTargetTrackerUnitTest {
+
+  private final static double EPSILON = 1e-9;
+  private final static double TIME_STEP = 0.1d;
+  private final static double NOISE = 0.05d;
+  private final static int FRAMES = 40;
+  private final static int GROUPS = 3;
+  private final static double GROUP_DISTANCE = 50d;
+  private final static int MAXIMUM_MISSES = 3;
+  private final double[] stateTransition = {
+      1, 0, TIME_STEP, 0,
+      0, 1, 0, TIME_STEP,
+      0, 0, 1, 0,
+      0, 0, 0, 1
+  };
+  private final double[] measurementTransition = {
+      1, 0, 0, 0,
+      0, 1, 0, 0
+  };
+  private final double[] processCovariance = {
+      1e-4, 0, 0, 0,
+      0, 1e-4, 0, 0,
+      0, 0, 1e-2, 0,
+      0, 0, 0, 1e-2
+  };
+  private final double[] initialCovariance = {
+      NOISE * NOISE, 0, 0, 0,
+      0, NOISE * NOISE, 0, 0,
+      0, 0, 4, 0,
+      0, 0, 0, 4
+  };
+  private final double[] measurementCovariance = {
+      NOISE * NOISE, 0,
+      0, NOISE * NOISE
+  };
+
+  /**
+   * Every group of two crossing targets of which some detections are missed keeps two tracks
+   * which follow their own target, when every cluster is assigned optimally.
+   */
+  @Test
+  public void crossingTargets() {
+    this.assertCrossing(this.createTracker(8));
+  }
+
+  /**
+   * Every group of two crossing targets keeps two tracks which follow their own target, when the
+   * clusters of the crossing are assigned greedily.
+   */
+  @Test
+  public void crossingTargetsGreedily() {
+    this.assertCrossing(this.createTracker(1));
+  }
+
+  /**
+   * A detection which is spatially close to a settled track, but outside its Mahalanobis gate,
+   * starts a new track at the detection, while the settled track misses.
+   */
+  @Test
+  public void gate() {
+    final MultiTargetTracker tracker = this.createTracker(8);
+    for (int frame = 0; frame < 10; frame++) {
+      tracker.apply(new double[]{1, 2}, 1, this.measurementCovariance);
+    }
+    final List<Track> tracks = tracker.apply(new double[]{1.5, 2}, 1, this.measurementCovariance);
+
+    assertEquals(tracks.size(), 2);
+    assertEquals(this.find(tracks, 0).getMisses(), 1);
+    assertEquals(this.find(tracks, 1).getMean(0), 1.5, EPSILON);
+    assertEquals(this.find(tracks, 1).getMean(1), 2d, EPSILON);
+    assertEquals(this.find(tracks, 1).getMean(2), 0d, EPSILON);
+  }
+
+  /**
+   * A track is kept for the maximum amount of missed frames and retired after one more, while the
+   * detection of another target starts a new track.
+   */
+  @Test
+  public void birthAndRetirement() {
+    final MultiTargetTracker tracker = this.createTracker(8);
+    for (int frame = 0; frame < 10; frame++) {
+      tracker.apply(new double[]{TIME_STEP * frame, 0}, 1, this.measurementCovariance);
+    }
+    assertEquals(tracker.getTracks().size(), 1);
+    assertEquals(tracker.getTracks().get(0).getHits(), 10);
+
+    for (int frame = 0; frame < MAXIMUM_MISSES; frame++) {
+      tracker.apply(new double[]{20, 20}, 1, this.measurementCovariance);
+      assertEquals(this.find(tracker.getTracks(), 0).getMisses(), frame + 1);
+    }
+    assertEquals(tracker.getTracks().size(), 2);
+    assertEquals(this.find(tracker.getTracks(), 1).getHits(), MAXIMUM_MISSES);
+
+    tracker.apply(new double[]{20, 20}, 1, this.measurementCovariance);
+    assertEquals(tracker.getTracks().size(), 1);
+    assertEquals(tracker.getTracks().get(0).getIdentifier(), 1L);
+
+    tracker.apply(new double[0], 0, this.measurementCovariance);
+    assertEquals(tracker.getTracks().get(0).getMisses(), 1);
+  }
+
+  /**
+   * Tracks several groups of two targets which cross each other halfway, of which some
+   * detections are missed, and asserts that every track follows the target it was started by.
+   *
+   * @param tracker The tracker under test.
+   */
+  private void assertCrossing(final MultiTargetTracker tracker) {
+    final Random random = new Random(42);
+    final int targets = 2 * GROUPS;
+    final double[] detections = new double[2 * targets];
+    final double[] positions = new double[2 * targets];
+    final int[] misses = new int[targets];
+    for (int frame = 0; frame < FRAMES; frame++) {
+      int detectionCount = 0;
+      for (int target = 0; target < targets; target++) {
+        // the targets of a group start 2 apart and cross at the 20th frame
+        final double time = frame * TIME_STEP;
+        final double direction = target % 2 == 0 ? 1d : -1d;
+        positions[2 * target] = (target / 2) * GROUP_DISTANCE - 2d + time;
+        positions[2 * target + 1] = direction * (0.5d * time - 1d);
+        if (frame > 0 && (frame + target) % 9 == 0) {
+          misses[target]++;
+          continue;
+        }
+        detections[2 * detectionCount] = positions[2 * target] + random.nextGaussian() * NOISE;
+        detections[2 * detectionCount + 1] =
+            positions[2 * target + 1] + random.nextGaussian() * NOISE;
+        detectionCount++;
+      }
+      tracker.apply(detections, detectionCount, this.measurementCovariance);
+      assertEquals(tracker.getTracks().size(), targets);
+    }
+
+    for (int target = 0; target < targets; target++) {
+      final Track track = this.find(tracker.getTracks(), target);
+      assertEquals(track.getHits(), FRAMES - misses[target]);
+      assertEquals(track.getMean(0), positions[2 * target], 0.2d);
+      assertEquals(track.getMean(1), positions[2 * target + 1], 0.2d);
+    }
+  }
+
+  /**
+   * @param tracks     The tracks.
+   * @param identifier The identifier of the track.
+   * @return The track with the supplied identifier.
+   */
+  private Track find(final List<Track> tracks, final long identifier) {
+    for (final Track track : tracks) {
+      if (track.getIdentifier() == identifier) {
+        return track;
+      }
+    }
+    fail("No track " + identifier);
+    return null;
+  }
+
+  /**
+   * @param maximumClusterSize The maximum amount of tracks in a cluster which is assigned
+   *                           optimally.
+   * @return A tracker of constant-velocity targets in the plane.
+   */
+  private MultiTargetTracker createTracker(final int maximumClusterSize) {
+    return new MultiTargetTracker(this.stateTransition, this.measurementTransition,
+        this.processCovariance, this.initialCovariance, 2d, 13.8d, MAXIMUM_MISSES,
+        maximumClusterSize);
+  }
+}